@@ -0,0 +1,50 @@
+package io.katharsis.dispatcher;
+
+import io.katharsis.errorhandling.ErrorData;
+import io.katharsis.errorhandling.ErrorResponse;
+import io.katharsis.request.dto.OperationsRequestBody;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps a failure of an operation of an atomic request, so errors mapped from it point to the operation.
+ */
+final class OperationFailedException extends RuntimeException {
+
+    private final int index;
+
+    OperationFailedException(int index, RuntimeException cause) {
+        super(cause);
+        this.index = index;
+    }
+
+    @Override
+    public synchronized RuntimeException getCause() {
+        return (RuntimeException) super.getCause();
+    }
+
+    /**
+     * Prefixes source pointers of errors with the pointer of the operation, e.g. <i>/data/attributes/name</i> becomes
+     * <i>/atomic:operations/1/data/attributes/name</i>. Errors without a pointer point to the operation itself.
+     *
+     * @param errorResponse response mapped from the cause
+     * @return response with errors pointing to the operation
+     */
+    ErrorResponse withSourcePointers(ErrorResponse errorResponse) {
+        String operationPointer = "/" + OperationsRequestBody.OPERATIONS + "/" + index;
+        List<ErrorData> errors = new ArrayList<>();
+        for (Object element : (Iterable<?>) errorResponse.getResponse().getEntity()) {
+            ErrorData error = (ErrorData) element;
+            String sourcePointer = error.getSourcePointer();
+            if (sourcePointer == null) {
+                sourcePointer = operationPointer;
+            } else if (!sourcePointer.startsWith("/" + OperationsRequestBody.OPERATIONS + "/")) {
+                sourcePointer = operationPointer + sourcePointer;
+            }
+            errors.add(new ErrorData(error.getId(), error.getAboutLink(), error.getStatus(), error.getCode(),
+                error.getTitle(), error.getDetail(), sourcePointer, error.getSourceParameter(), error.getMeta()));
+        }
+        return new ErrorResponse(errors, errorResponse.getHttpStatus());
+    }
+}
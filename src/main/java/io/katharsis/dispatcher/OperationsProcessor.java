@@ -0,0 +1,292 @@
+package io.katharsis.dispatcher;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.katharsis.metrics.MetricsListener;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.repository.RepositoryMethodParameterProvider;
+import io.katharsis.repository.TransactionalRepository;
+import io.katharsis.request.dto.Operation;
+import io.katharsis.request.dto.OperationRef;
+import io.katharsis.request.dto.RequestBody;
+import io.katharsis.request.path.JsonPath;
+import io.katharsis.request.path.PathBuilder;
+import io.katharsis.resource.exception.InvalidOperationException;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.responseRepository.ResourceIdentityMap;
+import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.JsonApiResponse;
+import io.katharsis.utils.PropertyUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes operations of an atomic request one by one using controllers of {@link RequestDispatcher}. Each operation
+ * is translated to the request it stands for, eg. <i>add</i> of a resource to <i>POST /type</i> and <i>remove</i> of
+ * a relationship to <i>DELETE /type/id/relationships/name</i>. Local identifiers (<i>lid</i>) of created resources are
+ * replaced by their ids in the following operations.
+ * <p>
+ * Repositories of the resources implementing {@link TransactionalRepository} take part in a transaction which is
+ * rolled back if any of the operations fails. Each operation has its own {@link ResourceIdentityMap}, so a result
+ * isn't changed by the following operations and an update reads the resource as stored by the previous ones.
+ */
+class OperationsProcessor {
+
+    private static final String ADD = "add";
+    private static final String UPDATE = "update";
+    private static final String REMOVE = "remove";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String LID = "lid";
+    private static final String RELATIONSHIPS = "relationships";
+    private static final String DATA = "data";
+
+    private final RequestDispatcher requestDispatcher;
+    private final ResourceRegistry resourceRegistry;
+    private final RepositoryMethodParameterProvider parameterProvider;
+    private final ObjectMapper objectMapper;
+    private final PathBuilder pathBuilder;
+
+    OperationsProcessor(RequestDispatcher requestDispatcher, ResourceRegistry resourceRegistry,
+                        RepositoryMethodParameterProvider parameterProvider, ObjectMapper objectMapper,
+                        MetricsListener metricsListener) {
+        this.requestDispatcher = requestDispatcher;
+        this.resourceRegistry = resourceRegistry;
+        this.parameterProvider = parameterProvider;
+        this.objectMapper = objectMapper;
+        this.pathBuilder = new PathBuilder(resourceRegistry, metricsListener);
+    }
+
+    /**
+     * @param operations operations of a request
+     * @return results of the operations
+     */
+    List<BaseResponseContext> process(List<Operation> operations) {
+        List<TransactionalRepository> transactions = beginTransactions(operations);
+        int committed = 0;
+        try {
+            Map<String, String> localIds = new HashMap<>();
+            List<BaseResponseContext> results = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                try {
+                    results.add(execute(i, operations.get(i), localIds));
+                } catch (RuntimeException e) {
+                    throw new OperationFailedException(i, e);
+                }
+            }
+            loadLazyInformation(results);
+            for (TransactionalRepository transaction : transactions) {
+                transaction.commit();
+                committed++;
+            }
+            return results;
+        } catch (RuntimeException | Error e) {
+            rollback(transactions, committed, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Rolls back transactions which haven't been committed, in the reverse order. A failed rollback doesn't stop the
+     * remaining ones and it's added to the original failure as a suppressed exception.
+     *
+     * @param transactions started transactions
+     * @param committed    number of transactions committed before the failure
+     * @param failure      failure of the request
+     */
+    private static void rollback(List<TransactionalRepository> transactions, int committed, Throwable failure) {
+        for (int i = transactions.size() - 1; i >= committed; i--) {
+            try {
+                transactions.get(i).rollback();
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Meta and links information is computed lazily when a response is written, which would be after transactions
+     * have been committed, so it's computed before.
+     */
+    private static void loadLazyInformation(List<BaseResponseContext> results) {
+        for (BaseResponseContext result : results) {
+            JsonApiResponse response = result == null ? null : result.getResponse();
+            if (response != null) {
+                response.getMetaInformation();
+                response.getLinksInformation();
+            }
+        }
+    }
+
+    /**
+     * Transactions are begun and committed in the order of the first operations of their repositories.
+     */
+    private List<TransactionalRepository> beginTransactions(List<Operation> operations) {
+        Map<TransactionalRepository, Boolean> transactions = new IdentityHashMap<>();
+        List<TransactionalRepository> ordered = new ArrayList<>();
+        for (Operation operation : operations) {
+            String type = operation.getRef() != null ? operation.getRef().getType()
+                : operation.getData() != null ? operation.getData().path(TYPE).asText(null) : null;
+            RegistryEntry registryEntry = type == null ? null : resourceRegistry.getEntry(type);
+            if (registryEntry != null) {
+                TransactionalRepository transaction =
+                    registryEntry.getResourceRepository(parameterProvider).getTransactionalRepository();
+                if (transaction != null && transactions.put(transaction, Boolean.TRUE) == null) {
+                    ordered.add(transaction);
+                }
+            }
+        }
+        List<TransactionalRepository> started = new ArrayList<>(ordered.size());
+        try {
+            for (TransactionalRepository transaction : ordered) {
+                transaction.begin();
+                started.add(transaction);
+            }
+        } catch (RuntimeException e) {
+            rollback(started, 0, e);
+            throw e;
+        }
+        return started;
+    }
+
+    private BaseResponseContext execute(int index, Operation operation, Map<String, String> localIds) {
+        OperationRef ref = operation.getRef();
+        String relationship = ref == null ? null : ref.getRelationship();
+        JsonNode data = operation.getData() == null || operation.getData().isNull()
+            ? null : operation.getData().deepCopy();
+
+        String createdLocalId = null;
+        if (ADD.equals(operation.getOp()) && relationship == null && data instanceof ObjectNode
+            && data.has(LID)) {
+            createdLocalId = ((ObjectNode) data).remove(LID).asText();
+        }
+        resolveData(index, data, relationship != null, localIds);
+
+        String type;
+        String id;
+        if (ref != null) {
+            type = ref.getType();
+            id = ref.getLid() != null ? resolveLocalId(index, ref.getLid(), localIds) : ref.getId();
+        } else if (data != null && data.isObject()) {
+            type = data.path(TYPE).asText(null);
+            id = data.path(ID).asText(null);
+        } else {
+            throw new InvalidOperationException(index, "Operation has neither ref nor data");
+        }
+        if (type == null) {
+            throw new InvalidOperationException(index, "Operation has no type");
+        }
+
+        String method = getMethod(index, operation.getOp(), id, relationship);
+        StringBuilder path = new StringBuilder("/").append(type);
+        if (id != null && !(ADD.equals(operation.getOp()) && relationship == null)) {
+            path.append('/').append(id);
+        }
+        if (relationship != null) {
+            path.append("/relationships/").append(relationship);
+        }
+        JsonPath jsonPath = pathBuilder.buildPath(path.toString());
+
+        BaseResponseContext result;
+        boolean identityMapOpened = ResourceIdentityMap.open(resourceRegistry);
+        try {
+            result = requestDispatcher.handleRequest(jsonPath, method, new QueryParams(), toRequestBody(index, data));
+        } finally {
+            if (identityMapOpened) {
+                ResourceIdentityMap.close();
+            }
+        }
+        if (createdLocalId != null) {
+            localIds.put(createdLocalId, getId(type, result));
+        }
+        return result;
+    }
+
+    private static String getMethod(int index, String op, String id, String relationship) {
+        if (ADD.equals(op)) {
+            return "POST";
+        } else if (UPDATE.equals(op) || REMOVE.equals(op)) {
+            if (id == null) {
+                throw new InvalidOperationException(index, "Operation " + op + " requires an identifier of "
+                    + (relationship == null ? "a resource" : "the source resource"));
+            }
+            return UPDATE.equals(op) ? "PATCH" : "DELETE";
+        }
+        throw new InvalidOperationException(index, "Unknown operation: " + op);
+    }
+
+    /**
+     * Replaces local identifiers of the primary data and of resource linkages in its relationships.
+     */
+    private static void resolveData(int index, JsonNode data, boolean linkage, Map<String, String> localIds) {
+        if (data == null) {
+            return;
+        }
+        if (data.isArray()) {
+            for (JsonNode element : data) {
+                resolveIdentifier(index, element, localIds);
+            }
+            return;
+        }
+        resolveIdentifier(index, data, localIds);
+        if (!linkage && data.has(RELATIONSHIPS)) {
+            Iterator<JsonNode> relationships = data.get(RELATIONSHIPS).elements();
+            while (relationships.hasNext()) {
+                JsonNode relationshipData = relationships.next().get(DATA);
+                if (relationshipData != null && relationshipData.isArray()) {
+                    for (JsonNode element : relationshipData) {
+                        resolveIdentifier(index, element, localIds);
+                    }
+                } else {
+                    resolveIdentifier(index, relationshipData, localIds);
+                }
+            }
+        }
+    }
+
+    private static void resolveIdentifier(int index, JsonNode identifier, Map<String, String> localIds) {
+        if (identifier instanceof ObjectNode && identifier.has(LID)) {
+            String localId = ((ObjectNode) identifier).remove(LID).asText();
+            ((ObjectNode) identifier).put(ID, resolveLocalId(index, localId, localIds));
+        }
+    }
+
+    private static String resolveLocalId(int index, String localId, Map<String, String> localIds) {
+        String id = localIds.get(localId);
+        if (id == null) {
+            throw new InvalidOperationException(index, "Unknown local identifier: " + localId);
+        }
+        return id;
+    }
+
+    private RequestBody toRequestBody(int index, JsonNode data) {
+        if (data == null) {
+            return null;
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set(DATA, data);
+        try {
+            return objectMapper.treeToValue(body, RequestBody.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidOperationException(index, "Invalid data: " + e.getOriginalMessage());
+        }
+    }
+
+    private String getId(String type, BaseResponseContext result) {
+        Object resource = result == null ? null : result.getResponse().getEntity();
+        if (resource == null) {
+            return null;
+        }
+        String idName = resourceRegistry.getEntry(type).getResourceInformation().getIdField().getUnderlyingName();
+        Object id = PropertyUtils.getProperty(resource, idName);
+        return id == null ? null : String.valueOf(id);
+    }
+}
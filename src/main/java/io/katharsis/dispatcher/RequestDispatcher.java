@@ -1,6 +1,7 @@
 package io.katharsis.dispatcher;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.katharsis.dispatcher.controller.BaseController;
 import io.katharsis.dispatcher.controller.collection.CollectionGet;
 import io.katharsis.dispatcher.controller.resource.FieldResourceGet;
 import io.katharsis.dispatcher.controller.resource.FieldResourcePost;
@@ -14,19 +15,36 @@ import io.katharsis.dispatcher.controller.resource.ResourcePatch;
 import io.katharsis.dispatcher.controller.resource.ResourcePost;
 import io.katharsis.errorhandling.mapper.ExceptionMapperRegistry;
 import io.katharsis.errorhandling.mapper.JsonApiExceptionMapper;
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.metrics.KatharsisMetrics;
+import io.katharsis.metrics.MetricsListener;
+import io.katharsis.metrics.MetricsStage;
+import io.katharsis.metrics.NoOpMetricsListener;
 import io.katharsis.queryParams.QueryParams;
 import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.queryParams.cost.QueryCostLimiter;
 import io.katharsis.repository.RepositoryMethodParameterProvider;
 import io.katharsis.request.Request;
+import io.katharsis.request.dto.Operation;
+import io.katharsis.request.dto.OperationsRequestBody;
 import io.katharsis.request.dto.RequestBody;
+import io.katharsis.request.path.FieldPath;
 import io.katharsis.request.path.JsonPath;
 import io.katharsis.request.path.PathBuilder;
+import io.katharsis.resource.exception.ResourceFieldNotFoundException;
 import io.katharsis.resource.include.IncludeLookupSetter;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.responseRepository.ResourceIdentityMap;
 import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.OperationsResponse;
 import io.katharsis.utils.java.Optional;
 import io.katharsis.utils.parser.TypeParser;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * A class that can be used to integrate Katharsis with external frameworks like Jersey, Spring etc. See katharsis-rs
  * and katharsis-servlet for usage.
@@ -35,6 +53,10 @@ public class RequestDispatcher {
 
     private final ExceptionMapperRegistry exceptionMapperRegistry;
     private final QueryParamsBuilder queryParamsBuilder;
+    private final QueryCostLimiter queryCostLimiter;
+    private final MetricsListener metricsListener;
+    private final ResourceRegistry resourceRegistry;
+    private final OperationsProcessor operationsProcessor;
 
     private CollectionGet collectionGet;
 
@@ -58,10 +80,49 @@ public class RequestDispatcher {
                              TypeParser typeParser,
                              ObjectMapper mapper,
                              QueryParamsBuilder queryParamsBuilder) {
+        this(exceptionMapperRegistry, parameterProvider, resourceRegistry, typeParser, mapper, queryParamsBuilder,
+            null);
+    }
+
+    /**
+     * @param queryCostLimiter admission control of GET and atomic requests or <i>null</i> if costs of requests are not
+     *                         limited
+     */
+    public RequestDispatcher(ExceptionMapperRegistry exceptionMapperRegistry,
+                             RepositoryMethodParameterProvider parameterProvider,
+                             ResourceRegistry resourceRegistry,
+                             TypeParser typeParser,
+                             ObjectMapper mapper,
+                             QueryParamsBuilder queryParamsBuilder,
+                             QueryCostLimiter queryCostLimiter) {
+        this(exceptionMapperRegistry, parameterProvider, resourceRegistry, typeParser, mapper, queryParamsBuilder,
+            queryCostLimiter, null);
+    }
+
+    /**
+     * @param queryCostLimiter admission control of GET and atomic requests or <i>null</i> if costs of requests are not
+     *                         limited
+     * @param metricsListener  listener of measurements of dispatched requests or <i>null</i> if requests are not
+     *                         measured
+     */
+    public RequestDispatcher(ExceptionMapperRegistry exceptionMapperRegistry,
+                             RepositoryMethodParameterProvider parameterProvider,
+                             ResourceRegistry resourceRegistry,
+                             TypeParser typeParser,
+                             ObjectMapper mapper,
+                             QueryParamsBuilder queryParamsBuilder,
+                             QueryCostLimiter queryCostLimiter,
+                             MetricsListener metricsListener) {
         this.exceptionMapperRegistry = exceptionMapperRegistry;
         this.queryParamsBuilder = queryParamsBuilder;
+        this.queryCostLimiter = queryCostLimiter;
+        this.metricsListener = metricsListener == null ? NoOpMetricsListener.INSTANCE : metricsListener;
+        this.resourceRegistry = resourceRegistry;
+        this.operationsProcessor = new OperationsProcessor(this, resourceRegistry, parameterProvider, mapper,
+            this.metricsListener);
 
-        IncludeLookupSetter includeLookupSetter = new IncludeLookupSetter(resourceRegistry);
+        IncludeLookupSetter includeLookupSetter = new IncludeLookupSetter(resourceRegistry,
+            queryCostLimiter == null ? QueryCostLimiter.UNLIMITED : queryCostLimiter.getMaxIncludedResources());
 
         this.collectionGet = new CollectionGet(resourceRegistry, parameterProvider, typeParser,
                 includeLookupSetter, queryParamsBuilder);
@@ -103,7 +164,96 @@ public class RequestDispatcher {
                                                String requestType,
                                                QueryParams queryParams,
                                                @SuppressWarnings("SameParameterValue") RequestBody requestBody) {
+        boolean metricsOpened = KatharsisMetrics.open(metricsListener);
+        MetricsListener currentListener = KatharsisMetrics.getListener();
+        String resourceType = jsonPath.getResourceName();
+        currentListener.onRequestStarted(resourceType, requestType);
+        boolean successful = false;
+        boolean identityMapOpened = ResourceIdentityMap.open(resourceRegistry);
+        try {
+            BaseResponseContext response = dispatchAndMapExceptions(jsonPath, requestType, queryParams, requestBody);
+            successful = true;
+            return response;
+        } finally {
+            if (identityMapOpened) {
+                ResourceIdentityMap.close();
+            }
+            try {
+                currentListener.onRequestCompleted(resourceType, requestType, successful);
+            } finally {
+                if (metricsOpened) {
+                    KatharsisMetrics.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatch an atomic request. Operations are executed in order by the same controllers as separate requests,
+     * so an operation sees the changes made by the previous ones. Execution stops at the first failed operation and
+     * transactions of {@link io.katharsis.repository.TransactionalRepository} repositories are rolled back. Errors
+     * of the failed operation point to it, e.g. <i>/atomic:operations/2</i>.
+     * <p>
+     * The request is only as atomic as the repositories it touches, see
+     * {@link io.katharsis.repository.TransactionalRepository}: relationship repositories and repositories without
+     * transactions are not rolled back and a failed commit doesn't undo transactions committed before it, so an error
+     * can be returned while changes of earlier operations stay applied.
+     * <p>
+     * The request is admitted by {@link QueryCostLimiter#admitOperations(int)} as a whole, operations are not
+     * admitted one by one. Each operation reads resources using its own {@link ResourceIdentityMap}.
+     *
+     * @param requestBody deserialized body with the operations
+     * @return results of all of the operations or an error of the failed one
+     */
+    public BaseResponseContext dispatchOperations(OperationsRequestBody requestBody) {
+        boolean metricsOpened = KatharsisMetrics.open(metricsListener);
+        MetricsListener currentListener = KatharsisMetrics.getListener();
+        currentListener.onRequestStarted(null, "POST");
+        boolean successful = false;
+        try {
+            List<Operation> operations = requestBody == null || requestBody.getOperations() == null
+                ? Collections.<Operation>emptyList() : requestBody.getOperations();
+            if (queryCostLimiter != null) {
+                queryCostLimiter.admitOperations(operations.size());
+            }
+            BaseResponseContext response = new OperationsResponse(operationsProcessor.process(operations));
+            currentListener.onRequestHandled(null, "POST");
+            successful = true;
+            return response;
+        } catch (OperationFailedException e) {
+            Optional<JsonApiExceptionMapper> exceptionMapper =
+                exceptionMapperRegistry.findMapperFor(e.getCause().getClass());
+            if (exceptionMapper.isPresent()) {
+                //noinspection unchecked
+                return e.withSourcePointers(exceptionMapper.get()
+                        .toErrorResponse(e.getCause()));
+            } else {
+                throw e.getCause();
+            }
+        } catch (Exception e) {
+            Optional<JsonApiExceptionMapper> exceptionMapper = exceptionMapperRegistry.findMapperFor(e.getClass());
+            if (exceptionMapper.isPresent()) {
+                //noinspection unchecked
+                return exceptionMapper.get()
+                        .toErrorResponse(e);
+            } else {
+                throw e;
+            }
+        } finally {
+            try {
+                currentListener.onRequestCompleted(null, "POST", successful);
+            } finally {
+                if (metricsOpened) {
+                    KatharsisMetrics.close();
+                }
+            }
+        }
+    }
 
+    private BaseResponseContext dispatchAndMapExceptions(JsonPath jsonPath,
+                                                         String requestType,
+                                                         QueryParams queryParams,
+                                                         RequestBody requestBody) {
         try {
 
             /**
@@ -120,7 +270,10 @@ public class RequestDispatcher {
              * No extra processing needs to be done - body parsing, etc.
              */
 
-            return handleRequest(jsonPath, requestType, queryParams, requestBody);
+            admit(jsonPath, requestType, queryParams);
+            BaseResponseContext response = handleRequest(jsonPath, requestType, queryParams, requestBody);
+            KatharsisMetrics.getListener().onRequestHandled(jsonPath.getResourceName(), requestType);
+            return response;
 
         } catch (Exception e) {
             Optional<JsonApiExceptionMapper> exceptionMapper = exceptionMapperRegistry.findMapperFor(e.getClass());
@@ -134,8 +287,68 @@ public class RequestDispatcher {
         }
     }
 
+    /**
+     * Validates inclusions of a request and applies admission control to GET requests before they're handled.
+     */
+    private void admit(JsonPath jsonPath, String requestType, QueryParams queryParams) {
+        if (queryParams != null) {
+            compileIncludePlans(jsonPath, queryParams);
+        }
+        if (queryCostLimiter != null && "get".equalsIgnoreCase(requestType)) {
+            queryCostLimiter.admit(jsonPath, queryParams);
+        }
+    }
+
+    /**
+     * Compiles include plans used by a request before it's handled, so an unknown relationship is reported as an
+     * invalid parameter instead of failing the serialization of a response.
+     */
+    private void compileIncludePlans(JsonPath jsonPath, QueryParams queryParams) {
+        try {
+            queryParams.compileIncludePlans(resourceRegistry);
+            if (!(jsonPath instanceof FieldPath)) {
+                return;
+            }
+            RegistryEntry<?> registryEntry = resourceRegistry.getEntry(jsonPath.getResourceName());
+            RelationshipDescriptor descriptor = registryEntry == null ? null : resourceRegistry
+                .findRelationshipDescriptorByName(registryEntry.getResourceInformation(), jsonPath.getElementName());
+            if (descriptor != null && descriptor.hasTargetEntry()) {
+                // the first segment of an inclusion path is the requested field
+                queryParams.getIncludePlan(resourceRegistry, jsonPath.getElementName(),
+                    descriptor.getTargetEntry().getResourceInformation(), 1);
+            }
+        } catch (ResourceFieldNotFoundException e) {
+            throw new ParametersDeserializationException(e.getMessage());
+        }
+    }
+
     public BaseResponseContext dispatchRequest(Request request) {
+        boolean metricsOpened = KatharsisMetrics.open(metricsListener);
+        MetricsListener currentListener = KatharsisMetrics.getListener();
+        String resourceType = request.getPath().getResource();
+        String httpMethod = request.getMethod().name();
+        currentListener.onRequestStarted(resourceType, httpMethod);
+        boolean successful = false;
+        boolean identityMapOpened = ResourceIdentityMap.open(resourceRegistry);
+        try {
+            BaseResponseContext response = dispatchAndMapExceptions(request);
+            successful = true;
+            return response;
+        } finally {
+            if (identityMapOpened) {
+                ResourceIdentityMap.close();
+            }
+            try {
+                currentListener.onRequestCompleted(resourceType, httpMethod, successful);
+            } finally {
+                if (metricsOpened) {
+                    KatharsisMetrics.close();
+                }
+            }
+        }
+    }
 
+    private BaseResponseContext dispatchAndMapExceptions(Request request) {
         try {
             /**
              * Extract informations from the request. Based on those we can route the request.
@@ -151,20 +364,33 @@ public class RequestDispatcher {
              * No extra processing needs to be done - body parsing, etc.
              */
 
+            // controllers parse the path and the query of the request on their own
+            admit(new PathBuilder(resourceRegistry, metricsListener).buildPath(request.getUrl().getPath()),
+                request.getMethod().name(), queryParamsBuilder.parseQuery(request.getUrl()));
+
+            BaseResponseContext response;
             switch (request.getMethod()) {
                 case GET:
-                    return handleGet(request);
+                    response = handleGet(request);
+                    break;
                 case POST:
-                    return handlePost(request);
+                    response = handlePost(request);
+                    break;
                 case PUT:
-                    return handlePut(request);
+                    response = handlePut(request);
+                    break;
                 case PATCH:
-                    return handlePatch(request);
+                    response = handlePatch(request);
+                    break;
                 case DELETE:
-                    return handleDelete(request);
+                    response = handleDelete(request);
+                    break;
                 default:
                     throw new IllegalStateException("Unsupported method " + request);
             }
+            KatharsisMetrics.getListener()
+                .onRequestHandled(request.getPath().getResource(), request.getMethod().name());
+            return response;
 
         } catch (Exception e) {
             Optional<JsonApiExceptionMapper> exceptionMapper = exceptionMapperRegistry.findMapperFor(e.getClass());
@@ -180,19 +406,19 @@ public class RequestDispatcher {
 
     private BaseResponseContext handleGet(Request request) {
         if (collectionGet.isAcceptable(request)) {
-            return collectionGet.handle(request);
+            return dispatch(collectionGet, request);
         }
 
         if (resourceGet.isAcceptable(request)) {
-            return resourceGet.handle(request);
+            return dispatch(resourceGet, request);
         }
 
         if (fieldResourceGet.isAcceptable(request)) {
-            return fieldResourceGet.handle(request);
+            return dispatch(fieldResourceGet, request);
         }
 
         if (relationshipsResourceGet.isAcceptable(request)) {
-            return relationshipsResourceGet.handle(request);
+            return dispatch(relationshipsResourceGet, request);
         }
 
         throw new IllegalStateException("Invalid state handling request " + request);
@@ -204,41 +430,66 @@ public class RequestDispatcher {
 
     private BaseResponseContext handlePost(Request request) {
         if (resourcePost.isAcceptable(request)) {
-            return resourcePost.handle(request);
+            return dispatch(resourcePost, request);
         }
 
         if (fieldResourcePost.isAcceptable(request)) {
-            return fieldResourcePost.handle(request);
+            return dispatch(fieldResourcePost, request);
         }
 
         if (relationshipsResourcePost.isAcceptable(request)) {
-            return relationshipsResourcePost.handle(request);
+            return dispatch(relationshipsResourcePost, request);
         }
         throw new IllegalStateException("Illegal state while processing " + request);
     }
 
     private BaseResponseContext handlePatch(Request request) {
         if (resourcePatch.isAcceptable(request)) {
-            return resourcePatch.handle(request);
+            return dispatch(resourcePatch, request);
         }
 
         if (relationshipsResourcePatch.isAcceptable(request)) {
-            return relationshipsResourcePatch.handle(request);
+            return dispatch(relationshipsResourcePatch, request);
         }
         throw new IllegalStateException("Illegal state while processing " + request);
     }
 
     private BaseResponseContext handleDelete(Request request) {
         if (resourceDelete.isAcceptable(request)) {
-            return resourceDelete.handle(request);
+            return dispatch(resourceDelete, request);
         }
 
         if (relationshipsResourceDelete.isAcceptable(request)) {
-            return relationshipsResourceDelete.handle(request);
+            return dispatch(relationshipsResourceDelete, request);
         }
         throw new IllegalStateException("Illegal state while processing" + request);
     }
 
+    private static BaseResponseContext dispatch(BaseController controller, Request request) {
+        long start = KatharsisMetrics.start();
+        try {
+            return controller.handle(request);
+        } finally {
+            if (KatharsisMetrics.isStarted(start)) {
+                KatharsisMetrics.stop(start, MetricsStage.DISPATCH, request.getPath().getResource(),
+                    controller.getClass().getSimpleName(), request.getMethod().name());
+            }
+        }
+    }
+
+    private static BaseResponseContext dispatch(BaseController controller, JsonPath jsonPath, String requestType,
+                                                QueryParams queryParams, RequestBody requestBody) {
+        long start = KatharsisMetrics.start();
+        try {
+            return controller.handle(jsonPath, queryParams, requestBody);
+        } finally {
+            if (KatharsisMetrics.isStarted(start)) {
+                KatharsisMetrics.stop(start, MetricsStage.DISPATCH, jsonPath.getResourceName(),
+                    controller.getClass().getSimpleName(), requestType.toUpperCase());
+            }
+        }
+    }
+
     protected BaseResponseContext handleRequest(JsonPath jsonPath,
                                                 String requestType,
                                                 QueryParams queryParams,
@@ -262,19 +513,19 @@ public class RequestDispatcher {
                                             QueryParams queryParams,
                                             RequestBody requestBody) {
         if (collectionGet.isAcceptable(jsonPath, requestType)) {
-            return collectionGet.handle(jsonPath, queryParams, requestBody);
+            return dispatch(collectionGet, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (resourceGet.isAcceptable(jsonPath, requestType)) {
-            return resourceGet.handle(jsonPath, queryParams, requestBody);
+            return dispatch(resourceGet, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (fieldResourceGet.isAcceptable(jsonPath, requestType)) {
-            return fieldResourceGet.handle(jsonPath, queryParams, requestBody);
+            return dispatch(fieldResourceGet, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (relationshipsResourceGet.isAcceptable(jsonPath, requestType)) {
-            return relationshipsResourceGet.handle(jsonPath, queryParams, requestBody);
+            return dispatch(relationshipsResourceGet, jsonPath, requestType, queryParams, requestBody);
         }
 
         throw new IllegalStateException("Invalid state handling GET" + PathBuilder.buildPath(jsonPath));
@@ -286,15 +537,15 @@ public class RequestDispatcher {
                                              QueryParams queryParams,
                                              RequestBody requestBody) {
         if (resourcePost.isAcceptable(jsonPath, requestType)) {
-            return resourcePost.handle(jsonPath, queryParams, requestBody);
+            return dispatch(resourcePost, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (fieldResourcePost.isAcceptable(jsonPath, requestType)) {
-            return fieldResourcePost.handle(jsonPath, queryParams, requestBody);
+            return dispatch(fieldResourcePost, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (relationshipsResourcePost.isAcceptable(jsonPath, requestType)) {
-            return relationshipsResourcePost.handle(jsonPath, queryParams, requestBody);
+            return dispatch(relationshipsResourcePost, jsonPath, requestType, queryParams, requestBody);
         }
         throw new IllegalStateException("Illegal state while processing POST" + PathBuilder.buildPath(jsonPath));
     }
@@ -304,11 +555,11 @@ public class RequestDispatcher {
                                               QueryParams queryParams,
                                               RequestBody requestBody) {
         if (resourcePatch.isAcceptable(jsonPath, requestType)) {
-            return resourcePatch.handle(jsonPath, queryParams, requestBody);
+            return dispatch(resourcePatch, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (relationshipsResourcePatch.isAcceptable(jsonPath, requestType)) {
-            return relationshipsResourcePatch.handle(jsonPath, queryParams, requestBody);
+            return dispatch(relationshipsResourcePatch, jsonPath, requestType, queryParams, requestBody);
         }
         throw new IllegalStateException("Illegal state while processing PATCH" + PathBuilder.buildPath(jsonPath));
     }
@@ -319,11 +570,11 @@ public class RequestDispatcher {
                                                RequestBody requestBody) {
 
         if (resourceDelete.isAcceptable(jsonPath, requestType)) {
-            return resourceDelete.handle(jsonPath, queryParams, requestBody);
+            return dispatch(resourceDelete, jsonPath, requestType, queryParams, requestBody);
         }
 
         if (relationshipsResourceDelete.isAcceptable(jsonPath, requestType)) {
-            return relationshipsResourceDelete.handle(jsonPath, queryParams, requestBody);
+            return dispatch(relationshipsResourceDelete, jsonPath, requestType, queryParams, requestBody);
         }
         throw new IllegalStateException("Illegal state while processing DELETE" + PathBuilder.buildPath(jsonPath));
     }
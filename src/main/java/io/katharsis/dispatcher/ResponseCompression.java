@@ -0,0 +1,65 @@
+package io.katharsis.dispatcher;
+
+/**
+ * Content encodings which can be applied by {@link ResponseWriter}.
+ */
+public enum ResponseCompression {
+
+    NONE(null),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String contentEncoding;
+
+    ResponseCompression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * @return value of <i>Content-Encoding</i> header or <i>null</i> if the response is not compressed
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Chooses a compression using the value of <i>Accept-Encoding</i> header. Gzip is preferred over deflate,
+     * encodings with zero quality are not used.
+     *
+     * @param acceptEncoding value of <i>Accept-Encoding</i> header, can be <i>null</i>
+     * @return negotiated compression
+     */
+    public static ResponseCompression negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return NONE;
+        }
+        boolean deflateAccepted = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (!isAccepted(parameters)) {
+                continue;
+            }
+            if (GZIP.contentEncoding.equalsIgnoreCase(name)) {
+                return GZIP;
+            } else if (DEFLATE.contentEncoding.equalsIgnoreCase(name)) {
+                deflateAccepted = true;
+            }
+        }
+        return deflateAccepted ? DEFLATE : NONE;
+    }
+
+    private static boolean isAccepted(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,188 @@
+package io.katharsis.dispatcher;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.katharsis.response.BaseResponseContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes responses returned by {@link RequestDispatcher} directly to an output stream or a channel, without building
+ * a document as a {@link String} first. Jackson encodes documents using its own recycled buffers, compression uses
+ * deflaters and buffers reused by a thread.
+ * <p>
+ * The length of a document is not known until it's written, so an integration should not set
+ * <i>Content-Length</i> header and let its container use chunked transfer encoding instead.
+ */
+public class ResponseWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final ThreadLocal<CompressionResources> COMPRESSION_RESOURCES =
+        new ThreadLocal<CompressionResources>() {
+            @Override
+            protected CompressionResources initialValue() {
+                return new CompressionResources();
+            }
+        };
+
+    private final ObjectWriter objectWriter;
+    private final int compressionLevel;
+
+    public ResponseWriter(ObjectMapper objectMapper) {
+        this(objectMapper, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param objectMapper     mapper with registered Katharsis module
+     * @param compressionLevel level used by {@link Deflater}
+     */
+    public ResponseWriter(ObjectMapper objectMapper, int compressionLevel) {
+        this.objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Writes a response to a stream. The stream is flushed, but not closed.
+     *
+     * @param response    response returned by {@link RequestDispatcher}
+     * @param outputStream target stream
+     * @param compression content encoding of the written document
+     * @throws IOException if the document couldn't be written
+     */
+    public void write(BaseResponseContext response, OutputStream outputStream, ResponseCompression compression)
+        throws IOException {
+        if (compression == ResponseCompression.NONE) {
+            objectWriter.writeValue(outputStream, response);
+            outputStream.flush();
+            return;
+        }
+
+        CompressionResources resources = COMPRESSION_RESOURCES.get();
+        boolean pooled = !resources.inUse;
+        if (!pooled) {
+            resources = new CompressionResources();
+        }
+        resources.inUse = true;
+        boolean gzip = compression == ResponseCompression.GZIP;
+        Deflater deflater = resources.getDeflater(gzip, compressionLevel);
+        try {
+            CompressingOutputStream compressingStream =
+                new CompressingOutputStream(outputStream, deflater, resources.buffer, gzip);
+            objectWriter.writeValue(compressingStream, response);
+            compressingStream.finish();
+            outputStream.flush();
+        } finally {
+            resources.inUse = false;
+            if (pooled) {
+                deflater.reset();
+            } else {
+                resources.end();
+            }
+        }
+    }
+
+    /**
+     * Writes a response to a channel. The channel is not closed.
+     *
+     * @param response    response returned by {@link RequestDispatcher}
+     * @param channel     target channel
+     * @param compression content encoding of the written document
+     * @throws IOException if the document couldn't be written
+     */
+    public void write(BaseResponseContext response, WritableByteChannel channel, ResponseCompression compression)
+        throws IOException {
+        write(response, Channels.newOutputStream(channel), compression);
+    }
+
+    /**
+     * Deflaters and a buffer reused by requests handled by a thread. Deflaters hold native memory, so creating them
+     * for each response is expensive.
+     */
+    private static final class CompressionResources {
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private Deflater gzipDeflater;
+        private Deflater zlibDeflater;
+        private boolean inUse;
+
+        private Deflater getDeflater(boolean gzip, int level) {
+            if (gzip) {
+                if (gzipDeflater == null) {
+                    gzipDeflater = new Deflater(level, true);
+                }
+                gzipDeflater.setLevel(level);
+                return gzipDeflater;
+            }
+            if (zlibDeflater == null) {
+                zlibDeflater = new Deflater(level, false);
+            }
+            zlibDeflater.setLevel(level);
+            return zlibDeflater;
+        }
+
+        private void end() {
+            if (gzipDeflater != null) {
+                gzipDeflater.end();
+            }
+            if (zlibDeflater != null) {
+                zlibDeflater.end();
+            }
+        }
+    }
+
+    /**
+     * Compresses using a provided deflater and buffer. In gzip mode the raw deflate stream is wrapped with gzip
+     * header and trailer, the same way {@link java.util.zip.GZIPOutputStream} does.
+     */
+    private static final class CompressingOutputStream extends DeflaterOutputStream {
+
+        private final CRC32 crc;
+        private int size;
+
+        private CompressingOutputStream(OutputStream out, Deflater deflater, byte[] buffer, boolean gzip)
+            throws IOException {
+            super(out, deflater, 1);
+            this.buf = buffer;
+            if (gzip) {
+                crc = new CRC32();
+                out.write(GZIP_HEADER);
+            } else {
+                crc = null;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            if (crc != null) {
+                crc.update(b, off, len);
+                size += len;
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            super.finish();
+            if (crc != null) {
+                writeInt((int) crc.getValue());
+                writeInt(size);
+            }
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >> 8) & 0xff);
+            out.write((value >> 16) & 0xff);
+            out.write((value >> 24) & 0xff);
+        }
+    }
+}
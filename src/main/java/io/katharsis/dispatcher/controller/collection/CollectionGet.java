@@ -2,8 +2,10 @@ package io.katharsis.dispatcher.controller.collection;
 
 import io.katharsis.dispatcher.controller.HttpMethod;
 import io.katharsis.dispatcher.controller.resource.ResourceIncludeField;
+import io.katharsis.jackson.exception.ParametersDeserializationException;
 import io.katharsis.queryParams.QueryParams;
 import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.queryParams.group.GroupingSpec;
 import io.katharsis.repository.RepositoryMethodParameterProvider;
 import io.katharsis.request.Request;
 import io.katharsis.request.dto.RequestBody;
@@ -57,9 +59,26 @@ public class CollectionGet extends ResourceIncludeField {
 
         ResourceRepositoryAdapter resourceRepository = registryEntry.getResourceRepository(getParameterProvider());
         Iterable<? extends Serializable> parsedIds = parseResourceIds(registryEntry, jsonPath);
+        if (parsedIds != null && queryParams.getSyncToken() != null) {
+            throw new ParametersDeserializationException("Synchronization is not supported for resources requested "
+                + "by identifiers: " + resourceName);
+        }
+        if (queryParams.getSyncToken() != null) {
+            JsonApiResponse changes = resourceRepository.findChanges(queryParams);
+            includeFieldSetter.setIncludedElements(registryEntry, resourceName, changes, queryParams,
+                getParameterProvider());
+            return new CollectionResponseContext(changes, jsonPath, queryParams);
+        }
+        GroupingSpec groupingSpec = parsedIds == null && (resourceRepository.isGroupingRepository()
+            || GroupingSpec.hasAggregates(resourceName, queryParams))
+            ? GroupingSpec.build(registryEntry.getResourceInformation(), resourceName, queryParams) : null;
+        if (groupingSpec != null) {
+            return new CollectionResponseContext(resourceRepository.findGroups(groupingSpec, queryParams), jsonPath,
+                queryParams);
+        }
         JsonApiResponse response = collectionResponse(resourceRepository, queryParams, parsedIds);
 
-        includeFieldSetter.setIncludedElements(registryEntry, resourceName, response, queryParams, getParameterProvider());
+        setIncludedElements(registryEntry, resourceName, response, queryParams);
 
         return new CollectionResponseContext(response, jsonPath, queryParams);
     }
@@ -83,11 +102,28 @@ public class CollectionGet extends ResourceIncludeField {
             response = resourceRepository.findAll(parsedIds, queryParams);
         }
 
-        includeFieldSetter.setIncludedElements(registryEntry, path.getResource(), response, queryParams, getParameterProvider());
+        setIncludedElements(registryEntry, path.getResource(), response, queryParams);
 
         return new CollectionResponseContext(response, path, queryParams);
     }
 
+    /**
+     * The response is discarded if inclusions can't be resolved, so its lazily computed information is released.
+     */
+    private void setIncludedElements(RegistryEntry registryEntry, String resourceName, JsonApiResponse response,
+                                     QueryParams queryParams) {
+        boolean included = false;
+        try {
+            includeFieldSetter.setIncludedElements(registryEntry, resourceName, response, queryParams,
+                getParameterProvider());
+            included = true;
+        } finally {
+            if (!included) {
+                response.release();
+            }
+        }
+    }
+
     private JsonApiResponse collectionResponse(ResourceRepositoryAdapter resourceRepository, QueryParams queryParams, Iterable<? extends Serializable> parsedIds) {
         JsonApiResponse response;
         if (parsedIds == null) {
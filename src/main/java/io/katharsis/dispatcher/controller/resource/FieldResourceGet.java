@@ -13,13 +13,13 @@ import io.katharsis.request.path.PathIds;
 import io.katharsis.resource.field.ResourceField;
 import io.katharsis.resource.include.IncludeLookupSetter;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
 import io.katharsis.response.BaseResponseContext;
 import io.katharsis.response.CollectionResponseContext;
 import io.katharsis.response.JsonApiResponse;
 import io.katharsis.response.ResourceResponseContext;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.parser.TypeParser;
 
 import java.io.Serializable;
@@ -58,15 +58,14 @@ public class FieldResourceGet extends ResourceIncludeField {
 
         Utils.checkResourceFieldExists(relationshipField, elementName);
 
-        Class<?> baseRelationshipFieldClass = relationshipField.getType();
-        Class<?> relationshipFieldClass = Generics.getResourceClass(relationshipField.getGenericType(), baseRelationshipFieldClass);
-
-        RelationshipRepositoryAdapter relationshipRepositoryForClass = registryEntry
-                .getRelationshipRepositoryForClass(relationshipFieldClass, getParameterProvider());
+        RelationshipDescriptor relationshipDescriptor =
+            resourceRegistry.getRelationshipDescriptor(registryEntry.getResourceInformation(), relationshipField);
+        RelationshipRepositoryAdapter relationshipRepositoryForClass = relationshipDescriptor
+                .getRelationshipRepository(getParameterProvider());
 
         BaseResponseContext target;
 
-        if (Iterable.class.isAssignableFrom(baseRelationshipFieldClass)) {
+        if (relationshipDescriptor.isCollection()) {
             @SuppressWarnings("unchecked")
             JsonApiResponse response = relationshipRepositoryForClass
                     .findManyTargets(castedResourceId, elementName, queryParams);
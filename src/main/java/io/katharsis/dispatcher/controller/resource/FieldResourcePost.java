@@ -16,6 +16,7 @@ import io.katharsis.resource.exception.RequestBodyException;
 import io.katharsis.resource.exception.RequestBodyNotFoundException;
 import io.katharsis.resource.field.ResourceField;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
 import io.katharsis.resource.registry.responseRepository.ResourceRepositoryAdapter;
@@ -23,7 +24,6 @@ import io.katharsis.response.BaseResponseContext;
 import io.katharsis.response.HttpStatus;
 import io.katharsis.response.JsonApiResponse;
 import io.katharsis.response.ResourceResponseContext;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.PropertyUtils;
 import io.katharsis.utils.parser.TypeParser;
 
@@ -77,12 +77,12 @@ public class FieldResourcePost extends ResourceUpsert {
 
         Utils.checkResourceFieldExists(relationshipField, jsonPath.getElementName());
 
-        Class<?> baseRelationshipFieldClass = relationshipField.getType();
-        Class<?> relationshipFieldClass = Generics
-                .getResourceClass(relationshipField.getGenericType(), baseRelationshipFieldClass);
+        RelationshipDescriptor relationshipDescriptor =
+            resourceRegistry.getRelationshipDescriptor(endpointRegistryEntry.getResourceInformation(),
+                relationshipField);
 
-        RegistryEntry relationshipRegistryEntry = resourceRegistry.getEntry(relationshipFieldClass);
-        String relationshipResourceType = resourceRegistry.getResourceType(relationshipFieldClass);
+        RegistryEntry relationshipRegistryEntry = relationshipDescriptor.getTargetEntry();
+        String relationshipResourceType = resourceRegistry.getResourceType(relationshipDescriptor.getTargetClass());
 
         DataBody dataBody = requestBody.getSingleData();
         Object resource = buildNewResource(relationshipRegistryEntry, dataBody, relationshipResourceType);
@@ -96,13 +96,13 @@ public class FieldResourcePost extends ResourceUpsert {
                         .getIdField()
                         .getUnderlyingName());
 
-        RelationshipRepositoryAdapter relationshipRepositoryForClass = endpointRegistryEntry
-                .getRelationshipRepositoryForClass(relationshipFieldClass, getParameterProvider());
+        RelationshipRepositoryAdapter relationshipRepositoryForClass = relationshipDescriptor
+                .getRelationshipRepository(getParameterProvider());
 
         @SuppressWarnings("unchecked")
         JsonApiResponse parent = endpointRegistryEntry.getResourceRepository(getParameterProvider())
-                .findOne(castedResourceId, queryParams);
-        if (Iterable.class.isAssignableFrom(baseRelationshipFieldClass)) {
+                .findOneForUpdate(castedResourceId, queryParams);
+        if (relationshipDescriptor.isCollection()) {
             //noinspection unchecked
             relationshipRepositoryForClass.addRelations(parent.getEntity(), Collections.singletonList(resourceId), jsonPath
                     .getElementName(), queryParams);
@@ -110,6 +110,7 @@ public class FieldResourcePost extends ResourceUpsert {
             //noinspection unchecked
             relationshipRepositoryForClass.setRelation(parent.getEntity(), resourceId, jsonPath.getElementName(), queryParams);
         }
+        resourceRegistry.notifyResourceChanged(resourceEndpointName, castedResourceId);
         return new ResourceResponseContext(savedResourceResponse, jsonPath, queryParams, HttpStatus.CREATED_201);
     }
 
@@ -13,6 +13,7 @@ import io.katharsis.request.path.RelationshipsPath;
 import io.katharsis.resource.field.ResourceField;
 import io.katharsis.resource.include.IncludeLookupSetter;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
 import io.katharsis.response.BaseResponseContext;
@@ -20,7 +21,6 @@ import io.katharsis.response.CollectionResponseContext;
 import io.katharsis.response.JsonApiResponse;
 import io.katharsis.response.LinkageContainer;
 import io.katharsis.response.ResourceResponseContext;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.parser.TypeParser;
 
 import java.io.Serializable;
@@ -62,18 +62,18 @@ public class RelationshipsResourceGet extends ResourceIncludeField {
 
         Utils.checkResourceFieldExists(relationshipField, resourceName);
 
-        Class<?> baseRelationshipFieldClass = relationshipField.getType();
-        Class<?> relationshipFieldClass = Generics
-                .getResourceClass(relationshipField.getGenericType(), baseRelationshipFieldClass);
+        RelationshipDescriptor relationshipDescriptor =
+            resourceRegistry.getRelationshipDescriptor(registryEntry.getResourceInformation(), relationshipField);
+        Class<?> relationshipFieldClass = relationshipDescriptor.getTargetClass();
 
-        RelationshipRepositoryAdapter relationshipRepositoryForClass = registryEntry
-                .getRelationshipRepositoryForClass(relationshipFieldClass, getParameterProvider());
+        RelationshipRepositoryAdapter relationshipRepositoryForClass = relationshipDescriptor
+                .getRelationshipRepository(getParameterProvider());
 
-        RegistryEntry relationshipFieldEntry = resourceRegistry.getEntry(relationshipFieldClass);
+        RegistryEntry relationshipFieldEntry = relationshipDescriptor.getTargetEntry();
 
         Serializable castedResourceId = parseResourceId(registryEntry, resourceIds);
         BaseResponseContext target;
-        if (Iterable.class.isAssignableFrom(baseRelationshipFieldClass)) {
+        if (relationshipDescriptor.isCollection()) {
             @SuppressWarnings("unchecked")
             JsonApiResponse response = relationshipRepositoryForClass
                     .findManyTargets(castedResourceId, elementName, queryParams);
@@ -16,6 +16,7 @@ import io.katharsis.resource.exception.RequestBodyNotFoundException;
 import io.katharsis.resource.exception.ResourceFieldNotFoundException;
 import io.katharsis.resource.field.ResourceField;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
 import io.katharsis.resource.registry.responseRepository.ResourceRepositoryAdapter;
@@ -23,7 +24,6 @@ import io.katharsis.response.BaseResponseContext;
 import io.katharsis.response.HttpStatus;
 import io.katharsis.response.JsonApiResponse;
 import io.katharsis.response.ResourceResponseContext;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.parser.TypeParser;
 
 import java.io.Serializable;
@@ -104,20 +104,18 @@ public abstract class RelationshipsResourceUpsert extends BaseController {
         }
         ResourceRepositoryAdapter resourceRepository = registryEntry.getResourceRepository(getParameterProvider());
         @SuppressWarnings("unchecked")
-        JsonApiResponse response = resourceRepository.findOne(castedResourceId, queryParams);
+        JsonApiResponse response = resourceRepository.findOneForUpdate(castedResourceId, queryParams);
         Object resource = extractResource(response);
 
-        Class<?> baseRelationshipFieldClass = relationshipField.getType();
-        Class<?> relationshipFieldClass = Generics
-                .getResourceClass(relationshipField.getGenericType(), baseRelationshipFieldClass);
-
-        RegistryEntry relationshipEntry = resourceRegistry.getEntry(relationshipFieldClass);
+        RelationshipDescriptor relationshipDescriptor =
+            resourceRegistry.getRelationshipDescriptor(registryEntry.getResourceInformation(), relationshipField);
+        RegistryEntry relationshipEntry = relationshipDescriptor.getTargetEntry();
 
         @SuppressWarnings("unchecked")
-        RelationshipRepositoryAdapter relationshipRepositoryForClass = registryEntry
-                .getRelationshipRepositoryForClass(relationshipFieldClass, getParameterProvider());
+        RelationshipRepositoryAdapter relationshipRepositoryForClass = relationshipDescriptor
+                .getRelationshipRepository(getParameterProvider());
 
-        if (Iterable.class.isAssignableFrom(baseRelationshipFieldClass)) {
+        if (relationshipDescriptor.isCollection()) {
             if (!requestBody.isMultiple()) {
                 throw new RequestBodyException(HttpMethod.POST, resourceName, "Non-multiple data in body");
             }
@@ -132,6 +130,7 @@ public abstract class RelationshipsResourceUpsert extends BaseController {
             processToOneRelationship(resource, relationshipEntry, jsonPath.getElementName(), dataBody, queryParams,
                     relationshipRepositoryForClass);
         }
+        resourceRegistry.notifyResourceChanged(resourceName, castedResourceId);
 
         return new ResourceResponseContext(response, HttpStatus.NO_CONTENT_204);
     }
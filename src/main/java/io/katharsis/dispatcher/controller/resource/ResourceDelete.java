@@ -62,6 +62,7 @@ public class ResourceDelete extends BaseController {
 
         for (Serializable id : parseResourceIds(registryEntry, jsonPath)) {
             repository.delete(id, queryParams);
+            resourceRegistry.notifyResourceChanged(resourceName, id);
         }
 
         //TODO: Avoid nulls - use optional
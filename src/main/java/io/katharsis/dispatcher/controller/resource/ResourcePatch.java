@@ -62,7 +62,7 @@ public class ResourcePatch extends ResourceUpsert {
 
         ResourceRepositoryAdapter resourceRepository = endpointRegistryEntry.getResourceRepository(getParameterProvider());
         @SuppressWarnings("unchecked")
-        Object resource = extractResource(resourceRepository.findOne(resourceId, queryParams));
+        Object resource = extractResource(resourceRepository.findOneForUpdate(resourceId, queryParams));
 
         String attributesFromFindOne = null;
         try {
@@ -83,6 +83,7 @@ public class ResourcePatch extends ResourceUpsert {
         setAttributes(dataBody, resource, bodyRegistryEntry.getResourceInformation());
         setRelations(resource, bodyRegistryEntry, dataBody, queryParams, getParameterProvider());
         JsonApiResponse response = resourceRepository.save(resource, queryParams);
+        resourceRegistry.notifyResourceChanged(resourceEndpointName, resourceId);
 
         return new ResourceResponseContext(response, jsonPath, queryParams);
     }
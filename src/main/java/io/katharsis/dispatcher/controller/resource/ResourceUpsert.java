@@ -17,9 +17,9 @@ import io.katharsis.resource.field.ResourceAttributesBridge;
 import io.katharsis.resource.field.ResourceField;
 import io.katharsis.resource.information.ResourceInformation;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.PropertyUtils;
 import io.katharsis.utils.parser.TypeParser;
 
@@ -207,15 +207,15 @@ public abstract class ResourceUpsert extends BaseController {
         String propertyName = property.getKey();
         ResourceField relationshipField = registryEntry.getResourceInformation()
                 .findRelationshipFieldByName(propertyName);
-        Class<?> relationshipFieldClass = Generics.getResourceClass(relationshipField.getGenericType(),
-                relationshipField.getType());
-        RegistryEntry entry = resourceRegistry.getEntry(relationshipFieldClass);
+        RegistryEntry entry = resourceRegistry
+                .getRelationshipDescriptor(registryEntry.getResourceInformation(), relationshipField)
+                .getTargetEntry();
 
         List relationships = new LinkedList<>();
         for (LinkageData linkageData : property.getValue()) {
             Serializable castedRelationshipId = parseId(entry, linkageData.getId());
             Object relationObject = entry.getResourceRepository(parameterProvider)
-                    .findOne(castedRelationshipId, queryParams)
+                    .findOneForUpdate(castedRelationshipId, queryParams)
                     .getEntity();
             relationships.add(relationObject);
         }
@@ -240,7 +240,7 @@ public abstract class ResourceUpsert extends BaseController {
             Serializable castedRelationshipId = parseId(entry, property.getValue().getId());
 
             relationObject = entry.getResourceRepository(parameterProvider)
-                    .findOne(castedRelationshipId, queryParams)
+                    .findOneForUpdate(castedRelationshipId, queryParams)
                     .getEntity();
         } else {
             relationObject = null;
@@ -0,0 +1,26 @@
+package io.katharsis.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Keeps references to optional binary format classes out of {@link JsonApiFormat}, so the enum can be loaded when
+ * the binary format libraries are not present.
+ */
+final class BinaryFormatFactories {
+
+    private BinaryFormatFactories() {
+    }
+
+    static JsonFactory createSmileFactory() {
+        return new SmileFactory()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+    }
+
+    static JsonFactory createCborFactory() {
+        return new CBORFactory();
+    }
+}
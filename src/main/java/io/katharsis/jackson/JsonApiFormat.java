@@ -0,0 +1,108 @@
+package io.katharsis.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * Encodings of JSON API documents. Binary encodings are meant for service-to-service traffic and require optional
+ * <i>jackson-dataformat-smile</i> or <i>jackson-dataformat-cbor</i> dependencies to be present.
+ */
+public enum JsonApiFormat {
+
+    JSON("application/vnd.api+json") {
+        @Override
+        public JsonFactory createFactory() {
+            return new JsonFactory();
+        }
+    },
+
+    /**
+     * Field names and short string values like resource types are written once per document and then referenced.
+     */
+    SMILE("application/x-jackson-smile") {
+        @Override
+        public JsonFactory createFactory() {
+            return BinaryFormatFactories.createSmileFactory();
+        }
+    },
+
+    CBOR("application/cbor") {
+        @Override
+        public JsonFactory createFactory() {
+            return BinaryFormatFactories.createCborFactory();
+        }
+    };
+
+    private final String mediaType;
+
+    JsonApiFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return a new factory of parsers and generators of the format
+     */
+    public abstract JsonFactory createFactory();
+
+    /**
+     * Returns a format of a media type, parameters of the media type are ignored.
+     *
+     * @param mediaType value of e.g. <i>Content-Type</i> header
+     * @return format or <i>null</i> if the media type is unknown
+     */
+    public static JsonApiFormat fromMediaType(String mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        int parametersIndex = mediaType.indexOf(';');
+        String type = (parametersIndex < 0 ? mediaType : mediaType.substring(0, parametersIndex)).trim();
+        for (JsonApiFormat format : values()) {
+            if (format.mediaType.equalsIgnoreCase(type)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Chooses an output format using the value of <i>Accept</i> header. The known media type with the highest
+     * quality wins, {@link #JSON} is returned if none of the accepted media types is known.
+     *
+     * @param acceptHeader value of <i>Accept</i> header, can be <i>null</i>
+     * @return negotiated format
+     */
+    public static JsonApiFormat negotiate(String acceptHeader) {
+        if (acceptHeader == null) {
+            return JSON;
+        }
+        JsonApiFormat bestFormat = JSON;
+        double bestQuality = -1;
+        for (String mediaRange : acceptHeader.split(",")) {
+            JsonApiFormat format = fromMediaType(mediaRange);
+            double quality = parseQuality(mediaRange);
+            if (format != null && quality > 0 && quality > bestQuality) {
+                bestFormat = format;
+                bestQuality = quality;
+            }
+        }
+        return bestFormat;
+    }
+
+    private static double parseQuality(String mediaRange) {
+        String[] parameters = mediaRange.split(";");
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -1,13 +1,17 @@
 package io.katharsis.jackson;
 
 import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import io.katharsis.jackson.serializer.BaseResponseSerializer;
 import io.katharsis.jackson.serializer.ContainerSerializer;
 import io.katharsis.jackson.serializer.DataLinksContainerSerializer;
 import io.katharsis.jackson.serializer.ErrorResponseSerializer;
 import io.katharsis.jackson.serializer.LinkageContainerSerializer;
+import io.katharsis.jackson.serializer.OperationsResponseSerializer;
 import io.katharsis.jackson.serializer.RelationshipContainerSerializer;
+import io.katharsis.jackson.serializer.ResourceFragmentCache;
+import io.katharsis.metrics.MetricsListener;
 import io.katharsis.resource.registry.ResourceRegistry;
 
 /**
@@ -24,16 +28,59 @@ public class JsonApiModuleBuilder {
      * @return {@link com.fasterxml.jackson.databind.Module} with custom serializers
      */
     public SimpleModule build(ResourceRegistry resourceRegistry) {
+        return build(resourceRegistry, null);
+    }
+
+    /**
+     * Creates Katharsis Jackson module with all required serializers writing resources through a fragment cache. The
+     * cache is registered in the registry to get notified about modified resources.
+     *
+     * @param resourceRegistry initialized registry with all of the required resources
+     * @param fragmentCache    cache of serialized resources or <i>null</i> if resources should not be cached
+     * @return {@link com.fasterxml.jackson.databind.Module} with custom serializers
+     */
+    public SimpleModule build(ResourceRegistry resourceRegistry, ResourceFragmentCache fragmentCache) {
+        return build(resourceRegistry, fragmentCache, null);
+    }
+
+    /**
+     * Creates Katharsis Jackson module with all required serializers reporting serialization time to a listener.
+     *
+     * @param resourceRegistry initialized registry with all of the required resources
+     * @param fragmentCache    cache of serialized resources or <i>null</i> if resources should not be cached
+     * @param metricsListener  listener of serialization time or <i>null</i> if it's not measured
+     * @return {@link com.fasterxml.jackson.databind.Module} with custom serializers
+     */
+    public SimpleModule build(ResourceRegistry resourceRegistry, ResourceFragmentCache fragmentCache,
+                              MetricsListener metricsListener) {
         SimpleModule simpleModule = new SimpleModule(JSON_API_MODULE_NAME,
                 new Version(1, 0, 0, null, null, null));
 
-        simpleModule.addSerializer(new ContainerSerializer(resourceRegistry))
+        if (fragmentCache != null) {
+            resourceRegistry.addResourceChangeListener(fragmentCache);
+        }
+        simpleModule.addSerializer(new ContainerSerializer(resourceRegistry, fragmentCache))
                 .addSerializer(new DataLinksContainerSerializer(resourceRegistry))
                 .addSerializer(new RelationshipContainerSerializer(resourceRegistry))
                 .addSerializer(new LinkageContainerSerializer(resourceRegistry))
-                .addSerializer(new BaseResponseSerializer(resourceRegistry))
-                .addSerializer(new ErrorResponseSerializer());
+                .addSerializer(new BaseResponseSerializer(resourceRegistry, fragmentCache, metricsListener))
+                .addSerializer(new ErrorResponseSerializer())
+                .addSerializer(new OperationsResponseSerializer());
 
         return simpleModule;
     }
+
+    /**
+     * Creates an object mapper reading and writing JSON API documents in a format. Serializers and deserializers
+     * are the same for all of the formats.
+     *
+     * @param resourceRegistry initialized registry with all of the required resources
+     * @param format           encoding of documents
+     * @return {@link ObjectMapper} with registered Katharsis module
+     */
+    public ObjectMapper buildObjectMapper(ResourceRegistry resourceRegistry, JsonApiFormat format) {
+        ObjectMapper objectMapper = new ObjectMapper(format.createFactory());
+        objectMapper.registerModule(build(resourceRegistry));
+        return objectMapper;
+    }
 }
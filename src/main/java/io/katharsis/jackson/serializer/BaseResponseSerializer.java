@@ -1,12 +1,19 @@
 package io.katharsis.jackson.serializer;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import io.katharsis.jackson.serializer.include.IncludedRelationshipExtractor;
 import io.katharsis.jackson.serializer.include.ResourceDigest;
+import io.katharsis.metrics.KatharsisMetrics;
+import io.katharsis.metrics.MetricsListener;
+import io.katharsis.metrics.MetricsStage;
+import io.katharsis.metrics.NoOpMetricsListener;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.ChangeFeedResponse;
 import io.katharsis.response.CollectionResponseContext;
 import io.katharsis.response.Container;
 import io.katharsis.response.JsonApiResponse;
@@ -21,39 +28,102 @@ import java.util.*;
  */
 public class BaseResponseSerializer extends JsonSerializer<BaseResponseContext> {
 
-    private static final String INCLUDED_FIELD_NAME = "included";
-    private static final String DATA_FIELD_NAME = "data";
-    private static final String META_FIELD_NAME = "meta";
-    private static final String LINKS_FIELD_NAME = "links";
+    private static final SerializableString INCLUDED_FIELD_NAME = new SerializedString("included");
+    private static final SerializableString DATA_FIELD_NAME = new SerializedString("data");
+    private static final SerializableString META_FIELD_NAME = new SerializedString("meta");
+    private static final SerializableString LINKS_FIELD_NAME = new SerializedString("links");
+    private static final SerializableString SYNC_TOKEN_FIELD_NAME = new SerializedString("syncToken");
+    private static final SerializableString DELETED_FIELD_NAME = new SerializedString("deleted");
 
     private final IncludedRelationshipExtractor includedRelationshipExtractor;
+    private final ResourceWriter resourceWriter;
+    private final MetricsListener metricsListener;
 
     public BaseResponseSerializer(ResourceRegistry resourceRegistry) {
+        this(resourceRegistry, null);
+    }
+
+    public BaseResponseSerializer(ResourceRegistry resourceRegistry, ResourceFragmentCache fragmentCache) {
+        this(resourceRegistry, fragmentCache, null);
+    }
+
+    /**
+     * @param resourceRegistry registry with all of the resources
+     * @param fragmentCache    cache of serialized resources or <i>null</i> if resources should not be cached
+     * @param metricsListener  listener of serialization time or <i>null</i> if it's not measured
+     */
+    public BaseResponseSerializer(ResourceRegistry resourceRegistry, ResourceFragmentCache fragmentCache,
+                                  MetricsListener metricsListener) {
         this.includedRelationshipExtractor = new IncludedRelationshipExtractor(resourceRegistry);
+        this.resourceWriter = new ResourceWriter(resourceRegistry, fragmentCache);
+        this.metricsListener = metricsListener == null ? NoOpMetricsListener.INSTANCE : metricsListener;
     }
 
     @Override
     public void serialize(BaseResponseContext context, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        long start = KatharsisMetrics.start(metricsListener);
+        ResourceCounter resourceCounter = new ResourceCounter();
+        try {
+            serialize(context, gen, resourceCounter);
+        } finally {
+            JsonApiResponse response = context.getResponse();
+            if (response != null) {
+                response.release();
+            }
+            if (KatharsisMetrics.isStarted(start)) {
+                String resourceType = context.getJsonPath() == null ? null : context.getJsonPath().getResourceName();
+                KatharsisMetrics.stop(metricsListener, start, MetricsStage.SERIALIZATION, resourceType, null, null);
+                metricsListener.onResponseResources(resourceType, resourceCounter.count);
+            }
+        }
+    }
+
+    private void serialize(BaseResponseContext context, JsonGenerator gen, ResourceCounter resourceCounter)
+        throws IOException {
         JsonApiResponse response = context.getResponse();
 
         gen.writeStartObject();
 
         if (isLinkageContainer(context)) {
-            gen.writeObjectField(DATA_FIELD_NAME, response.getEntity());
+            gen.writeFieldName(DATA_FIELD_NAME);
+            gen.writeObject(response.getEntity());
         } else {
-            writeResponseWithResources(context, gen);
+            writeResponseWithResources(context, gen, resourceCounter);
         }
 
-        if (response.getMetaInformation() != null) {
-            gen.writeObjectField(META_FIELD_NAME, response.getMetaInformation());
+        if (response instanceof ChangeFeedResponse) {
+            gen.writeFieldName(META_FIELD_NAME);
+            writeChangeFeedMeta((ChangeFeedResponse) response, gen);
+        } else if (response.getMetaInformation() != null) {
+            gen.writeFieldName(META_FIELD_NAME);
+            gen.writeObject(response.getMetaInformation());
         }
         if (response.getLinksInformation() != null) {
-            gen.writeObjectField(LINKS_FIELD_NAME, response.getLinksInformation());
+            gen.writeFieldName(LINKS_FIELD_NAME);
+            gen.writeObject(response.getLinksInformation());
         }
 
         gen.writeEndObject();
     }
 
+    /**
+     * Writes the token of the next synchronization and identifiers of deleted resources.
+     */
+    private static void writeChangeFeedMeta(ChangeFeedResponse response, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(SYNC_TOKEN_FIELD_NAME);
+        gen.writeString(response.getNextSyncToken());
+        gen.writeFieldName(DELETED_FIELD_NAME);
+        gen.writeStartArray();
+        if (response.getDeletedIds() != null) {
+            for (Object deletedId : response.getDeletedIds()) {
+                gen.writeString(String.valueOf(deletedId));
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
     private boolean isLinkageContainer(BaseResponseContext context) {
         if (context instanceof ResourceResponseContext) {
             return context.getResponse().getEntity() instanceof LinkageContainer;
@@ -71,49 +141,61 @@ public class BaseResponseSerializer extends JsonSerializer<BaseResponseContext>
         }
     }
 
-    private void writeResponseWithResources(BaseResponseContext value, JsonGenerator gen) throws IOException {
+    private void writeResponseWithResources(BaseResponseContext value, JsonGenerator gen,
+                                            ResourceCounter resourceCounter) throws IOException {
         Map<ResourceDigest, Container> includedResources;
         if (value instanceof ResourceResponseContext) {
-            includedResources = serializeSingle((ResourceResponseContext) value, gen);
+            includedResources = serializeSingle((ResourceResponseContext) value, gen, resourceCounter);
         } else if (value instanceof CollectionResponseContext) {
-            includedResources = serializeResourceCollection((CollectionResponseContext) value, gen);
+            includedResources = serializeResourceCollection((CollectionResponseContext) value, gen, resourceCounter);
         } else {
             throw new IllegalArgumentException(String.format("JsonApiResponse can be either %s or %s. Got %s",
                     ResourceResponseContext.class, CollectionResponseContext.class, value.getClass()));
         }
 
-        gen.writeObjectField(INCLUDED_FIELD_NAME, includedResources.values());
+        resourceCounter.count += includedResources.size();
+        gen.writeFieldName(INCLUDED_FIELD_NAME);
+        gen.writeStartArray();
+        for (Container includedResource : includedResources.values()) {
+            resourceWriter.write(gen, includedResource.getData(), includedResource.getResponse());
+        }
+        gen.writeEndArray();
     }
 
-    private Map<ResourceDigest, Container> serializeSingle(ResourceResponseContext responseContext, JsonGenerator gen)
+    private Map<ResourceDigest, Container> serializeSingle(ResourceResponseContext responseContext, JsonGenerator gen,
+                                                           ResourceCounter resourceCounter)
             throws IOException {
         Object value = responseContext.getResponse().getEntity();
-        gen.writeObjectField(DATA_FIELD_NAME, new Container(value, responseContext));
+        gen.writeFieldName(DATA_FIELD_NAME);
+        resourceWriter.write(gen, value, responseContext);
 
         if (value != null) {
+            resourceCounter.count++;
             return includedRelationshipExtractor.extractIncludedResources(value, responseContext);
         } else {
             return Collections.emptyMap();
         }
     }
 
-    private Map<ResourceDigest, Container> serializeResourceCollection(CollectionResponseContext responseContext, JsonGenerator gen)
+    private Map<ResourceDigest, Container> serializeResourceCollection(CollectionResponseContext responseContext, JsonGenerator gen,
+                                                                       ResourceCounter resourceCounter)
             throws IOException {
         Iterable values = (Iterable) responseContext.getResponse().getEntity();
         Map<ResourceDigest, Container> includedFields = new HashMap<>();
-        List<Container> containers = new ArrayList<>();
 
         if (values == null) {
             values = Collections.emptyList();
         }
 
+        gen.writeFieldName(DATA_FIELD_NAME);
+        gen.writeStartArray();
         for (Object value : values) {
             //noinspection unchecked
             includedFields.putAll(includedRelationshipExtractor.extractIncludedResources(value, responseContext));
-            containers.add(new Container(value, responseContext));
+            resourceWriter.write(gen, value, responseContext);
+            resourceCounter.count++;
         }
-
-        gen.writeObjectField(DATA_FIELD_NAME, containers);
+        gen.writeEndArray();
 
         return includedFields;
     }
@@ -121,4 +203,11 @@ public class BaseResponseSerializer extends JsonSerializer<BaseResponseContext>
     public Class<BaseResponseContext> handledType() {
         return BaseResponseContext.class;
     }
+
+    /**
+     * Counts primary and included resources of a single response.
+     */
+    private static final class ResourceCounter {
+        private int count;
+    }
 }
@@ -1,6 +1,8 @@
 package io.katharsis.jackson.serializer;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import io.katharsis.resource.field.ResourceField;
@@ -18,8 +20,8 @@ import java.lang.reflect.InvocationTargetException;
  */
 public class LinkageContainerSerializer extends JsonSerializer<LinkageContainer> {
 
-    private static final String TYPE_FIELD_NAME = "type";
-    private static final String ID_FIELD_NAME = "id";
+    private static final SerializableString TYPE_FIELD_NAME = new SerializedString("type");
+    private static final SerializableString ID_FIELD_NAME = new SerializedString("id");
 
     private final ResourceRegistry resourceRegistry;
 
@@ -41,14 +43,16 @@ public class LinkageContainerSerializer extends JsonSerializer<LinkageContainer>
 
     private void writeType(JsonGenerator gen, Class<?> relationshipClass) throws IOException {
         String resourceType = resourceRegistry.getResourceType(relationshipClass);
-        gen.writeObjectField(TYPE_FIELD_NAME, resourceType);
+        gen.writeFieldName(TYPE_FIELD_NAME);
+        gen.writeObject(resourceType);
     }
 
     private static void writeId(JsonGenerator gen, LinkageContainer linkageContainer)
             throws IllegalAccessException, InvocationTargetException, NoSuchMethodException, IOException {
         ResourceField idField = linkageContainer.getRelationshipEntry().getResourceInformation().getIdField();
         String sourceId = BeanUtils.getProperty(linkageContainer.getObjectItem(), idField.getUnderlyingName());
-        gen.writeObjectField(ID_FIELD_NAME, sourceId);
+        gen.writeFieldName(ID_FIELD_NAME);
+        gen.writeObject(sourceId);
     }
 
     public Class<LinkageContainer> handledType() {
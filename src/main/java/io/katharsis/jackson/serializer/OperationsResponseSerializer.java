@@ -0,0 +1,39 @@
+package io.katharsis.jackson.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.HttpStatus;
+import io.katharsis.response.OperationsResponse;
+
+import java.io.IOException;
+
+/**
+ * Serializes results of an atomic request. Each result is a top-level document, results without content are
+ * written as empty objects.
+ */
+public class OperationsResponseSerializer extends JsonSerializer<OperationsResponse> {
+
+    @Override
+    public void serialize(OperationsResponse operationsResponse, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException {
+        gen.writeStartObject();
+        gen.writeArrayFieldStart(OperationsResponse.RESULTS);
+        for (BaseResponseContext result : operationsResponse.getResults()) {
+            if (result == null || result.getHttpStatus() == HttpStatus.NO_CONTENT_204) {
+                gen.writeStartObject();
+                gen.writeEndObject();
+            } else {
+                gen.writeObject(result);
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    @Override
+    public Class<OperationsResponse> handledType() {
+        return OperationsResponse.class;
+    }
+}
@@ -1,17 +1,19 @@
 package io.katharsis.jackson.serializer;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import io.katharsis.jackson.exception.JsonSerializationException;
-import io.katharsis.request.path.PathBuilder;
 import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.response.LinkageContainer;
 import io.katharsis.response.RelationshipContainer;
 import io.katharsis.utils.ClassUtils;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.PropertyUtils;
 
 import java.io.IOException;
@@ -25,10 +27,10 @@ import java.lang.reflect.InvocationTargetException;
  */
 public class RelationshipContainerSerializer extends JsonSerializer<RelationshipContainer> {
 
-    private static final String SELF_FIELD_NAME = "self";
-    private static final String RELATED_FIELD_NAME = "related";
-    private static final String DATA_FIELD_NAME = "data";
-    private static final String LINKS_FIELD_NAME = "links";
+    private static final SerializableString SELF_FIELD_NAME = new SerializedString("self");
+    private static final SerializableString RELATED_FIELD_NAME = new SerializedString("related");
+    private static final SerializableString DATA_FIELD_NAME = new SerializedString("data");
+    private static final SerializableString LINKS_FIELD_NAME = new SerializedString("links");
 
     private final ResourceRegistry resourceRegistry;
 
@@ -49,50 +51,48 @@ public class RelationshipContainerSerializer extends JsonSerializer<Relationship
     }
 
     private void writeLinks(RelationshipContainer relationshipContainer, JsonGenerator gen) throws IOException {
+        Object data = relationshipContainer.getDataLinksContainer().getData();
+        RegistryEntry entry = resourceRegistry.getEntry(data.getClass());
+        ResourceInformation resourceInformation = entry.getResourceInformation();
+        RelationshipDescriptor descriptor = resourceRegistry.getRelationshipDescriptor(resourceInformation,
+            relationshipContainer.getRelationshipField());
+        Object sourceId = PropertyUtils.getProperty(data, resourceInformation.getIdField().getUnderlyingName());
+
         gen.writeFieldName(LINKS_FIELD_NAME);
         gen.writeStartObject();
-        writeLink(relationshipContainer, gen, SELF_FIELD_NAME, true);
-        writeLink(relationshipContainer, gen, RELATED_FIELD_NAME, false);
+        writeLink(gen, SELF_FIELD_NAME, descriptor.getSelfLink(sourceId));
+        writeLink(gen, RELATED_FIELD_NAME, descriptor.getRelatedLink(sourceId));
         gen.writeEndObject();
     }
 
-    private void writeLink(RelationshipContainer relationshipContainer, JsonGenerator gen, String fieldName,
-                           boolean addLinks) throws IOException {
-        Object data = relationshipContainer.getDataLinksContainer().getData();
-        Class<?> sourceClass = data.getClass();
-        String resourceUrl = resourceRegistry.getResourceUrl(sourceClass);
-        RegistryEntry entry = resourceRegistry.getEntry(sourceClass);
-        ResourceField idField = entry.getResourceInformation().getIdField();
-
-        Object sourceId = PropertyUtils.getProperty(data, idField.getUnderlyingName());
-        String url = resourceUrl + "/" + sourceId + (addLinks ? "/" + PathBuilder.RELATIONSHIP_MARK + "/" : "/")
-            + relationshipContainer.getRelationshipField().getJsonName();
-        gen.writeStringField(fieldName, url);
+    private static void writeLink(JsonGenerator gen, SerializableString fieldName, String url) throws IOException {
+        gen.writeFieldName(fieldName);
+        gen.writeString(url);
     }
 
     /**
-     * Here it is needed to check actual generic type of a class. To achieve that {@code Class::getType} method cannot
-     * be used because of type erasure.
+     * Cardinality and the registry entry of related resources are taken from the {@link RelationshipDescriptor}
+     * compiled by the registry, so generic types of the field don't have to be inspected again.
      *
      * @param relationshipContainer
      * @param gen
      * @throws IOException
      */
     private void writeLinkage(RelationshipContainer relationshipContainer, JsonGenerator gen) throws IOException {
-        Class baseClass = relationshipContainer.getRelationshipField().getType();
-        Class relationshipClass = Generics
-            .getResourceClass(relationshipContainer.getRelationshipField().getGenericType(), baseClass);
-        RegistryEntry relationshipEntry = resourceRegistry.getEntry(relationshipClass);
+        Object data = relationshipContainer.getDataLinksContainer().getData();
+        RelationshipDescriptor descriptor = resourceRegistry.getRelationshipDescriptor(
+            resourceRegistry.getEntry(data.getClass()).getResourceInformation(),
+            relationshipContainer.getRelationshipField());
 
         gen.writeFieldName(DATA_FIELD_NAME);
-        writeLinkageField(relationshipContainer, gen, baseClass, relationshipEntry);
+        writeLinkageField(relationshipContainer, gen, descriptor.isCollection(), descriptor.getTargetEntry());
     }
 
-    private void writeLinkageField(RelationshipContainer relationshipContainer, JsonGenerator gen, Class baseClass,
+    private void writeLinkageField(RelationshipContainer relationshipContainer, JsonGenerator gen, boolean collection,
                                    RegistryEntry relationshipEntry)
         throws IOException {
         try {
-            if (Iterable.class.isAssignableFrom(baseClass)) {
+            if (collection) {
                 writeToManyLinkage(relationshipContainer, gen, relationshipEntry);
             } else {
                 writeToOneLinkage(relationshipContainer, gen, relationshipEntry);
@@ -0,0 +1,271 @@
+package io.katharsis.jackson.serializer;
+
+import io.katharsis.queryParams.include.IncludePlan;
+import io.katharsis.resource.registry.ResourceChangeListener;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps serialized JSON representations of resources, so {@link ContainerSerializer} can write them as raw values
+ * instead of serializing the same resources again. A fragment is identified by a resource type, an identifier, a
+ * version returned by {@link ResourceVersionProvider}, a sparse field set and inclusions of the resource type.
+ * <p>
+ * Fragments are kept in a concurrent map, so reads don't lock. When the total length of cached fragments exceeds the
+ * limit, a single thread evicts the least recently used fragments until an eighth of the limit is free, so eviction
+ * is amortized among writes. Recency is tracked approximately by a tick written on each read. Fragments of a resource
+ * are found using an index by resource type and identifier and removed when a controller notifies about its change,
+ * the cache is registered as a {@link ResourceChangeListener} by {@link io.katharsis.jackson.JsonApiModuleBuilder}.
+ */
+public class ResourceFragmentCache implements ResourceChangeListener {
+
+    private static final int EVICTED_FRACTION = 8;
+
+    private final ResourceVersionProvider versionProvider;
+    private final long maxSize;
+    private final ConcurrentMap<FragmentKey, Fragment> fragments = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ResourceKey, Set<FragmentKey>> keysByResource = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final Lock evictionLock = new ReentrantLock();
+
+    /**
+     * @param versionProvider provider of resource versions
+     * @param maxSize         maximum total number of characters of cached fragments
+     */
+    public ResourceFragmentCache(ResourceVersionProvider versionProvider, long maxSize) {
+        if (versionProvider == null) {
+            throw new IllegalArgumentException("versionProvider cannot be null");
+        }
+        this.versionProvider = versionProvider;
+        this.maxSize = maxSize;
+    }
+
+    Object getVersion(Object resource) {
+        return versionProvider.getVersion(resource);
+    }
+
+    String get(FragmentKey key) {
+        Fragment fragment = fragments.get(key);
+        if (fragment == null) {
+            return null;
+        }
+        fragment.lastAccess = clock.incrementAndGet();
+        return fragment.json;
+    }
+
+    void put(FragmentKey key, String json) {
+        if (json.length() > maxSize) {
+            return;
+        }
+        Fragment previous = fragments.put(key, new Fragment(json, clock.incrementAndGet()));
+        size.addAndGet(previous == null ? json.length() : json.length() - previous.json.length());
+        if (previous == null) {
+            index(key);
+        }
+        if (size.get() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Adds a key to the index. A set emptied by eviction can be removed concurrently, so the key is added again if
+     * its set is no longer published.
+     */
+    private void index(FragmentKey key) {
+        ResourceKey resourceKey = new ResourceKey(key.resourceType, key.id);
+        while (true) {
+            Set<FragmentKey> keys = keysByResource.get(resourceKey);
+            if (keys == null) {
+                Set<FragmentKey> newKeys = Collections.newSetFromMap(new ConcurrentHashMap<FragmentKey, Boolean>());
+                keys = keysByResource.putIfAbsent(resourceKey, newKeys);
+                if (keys == null) {
+                    keys = newKeys;
+                }
+            }
+            keys.add(key);
+            if (keysByResource.get(resourceKey) == keys) {
+                return;
+            }
+        }
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long targetSize = maxSize - maxSize / EVICTED_FRACTION;
+            if (size.get() <= targetSize) {
+                return;
+            }
+            List<Map.Entry<FragmentKey, Fragment>> entries = new ArrayList<>(fragments.entrySet());
+            Collections.sort(entries, LEAST_RECENTLY_USED_FIRST);
+            for (int i = 0; i < entries.size() && size.get() > targetSize; i++) {
+                remove(entries.get(i).getKey());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void remove(FragmentKey key) {
+        Fragment fragment = fragments.remove(key);
+        if (fragment == null) {
+            return;
+        }
+        size.addAndGet(-fragment.json.length());
+        ResourceKey resourceKey = new ResourceKey(key.resourceType, key.id);
+        Set<FragmentKey> keys = keysByResource.get(resourceKey);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByResource.remove(resourceKey, keys);
+            }
+        }
+    }
+
+    /**
+     * Removes all fragments of a resource.
+     *
+     * @param resourceType JSON API type of the resource
+     * @param id           identifier of the resource
+     */
+    public void invalidate(String resourceType, Serializable id) {
+        Set<FragmentKey> keys = keysByResource.remove(new ResourceKey(resourceType, String.valueOf(id)));
+        if (keys == null) {
+            return;
+        }
+        for (FragmentKey key : keys) {
+            Fragment fragment = fragments.remove(key);
+            if (fragment != null) {
+                size.addAndGet(-fragment.json.length());
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (FragmentKey key : fragments.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void onResourceChanged(String resourceType, Serializable id) {
+        invalidate(resourceType, id);
+    }
+
+    public int getFragmentCount() {
+        return fragments.size();
+    }
+
+    /**
+     * @return total number of characters of cached fragments
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    private static final Comparator<Map.Entry<FragmentKey, Fragment>> LEAST_RECENTLY_USED_FIRST =
+        new Comparator<Map.Entry<FragmentKey, Fragment>>() {
+            @Override
+            public int compare(Map.Entry<FragmentKey, Fragment> entry, Map.Entry<FragmentKey, Fragment> other) {
+                long access = entry.getValue().lastAccess;
+                long otherAccess = other.getValue().lastAccess;
+                return access < otherAccess ? -1 : (access == otherAccess ? 0 : 1);
+            }
+        };
+
+    private static final class Fragment {
+
+        private final String json;
+        private volatile long lastAccess;
+
+        private Fragment(String json, long lastAccess) {
+            this.json = json;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class ResourceKey {
+
+        private final String resourceType;
+        private final String id;
+
+        private ResourceKey(String resourceType, String id) {
+            this.resourceType = resourceType;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ResourceKey that = (ResourceKey) o;
+            return resourceType.equals(that.resourceType) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * resourceType.hashCode() + id.hashCode();
+        }
+    }
+
+    static final class FragmentKey {
+
+        private final String resourceType;
+        private final String id;
+        private final Object version;
+        private final Set<String> includedFields;
+        private final IncludePlan inclusions;
+
+        /**
+         * @param includedFields requested fields or <i>null</i> if all fields are written
+         * @param inclusions     compiled inclusions of the resource type
+         */
+        FragmentKey(String resourceType, String id, Object version, Set<String> includedFields,
+                    IncludePlan inclusions) {
+            this.resourceType = resourceType;
+            this.id = id;
+            this.version = version;
+            this.includedFields = includedFields;
+            this.inclusions = inclusions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FragmentKey that = (FragmentKey) o;
+            return resourceType.equals(that.resourceType) &&
+                id.equals(that.id) &&
+                version.equals(that.version) &&
+                Objects.equals(includedFields, that.includedFields) &&
+                Objects.equals(inclusions, that.inclusions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceType, id, version, includedFields, inclusions);
+        }
+    }
+}
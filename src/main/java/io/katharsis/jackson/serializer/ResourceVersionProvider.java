@@ -0,0 +1,15 @@
+package io.katharsis.jackson.serializer;
+
+/**
+ * Provides a version of a resource used by {@link ResourceFragmentCache}. A version has to change whenever any
+ * serialized part of the resource changes, including identifiers of related resources, e.g. a version number or an
+ * ETag of the resource.
+ */
+public interface ResourceVersionProvider {
+
+    /**
+     * @param resource resource instance
+     * @return version of the resource or <i>null</i> if the resource should not be cached
+     */
+    Object getVersion(Object resource);
+}
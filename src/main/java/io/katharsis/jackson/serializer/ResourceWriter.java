@@ -0,0 +1,384 @@
+package io.katharsis.jackson.serializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.include.IncludePlan;
+import io.katharsis.queryParams.params.IncludedRelationsParams;
+import io.katharsis.queryParams.params.TypedParams;
+import io.katharsis.request.dto.Attributes;
+import io.katharsis.resource.accessor.ResourceAccessor;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.response.BaseResponseContext;
+import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.Predicate2;
+import io.katharsis.utils.java.Optional;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes resource objects directly to a generator using information compiled by the registry. Relationships and
+ * linkages are written without creating {@link io.katharsis.response.DataLinksContainer},
+ * {@link io.katharsis.response.RelationshipContainer} and {@link io.katharsis.response.LinkageContainer} instances
+ * and without looking up serializers for them. Properties are read using a {@link ResourceAccessor} of a resource
+ * class and attributes of plain resource classes are written without Jackson bean serialization. Used by
+ * {@link BaseResponseSerializer} and {@link ContainerSerializer}.
+ */
+final class ResourceWriter {
+
+    private static final SerializableString TYPE_FIELD_NAME = new SerializedString("type");
+    private static final SerializableString ID_FIELD_NAME = new SerializedString("id");
+    private static final SerializableString ATTRIBUTES_FIELD_NAME = new SerializedString("attributes");
+    private static final SerializableString RELATIONSHIPS_FIELD_NAME = new SerializedString("relationships");
+    private static final SerializableString LINKS_FIELD_NAME = new SerializedString("links");
+    private static final SerializableString META_FIELD_NAME = new SerializedString("meta");
+    private static final SerializableString SELF_FIELD_NAME = new SerializedString("self");
+    private static final SerializableString RELATED_FIELD_NAME = new SerializedString("related");
+    private static final SerializableString DATA_FIELD_NAME = new SerializedString("data");
+    private static final String JACKSON_ATTRIBUTE_FILTER_NAME = "katharsisFilter";
+
+    private final ResourceRegistry resourceRegistry;
+    private final ResourceFragmentCache fragmentCache;
+
+    ResourceWriter(ResourceRegistry resourceRegistry, ResourceFragmentCache fragmentCache) {
+        this.resourceRegistry = resourceRegistry;
+        this.fragmentCache = fragmentCache;
+    }
+
+    /**
+     * Writes a resource object or <i>null</i>.
+     *
+     * @param gen      Jackson generator
+     * @param data     resource to be written, can be <i>null</i>
+     * @param response response the resource belongs to
+     * @throws IOException if the resource couldn't be written
+     */
+    void write(JsonGenerator gen, Object data, BaseResponseContext response) throws IOException {
+        if (data == null) {
+            gen.writeNull();
+            return;
+        }
+        Class<?> dataClass = data.getClass();
+        RegistryEntry entry = resourceRegistry.getEntry(dataClass);
+        ResourceInformation resourceInformation = entry.getResourceInformation();
+        String resourceType = resourceRegistry.getResourceType(dataClass);
+        Optional<Set<String>> includedFields = Optional.empty();
+        IncludePlan includePlan = IncludePlan.EMPTY;
+        QueryParams queryParams = response == null ? null : response.getQueryParams();
+        if (queryParams != null) {
+            includedFields = queryParams.getIncludedFieldNames(resourceType);
+            TypedParams<IncludedRelationsParams> includedRelations = queryParams.getIncludedRelations();
+            if (includedRelations != null && includedRelations.getParams().containsKey(resourceType)) {
+                includePlan = queryParams.getIncludePlan(resourceRegistry, resourceType, resourceInformation);
+            }
+        }
+
+        if (fragmentCache != null && canWriteRawFragment(gen)) {
+            writeCachedResource(gen, data, resourceType, resourceInformation, includedFields, includePlan);
+        } else {
+            writeResource(gen, data, resourceType, resourceInformation, includedFields, includePlan);
+        }
+    }
+
+    /**
+     * Cached fragments are JSON text, so they can be used only by generators writing compact JSON.
+     */
+    private static boolean canWriteRawFragment(JsonGenerator gen) {
+        return gen.getCodec() instanceof ObjectMapper && gen.getPrettyPrinter() == null &&
+            JsonFactory.FORMAT_NAME_JSON.equals(((ObjectMapper) gen.getCodec()).getFactory().getFormatName());
+    }
+
+    private void writeCachedResource(JsonGenerator gen, Object data, String resourceType,
+                                     ResourceInformation resourceInformation, Optional<Set<String>> includedFields,
+                                     IncludePlan includePlan) throws IOException {
+        Object version = fragmentCache.getVersion(data);
+        if (version == null) {
+            writeResource(gen, data, resourceType, resourceInformation, includedFields, includePlan);
+            return;
+        }
+        ResourceField idField = resourceInformation.getIdField();
+        String id = String.valueOf(resourceInformation.getAccessor().getProperty(data, idField.getUnderlyingName()));
+        ResourceFragmentCache.FragmentKey key = new ResourceFragmentCache.FragmentKey(resourceType, id, version,
+            includedFields.isPresent() ? includedFields.get() : null, includePlan);
+
+        String fragment = fragmentCache.get(key);
+        if (fragment == null) {
+            StringWriter writer = new StringWriter();
+            JsonGenerator fragmentGenerator = ((ObjectMapper) gen.getCodec()).getFactory().createGenerator(writer);
+            try {
+                writeResource(fragmentGenerator, data, resourceType, resourceInformation, includedFields,
+                    includePlan);
+            } finally {
+                fragmentGenerator.close();
+            }
+            fragment = writer.toString();
+            fragmentCache.put(key, fragment);
+        }
+        gen.writeRawValue(fragment);
+    }
+
+    /**
+     * Writes a value. Each serialized resource must contain type field whose value is string
+     * <a href="http://jsonapi.org/format/#document-structure-resource-types"></a>.
+     */
+    private void writeResource(JsonGenerator gen, Object data, String resourceType,
+                               ResourceInformation resourceInformation, Optional<Set<String>> includedFields,
+                               IncludePlan includePlan) throws IOException {
+        ResourceAccessor accessor = resourceInformation.getAccessor();
+        Object sourceId = accessor.getProperty(data, resourceInformation.getIdField().getUnderlyingName());
+
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE_FIELD_NAME);
+        gen.writeString(resourceType);
+        writeId(gen, sourceId);
+
+        if (canWritePlainAttributes(gen, data, resourceInformation)) {
+            writePlainAttributes(gen, data, includedFields, resourceInformation);
+        } else {
+            Set<String> notAttributeFields = resourceInformation.getNotAttributeFields();
+            if (!includedFields.isPresent()) {
+                notAttributeFields.addAll(resourceInformation.getLazyAttributeNames());
+            }
+            writeAttributes(gen, data, includedFields, notAttributeFields);
+        }
+
+        Set<ResourceField> relationshipFields =
+            QueryParams.getProjectedRelationshipFields(resourceInformation, includedFields);
+        writeRelationships(gen, data, sourceId, resourceInformation, relationshipFields, includePlan);
+        writeMetaField(gen, data, resourceInformation);
+        writeLinksField(gen, data, sourceId, resourceInformation);
+        gen.writeEndObject();
+    }
+
+    /**
+     * The id MUST be written as a string
+     * <a href="http://jsonapi.org/format/#document-structure-resource-ids">Resource IDs</a>.
+     */
+    private static void writeId(JsonGenerator gen, Object id) throws IOException {
+        gen.writeFieldName(ID_FIELD_NAME);
+        if (id == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(id.toString());
+        }
+    }
+
+    /**
+     * Writes resource attributes object taking into account <i>fields</i> query params. It doesn't allow writing
+     * <i>null</i> resource attributes.
+     *
+     * @param gen                 Jackson generator
+     * @param data                resource object
+     * @param fields              names of requested fields or no value if all fields should be written
+     * @param notAttributesFields names of relationships, id field and not requested lazy attributes
+     * @throws IOException if couldn't write attributes
+     */
+    private static void writeAttributes(JsonGenerator gen, final Object data, final Optional<Set<String>> fields,
+                                        final Set<String> notAttributesFields)
+        throws IOException {
+        Predicate2<Object, PropertyWriter> includeChecker;
+        if (fields.isPresent()) {
+            includeChecker = new Predicate2<Object, PropertyWriter>() {
+                @Override
+                public boolean test(Object bean, PropertyWriter writer) {
+                    return bean != data || (fields.get().contains(writer.getName()) &&
+                        !notAttributesFields.contains(writer.getName()));
+                }
+            };
+        } else {
+            includeChecker = new Predicate2<Object, PropertyWriter>() {
+                @Override
+                public boolean test(Object bean, PropertyWriter writer) {
+                    return bean != data || !notAttributesFields.contains(writer.getName());
+                }
+            };
+        }
+        ObjectMapper om = getObjectMapper(gen, data, includeChecker);
+        Map<String, Object> dataMap = om.convertValue(data, new TypeReference<Map<String, Object>>() {
+        });
+
+        Attributes attributesObject = new Attributes();
+        for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
+            if (entry.getValue() != null)
+                attributesObject.addAttribute(entry.getKey(), entry.getValue());
+        }
+
+        gen.writeFieldName(ATTRIBUTES_FIELD_NAME);
+        gen.writeObject(attributesObject);
+    }
+
+    /**
+     * Attributes of a plain resource class can be read by its accessor if Jackson would find the same properties,
+     * that is the mapper uses default property detection and naming and doesn't drop non-null values. Instances of
+     * subclasses, e.g. proxies, are left for Jackson, because they might have more properties.
+     */
+    private static boolean canWritePlainAttributes(JsonGenerator gen, Object data,
+                                                   ResourceInformation resourceInformation) {
+        if (!resourceInformation.getAccessor().isPlain() || data.getClass() != resourceInformation.getResourceClass()
+            || !(gen.getCodec() instanceof ObjectMapper)) {
+            return false;
+        }
+        ObjectMapper objectMapper = (ObjectMapper) gen.getCodec();
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        JsonInclude.Include inclusion = config.getSerializationInclusion();
+        return objectMapper.mixInCount() == 0 && config.getPropertyNamingStrategy() == null &&
+            config.getAnnotationIntrospector() != null &&
+            config.getAnnotationIntrospector().getClass() == JacksonAnnotationIntrospector.class &&
+            config.getDefaultVisibilityChecker() == VisibilityChecker.Std.defaultInstance() &&
+            config.isEnabled(MapperFeature.AUTO_DETECT_FIELDS) && config.isEnabled(MapperFeature.AUTO_DETECT_GETTERS) &&
+            config.isEnabled(MapperFeature.AUTO_DETECT_IS_GETTERS) &&
+            !config.isEnabled(MapperFeature.REQUIRE_SETTERS_FOR_GETTERS) &&
+            (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.NON_NULL);
+    }
+
+    private static void writePlainAttributes(JsonGenerator gen, Object data, Optional<Set<String>> fields,
+                                             ResourceInformation resourceInformation) throws IOException {
+        ResourceAccessor accessor = resourceInformation.getAccessor();
+        Set<String> lazyAttributeNames = resourceInformation.getLazyAttributeNames();
+        @SuppressWarnings("unchecked")
+        Set<ResourceField> attributeFields = resourceInformation.getAttributeFields().getStaticFields();
+        gen.writeFieldName(ATTRIBUTES_FIELD_NAME);
+        gen.writeStartObject();
+        for (ResourceField field : attributeFields) {
+            if (fields.isPresent() ? !fields.get().contains(field.getJsonName())
+                : lazyAttributeNames.contains(field.getJsonName())) {
+                continue;
+            }
+            Object value = accessor.getProperty(data, field.getUnderlyingName());
+            if (value != null) {
+                gen.writeFieldName(field.getJsonName());
+                gen.writeObject(value);
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeRelationships(JsonGenerator gen, Object data, Object sourceId,
+                                    ResourceInformation resourceInformation, Set<ResourceField> relationshipFields,
+                                    IncludePlan includePlan) throws IOException {
+        gen.writeFieldName(RELATIONSHIPS_FIELD_NAME);
+        gen.writeStartObject();
+        for (ResourceField field : relationshipFields) {
+            RelationshipDescriptor descriptor = resourceRegistry.getRelationshipDescriptor(resourceInformation, field);
+            gen.writeFieldName(field.getJsonName());
+            gen.writeStartObject();
+
+            gen.writeFieldName(LINKS_FIELD_NAME);
+            gen.writeStartObject();
+            gen.writeFieldName(SELF_FIELD_NAME);
+            gen.writeString(descriptor.getSelfLink(sourceId));
+            gen.writeFieldName(RELATED_FIELD_NAME);
+            gen.writeString(descriptor.getRelatedLink(sourceId));
+            gen.writeEndObject();
+
+            if (!descriptor.isLazy() || includePlan.includes(field)) {
+                gen.writeFieldName(DATA_FIELD_NAME);
+                writeLinkage(gen, resourceInformation.getAccessor().getProperty(data, field.getUnderlyingName()),
+                    descriptor);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeLinkage(JsonGenerator gen, Object target, RelationshipDescriptor descriptor)
+        throws IOException {
+        ResourceInformation targetInformation = descriptor.getTargetEntry().getResourceInformation();
+        if (descriptor.isCollection()) {
+            gen.writeStartArray();
+            if (target != null) {
+                for (Object targetItem : (Iterable) target) {
+                    writeResourceIdentifier(gen, targetItem, targetInformation);
+                }
+            }
+            gen.writeEndArray();
+        } else if (target == null) {
+            gen.writeNull();
+        } else {
+            writeResourceIdentifier(gen, target, targetInformation);
+        }
+    }
+
+    private void writeResourceIdentifier(JsonGenerator gen, Object target, ResourceInformation targetInformation)
+        throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE_FIELD_NAME);
+        gen.writeString(resourceRegistry.getResourceType(ClassUtils.getJsonApiResourceClass(target)));
+        writeId(gen, targetInformation.getAccessor().getProperty(target,
+            targetInformation.getIdField().getUnderlyingName()));
+        gen.writeEndObject();
+    }
+
+    private static void writeMetaField(JsonGenerator gen, Object data, ResourceInformation resourceInformation)
+        throws IOException {
+        if (resourceInformation.getMetaFieldName() != null) {
+            gen.writeFieldName(META_FIELD_NAME);
+            gen.writeObject(resourceInformation.getAccessor().getProperty(data, resourceInformation.getMetaFieldName()));
+        }
+    }
+
+    private void writeLinksField(JsonGenerator gen, Object data, Object sourceId,
+                                 ResourceInformation resourceInformation) throws IOException {
+        gen.writeFieldName(LINKS_FIELD_NAME);
+        if (resourceInformation.getLinksFieldName() != null) {
+            gen.writeObject(resourceInformation.getAccessor().getProperty(data,
+                resourceInformation.getLinksFieldName()));
+        } else {
+            gen.writeStartObject();
+            gen.writeFieldName(SELF_FIELD_NAME);
+            gen.writeString(resourceRegistry.getResourceUrl(data.getClass()) + "/" + sourceId);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Generate a new object mapper and configure the filter to exclude some properties.
+     */
+    private static ObjectMapper getObjectMapper(JsonGenerator gen, final Object data,
+                                                Predicate2<Object, PropertyWriter> includedFields) {
+        ObjectMapper attributesObjectMapper = ((ObjectMapper) gen.getCodec())
+            .copy();
+
+        FilterProvider fp = new SimpleFilterProvider()
+            .addFilter(JACKSON_ATTRIBUTE_FILTER_NAME, new KatharsisFieldPropertyFilter(includedFields));
+        attributesObjectMapper.setFilters(fp);
+
+        attributesObjectMapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public Object findFilterId(Annotated a) {
+                Object filterId = null;
+
+                if (a instanceof AnnotatedClass) {
+                    AnnotatedClass ac = (AnnotatedClass) a;
+                    if (ac.getRawType().equals(data.getClass())) {
+                        filterId = JACKSON_ATTRIBUTE_FILTER_NAME;
+                    }
+                }
+                return filterId;
+            }
+        });
+
+        return attributesObjectMapper;
+    }
+}
@@ -1,11 +1,10 @@
 package io.katharsis.jackson.serializer.include;
 
-import io.katharsis.queryParams.include.Inclusion;
+import io.katharsis.queryParams.include.IncludePlan;
 import io.katharsis.queryParams.params.IncludedRelationsParams;
 import io.katharsis.queryParams.params.TypedParams;
 import io.katharsis.request.path.ResourcePath;
 import io.katharsis.resource.annotations.JsonApiIncludeByDefault;
-import io.katharsis.resource.exception.ResourceFieldNotFoundException;
 import io.katharsis.resource.field.ResourceField;
 import io.katharsis.resource.information.ResourceInformation;
 import io.katharsis.resource.registry.RegistryEntry;
@@ -97,59 +96,34 @@ public class IncludedRelationshipExtractor {
 
     private Map<ResourceDigest, Container> extractIncludedRelationships(Object resource, BaseResponseContext response)
         throws IllegalAccessException, NoSuchMethodException, InvocationTargetException, NoSuchFieldException {
-        if (response.getQueryParams() == null || response.getJsonPath() == null) {
+        if (response.getQueryParams() == null || response.getJsonPath() == null || resource == null) {
             return Collections.emptyMap();
         }
-        Map<ResourceDigest, Container> includedResources = new HashMap<>();
-        TypedParams<IncludedRelationsParams> includedRelations = response.getQueryParams()
-            .getIncludedRelations();
         String elementName = response.getJsonPath()
             .getElementName();
-        IncludedRelationsParams includedRelationsParams = findInclusions(includedRelations, elementName);
-        if (includedRelationsParams != null) {
-            for (Inclusion inclusion : includedRelationsParams.getParams()) {
-                //noinspection unchecked
-                includedResources.putAll(extractIncludedRelationship(resource, inclusion, response));
-            }
-        }
-        return includedResources;
-    }
-
-    private static IncludedRelationsParams findInclusions(TypedParams<IncludedRelationsParams> queryParams,
-                                                   String resourceName) {
-        if (queryParams != null && queryParams.getParams() != null) {
-            for (Map.Entry<String, IncludedRelationsParams> entry : queryParams.getParams()
-                .entrySet()) {
-                if (resourceName.equals(entry.getKey())) {
-                    return entry.getValue();
-                }
-            }
-        }
-        return null;
-    }
-
-    private Map<ResourceDigest, Container> extractIncludedRelationship(Object resource, Inclusion inclusion, BaseResponseContext response)
-        throws IllegalAccessException, NoSuchMethodException, InvocationTargetException, NoSuchFieldException {
-        List<String> pathList = inclusion.getPathList();
-        if (resource == null || pathList.isEmpty()) {
+        TypedParams<IncludedRelationsParams> includedRelations = response.getQueryParams()
+            .getIncludedRelations();
+        if (includedRelations == null || !includedRelations.getParams().containsKey(elementName)) {
             return Collections.emptyMap();
         }
-        if (!(response.getJsonPath() instanceof ResourcePath)) { // the first property name is the resource itself
-            pathList = pathList.subList(1, pathList.size());
-            if (pathList.isEmpty()) {
-                return Collections.emptyMap();
-            }
+        // the first property name is the resource itself
+        int skippedSegments = response.getJsonPath() instanceof ResourcePath ? 0 : 1;
+        IncludePlan includePlan = response.getQueryParams()
+            .getIncludePlan(resourceRegistry, elementName, getResourceInformation(resource), skippedSegments);
+
+        Map<ResourceDigest, Container> includedResources = new HashMap<>();
+        for (IncludePlan includedRelationship : includePlan.getChildren()) {
+            //noinspection unchecked
+            includedResources.putAll(getElements(resource, includedRelationship.getField(), response));
         }
-        return getElements(resource, pathList, response);
+        return includedResources;
     }
 
-    private Map<ResourceDigest, Container> getElements(Object resource, List<String> pathList, BaseResponseContext response)
+    private Map<ResourceDigest, Container> getElements(Object resource, ResourceField relationshipField, BaseResponseContext response)
         throws IllegalAccessException, NoSuchMethodException, InvocationTargetException, NoSuchFieldException {
         Map<ResourceDigest, Container> elements = new HashMap<>();
 
-        String fieldName = getRelationshipName(pathList.get(0), resource.getClass());
-
-        Object resourceProperty = PropertyUtils.getProperty(resource, fieldName);
+        Object resourceProperty = PropertyUtils.getProperty(resource, relationshipField.getUnderlyingName());
         if (resourceProperty != null) {
             if (Iterable.class.isAssignableFrom(resourceProperty.getClass())) {
                 for (Object resourceToInclude : (Iterable) resourceProperty) {
@@ -168,20 +142,12 @@ public class IncludedRelationshipExtractor {
         return elements;
     }
 
-    private <T> String getRelationshipName(String jsonName, Class<T> resourceClazz) {
-        RegistryEntry resourceEntry = resourceRegistry.getEntry(resourceClazz);
-        ResourceField relationshipField = resourceEntry.getResourceInformation().findRelationshipFieldByName(jsonName);
-        if (relationshipField == null) {
-            throw new ResourceFieldNotFoundException(String.format("%s for %s has been not found", jsonName, resourceClazz));
-        }
-        return relationshipField.getUnderlyingName();
+    private ResourceInformation getResourceInformation(Object resource) {
+        return resourceRegistry.getEntry(resource.getClass()).getResourceInformation();
     }
 
     private Set<ResourceField> getRelationshipFields(Object resource) {
-        Class<?> dataClass = resource.getClass();
-        RegistryEntry entry = resourceRegistry.getEntry(dataClass);
-        ResourceInformation resourceInformation = entry.getResourceInformation();
-        return resourceInformation.getRelationshipFields();
+        return getResourceInformation(resource).getRelationshipFields();
     }
 
     private ResourceDigest getResourceDigest(Object resource) {
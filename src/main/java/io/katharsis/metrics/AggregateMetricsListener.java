@@ -0,0 +1,124 @@
+package io.katharsis.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates measurements in memory, so they can be scraped by a monitoring system. Metrics are keyed by a name
+ * followed by non-null tags, e.g. <i>DISPATCH{resourceType=tasks,controller=CollectionGet,httpMethod=GET}</i> or
+ * <i>repository.calls{resourceType=tasks,method=findAll}</i>.
+ */
+public class AggregateMetricsListener implements MetricsListener {
+
+    public static final String REQUESTS = "requests";
+    public static final String REPOSITORY_CALLS = "repository.calls";
+    public static final String INCLUDE_LOOKUPS = "include.lookups";
+    public static final String RESPONSE_RESOURCES = "response.resources";
+
+    private final ConcurrentMap<String, TimerStatistics> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void onRequestStarted(String resourceType, String httpMethod) {
+    }
+
+    @Override
+    public void onRequestHandled(String resourceType, String httpMethod) {
+    }
+
+    @Override
+    public void onRequestCompleted(String resourceType, String httpMethod, boolean successful) {
+        increment(key(REQUESTS, "resourceType", resourceType, "httpMethod", httpMethod, "successful",
+            String.valueOf(successful)), 1);
+    }
+
+    @Override
+    public void onStage(MetricsStage stage, String resourceType, String controller, String httpMethod,
+                        long durationNanos) {
+        String key = key(stage.name(), "resourceType", resourceType, "controller", controller, "httpMethod",
+            httpMethod);
+        TimerStatistics timer = timers.get(key);
+        if (timer == null) {
+            TimerStatistics newTimer = new TimerStatistics();
+            timer = timers.putIfAbsent(key, newTimer);
+            if (timer == null) {
+                timer = newTimer;
+            }
+        }
+        timer.record(durationNanos);
+    }
+
+    @Override
+    public void onRepositoryCall(String resourceType, String method, long durationNanos) {
+        increment(key(REPOSITORY_CALLS, "resourceType", resourceType, "method", method), 1);
+    }
+
+    @Override
+    public void onIncludeFanOut(String resourceType, int relationshipLookups) {
+        increment(key(INCLUDE_LOOKUPS, "resourceType", resourceType), relationshipLookups);
+    }
+
+    @Override
+    public void onResponseResources(String resourceType, int resourceCount) {
+        increment(key(RESPONSE_RESOURCES, "resourceType", resourceType), resourceCount);
+    }
+
+    /**
+     * @return sorted copy of timers
+     */
+    public Map<String, TimerStatistics> getTimers() {
+        return Collections.unmodifiableMap(new TreeMap<>(timers));
+    }
+
+    /**
+     * @return sorted snapshot of counters
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    public void reset() {
+        timers.clear();
+        counters.clear();
+    }
+
+    private void increment(String key, long delta) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(key, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.addAndGet(delta);
+    }
+
+    private static String key(String name, String... tags) {
+        StringBuilder key = new StringBuilder(name).append('{');
+        boolean first = true;
+        for (int i = 0; i < tags.length; i += 2) {
+            if (tags[i + 1] != null) {
+                if (!first) {
+                    key.append(',');
+                }
+                key.append(tags[i]).append('=').append(tags[i + 1]);
+                first = false;
+            }
+        }
+        return key.append('}').toString();
+    }
+}
@@ -0,0 +1,78 @@
+package io.katharsis.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Passes measurements to several listeners, e.g. to {@link AggregateMetricsListener} and
+ * {@link RepositoryCallBudgetListener}.
+ */
+public class CompositeMetricsListener implements MetricsListener {
+
+    private final List<MetricsListener> listeners;
+
+    public CompositeMetricsListener(MetricsListener... listeners) {
+        this.listeners = new ArrayList<>(Arrays.asList(listeners));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        for (MetricsListener listener : listeners) {
+            if (listener.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onRequestStarted(String resourceType, String httpMethod) {
+        for (MetricsListener listener : listeners) {
+            listener.onRequestStarted(resourceType, httpMethod);
+        }
+    }
+
+    @Override
+    public void onRequestHandled(String resourceType, String httpMethod) {
+        for (MetricsListener listener : listeners) {
+            listener.onRequestHandled(resourceType, httpMethod);
+        }
+    }
+
+    @Override
+    public void onRequestCompleted(String resourceType, String httpMethod, boolean successful) {
+        for (MetricsListener listener : listeners) {
+            listener.onRequestCompleted(resourceType, httpMethod, successful);
+        }
+    }
+
+    @Override
+    public void onStage(MetricsStage stage, String resourceType, String controller, String httpMethod,
+                        long durationNanos) {
+        for (MetricsListener listener : listeners) {
+            listener.onStage(stage, resourceType, controller, httpMethod, durationNanos);
+        }
+    }
+
+    @Override
+    public void onRepositoryCall(String resourceType, String method, long durationNanos) {
+        for (MetricsListener listener : listeners) {
+            listener.onRepositoryCall(resourceType, method, durationNanos);
+        }
+    }
+
+    @Override
+    public void onIncludeFanOut(String resourceType, int relationshipLookups) {
+        for (MetricsListener listener : listeners) {
+            listener.onIncludeFanOut(resourceType, relationshipLookups);
+        }
+    }
+
+    @Override
+    public void onResponseResources(String resourceType, int resourceCount) {
+        for (MetricsListener listener : listeners) {
+            listener.onResponseResources(resourceType, resourceCount);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.katharsis.metrics;
+
+/**
+ * Takes measurements across the request pipeline. A {@link MetricsListener} is configured for each
+ * {@link io.katharsis.dispatcher.RequestDispatcher}, {@link io.katharsis.request.path.PathBuilder},
+ * {@link io.katharsis.queryParams.QueryParamsBuilder} and Jackson module, so applications running several Katharsis
+ * instances in one JVM don't share measurements. A dispatcher binds its listener to the thread handling a request, so
+ * repository adapters and include resolution report to it. Outside of a request {@link NoOpMetricsListener} is used
+ * and no measurements are taken, so the only cost of the instrumentation is a thread-local read per stage.
+ * <p>
+ * Measurements are taken using {@link #start()} and {@link #stop(long, MetricsStage, String, String, String)}:
+ * <pre>
+ * long start = KatharsisMetrics.start();
+ * try {
+ *     ...
+ * } finally {
+ *     KatharsisMetrics.stop(start, MetricsStage.DISPATCH, resourceType, controller, httpMethod);
+ * }
+ * </pre>
+ */
+public final class KatharsisMetrics {
+
+    private static final long NOT_STARTED = -1L;
+
+    private static final ThreadLocal<MetricsListener> CURRENT = new ThreadLocal<>();
+
+    private KatharsisMetrics() {
+    }
+
+    /**
+     * Binds a listener to the current thread unless a listener is already bound, e.g. when requests are nested.
+     *
+     * @param metricsListener listener of a request
+     * @return <i>true</i> if the listener has been bound and has to be released using {@link #close()}
+     */
+    public static boolean open(MetricsListener metricsListener) {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(metricsListener == null ? NoOpMetricsListener.INSTANCE : metricsListener);
+        return true;
+    }
+
+    /**
+     * Releases the listener bound to the current thread.
+     */
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return listener bound to the current thread or {@link NoOpMetricsListener} outside of a request
+     */
+    public static MetricsListener getListener() {
+        MetricsListener listener = CURRENT.get();
+        return listener == null ? NoOpMetricsListener.INSTANCE : listener;
+    }
+
+    /**
+     * Starts a measurement reported to the listener bound to the current thread.
+     *
+     * @return start time to be passed to a stop method
+     */
+    public static long start() {
+        return start(getListener());
+    }
+
+    /**
+     * Starts a measurement reported to a listener.
+     *
+     * @param listener listener of the measurement
+     * @return start time to be passed to a stop method
+     */
+    public static long start(MetricsListener listener) {
+        return listener.isEnabled() ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Allows to skip computing tags of a measurement which has not been started.
+     *
+     * @param start value returned by {@link #start()}
+     * @return <i>true</i> if the measurement has been started
+     */
+    public static boolean isStarted(long start) {
+        return start != NOT_STARTED;
+    }
+
+    public static void stop(long start, MetricsStage stage, String resourceType, String controller,
+                            String httpMethod) {
+        if (start != NOT_STARTED) {
+            stop(getListener(), start, stage, resourceType, controller, httpMethod);
+        }
+    }
+
+    public static void stop(MetricsListener listener, long start, MetricsStage stage, String resourceType,
+                            String controller, String httpMethod) {
+        if (start != NOT_STARTED) {
+            listener.onStage(stage, resourceType, controller, httpMethod, System.nanoTime() - start);
+        }
+    }
+
+    public static void stopRepositoryCall(long start, String resourceType, String method) {
+        if (start != NOT_STARTED) {
+            stopRepositoryCall(getListener(), start, resourceType, method);
+        }
+    }
+
+    public static void stopRepositoryCall(MetricsListener listener, long start, String resourceType,
+                                          String method) {
+        if (start != NOT_STARTED) {
+            long duration = System.nanoTime() - start;
+            listener.onStage(MetricsStage.REPOSITORY, resourceType, null, null, duration);
+            listener.onRepositoryCall(resourceType, method, duration);
+        }
+    }
+}
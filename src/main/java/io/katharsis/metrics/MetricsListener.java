@@ -0,0 +1,83 @@
+package io.katharsis.metrics;
+
+/**
+ * Receives measurements of a request pipeline. A listener is passed to
+ * {@link io.katharsis.dispatcher.RequestDispatcher} and to other components of a Katharsis instance, see
+ * {@link KatharsisMetrics}. Methods are called on request threads, so an implementation must be thread-safe and should
+ * return quickly. Tags which are not known at a stage are passed as <i>null</i>.
+ * <p>
+ * Extend {@link NoOpMetricsListener} to receive only chosen measurements.
+ */
+public interface MetricsListener {
+
+    /**
+     * Allows to skip taking measurements altogether. It's checked before every measurement is taken.
+     *
+     * @return <i>true</i> if the listener records measurements
+     */
+    boolean isEnabled();
+
+    /**
+     * Called on a request thread before a request is dispatched to a controller.
+     *
+     * @param resourceType JSON API type of the requested resource
+     * @param httpMethod   HTTP method of the request
+     */
+    void onRequestStarted(String resourceType, String httpMethod);
+
+    /**
+     * Called on a request thread after a request has been handled by a controller and before its response is
+     * returned to be written. An exception thrown by this method fails the request and is mapped to an error response
+     * like an exception of a repository. Requests which failed before are not passed to this method.
+     *
+     * @param resourceType JSON API type of the requested resource
+     * @param httpMethod   HTTP method of the request
+     */
+    void onRequestHandled(String resourceType, String httpMethod);
+
+    /**
+     * Called on a request thread after a request has been handled, also exceptionally. It's called in a
+     * <i>finally</i> block, so it must not throw exceptions, which would hide the failure of the request.
+     *
+     * @param resourceType JSON API type of the requested resource
+     * @param httpMethod   HTTP method of the request
+     * @param successful   <i>false</i> if handling of the request has thrown an exception
+     */
+    void onRequestCompleted(String resourceType, String httpMethod, boolean successful);
+
+    /**
+     * Called when a stage of a request has completed, also exceptionally.
+     *
+     * @param stage         measured stage
+     * @param resourceType  JSON API type of a processed resource
+     * @param controller    name of a controller handling the request
+     * @param httpMethod    HTTP method of the request
+     * @param durationNanos duration of the stage in nanoseconds
+     */
+    void onStage(MetricsStage stage, String resourceType, String controller, String httpMethod, long durationNanos);
+
+    /**
+     * Called after a repository method has been invoked, also exceptionally.
+     *
+     * @param resourceType  JSON API type of a resource served by the repository
+     * @param method        name of the invoked method, e.g. <i>findAll</i>
+     * @param durationNanos duration of the call in nanoseconds
+     */
+    void onRepositoryCall(String resourceType, String method, long durationNanos);
+
+    /**
+     * Called after included relationships of a response have been resolved.
+     *
+     * @param resourceType        JSON API type of the resource including the relationships
+     * @param relationshipLookups number of relationship repository lookups performed
+     */
+    void onIncludeFanOut(String resourceType, int relationshipLookups);
+
+    /**
+     * Called after a response has been serialized.
+     *
+     * @param resourceType  JSON API type of the primary data
+     * @param resourceCount number of serialized resources, including the included ones
+     */
+    void onResponseResources(String resourceType, int resourceCount);
+}
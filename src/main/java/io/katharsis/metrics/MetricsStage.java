@@ -0,0 +1,31 @@
+package io.katharsis.metrics;
+
+/**
+ * Stages of a request pipeline measured by {@link MetricsListener}.
+ */
+public enum MetricsStage {
+    /**
+     * Parsing of a request path by {@link io.katharsis.request.path.PathBuilder}
+     */
+    PATH_PARSING,
+    /**
+     * Parsing of query parameters by {@link io.katharsis.queryParams.QueryParamsBuilder}
+     */
+    QUERY_PARSING,
+    /**
+     * Handling of a request by a controller chosen by {@link io.katharsis.dispatcher.RequestDispatcher}
+     */
+    DISPATCH,
+    /**
+     * Call of a resource or relationship repository
+     */
+    REPOSITORY,
+    /**
+     * Resolution of included relationships by {@link io.katharsis.resource.include.IncludeLookupSetter}
+     */
+    INCLUDE_RESOLUTION,
+    /**
+     * Serialization of a response by {@link io.katharsis.jackson.serializer.BaseResponseSerializer}
+     */
+    SERIALIZATION
+}
@@ -0,0 +1,43 @@
+package io.katharsis.metrics;
+
+/**
+ * A listener ignoring all measurements. It's the default listener, which disables taking measurements.
+ */
+public class NoOpMetricsListener implements MetricsListener {
+
+    public static final NoOpMetricsListener INSTANCE = new NoOpMetricsListener();
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void onRequestStarted(String resourceType, String httpMethod) {
+    }
+
+    @Override
+    public void onRequestHandled(String resourceType, String httpMethod) {
+    }
+
+    @Override
+    public void onRequestCompleted(String resourceType, String httpMethod, boolean successful) {
+    }
+
+    @Override
+    public void onStage(MetricsStage stage, String resourceType, String controller, String httpMethod,
+                        long durationNanos) {
+    }
+
+    @Override
+    public void onRepositoryCall(String resourceType, String method, long durationNanos) {
+    }
+
+    @Override
+    public void onIncludeFanOut(String resourceType, int relationshipLookups) {
+    }
+
+    @Override
+    public void onResponseResources(String resourceType, int resourceCount) {
+    }
+}
@@ -0,0 +1,91 @@
+package io.katharsis.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts repository calls made while handling a single request. Calls are keyed by
+ * <i>resourceType.method</i>, e.g. <i>tasks.findOneTarget</i>.
+ */
+public final class RepositoryCallAccounting {
+
+    private final Map<String, Integer> calls = new LinkedHashMap<>();
+    private int callCount;
+    private int nestedRequests;
+    private String violation;
+
+    void record(String resourceType, String method) {
+        String key = resourceType + "." + method;
+        Integer count = calls.get(key);
+        calls.put(key, count == null ? 1 : count + 1);
+        callCount++;
+    }
+
+    void startNestedRequest() {
+        nestedRequests++;
+    }
+
+    /**
+     * @return <i>true</i> if a nested request has been completed, <i>false</i> if it's the accounted request
+     */
+    boolean completeNestedRequest() {
+        if (nestedRequests == 0) {
+            return false;
+        }
+        nestedRequests--;
+        return true;
+    }
+
+    boolean isNested() {
+        return nestedRequests > 0;
+    }
+
+    void setViolation(String violation) {
+        this.violation = violation;
+    }
+
+    /**
+     * @return description of the exceeded budget if the request has been failed because of it, otherwise <i>null</i>
+     */
+    public String getViolation() {
+        return violation;
+    }
+
+    public int getCallCount() {
+        return callCount;
+    }
+
+    public Map<String, Integer> getCalls() {
+        return Collections.unmodifiableMap(calls);
+    }
+
+    /**
+     * Returns single-resource calls repeated against the same repository at least <i>threshold</i> times. Such calls
+     * are usually made for each resource of a collection, which is an N+1 pattern.
+     *
+     * @param threshold minimal number of repeated calls
+     * @return repeated calls with their counts
+     */
+    public Map<String, Integer> getNPlusOneCandidates(int threshold) {
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : calls.entrySet()) {
+            if (isSingleResourceCall(entry.getKey()) && entry.getValue() >= threshold) {
+                candidates.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean isSingleResourceCall(String key) {
+        return key.endsWith(".findOne") || key.endsWith(".findOneTarget") || key.endsWith(".findManyTargets");
+    }
+
+    @Override
+    public String toString() {
+        return "RepositoryCallAccounting{" +
+            "callCount=" + callCount +
+            ", calls=" + calls +
+            '}';
+    }
+}
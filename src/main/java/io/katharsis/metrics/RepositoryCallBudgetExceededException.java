@@ -0,0 +1,20 @@
+package io.katharsis.metrics;
+
+import io.katharsis.errorhandling.exception.KatharsisException;
+
+/**
+ * Thrown by {@link RepositoryCallBudgetListener} in strict mode when a request exceeds its repository call budget.
+ */
+public final class RepositoryCallBudgetExceededException extends KatharsisException {
+
+    private final RepositoryCallAccounting accounting;
+
+    public RepositoryCallBudgetExceededException(String message, RepositoryCallAccounting accounting) {
+        super(message);
+        this.accounting = accounting;
+    }
+
+    public RepositoryCallAccounting getAccounting() {
+        return accounting;
+    }
+}
@@ -0,0 +1,117 @@
+package io.katharsis.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Accounts repository calls of each request and reports requests exceeding a budget: more repository calls than
+ * allowed or single-resource calls repeated against the same repository, which indicates an N+1 pattern, e.g. in
+ * {@link io.katharsis.resource.annotations.JsonApiLookupIncludeAutomatically} relationships. A violation is logged as
+ * a warning or, in strict mode intended for integration tests, fails the request with
+ * {@link RepositoryCallBudgetExceededException}.
+ * <p>
+ * Requests are accounted on the thread dispatching them, so repository calls made on other threads are not counted.
+ */
+public class RepositoryCallBudgetListener extends NoOpMetricsListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryCallBudgetListener.class);
+
+    private final ThreadLocal<RepositoryCallAccounting> currentAccounting = new ThreadLocal<>();
+    private final int maxRepositoryCalls;
+    private final int nPlusOneThreshold;
+    private final boolean strict;
+
+    /**
+     * @param maxRepositoryCalls maximal number of repository calls of a request
+     * @param nPlusOneThreshold  number of single-resource calls against the same repository which is reported as an
+     *                           N+1 pattern
+     * @param strict             <i>true</i> to fail violating requests instead of logging them
+     */
+    public RepositoryCallBudgetListener(int maxRepositoryCalls, int nPlusOneThreshold, boolean strict) {
+        this.maxRepositoryCalls = maxRepositoryCalls;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.strict = strict;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * A request dispatched while another one is being handled on the same thread, e.g. by a repository, is accounted
+     * as a part of the outer request.
+     */
+    @Override
+    public void onRequestStarted(String resourceType, String httpMethod) {
+        RepositoryCallAccounting accounting = currentAccounting.get();
+        if (accounting != null) {
+            accounting.startNestedRequest();
+        } else {
+            currentAccounting.set(new RepositoryCallAccounting());
+        }
+    }
+
+    @Override
+    public void onRepositoryCall(String resourceType, String method, long durationNanos) {
+        RepositoryCallAccounting accounting = currentAccounting.get();
+        if (accounting != null) {
+            accounting.record(resourceType, method);
+        }
+    }
+
+    /**
+     * In strict mode fails a request exceeding the budget before its response is written, so the failure is mapped to
+     * an error response.
+     */
+    @Override
+    public void onRequestHandled(String resourceType, String httpMethod) {
+        RepositoryCallAccounting accounting = currentAccounting.get();
+        if (!strict || accounting == null || accounting.isNested()) {
+            return;
+        }
+        String violation = findViolation(accounting, resourceType, httpMethod);
+        if (violation != null) {
+            accounting.setViolation(violation);
+            throw new RepositoryCallBudgetExceededException(violation, accounting);
+        }
+    }
+
+    /**
+     * Logs a violation of a request which has not been failed because of it.
+     */
+    @Override
+    public void onRequestCompleted(String resourceType, String httpMethod, boolean successful) {
+        RepositoryCallAccounting accounting = currentAccounting.get();
+        if (accounting == null || accounting.completeNestedRequest()) {
+            return;
+        }
+        currentAccounting.remove();
+        if (accounting.getViolation() != null) {
+            return;
+        }
+        String violation = findViolation(accounting, resourceType, httpMethod);
+        if (violation != null) {
+            logger.warn(violation);
+        }
+    }
+
+    private String findViolation(RepositoryCallAccounting accounting, String resourceType, String httpMethod) {
+        Map<String, Integer> nPlusOneCandidates = accounting.getNPlusOneCandidates(nPlusOneThreshold);
+        if (accounting.getCallCount() <= maxRepositoryCalls && nPlusOneCandidates.isEmpty()) {
+            return null;
+        }
+        return String.format("Repository call budget of %s %s exceeded: %d calls of %d allowed, " +
+                "N+1 candidates: %s, calls: %s", httpMethod, resourceType, accounting.getCallCount(),
+            maxRepositoryCalls, nPlusOneCandidates, accounting.getCalls());
+    }
+
+    /**
+     * @return accounting of a request being handled on the current thread or <i>null</i>
+     */
+    public RepositoryCallAccounting getCurrentAccounting() {
+        return currentAccounting.get();
+    }
+}
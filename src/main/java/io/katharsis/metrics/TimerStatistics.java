@@ -0,0 +1,48 @@
+package io.katharsis.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregated durations of a measured stage.
+ */
+public final class TimerStatistics {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long durationNanos) {
+        count.incrementAndGet();
+        totalNanos.addAndGet(durationNanos);
+        long currentMax = maxNanos.get();
+        while (durationNanos > currentMax && !maxNanos.compareAndSet(currentMax, durationNanos)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long currentCount = count.get();
+        return currentCount == 0 ? 0 : totalNanos.get() / currentCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TimerStatistics{" +
+            "count=" + count +
+            ", totalNanos=" + totalNanos +
+            ", maxNanos=" + maxNanos +
+            '}';
+    }
+}
@@ -1,6 +1,9 @@
 package io.katharsis.queryParams;
 
 import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.filter.FilterExpression;
+import io.katharsis.queryParams.filter.FilterExpressionBuilder;
+import io.katharsis.queryParams.include.IncludePlan;
 import io.katharsis.queryParams.include.Inclusion;
 import io.katharsis.queryParams.params.FilterParams;
 import io.katharsis.queryParams.params.GroupingParams;
@@ -9,17 +12,26 @@ import io.katharsis.queryParams.params.IncludedRelationsParams;
 import io.katharsis.queryParams.params.SortingParams;
 import io.katharsis.queryParams.params.TypedParams;
 import io.katharsis.resource.RestrictedQueryParamsMembers;
+import io.katharsis.resource.field.ResourceAttributesBridge;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.utils.StringUtils;
+import io.katharsis.utils.java.Optional;
 
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,11 +41,14 @@ import java.util.regex.Pattern;
 public class QueryParams {
 
     private TypedParams<FilterParams> filters;
+    private TypedParams<FilterExpression> filterExpressions;
     private TypedParams<SortingParams> sorting;
     private TypedParams<GroupingParams> grouping;
     private TypedParams<IncludedFieldsParams> includedFields;
     private TypedParams<IncludedRelationsParams> includedRelations;
     private Map<RestrictedPaginationKeys, String> pagination;
+    private String syncToken;
+    private final ConcurrentMap<IncludePlanKey, IncludePlan> includePlans = new ConcurrentHashMap<>();
 
     private static List<String> buildPropertyListFromEntry(Map.Entry<String, Set<String>> entry, String prefix) {
         String entryKey = entry.getKey()
@@ -68,8 +83,8 @@ public class QueryParams {
      * <ul>
      * <li>{@code GET /tasks/?filter[tasks][name]=Super task}</li>
      * <li>{@code GET /tasks/?filter[tasks][name]=Super task&filter[tasks][dueDate]=2015-10-01}</li>
-     * <li>{@code GET /tasks/?filter[tasks][name][$startWith]=Super task}</li>
-     * <li>{@code GET /tasks/?filter[tasks][name][][$startWith]=Super&filter[tasks][name][][$endWith]=task}</li>
+     * <li>{@code GET /tasks/?filter[tasks][name][$startsWith]=Super task}</li>
+     * <li>{@code GET /tasks/?filter[tasks][name][][$startsWith]=Super&filter[tasks][name][][$endsWith]=task}</li>
      * </ul>
      *
      * @return {@link TypedParams} Map of filtering params passed to a request grouped by type of resource
@@ -108,6 +123,25 @@ public class QueryParams {
         this.filters = new TypedParams<>(Collections.unmodifiableMap(decodedFiltersMap));
     }
 
+    /**
+     * Returns filters compiled into {@link FilterExpression} trees. The value is available only when
+     * {@link QueryParamsBuilder} has been created with a {@link FilterExpressionBuilder}, otherwise <i>null</i> is
+     * returned and {@link #getFilters()} should be used.
+     * <p>
+     * Property paths of the compiled filters are resolved to resource fields and values are converted to the types
+     * of the filtered properties, so a repository can pass them directly to a data source using
+     * {@link io.katharsis.queryParams.filter.FilterVisitor}.
+     *
+     * @return {@link TypedParams} Map of compiled filters grouped by type of resource
+     */
+    public TypedParams<FilterExpression> getFilterExpressions() {
+        return filterExpressions;
+    }
+
+    void setFilterExpressions(TypedParams<FilterExpression> filterExpressions) {
+        this.filterExpressions = filterExpressions;
+    }
+
     /**
      * <strong>Important!</strong> Katharsis implementation differs form JSON API
      * <a href="http://jsonapi.org/format/#fetching-sorting">definition of sorting</a>
@@ -145,7 +179,7 @@ public class QueryParams {
                         .iterator()
                         .next()));
             } else {
-                Map<String, RestrictedSortingValues> resourceParams = new HashMap<>();
+                Map<String, RestrictedSortingValues> resourceParams = new LinkedHashMap<>();
                 temporarySortingMap.put(resourceType, resourceParams);
                 resourceParams.put(propertyPath, RestrictedSortingValues.valueOf(entry.getValue()
                         .iterator()
@@ -178,6 +212,11 @@ public class QueryParams {
      * <li>{@code GET /tasks/?group[tasks]=name}</li>
      * <li>{@code GET /project/?group[users]=name.firstName&include[projects]=team}</li>
      * </ul>
+     * Values starting with <i>$</i> name aggregates computed for each group, eg.
+     * {@code GET /tasks/?group[tasks]=status,$sum(estimate),$max(estimate)}. Requests naming an aggregate, and grouped
+     * requests of a {@link io.katharsis.repository.GroupingRepository}, are executed by
+     * {@link io.katharsis.queryParams.group.GroupingSpec}, which supports grouping by attributes of the requested
+     * resource.
      *
      * @return {@link Map} Map of grouping params passed to request grouped by type of resource
      */
@@ -265,6 +304,22 @@ public class QueryParams {
         return pagination.get(key);
     }
 
+    /**
+     * @return copy of the parameters without pagination, e.g. to read all of the resources aggregated by a request
+     */
+    public QueryParams withoutPagination() {
+        QueryParams queryParams = new QueryParams();
+        queryParams.filters = filters;
+        queryParams.filterExpressions = filterExpressions;
+        queryParams.sorting = sorting;
+        queryParams.grouping = grouping;
+        queryParams.includedFields = includedFields;
+        queryParams.includedRelations = includedRelations;
+        queryParams.pagination = Collections.emptyMap();
+        queryParams.syncToken = syncToken;
+        return queryParams;
+    }
+
     void setPagination(Map<String, Set<String>> pagination) {
         Map<RestrictedPaginationKeys, String> decodedPagination =
                 new EnumMap<>(RestrictedPaginationKeys.class);
@@ -306,6 +361,94 @@ public class QueryParams {
         return includedFields;
     }
 
+    /**
+     * When <i>fields</i> param is passed, <b>attributes</b> and <b>relationships</b> of a resource should be filtered
+     * accordingly to the requested fields. If there are included fields defined for other resources but not for the
+     * requested one, empty set is returned.
+     *
+     * @param resourceType JSON API name of a resource
+     * @return names of requested fields or no value if all fields should be returned
+     */
+    public Optional<Set<String>> getIncludedFieldNames(String resourceType) {
+        if (includedFields == null || includedFields.getParams().isEmpty()) {
+            return Optional.empty();
+        }
+        IncludedFieldsParams typeIncludedFields = includedFields.getParams().get(resourceType);
+        if (typeIncludedFields == null || typeIncludedFields.getParams().isEmpty()) {
+            return Optional.of(Collections.<String>emptySet());
+        }
+        return Optional.of(typeIncludedFields.getParams());
+    }
+
+    /**
+     * Resolves fields of a resource which are needed to build a response: the id, requested attributes, requested
+     * relationships and relationships being the first element of inclusions defined for the resource type.
+     * A repository can use it to load only the needed properties of a resource, attributes marked with
+     * {@link io.katharsis.resource.annotations.JsonApiLazyAttribute} are included only if they're requested.
+     *
+     * @param resourceInformation information about the resource
+     * @param resourceType        JSON API name of the resource
+     * @return fields needed to build a response
+     */
+    public Set<ResourceField> getProjection(ResourceInformation resourceInformation, String resourceType) {
+        Optional<Set<String>> fieldNames = getIncludedFieldNames(resourceType);
+        Set<ResourceField> projection = new LinkedHashSet<>();
+        projection.add(resourceInformation.getIdField());
+        projection.addAll(getProjectedAttributeFields(resourceInformation, fieldNames));
+        projection.addAll(getProjectedRelationshipFields(resourceInformation, fieldNames));
+
+        IncludedRelationsParams inclusions = includedRelations == null || resourceType == null ? null :
+            includedRelations.getParams().get(resourceType);
+        if (inclusions != null) {
+            for (Inclusion inclusion : inclusions.getParams()) {
+                projection.add(IncludePlan.findRelationshipField(resourceInformation, inclusion.getPathList().get(0)));
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Returns attributes of a resource which are serialized for the requested fields. If no fields are requested,
+     * all attributes except lazy ones are returned.
+     *
+     * @param resourceInformation information about the resource
+     * @param fieldNames          result of {@link #getIncludedFieldNames(String)}
+     * @return attributes to be serialized
+     */
+    public static Set<ResourceField> getProjectedAttributeFields(ResourceInformation resourceInformation,
+                                                                 Optional<Set<String>> fieldNames) {
+        ResourceAttributesBridge<?> attributeFields = resourceInformation.getAttributeFields();
+        Set<ResourceField> projectedFields = new LinkedHashSet<>();
+        for (ResourceField attributeField : attributeFields.getStaticFields()) {
+            if (fieldNames.isPresent() ? fieldNames.get().contains(attributeField.getJsonName())
+                : !attributeField.isLazy()) {
+                projectedFields.add(attributeField);
+            }
+        }
+        return projectedFields;
+    }
+
+    /**
+     * Returns relationships of a resource which are serialized for the requested fields.
+     *
+     * @param resourceInformation information about the resource
+     * @param fieldNames          result of {@link #getIncludedFieldNames(String)}
+     * @return relationships to be serialized
+     */
+    public static Set<ResourceField> getProjectedRelationshipFields(ResourceInformation resourceInformation,
+                                                                    Optional<Set<String>> fieldNames) {
+        if (!fieldNames.isPresent()) {
+            return resourceInformation.getRelationshipFields();
+        }
+        Set<ResourceField> relationshipFields = new LinkedHashSet<>();
+        for (ResourceField relationshipField : resourceInformation.getRelationshipFields()) {
+            if (fieldNames.get().contains(relationshipField.getJsonName())) {
+                relationshipFields.add(relationshipField);
+            }
+        }
+        return relationshipFields;
+    }
+
     void setIncludedFields(Map<String, Set<String>> sparse) {
         Map<String, Set<String>> temporarySparseMap = new LinkedHashMap<>();
 
@@ -361,6 +504,69 @@ public class QueryParams {
         return includedRelations;
     }
 
+    /**
+     * Returns relationships requested by <i>include[resourceType]</i> parameter compiled into a tree of relationship
+     * fields. A plan is compiled once and reused by all of the stages handling the request.
+     *
+     * @param resourceRegistry    registry the resource belongs to
+     * @param includeKey          key of the <i>include</i> parameter, usually a resource type
+     * @param resourceInformation information about the resource the inclusion paths start at
+     * @return compiled plan, {@link IncludePlan#EMPTY} if there are no inclusions for the key
+     * @throws io.katharsis.resource.exception.ResourceFieldNotFoundException if an inclusion doesn't match any
+     * relationship
+     */
+    public IncludePlan getIncludePlan(ResourceRegistry resourceRegistry, String includeKey,
+                                      ResourceInformation resourceInformation) {
+        return getIncludePlan(resourceRegistry, includeKey, resourceInformation, 0);
+    }
+
+    /**
+     * Returns a compiled plan of inclusions whose paths start with segments not belonging to the resource, e.g. a
+     * name of the relationship requested by a path.
+     *
+     * @param resourceRegistry    registry the resource belongs to
+     * @param includeKey          key of the <i>include</i> parameter
+     * @param resourceInformation information about the resource the remaining path segments start at
+     * @param skippedSegments     number of leading segments of inclusion paths to be skipped
+     * @return compiled plan, {@link IncludePlan#EMPTY} if there are no inclusions for the key
+     */
+    public IncludePlan getIncludePlan(ResourceRegistry resourceRegistry, String includeKey,
+                                      ResourceInformation resourceInformation, int skippedSegments) {
+        IncludedRelationsParams inclusions = includedRelations == null || includeKey == null ? null :
+            includedRelations.getParams().get(includeKey);
+        if (inclusions == null || inclusions.getParams().isEmpty()) {
+            return IncludePlan.EMPTY;
+        }
+        IncludePlanKey planKey = new IncludePlanKey(resourceRegistry, includeKey, resourceInformation, skippedSegments);
+        IncludePlan includePlan = includePlans.get(planKey);
+        if (includePlan == null) {
+            includePlan = IncludePlan.compile(resourceRegistry, resourceInformation, inclusions.getParams(),
+                skippedSegments);
+            includePlans.putIfAbsent(planKey, includePlan);
+        }
+        return includePlan;
+    }
+
+    /**
+     * Compiles plans of inclusions of all registered resource types, so unknown relationships are rejected before
+     * a request is handled rather than while its response is serialized.
+     *
+     * @param resourceRegistry registry resolving relationships of the resources
+     * @throws io.katharsis.resource.exception.ResourceFieldNotFoundException if an inclusion doesn't match any
+     * relationship
+     */
+    public void compileIncludePlans(ResourceRegistry resourceRegistry) {
+        if (includedRelations == null) {
+            return;
+        }
+        for (String includeKey : includedRelations.getParams().keySet()) {
+            RegistryEntry<?> registryEntry = resourceRegistry.getEntry(includeKey);
+            if (registryEntry != null) {
+                getIncludePlan(resourceRegistry, includeKey, registryEntry.getResourceInformation());
+            }
+        }
+    }
+
     void setIncludedRelations(Map<String, Set<String>> inclusions) {
         Map<String, Set<Inclusion>> temporaryInclusionsMap = new LinkedHashMap<>();
 
@@ -393,17 +599,143 @@ public class QueryParams {
         }
 
         this.includedRelations = new TypedParams<>(Collections.unmodifiableMap(decodedInclusions));
+        includePlans.clear();
+    }
+
+    /**
+     * Sync token is passed in format <strong>sync=token</strong> to request changes of a collection since the
+     * previous synchronization, see {@link io.katharsis.repository.ChangeFeedRepository}.
+     *
+     * @return passed token, an empty string for the initial synchronization or <i>null</i> if it's not requested
+     */
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    void setSyncToken(Set<String> syncToken) {
+        if (syncToken == null) {
+            this.syncToken = null;
+        } else if (syncToken.size() > 1) {
+            throw new ParametersDeserializationException("Only one sync token can be passed");
+        } else {
+            String token = syncToken.isEmpty() ? null : syncToken.iterator().next();
+            this.syncToken = token == null ? "" : token;
+        }
+    }
+
+    /**
+     * Returns a representation of the parameters which doesn't depend on the order they were passed in, so requests
+     * with the same parameters have equal canonical forms.
+     *
+     * @return canonical form of the parameters
+     */
+    public String getCanonicalForm() {
+        StringBuilder builder = new StringBuilder();
+        appendCanonical(builder.append("filters="), filters);
+        appendCanonical(builder.append("&sort="), sorting);
+        appendCanonical(builder.append("&group="), grouping);
+        appendCanonical(builder.append("&fields="), includedFields);
+        appendCanonical(builder.append("&include="), includedRelations);
+        appendCanonical(builder.append("&page="), pagination);
+        appendCanonical(builder.append("&sync="), syncToken);
+        return builder.toString();
+    }
+
+    private static void appendCanonical(StringBuilder builder, Object value) {
+        if (value instanceof TypedParams) {
+            appendCanonical(builder, ((TypedParams<?>) value).getParams());
+        } else if (value instanceof FilterParams) {
+            appendCanonical(builder, ((FilterParams) value).getParams());
+        } else if (value instanceof SortingParams) {
+            // sorted properties are kept in the order of precedence
+            builder.append('[');
+            for (Map.Entry<String, RestrictedSortingValues> entry : ((SortingParams) value).getParams().entrySet()) {
+                builder.append(entry.getKey()).append(':').append(entry.getValue()).append(';');
+            }
+            builder.append(']');
+        } else if (value instanceof GroupingParams) {
+            appendCanonical(builder, ((GroupingParams) value).getParams());
+        } else if (value instanceof IncludedFieldsParams) {
+            appendCanonical(builder, ((IncludedFieldsParams) value).getParams());
+        } else if (value instanceof IncludedRelationsParams) {
+            appendCanonical(builder, ((IncludedRelationsParams) value).getParams());
+        } else if (value instanceof Inclusion) {
+            builder.append(((Inclusion) value).getPath());
+        } else if (value instanceof Map) {
+            Map<String, Object> sortedMap = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sortedMap.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            builder.append('{');
+            for (Map.Entry<String, Object> entry : sortedMap.entrySet()) {
+                appendCanonical(builder.append(entry.getKey()).append(':'), entry.getValue());
+                builder.append(';');
+            }
+            builder.append('}');
+        } else if (value instanceof Set) {
+            Set<String> sortedSet = new TreeSet<>();
+            for (Object element : (Set<?>) value) {
+                StringBuilder elementBuilder = new StringBuilder();
+                appendCanonical(elementBuilder, element);
+                sortedSet.add(elementBuilder.toString());
+            }
+            builder.append(sortedSet);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    /**
+     * Identifies a compiled plan. Registries and resource information are compared by identity, so looking a plan up
+     * doesn't build a string for each serialized resource.
+     */
+    private static final class IncludePlanKey {
+        private final ResourceRegistry resourceRegistry;
+        private final String includeKey;
+        private final ResourceInformation resourceInformation;
+        private final int skippedSegments;
+
+        private IncludePlanKey(ResourceRegistry resourceRegistry, String includeKey,
+                               ResourceInformation resourceInformation, int skippedSegments) {
+            this.resourceRegistry = resourceRegistry;
+            this.includeKey = includeKey;
+            this.resourceInformation = resourceInformation;
+            this.skippedSegments = skippedSegments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            IncludePlanKey that = (IncludePlanKey) o;
+            return resourceRegistry == that.resourceRegistry && resourceInformation == that.resourceInformation &&
+                skippedSegments == that.skippedSegments && includeKey.equals(that.includeKey);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = includeKey.hashCode();
+            result = 31 * result + System.identityHashCode(resourceInformation);
+            result = 31 * result + System.identityHashCode(resourceRegistry);
+            return 31 * result + skippedSegments;
+        }
     }
 
     @Override
     public String toString() {
         return "QueryParams{" +
                 "filters=" + filters +
+                ", filterExpressions=" + filterExpressions +
                 ", sorting=" + sorting +
                 ", grouping=" + grouping +
                 ", includedFields=" + includedFields +
                 ", includedRelations=" + includedRelations +
                 ", pagination=" + pagination +
+                ", syncToken=" + syncToken +
                 '}';
     }
 }
@@ -3,6 +3,12 @@ package io.katharsis.queryParams;
 import io.katharsis.errorhandling.exception.KatharsisException;
 import io.katharsis.errorhandling.exception.QueryParseException;
 import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.metrics.KatharsisMetrics;
+import io.katharsis.metrics.MetricsListener;
+import io.katharsis.metrics.MetricsStage;
+import io.katharsis.metrics.NoOpMetricsListener;
+import io.katharsis.queryParams.filter.FilterExpressionBuilder;
+import io.katharsis.resource.RestrictedQueryParamsMembers;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
@@ -28,9 +34,36 @@ import java.util.Set;
 public class QueryParamsBuilder {
 
     private final QueryParamsParser queryParamsParser;
+    private final FilterExpressionBuilder filterExpressionBuilder;
+    private final MetricsListener metricsListener;
 
     public QueryParamsBuilder(final QueryParamsParser queryParamsParser) {
+        this(queryParamsParser, null);
+    }
+
+    /**
+     * Creates a builder which additionally compiles filters into {@link QueryParams#getFilterExpressions()}. Filters
+     * referencing unknown resource types, properties or operators are rejected.
+     *
+     * @param queryParamsParser       parser of raw query parameters
+     * @param filterExpressionBuilder compiler of filters, can be <i>null</i>
+     */
+    public QueryParamsBuilder(final QueryParamsParser queryParamsParser,
+                              final FilterExpressionBuilder filterExpressionBuilder) {
+        this(queryParamsParser, filterExpressionBuilder, null);
+    }
+
+    /**
+     * @param queryParamsParser       parser of raw query parameters
+     * @param filterExpressionBuilder compiler of filters, can be <i>null</i>
+     * @param metricsListener         listener of parsing time or <i>null</i> if it's not measured
+     */
+    public QueryParamsBuilder(final QueryParamsParser queryParamsParser,
+                              final FilterExpressionBuilder filterExpressionBuilder,
+                              final MetricsListener metricsListener) {
         this.queryParamsParser = queryParamsParser;
+        this.filterExpressionBuilder = filterExpressionBuilder;
+        this.metricsListener = metricsListener == null ? NoOpMetricsListener.INSTANCE : metricsListener;
     }
 
     /**
@@ -63,18 +96,26 @@ public class QueryParamsBuilder {
      * @throws ParametersDeserializationException thrown when unsupported input format is detected
      */
     public QueryParams buildQueryParams(Map<String, Set<String>> queryParams) {
+        long start = KatharsisMetrics.start(metricsListener);
         QueryParams deserializedQueryParams = new QueryParams();
         try {
             deserializedQueryParams.setFilters(this.queryParamsParser.parseFiltersParameters(queryParams));
+            if (filterExpressionBuilder != null) {
+                deserializedQueryParams.setFilterExpressions(
+                        filterExpressionBuilder.build(deserializedQueryParams.getFilters()));
+            }
             deserializedQueryParams.setSorting(this.queryParamsParser.parseSortingParameters(queryParams));
             deserializedQueryParams.setGrouping(this.queryParamsParser.parseGroupingParameters(queryParams));
             deserializedQueryParams.setPagination(this.queryParamsParser.parsePaginationParameters(queryParams));
             deserializedQueryParams.setIncludedFields(this.queryParamsParser.parseIncludedFieldsParameters(queryParams));
             deserializedQueryParams.setIncludedRelations(this.queryParamsParser.parseIncludedRelationsParameters(queryParams));
+            deserializedQueryParams.setSyncToken(queryParams.get(RestrictedQueryParamsMembers.sync.name()));
         } catch (KatharsisException e) {
             throw e;
         } catch (RuntimeException e) {
             throw new ParametersDeserializationException(e.getMessage());
+        } finally {
+            KatharsisMetrics.stop(metricsListener, start, MetricsStage.QUERY_PARSING, null, null, null);
         }
         return deserializedQueryParams;
     }
@@ -0,0 +1,134 @@
+package io.katharsis.queryParams.cost;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.RestrictedPaginationKeys;
+import io.katharsis.queryParams.include.IncludePlan;
+import io.katharsis.request.path.FieldPath;
+import io.katharsis.request.path.JsonPath;
+import io.katharsis.request.path.RelationshipsPath;
+import io.katharsis.resource.annotations.JsonApiIncludeByDefault;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
+import io.katharsis.resource.registry.ResourceRegistry;
+
+/**
+ * Estimates the number of resources a request reads before any repository is called. The estimate is the sum of the
+ * resources of the primary data and of all included resources, where:
+ * <ul>
+ * <li>size of a collection is the requested page size or a default one if the request isn't paged,</li>
+ * <li>number of resources related to each resource is {@link RelationshipDescriptor#getCardinality()} or a default
+ * cardinality if the relationship doesn't define any,</li>
+ * <li>relationships annotated with {@link JsonApiIncludeByDefault} are counted one level deep.</li>
+ * </ul>
+ */
+public class QueryCostEstimator {
+
+    private final ResourceRegistry resourceRegistry;
+    private final int defaultPageSize;
+    private final int defaultCardinality;
+
+    /**
+     * @param resourceRegistry   registry of resources
+     * @param defaultPageSize    expected size of a collection requested without pagination
+     * @param defaultCardinality expected number of resources of a to-many relationship without a cardinality hint
+     */
+    public QueryCostEstimator(ResourceRegistry resourceRegistry, int defaultPageSize, int defaultCardinality) {
+        this.resourceRegistry = resourceRegistry;
+        this.defaultPageSize = defaultPageSize;
+        this.defaultCardinality = defaultCardinality;
+    }
+
+    /**
+     * @param jsonPath    path of a request
+     * @param queryParams parameters of the request
+     * @return estimated number of resources read by the request, <i>0</i> if the path doesn't denote a resource
+     */
+    public long estimate(JsonPath jsonPath, QueryParams queryParams) {
+        RegistryEntry<?> registryEntry = resourceRegistry.getEntry(jsonPath.getResourceName());
+        if (registryEntry == null) {
+            return 0;
+        }
+        ResourceInformation resourceInformation = registryEntry.getResourceInformation();
+        if (!(jsonPath instanceof FieldPath)) {
+            long count = getPrimaryCount(jsonPath, queryParams);
+            IncludePlan includePlan = getIncludePlan(jsonPath.getElementName(), resourceInformation, queryParams, 0);
+            return count + estimateIncluded(count, resourceInformation, includePlan);
+        }
+
+        RelationshipDescriptor descriptor = resourceRegistry.findRelationshipDescriptorByName(resourceInformation,
+            jsonPath.getElementName());
+        if (descriptor == null) {
+            return 0;
+        }
+        long count = getSourceCount(jsonPath) * getCardinality(descriptor);
+        if (descriptor.isCollection()) {
+            count = Math.min(count, getPageSize(queryParams, count));
+        }
+        if (jsonPath instanceof RelationshipsPath || !descriptor.hasTargetEntry()) {
+            return count;
+        }
+        ResourceInformation targetInformation = descriptor.getTargetEntry().getResourceInformation();
+        // the first segment of an inclusion path is the requested relationship
+        IncludePlan includePlan = getIncludePlan(jsonPath.getElementName(), targetInformation, queryParams, 1);
+        return count + estimateIncluded(count, targetInformation, includePlan);
+    }
+
+    private long estimateIncluded(long parentCount, ResourceInformation resourceInformation, IncludePlan includePlan) {
+        long cost = 0;
+        for (IncludePlan includedRelationship : includePlan.getChildren()) {
+            RelationshipDescriptor descriptor = includedRelationship.getDescriptor();
+            long count = parentCount * getCardinality(descriptor);
+            cost += count;
+            if (descriptor != null && descriptor.hasTargetEntry()) {
+                cost += estimateIncluded(count, descriptor.getTargetEntry().getResourceInformation(),
+                    includedRelationship);
+            }
+        }
+        for (ResourceField relationshipField : resourceInformation.getRelationshipFields()) {
+            if (relationshipField.isAnnotationPresent(JsonApiIncludeByDefault.class)
+                && !includePlan.includes(relationshipField)) {
+                RelationshipDescriptor descriptor = resourceRegistry.getRelationshipDescriptor(resourceInformation,
+                    relationshipField);
+                cost += parentCount * getCardinality(descriptor);
+            }
+        }
+        return cost;
+    }
+
+    private IncludePlan getIncludePlan(String includeKey, ResourceInformation resourceInformation,
+                                       QueryParams queryParams, int skippedSegments) {
+        if (queryParams == null || queryParams.getIncludedRelations() == null) {
+            return IncludePlan.EMPTY;
+        }
+        return queryParams.getIncludePlan(resourceRegistry, includeKey, resourceInformation, skippedSegments);
+    }
+
+    private long getPrimaryCount(JsonPath jsonPath, QueryParams queryParams) {
+        if (jsonPath.doesNotHaveIds()) {
+            return getPageSize(queryParams, defaultPageSize);
+        }
+        return getSourceCount(jsonPath);
+    }
+
+    private static long getSourceCount(JsonPath jsonPath) {
+        return jsonPath.getIds() == null ? 1 : jsonPath.getIds().getIds().size();
+    }
+
+    private static long getPageSize(QueryParams queryParams, long defaultSize) {
+        if (queryParams == null || queryParams.getPagination() == null) {
+            return defaultSize;
+        }
+        Integer limit = queryParams.getPaginationAsInt(RestrictedPaginationKeys.limit);
+        if (limit == null) {
+            limit = queryParams.getPaginationAsInt(RestrictedPaginationKeys.size);
+        }
+        return limit == null ? defaultSize : Math.max(0, limit);
+    }
+
+    private int getCardinality(RelationshipDescriptor descriptor) {
+        int cardinality = descriptor == null ? 0 : descriptor.getCardinality();
+        return cardinality > 0 ? cardinality : defaultCardinality;
+    }
+}
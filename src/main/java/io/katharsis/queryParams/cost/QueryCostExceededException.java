@@ -0,0 +1,20 @@
+package io.katharsis.queryParams.cost;
+
+import io.katharsis.errorhandling.ErrorData;
+import io.katharsis.errorhandling.exception.KatharsisMappableException;
+import io.katharsis.response.HttpStatus;
+
+/**
+ * Thrown, when a request exceeds limits of {@link QueryCostLimiter}
+ */
+public class QueryCostExceededException extends KatharsisMappableException {
+    private static final String TITLE = "Query cost exceeded";
+
+    public QueryCostExceededException(String message) {
+        super(HttpStatus.BAD_REQUEST_400, ErrorData.builder()
+                .setTitle(TITLE)
+                .setDetail(message)
+                .setStatus(String.valueOf(HttpStatus.BAD_REQUEST_400))
+                .build());
+    }
+}
@@ -0,0 +1,65 @@
+package io.katharsis.queryParams.cost;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.request.path.JsonPath;
+
+/**
+ * Admission control of requests. A request whose estimated cost exceeds the budget is rejected before any
+ * repository is called. Since an estimate relies on hints, the number of included resources is also capped while
+ * related resources are fetched, see {@link io.katharsis.resource.include.IncludeLookupSetter}. An atomic request
+ * writes one resource or relationship per operation, so its cost is the number of its operations.
+ */
+public class QueryCostLimiter {
+
+    /**
+     * Value of a limit which is not enforced.
+     */
+    public static final int UNLIMITED = -1;
+
+    private final QueryCostEstimator estimator;
+    private final long maxCost;
+    private final int maxIncludedResources;
+
+    /**
+     * @param estimator            estimator of request costs
+     * @param maxCost              maximum estimated number of resources read by a request or {@link #UNLIMITED}
+     * @param maxIncludedResources maximum number of related resources traversed while resolving inclusions of a
+     *                             request or {@link #UNLIMITED}
+     */
+    public QueryCostLimiter(QueryCostEstimator estimator, long maxCost, int maxIncludedResources) {
+        this.estimator = estimator;
+        this.maxCost = maxCost;
+        this.maxIncludedResources = maxIncludedResources;
+    }
+
+    /**
+     * @param jsonPath    path of a request
+     * @param queryParams parameters of the request
+     * @throws QueryCostExceededException if the estimated cost of the request exceeds the budget
+     */
+    public void admit(JsonPath jsonPath, QueryParams queryParams) {
+        if (maxCost == UNLIMITED) {
+            return;
+        }
+        long cost = estimator.estimate(jsonPath, queryParams);
+        if (cost > maxCost) {
+            throw new QueryCostExceededException(String.format(
+                "Estimated cost of the request is %d resources, the budget is %d", cost, maxCost));
+        }
+    }
+
+    /**
+     * @param operationCount number of operations of an atomic request
+     * @throws QueryCostExceededException if the number of operations exceeds the budget
+     */
+    public void admitOperations(int operationCount) {
+        if (maxCost != UNLIMITED && operationCount > maxCost) {
+            throw new QueryCostExceededException(String.format(
+                "Atomic request has %d operations, the budget is %d", operationCount, maxCost));
+        }
+    }
+
+    public int getMaxIncludedResources() {
+        return maxIncludedResources;
+    }
+}
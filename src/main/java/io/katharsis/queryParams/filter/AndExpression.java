@@ -0,0 +1,46 @@
+package io.katharsis.queryParams.filter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A conjunction of expressions. All filter parameters of a single resource type are joined by this expression.
+ */
+public final class AndExpression extends FilterExpression {
+
+    private final List<FilterExpression> expressions;
+
+    public AndExpression(List<FilterExpression> expressions) {
+        this.expressions = Collections.unmodifiableList(expressions);
+    }
+
+    public List<FilterExpression> getExpressions() {
+        return expressions;
+    }
+
+    @Override
+    public <R> R accept(FilterVisitor<R> visitor) {
+        return visitor.visitAnd(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AndExpression that = (AndExpression) o;
+        return Objects.equals(expressions, that.expressions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(expressions);
+    }
+
+    @Override
+    public String toString() {
+        return "AndExpression{" +
+            "expressions=" + expressions +
+            '}';
+    }
+}
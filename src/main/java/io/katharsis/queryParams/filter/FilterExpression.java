@@ -0,0 +1,18 @@
+package io.katharsis.queryParams.filter;
+
+/**
+ * A node of a compiled filter. Filter parameters of a resource type are compiled into a tree of expressions by
+ * {@link FilterExpressionBuilder}, so a repository can translate them into a query of the underlying data source
+ * using a {@link FilterVisitor} instead of parsing raw parameter strings.
+ */
+public abstract class FilterExpression {
+
+    /**
+     * Passes this expression to a visitor.
+     *
+     * @param visitor visitor to be called
+     * @param <R>     type of the visitor's result
+     * @return result of the visitor
+     */
+    public abstract <R> R accept(FilterVisitor<R> visitor);
+}
@@ -0,0 +1,241 @@
+package io.katharsis.queryParams.filter;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.params.FilterParams;
+import io.katharsis.queryParams.params.TypedParams;
+import io.katharsis.resource.annotations.JsonApiToMany;
+import io.katharsis.resource.annotations.JsonApiToOne;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.utils.Generics;
+import io.katharsis.utils.parser.TypeParser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles raw {@link FilterParams} into a tree of {@link FilterExpression} instances. Each property path is resolved
+ * against {@link ResourceInformation} of a resource, so a filter referencing an unknown property, an unknown operator
+ * or a value which cannot be converted to the property type is rejected with
+ * {@link ParametersDeserializationException} while parsing the request.
+ * <p>
+ * A property path can traverse relationships, e.g. <strong>filter[tasks][project][name]=Katharsis</strong> resolves
+ * <i>project</i> relationship of a task and <i>name</i> attribute of a project. Elements of a path are separated by
+ * dots or brackets, so <i>project.name</i>, <i>project][name</i> and <i>[project][name]</i> are the same path and
+ * empty elements, e.g. of <strong>filter[tasks][name][][$startsWith]</strong>, are skipped.
+ */
+public class FilterExpressionBuilder {
+
+    private static final Pattern PATH_SEPARATOR = Pattern.compile("[.\\[\\]]+");
+
+    private final ResourceRegistry resourceRegistry;
+    private final TypeParser typeParser;
+
+    public FilterExpressionBuilder(ResourceRegistry resourceRegistry, TypeParser typeParser) {
+        this.resourceRegistry = resourceRegistry;
+        this.typeParser = typeParser;
+    }
+
+    /**
+     * Creates a builder without access to a resource registry. Such a builder resolves only the identifier and
+     * attributes of a filtered resource, filters on relationships are rejected.
+     *
+     * @param typeParser parser of filter values
+     */
+    public FilterExpressionBuilder(TypeParser typeParser) {
+        this(null, typeParser);
+    }
+
+    /**
+     * Compiles filters of all resource types passed in a request.
+     *
+     * @param filters filter params grouped by resource type
+     * @return compiled filters grouped by resource type
+     */
+    public TypedParams<FilterExpression> build(TypedParams<FilterParams> filters) {
+        Map<String, FilterExpression> expressions = new LinkedHashMap<>();
+        for (Map.Entry<String, FilterParams> entry : filters.getParams().entrySet()) {
+            expressions.put(entry.getKey(), build(entry.getKey(), entry.getValue()));
+        }
+        return new TypedParams<>(Collections.unmodifiableMap(expressions));
+    }
+
+    /**
+     * Compiles filters of a single resource type. All filters are joined using {@link AndExpression}.
+     *
+     * @param resourceType JSON API resource type
+     * @param filterParams filter params of the resource type
+     * @return compiled filter
+     */
+    public FilterExpression build(String resourceType, FilterParams filterParams) {
+        RegistryEntry registryEntry = resourceRegistry == null ? null : resourceRegistry.getEntry(resourceType);
+        if (registryEntry == null) {
+            throw new ParametersDeserializationException("Filtered resource type not found: " + resourceType);
+        }
+        return build(registryEntry.getResourceInformation(), resourceType, filterParams);
+    }
+
+    /**
+     * Compiles filters of a resource described by the passed {@link ResourceInformation}.
+     *
+     * @param resourceInformation information about the filtered resource
+     * @param resourceType        JSON API resource type, used in error messages
+     * @param filterParams        filter params of the resource type
+     * @return compiled filter
+     */
+    public FilterExpression build(ResourceInformation resourceInformation, String resourceType,
+                                  FilterParams filterParams) {
+        List<FilterExpression> expressions = new ArrayList<>(filterParams.getParams().size());
+        for (Map.Entry<String, Set<String>> entry : filterParams.getParams().entrySet()) {
+            expressions.add(buildPropertyExpression(resourceType, resourceInformation, entry.getKey(), entry.getValue()));
+        }
+        return new AndExpression(expressions);
+    }
+
+    private PropertyExpression buildPropertyExpression(String resourceType, ResourceInformation resourceInformation,
+                                                       String filterPath, Set<String> rawValues) {
+        List<String> pathElements = splitPath(filterPath);
+        FilterOperator operator = pathElements.isEmpty() ? null
+            : parseOperator(resourceType, filterPath, pathElements);
+        if (pathElements.isEmpty()) {
+            throw new ParametersDeserializationException(
+                String.format("Filter of %s doesn't specify a property: %s", resourceType, filterPath));
+        }
+        if (operator == null) {
+            operator = rawValues.size() > 1 ? FilterOperator.in : FilterOperator.eq;
+        } else if (operator != FilterOperator.in && rawValues.size() > 1) {
+            throw new ParametersDeserializationException(
+                String.format("Filter operator %s of %s.%s accepts only one value", operator, resourceType, filterPath));
+        }
+
+        List<ResourceField> path = resolvePath(resourceType, resourceInformation, pathElements);
+        List<Object> values = parseValues(path.get(path.size() - 1), operator, rawValues, resourceType, filterPath);
+        return new PropertyExpression(path, operator, values);
+    }
+
+    private static List<String> splitPath(String filterPath) {
+        List<String> pathElements = new ArrayList<>();
+        for (String element : PATH_SEPARATOR.split(filterPath)) {
+            if (!element.isEmpty()) {
+                pathElements.add(element);
+            }
+        }
+        return pathElements;
+    }
+
+    private static FilterOperator parseOperator(String resourceType, String filterPath, List<String> pathElements) {
+        String lastElement = pathElements.get(pathElements.size() - 1);
+        if (!FilterOperator.isOperator(lastElement)) {
+            return null;
+        }
+        pathElements.remove(pathElements.size() - 1);
+        try {
+            return FilterOperator.parse(lastElement);
+        } catch (IllegalArgumentException e) {
+            throw new ParametersDeserializationException(
+                String.format("Unknown filter operator %s of %s.%s", lastElement, resourceType, filterPath));
+        }
+    }
+
+    private List<ResourceField> resolvePath(String resourceType, ResourceInformation resourceInformation,
+                                            List<String> pathElements) {
+        List<ResourceField> path = new ArrayList<>(pathElements.size());
+        ResourceInformation currentInformation = resourceInformation;
+        for (int i = 0; i < pathElements.size(); i++) {
+            String name = pathElements.get(i);
+            if (currentInformation == null) {
+                throw new ParametersDeserializationException(
+                    String.format("Filter of %s traverses an attribute: %s", resourceType, pathElements));
+            }
+            ResourceField field = findField(currentInformation, name);
+            if (field == null) {
+                throw new ParametersDeserializationException(
+                    String.format("Filtered property %s of %s not found", name, resourceType));
+            }
+            path.add(field);
+            currentInformation = findRelationshipInformation(field);
+        }
+        return path;
+    }
+
+    private static ResourceField findField(ResourceInformation resourceInformation, String name) {
+        if (resourceInformation.getIdField().getJsonName().equals(name)) {
+            return resourceInformation.getIdField();
+        }
+        ResourceField field = resourceInformation.findAttributeFieldByName(name);
+        if (field == null) {
+            field = resourceInformation.findRelationshipFieldByName(name);
+        }
+        return field;
+    }
+
+    private ResourceInformation findRelationshipInformation(ResourceField field) {
+        if (!isRelationship(field)) {
+            return null;
+        }
+        Class<?> relationshipClass = Generics.getResourceClass(field.getGenericType(), field.getType());
+        return getRelationshipEntry(field, relationshipClass).getResourceInformation();
+    }
+
+    private RegistryEntry getRelationshipEntry(ResourceField field, Class<?> relationshipClass) {
+        RegistryEntry registryEntry = resourceRegistry == null ? null : resourceRegistry.getEntry(relationshipClass);
+        if (registryEntry == null) {
+            throw new ParametersDeserializationException(
+                String.format("Filtered relationship %s cannot be resolved", field.getJsonName()));
+        }
+        return registryEntry;
+    }
+
+    private static boolean isRelationship(ResourceField field) {
+        return field.isAnnotationPresent(JsonApiToOne.class) || field.isAnnotationPresent(JsonApiToMany.class);
+    }
+
+    private List<Object> parseValues(ResourceField field, FilterOperator operator, Set<String> rawValues,
+                                     String resourceType, String filterPath) {
+        List<Object> values = new ArrayList<>(rawValues.size());
+        if (operator.isTextOperator()) {
+            values.addAll(rawValues);
+            return values;
+        }
+
+        Class<? extends Serializable> valueClass = getValueClass(field, resourceType, filterPath);
+        for (String rawValue : rawValues) {
+            try {
+                values.add(rawValue == null ? null : typeParser.parse(rawValue, valueClass));
+            } catch (RuntimeException e) {
+                throw new ParametersDeserializationException(
+                    String.format("Cannot parse filter value %s of %s.%s: %s", rawValue, resourceType, filterPath,
+                        e.getMessage()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns a class the filter values should be converted to. A relationship is compared using identifiers of
+     * related resources.
+     */
+    @SuppressWarnings("unchecked")
+    private Class<? extends Serializable> getValueClass(ResourceField field, String resourceType, String filterPath) {
+        Class<?> valueClass = Generics.getResourceClass(field.getGenericType(), field.getType());
+        if (isRelationship(field)) {
+            valueClass = getRelationshipEntry(field, valueClass)
+                .getResourceInformation()
+                .getIdField()
+                .getType();
+        }
+        if (!valueClass.isPrimitive() && !Serializable.class.isAssignableFrom(valueClass)) {
+            throw new ParametersDeserializationException(
+                String.format("Filtered property %s.%s is not comparable to a value", resourceType, filterPath));
+        }
+        return (Class<? extends Serializable>) valueClass;
+    }
+}
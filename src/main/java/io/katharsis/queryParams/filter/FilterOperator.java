@@ -0,0 +1,89 @@
+package io.katharsis.queryParams.filter;
+
+/**
+ * Holds available filter operators. An operator is passed as the last element of a filter parameter, e.g.
+ * <strong>filter[tasks][name][$startsWith]=Super</strong>, its name is the name of a constant prefixed with
+ * {@link #OPERATOR_PREFIX}: <i>$eq</i>, <i>$ne</i>, <i>$in</i>, <i>$lt</i>, <i>$le</i>, <i>$gt</i>, <i>$ge</i>,
+ * <i>$like</i>, <i>$startsWith</i> and <i>$endsWith</i>. A filter without an operator is treated as {@link #eq}
+ * when a single value is passed and as {@link #in} when many values are passed.
+ */
+public enum FilterOperator {
+    /**
+     * Property is equal to the value
+     */
+    eq,
+    /**
+     * Property is not equal to the value
+     */
+    ne,
+    /**
+     * Property is equal to one of the values
+     */
+    in,
+    /**
+     * Property is lower than the value
+     */
+    lt,
+    /**
+     * Property is lower than or equal to the value
+     */
+    le,
+    /**
+     * Property is greater than the value
+     */
+    gt,
+    /**
+     * Property is greater than or equal to the value
+     */
+    ge,
+    /**
+     * Property matches a pattern, where <i>%</i> stands for any sequence of characters
+     */
+    like,
+    /**
+     * Property starts with the value
+     */
+    startsWith,
+    /**
+     * Property ends with the value
+     */
+    endsWith;
+
+    /**
+     * Prefix which distinguishes an operator from a property name in a filter parameter
+     */
+    public static final String OPERATOR_PREFIX = "$";
+
+    /**
+     * Returns an operator for a filter path element.
+     *
+     * @param pathElement filter path element, e.g. <i>$startsWith</i>
+     * @return found operator or <i>null</i> if the element is not an operator
+     * @throws IllegalArgumentException if the element looks like an operator, but is unknown
+     */
+    public static FilterOperator parse(String pathElement) {
+        if (!isOperator(pathElement)) {
+            return null;
+        }
+        return FilterOperator.valueOf(pathElement.substring(OPERATOR_PREFIX.length()));
+    }
+
+    /**
+     * Checks if a filter path element is an operator.
+     *
+     * @param pathElement filter path element
+     * @return <i>true</i> if the element starts with {@link #OPERATOR_PREFIX}
+     */
+    public static boolean isOperator(String pathElement) {
+        return pathElement.startsWith(OPERATOR_PREFIX);
+    }
+
+    /**
+     * Checks if an operator compares a property against a text pattern.
+     *
+     * @return <i>true</i> for {@link #like}, {@link #startsWith} and {@link #endsWith}
+     */
+    public boolean isTextOperator() {
+        return this == like || this == startsWith || this == endsWith;
+    }
+}
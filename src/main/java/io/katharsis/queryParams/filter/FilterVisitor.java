@@ -0,0 +1,26 @@
+package io.katharsis.queryParams.filter;
+
+/**
+ * Visits a tree of {@link FilterExpression} instances. Repositories implement this interface to translate a compiled
+ * filter into a query of the underlying data source, e.g. a JPA criteria predicate or an SQL where clause.
+ *
+ * @param <R> type of the result of visiting an expression
+ */
+public interface FilterVisitor<R> {
+
+    /**
+     * Visits a conjunction of expressions.
+     *
+     * @param expression conjunction
+     * @return visit result
+     */
+    R visitAnd(AndExpression expression);
+
+    /**
+     * Visits a comparison of a resource property with values.
+     *
+     * @param expression comparison
+     * @return visit result
+     */
+    R visitProperty(PropertyExpression expression);
+}
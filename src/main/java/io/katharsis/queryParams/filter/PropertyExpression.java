@@ -0,0 +1,98 @@
+package io.katharsis.queryParams.filter;
+
+import io.katharsis.resource.field.ResourceField;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A comparison of a resource property with one or more values. The property is referenced by a path of
+ * {@link ResourceField} instances, where all elements except the last one are relationships, e.g. <i>project.name</i>
+ * for a task. The values are already converted to the type of the referenced property, except for text operators
+ * which keep the passed {@link String} patterns.
+ */
+public final class PropertyExpression extends FilterExpression {
+
+    private final List<ResourceField> path;
+    private final FilterOperator operator;
+    private final List<Object> values;
+
+    public PropertyExpression(List<ResourceField> path, FilterOperator operator, List<Object> values) {
+        this.path = Collections.unmodifiableList(path);
+        this.operator = operator;
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    /**
+     * @return resolved fields leading to the compared property
+     */
+    public List<ResourceField> getPath() {
+        return path;
+    }
+
+    /**
+     * @return the compared property, that is the last element of the path
+     */
+    public ResourceField getField() {
+        return path.get(path.size() - 1);
+    }
+
+    /**
+     * @return dot separated underlying names of the path, e.g. <i>project.name</i>
+     */
+    public String getUnderlyingPath() {
+        StringBuilder builder = new StringBuilder();
+        for (ResourceField field : path) {
+            if (builder.length() > 0) {
+                builder.append('.');
+            }
+            builder.append(field.getUnderlyingName());
+        }
+        return builder.toString();
+    }
+
+    public FilterOperator getOperator() {
+        return operator;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @return the first value, which is the only one for all operators except {@link FilterOperator#in}
+     */
+    public Object getValue() {
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public <R> R accept(FilterVisitor<R> visitor) {
+        return visitor.visitProperty(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PropertyExpression that = (PropertyExpression) o;
+        return Objects.equals(path, that.path) &&
+            operator == that.operator &&
+            Objects.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, operator, values);
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyExpression{" +
+            "path=" + getUnderlyingPath() +
+            ", operator=" + operator +
+            ", values=" + values +
+            '}';
+    }
+}
@@ -0,0 +1,39 @@
+package io.katharsis.queryParams.group;
+
+import io.katharsis.resource.field.ResourceField;
+
+/**
+ * A function computed over an attribute of grouped resources, eg. <i>$sum(estimate)</i>.
+ */
+public class Aggregate {
+
+    private final AggregateFunction function;
+    private final ResourceField field;
+
+    public Aggregate(AggregateFunction function, ResourceField field) {
+        this.function = function;
+        this.field = field;
+    }
+
+    public AggregateFunction getFunction() {
+        return function;
+    }
+
+    public ResourceField getField() {
+        return field;
+    }
+
+    /**
+     * @return name of the aggregate in a response, eg. <i>sum(estimate)</i>
+     */
+    public String getName() {
+        return function.name().toLowerCase() + "(" + field.getJsonName() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregate{" +
+            "name=" + getName() +
+            '}';
+    }
+}
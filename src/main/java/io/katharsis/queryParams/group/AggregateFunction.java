@@ -0,0 +1,30 @@
+package io.katharsis.queryParams.group;
+
+/**
+ * Functions computed for each group of resources, in addition to the number of resources in a group.
+ */
+public enum AggregateFunction {
+    SUM,
+    MIN,
+    MAX;
+
+    /**
+     * @return function name used in <i>group</i> parameter values, eg. <i>$sum</i>
+     */
+    public String getParamName() {
+        return "$" + name().toLowerCase();
+    }
+
+    /**
+     * @param paramName function name used in <i>group</i> parameter values
+     * @return found function or <i>null</i>
+     */
+    public static AggregateFunction findByParamName(String paramName) {
+        for (AggregateFunction function : values()) {
+            if (function.getParamName().equals(paramName)) {
+                return function;
+            }
+        }
+        return null;
+    }
+}
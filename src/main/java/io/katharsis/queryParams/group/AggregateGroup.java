@@ -0,0 +1,46 @@
+package io.katharsis.queryParams.group;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Aggregates of resources sharing the same values of grouping attributes.
+ */
+public class AggregateGroup {
+
+    private final Map<String, Object> key;
+    private final long count;
+    private final Map<String, Object> aggregates;
+
+    /**
+     * @param key        values of grouping attributes mapped by their JSON names
+     * @param count      number of resources in the group
+     * @param aggregates values of aggregates mapped by {@link Aggregate#getName()}
+     */
+    public AggregateGroup(Map<String, Object> key, long count, Map<String, Object> aggregates) {
+        this.key = Collections.unmodifiableMap(key);
+        this.count = count;
+        this.aggregates = Collections.unmodifiableMap(aggregates);
+    }
+
+    public Map<String, Object> getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Map<String, Object> getAggregates() {
+        return aggregates;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregateGroup{" +
+            "key=" + key +
+            ", count=" + count +
+            ", aggregates=" + aggregates +
+            '}';
+    }
+}
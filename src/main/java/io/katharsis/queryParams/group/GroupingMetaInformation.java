@@ -0,0 +1,22 @@
+package io.katharsis.queryParams.group;
+
+import io.katharsis.response.MetaInformation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Top-level meta information of a grouped request, serialized as <i>{"groups": [...]}</i>.
+ */
+public class GroupingMetaInformation implements MetaInformation {
+
+    private final List<AggregateGroup> groups;
+
+    public GroupingMetaInformation(List<AggregateGroup> groups) {
+        this.groups = Collections.unmodifiableList(groups);
+    }
+
+    public List<AggregateGroup> getGroups() {
+        return groups;
+    }
+}
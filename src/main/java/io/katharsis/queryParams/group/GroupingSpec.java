@@ -0,0 +1,134 @@
+package io.katharsis.queryParams.group;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.params.GroupingParams;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Grouping of a resource type compiled from <i>group</i> parameters. Plain values name grouping attributes and values
+ * starting with <i>$</i> name aggregates, eg. <i>group[tasks]=status,$sum(estimate),$max(estimate)</i>. The number of
+ * resources is always computed for each group.
+ * <p>
+ * Grouping is opt-in: a request is executed as grouped aggregates only if its repository implements
+ * {@link io.katharsis.repository.GroupingRepository} or its parameters name an aggregate, see
+ * {@link #hasAggregates(String, QueryParams)}. Other <i>group</i> parameters are passed to <i>findAll</i>.
+ */
+public class GroupingSpec {
+
+    private final List<ResourceField> keyFields;
+    private final List<Aggregate> aggregates;
+
+    public GroupingSpec(List<ResourceField> keyFields, List<Aggregate> aggregates) {
+        this.keyFields = Collections.unmodifiableList(keyFields);
+        this.aggregates = Collections.unmodifiableList(aggregates);
+    }
+
+    public List<ResourceField> getKeyFields() {
+        return keyFields;
+    }
+
+    public List<Aggregate> getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * @param resourceType JSON API type of the grouped resource
+     * @param queryParams  parameters sent along with the request
+     * @return <i>true</i> if a <i>group</i> parameter of the resource names an aggregate
+     */
+    public static boolean hasAggregates(String resourceType, QueryParams queryParams) {
+        GroupingParams groupingParams = queryParams == null || queryParams.getGrouping() == null ? null
+            : queryParams.getGrouping().getParams().get(resourceType);
+        if (groupingParams == null) {
+            return false;
+        }
+        for (String param : groupingParams.getParams()) {
+            for (String value : param.split(",")) {
+                if (value.trim().startsWith("$")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param resourceInformation information about the grouped resource
+     * @param resourceType        JSON API type of the grouped resource
+     * @param queryParams         parameters sent along with the request
+     * @return grouping of the resource or <i>null</i> if the request doesn't group it
+     * @throws ParametersDeserializationException if a parameter names an unknown attribute or function, or a function
+     *                                            can't be computed for the type of an attribute
+     */
+    public static GroupingSpec build(ResourceInformation resourceInformation, String resourceType,
+                                     QueryParams queryParams) {
+        if (queryParams == null || queryParams.getGrouping() == null) {
+            return null;
+        }
+        GroupingParams groupingParams = queryParams.getGrouping().getParams().get(resourceType);
+        if (groupingParams == null || groupingParams.getParams().isEmpty()) {
+            return null;
+        }
+        List<ResourceField> keyFields = new ArrayList<>();
+        List<Aggregate> aggregates = new ArrayList<>();
+        for (String param : groupingParams.getParams()) {
+            for (String value : param.split(",")) {
+                String trimmedValue = value.trim();
+                if (trimmedValue.startsWith("$")) {
+                    aggregates.add(parseAggregate(resourceInformation, trimmedValue));
+                } else if (!trimmedValue.isEmpty()) {
+                    keyFields.add(findField(resourceInformation, trimmedValue));
+                }
+            }
+        }
+        return new GroupingSpec(keyFields, aggregates);
+    }
+
+    private static Aggregate parseAggregate(ResourceInformation resourceInformation, String value) {
+        int argumentStart = value.indexOf('(');
+        if (argumentStart < 0 || !value.endsWith(")")) {
+            throw new ParametersDeserializationException("Invalid aggregate: " + value);
+        }
+        AggregateFunction function = AggregateFunction.findByParamName(value.substring(0, argumentStart));
+        if (function == null) {
+            throw new ParametersDeserializationException("Unknown aggregate function: " + value);
+        }
+        String attribute = value.substring(argumentStart + 1, value.length() - 1).trim();
+        ResourceField field = findField(resourceInformation, attribute);
+        if (!isApplicable(function, field.getType())) {
+            throw new ParametersDeserializationException(
+                String.format("Aggregate %s can't be computed for attribute %s", value, attribute));
+        }
+        return new Aggregate(function, field);
+    }
+
+    /**
+     * Sums are computed for numbers only, minimums and maximums for comparable values.
+     */
+    private static boolean isApplicable(AggregateFunction function, Class<?> type) {
+        if (function == AggregateFunction.SUM) {
+            return Number.class.isAssignableFrom(type)
+                || type.isPrimitive() && type != boolean.class && type != char.class;
+        }
+        return type.isPrimitive() || Comparable.class.isAssignableFrom(type);
+    }
+
+    private static ResourceField findField(ResourceInformation resourceInformation, String name) {
+        ResourceField idField = resourceInformation.getIdField();
+        if (idField != null && idField.getJsonName().equals(name)) {
+            return idField;
+        }
+        ResourceField attributeField = resourceInformation.findAttributeFieldByName(name);
+        if (attributeField == null) {
+            throw new ParametersDeserializationException("Grouping attribute not found: " + name);
+        }
+        return attributeField;
+    }
+
+}
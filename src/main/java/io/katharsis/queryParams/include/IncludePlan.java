@@ -0,0 +1,199 @@
+package io.katharsis.queryParams.include;
+
+import io.katharsis.resource.exception.ResourceFieldNotFoundException;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.registry.RelationshipDescriptor;
+import io.katharsis.resource.registry.ResourceRegistry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable tree of relationships requested by <i>include</i> parameter of a single resource type. Inclusion paths
+ * are resolved against relationship fields of resources, so paths sharing a prefix share nodes of the tree.
+ * A plan is compiled once per request by {@link io.katharsis.queryParams.QueryParams#getIncludePlan} and used by
+ * both fetching of related resources and serialization.
+ */
+public final class IncludePlan {
+
+    /**
+     * A plan without any inclusions.
+     */
+    public static final IncludePlan EMPTY =
+        new IncludePlan(null, null, Collections.<String, IncludePlan>emptyMap());
+
+    private final ResourceField field;
+    private final RelationshipDescriptor descriptor;
+    private final Map<String, IncludePlan> childrenByJsonName;
+    private final Map<String, IncludePlan> childrenByUnderlyingName;
+
+    private IncludePlan(ResourceField field, RelationshipDescriptor descriptor,
+                        Map<String, IncludePlan> childrenByJsonName) {
+        this.field = field;
+        this.descriptor = descriptor;
+        this.childrenByJsonName = childrenByJsonName;
+        Map<String, IncludePlan> childrenByUnderlyingName = new LinkedHashMap<>(childrenByJsonName.size());
+        for (IncludePlan child : childrenByJsonName.values()) {
+            childrenByUnderlyingName.put(child.field.getUnderlyingName(), child);
+        }
+        this.childrenByUnderlyingName = Collections.unmodifiableMap(childrenByUnderlyingName);
+    }
+
+    /**
+     * Compiles inclusions of a resource into a plan.
+     *
+     * @param resourceRegistry    registry resolving relationships of the resource
+     * @param resourceInformation information about the resource the inclusion paths start at
+     * @param inclusions          inclusions of the resource
+     * @param skippedSegments     number of leading path segments which don't denote relationships of the resource
+     * @return compiled plan
+     * @throws ResourceFieldNotFoundException if a path segment doesn't match any relationship of a resource
+     */
+    public static IncludePlan compile(ResourceRegistry resourceRegistry, ResourceInformation resourceInformation,
+                                      Iterable<Inclusion> inclusions, int skippedSegments) {
+        Builder root = new Builder(null, null);
+        for (Inclusion inclusion : inclusions) {
+            List<String> pathList = inclusion.getPathList();
+            Builder current = root;
+            ResourceInformation currentInformation = resourceInformation;
+            // segments after a relationship whose target is not registered can't be resolved and are skipped
+            for (int i = skippedSegments; i < pathList.size() && currentInformation != null; i++) {
+                current = current.getChild(resourceRegistry, currentInformation, pathList.get(i));
+                RelationshipDescriptor childDescriptor = current.descriptor;
+                currentInformation = childDescriptor != null && childDescriptor.hasTargetEntry() ?
+                    childDescriptor.getTargetEntry().getResourceInformation() : null;
+            }
+        }
+        return root.children.isEmpty() ? EMPTY : root.build();
+    }
+
+    /**
+     * @return relationship field of this node or <i>null</i> for the root of a plan
+     */
+    public ResourceField getField() {
+        return field;
+    }
+
+    /**
+     * @return compiled relationship of this node or <i>null</i> for the root of a plan
+     */
+    public RelationshipDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public boolean isEmpty() {
+        return childrenByJsonName.isEmpty();
+    }
+
+    public Collection<IncludePlan> getChildren() {
+        return childrenByJsonName.values();
+    }
+
+    /**
+     * @param relationshipField relationship field of resources at this node
+     * @return plan of the included relationship or <i>null</i> if it's not included
+     */
+    public IncludePlan getChild(ResourceField relationshipField) {
+        return childrenByUnderlyingName.get(relationshipField.getUnderlyingName());
+    }
+
+    /**
+     * @param underlyingName name of a Java field of resources at this node
+     * @return plan of the included relationship or <i>null</i> if it's not included
+     */
+    public IncludePlan getChildByUnderlyingName(String underlyingName) {
+        return childrenByUnderlyingName.get(underlyingName);
+    }
+
+    public boolean includes(ResourceField relationshipField) {
+        return childrenByUnderlyingName.containsKey(relationshipField.getUnderlyingName());
+    }
+
+    /**
+     * @param resourceInformation information about a resource
+     * @param pathSegment         segment of an inclusion path, optionally surrounded by brackets
+     * @return relationship field denoted by the segment
+     * @throws ResourceFieldNotFoundException if the segment doesn't match any relationship of the resource
+     */
+    public static ResourceField findRelationshipField(ResourceInformation resourceInformation, String pathSegment) {
+        String jsonName = removeSurroundingBrackets(pathSegment);
+        ResourceField relationshipField = resourceInformation.findRelationshipFieldByName(jsonName);
+        if (relationshipField == null) {
+            throw new ResourceFieldNotFoundException(
+                String.format("%s for %s has been not found", jsonName, resourceInformation.getResourceClass()));
+        }
+        return relationshipField;
+    }
+
+    private static String removeSurroundingBrackets(String fieldName) {
+        String result = fieldName;
+        if (result.startsWith("[")) {
+            result = result.substring(1);
+        }
+        if (result.endsWith("]")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IncludePlan that = (IncludePlan) o;
+        return Objects.equals(field, that.field) &&
+            Objects.equals(childrenByJsonName, that.childrenByJsonName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, childrenByJsonName);
+    }
+
+    @Override
+    public String toString() {
+        return "IncludePlan{" +
+            "field=" + (field == null ? null : field.getJsonName()) +
+            ", children=" + childrenByJsonName.values() +
+            '}';
+    }
+
+    /**
+     * Mutable node used while paths are merged.
+     */
+    private static final class Builder {
+        private final ResourceField field;
+        private final RelationshipDescriptor descriptor;
+        private final Map<String, Builder> children = new LinkedHashMap<>();
+
+        private Builder(ResourceField field, RelationshipDescriptor descriptor) {
+            this.field = field;
+            this.descriptor = descriptor;
+        }
+
+        private Builder getChild(ResourceRegistry resourceRegistry, ResourceInformation resourceInformation,
+                                 String pathSegment) {
+            ResourceField relationshipField = findRelationshipField(resourceInformation, pathSegment);
+            Builder child = children.get(relationshipField.getJsonName());
+            if (child == null) {
+                child = new Builder(relationshipField,
+                    resourceRegistry.getRelationshipDescriptor(resourceInformation, relationshipField));
+                children.put(relationshipField.getJsonName(), child);
+            }
+            return child;
+        }
+
+        private IncludePlan build() {
+            Map<String, IncludePlan> builtChildren = new LinkedHashMap<>(children.size());
+            for (Map.Entry<String, Builder> child : children.entrySet()) {
+                builtChildren.put(child.getKey(), child.getValue().build());
+            }
+            return new IncludePlan(field, descriptor, Collections.unmodifiableMap(builtChildren));
+        }
+    }
+}
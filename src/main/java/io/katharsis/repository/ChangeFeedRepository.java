@@ -0,0 +1,25 @@
+package io.katharsis.repository;
+
+import io.katharsis.queryParams.QueryParams;
+
+import java.io.Serializable;
+
+/**
+ * An optional interface that can be implemented along with {@link ResourceRepository} to let clients synchronize
+ * local copies of a collection incrementally. It's called for <i>GET /resources?sync=token</i> requests, an empty
+ * token requests the initial synchronization.
+ *
+ * @param <T>  Type of domain class
+ * @param <ID> Type of Identifier of domain class
+ */
+public interface ChangeFeedRepository<T, ID extends Serializable> {
+    /**
+     * Return changes of the collection since a sync token.
+     *
+     * @param syncToken   token returned by the previous synchronization or an empty string for the first one
+     * @param queryParams parameters sent along with the request
+     * @return changed resources, tombstones of deleted resources and the next token
+     * @throws io.katharsis.repository.exception.SyncTokenExpiredException if the token is no longer valid
+     */
+    ChangeSet<T, ID> findChanges(String syncToken, QueryParams queryParams);
+}
@@ -0,0 +1,40 @@
+package io.katharsis.repository;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+/**
+ * Changes of a collection since a sync token returned by {@link ChangeFeedRepository}.
+ *
+ * @param <T>  Type of domain class
+ * @param <ID> Type of Identifier of domain class
+ */
+public class ChangeSet<T, ID extends Serializable> {
+
+    private final Iterable<T> changedResources;
+    private final Iterable<ID> deletedIds;
+    private final String nextSyncToken;
+
+    /**
+     * @param changedResources resources created or updated since the token
+     * @param deletedIds       identifiers of resources deleted since the token
+     * @param nextSyncToken    opaque token to be passed by the next synchronization
+     */
+    public ChangeSet(Iterable<T> changedResources, Iterable<ID> deletedIds, String nextSyncToken) {
+        this.changedResources = changedResources == null ? Collections.<T>emptyList() : changedResources;
+        this.deletedIds = deletedIds == null ? Collections.<ID>emptyList() : deletedIds;
+        this.nextSyncToken = nextSyncToken;
+    }
+
+    public Iterable<T> getChangedResources() {
+        return changedResources;
+    }
+
+    public Iterable<ID> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public String getNextSyncToken() {
+        return nextSyncToken;
+    }
+}
@@ -0,0 +1,36 @@
+package io.katharsis.repository;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.response.MetaInformation;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An optional interface that can be implemented along with {@link ResourceRepository} to compute meta information of
+ * a collection, e.g. a total count, in parallel with {@link ResourceRepository#findAll(QueryParams)}. The computation
+ * is submitted to {@link #getMetaExecutor()} before resources are searched and it's joined when the response is
+ * serialized, so a request takes as long as the slower of both queries. If the computation fails or doesn't finish
+ * within {@link #getMetaTimeout()}, meta information is omitted. For <i>findAll</i> calls it takes precedence over
+ * {@link MetaRepository}, unless <i>findAll</i> returns a {@link io.katharsis.response.JsonApiResponse}.
+ */
+public interface ConcurrentMetaRepository<T> {
+
+    /**
+     * Return meta information about a collection. It's called by an executor thread, so it can't depend on the state
+     * of a request thread.
+     *
+     * @param queryParams parameters sent along with the request
+     * @return meta information object
+     */
+    MetaInformation getMetaInformation(QueryParams queryParams);
+
+    /**
+     * @return executor running meta information computations
+     */
+    Executor getMetaExecutor();
+
+    /**
+     * @return time in milliseconds since the computation is submitted after which meta information is omitted
+     */
+    long getMetaTimeout();
+}
@@ -0,0 +1,15 @@
+package io.katharsis.repository;
+
+/**
+ * An optional interface that can be implemented along with {@link ResourceRepository} by repositories returning
+ * instances shared with other readers, e.g. kept in memory. A resource read in order to be modified, e.g. by a PATCH
+ * request, is copied first, so other readers don't observe the modification before it's saved.
+ */
+public interface CopyOnUpdateRepository<T> {
+
+    /**
+     * @param resource resource returned by the repository
+     * @return copy of the resource which can be modified and saved
+     */
+    T copy(T resource);
+}
@@ -0,0 +1,23 @@
+package io.katharsis.repository;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.group.AggregateGroup;
+import io.katharsis.queryParams.group.GroupingSpec;
+
+import java.util.List;
+
+/**
+ * An optional interface that can be implemented along with {@link ResourceRepository} to compute grouped aggregates
+ * in a data store. Repositories not implementing it are grouped in memory over results of
+ * {@link ResourceRepository#findAll(QueryParams)}.
+ */
+public interface GroupingRepository<T> {
+    /**
+     * Return aggregates of groups of resources matching parameters of the request.
+     *
+     * @param groupingSpec grouping attributes and aggregates requested by <i>group</i> parameters
+     * @param queryParams parameters sent along with the request
+     * @return aggregates of each group
+     */
+    List<AggregateGroup> findGroups(GroupingSpec groupingSpec, QueryParams queryParams);
+}
@@ -6,6 +6,10 @@ import io.katharsis.response.LinksInformation;
 /**
  * An optional interface that can be implemented along with {@link ResourceRepository} or {@link
  * RelationshipRepository} to get links information about returned resource(s).
+ * <p>
+ * The information is computed lazily when a response is written, so it's called after the find method has returned
+ * and possibly outside of a transaction or other context bound to the repository call. Within an atomic request it's
+ * called after all of the operations, before {@link TransactionalRepository#commit()}.
  */
 public interface LinksRepository<T> {
     /**
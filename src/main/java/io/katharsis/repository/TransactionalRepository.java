@@ -0,0 +1,25 @@
+package io.katharsis.repository;
+
+/**
+ * An optional interface that can be implemented along with {@link ResourceRepository} to make atomic requests
+ * atomic in a data store as well. A transaction is started before the first operation of a request and is either
+ * committed after the last one or rolled back if an operation fails.
+ * <p>
+ * Transactions are coordinated on a best-effort basis, there is no two-phase commit:
+ * <ul>
+ *     <li>only resource repositories of types referenced by an operation, by its <i>ref</i> or its <i>data</i>, take
+ *     part in a request, relationship repositories are not asked for transactions</li>
+ *     <li>changes made by repositories which don't implement this interface are not rolled back</li>
+ *     <li>if a commit fails, transactions committed before it are not undone</li>
+ * </ul>
+ * A failed request can therefore leave changes of earlier operations applied. Repositories sharing a data store
+ * should share a transaction, so committing one of them commits all changes.
+ */
+public interface TransactionalRepository {
+
+    void begin();
+
+    void commit();
+
+    void rollback();
+}
@@ -9,7 +9,6 @@ import io.katharsis.repository.annotations.JsonApiMeta;
 import io.katharsis.repository.exception.RepositoryAnnotationNotFoundException;
 import io.katharsis.response.LinksInformation;
 import io.katharsis.response.MetaInformation;
-import io.katharsis.utils.ClassUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
@@ -20,25 +19,34 @@ public abstract class AnnotatedRepositoryAdapter<T> implements LinksRepository<T
     final Object implementationObject;
     final Class<?> implementationClass;
     final ParametersFactory parametersFactory;
+    final AnnotatedRepositoryMethods repositoryMethods;
 
-    private Method linksMethod;
-    private Method metaMethod;
+    private final Method linksMethod;
+    private final Method metaMethod;
 
     public AnnotatedRepositoryAdapter(Object implementationObject, ParametersFactory parametersFactory) {
         this.implementationObject = implementationObject;
         this.implementationClass = implementationObject.getClass();
         this.parametersFactory = parametersFactory;
+        this.repositoryMethods = AnnotatedRepositoryMethods.forClass(implementationClass);
+        this.linksMethod = repositoryMethods.get(JsonApiLinks.class);
+        this.metaMethod = repositoryMethods.get(JsonApiMeta.class);
+    }
+
+    /**
+     * @return adapted repository instance
+     */
+    public Object getImplementationObject() {
+        return implementationObject;
     }
 
     public boolean linksRepositoryAvailable() {
-        assignLinksMethod();
         return linksMethod != null;
     }
 
     @Override
     public LinksInformation getLinksInformation(Iterable<T> resources, QueryParams queryParams) {
         Class<JsonApiLinks> annotationType = JsonApiLinks.class;
-        assignLinksMethod();
         checkIfNotNull(annotationType, linksMethod);
 
         Object[] methodParameters = parametersFactory
@@ -47,21 +55,13 @@ public abstract class AnnotatedRepositoryAdapter<T> implements LinksRepository<T
         return invoke(linksMethod, methodParameters);
     }
 
-    private void assignLinksMethod() {
-        if (linksMethod == null) {
-            linksMethod = ClassUtils.findMethodWith(implementationClass, JsonApiLinks.class);
-        }
-    }
-
     public boolean metaRepositoryAvailable() {
-        assignMetaMethod();
         return metaMethod != null;
     }
 
     @Override
     public MetaInformation getMetaInformation(Iterable<T> resources, QueryParams queryParams) {
         Class<JsonApiMeta> annotationType = JsonApiMeta.class;
-        assignMetaMethod();
         checkIfNotNull(annotationType, metaMethod);
 
         Object[] methodParameters = parametersFactory
@@ -70,12 +70,6 @@ public abstract class AnnotatedRepositoryAdapter<T> implements LinksRepository<T
         return invoke(metaMethod, methodParameters);
     }
 
-    private void assignMetaMethod() {
-        if (metaMethod == null) {
-            metaMethod = ClassUtils.findMethodWith(implementationClass, JsonApiMeta.class);
-        }
-    }
-
     protected void checkIfNotNull(Class<? extends Annotation> annotationClass, Method foundMethod) {
         if (foundMethod == null) {
             throw new RepositoryAnnotationNotFoundException(
@@ -0,0 +1,74 @@
+package io.katharsis.repository.annotated;
+
+import io.katharsis.repository.annotations.JsonApiAddRelations;
+import io.katharsis.repository.annotations.JsonApiDelete;
+import io.katharsis.repository.annotations.JsonApiFindAll;
+import io.katharsis.repository.annotations.JsonApiFindAllWithIds;
+import io.katharsis.repository.annotations.JsonApiFindManyTargets;
+import io.katharsis.repository.annotations.JsonApiFindOne;
+import io.katharsis.repository.annotations.JsonApiFindOneTarget;
+import io.katharsis.repository.annotations.JsonApiLinks;
+import io.katharsis.repository.annotations.JsonApiMeta;
+import io.katharsis.repository.annotations.JsonApiRemoveRelations;
+import io.katharsis.repository.annotations.JsonApiSave;
+import io.katharsis.repository.annotations.JsonApiSetRelation;
+import io.katharsis.repository.annotations.JsonApiSetRelations;
+import io.katharsis.utils.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Methods of an annotated repository class, mapped by their annotations. The methods are resolved once for each class
+ * and the resulting immutable instance is shared by all adapters of the class. Instances are kept in a
+ * {@link ClassValue}, so they don't prevent repository classes from being unloaded.
+ */
+final class AnnotatedRepositoryMethods {
+
+    private static final List<Class<? extends Annotation>> METHOD_ANNOTATIONS = Arrays.asList(
+        JsonApiFindOne.class, JsonApiFindAll.class, JsonApiFindAllWithIds.class, JsonApiSave.class,
+        JsonApiDelete.class, JsonApiSetRelation.class, JsonApiSetRelations.class, JsonApiAddRelations.class,
+        JsonApiRemoveRelations.class, JsonApiFindOneTarget.class, JsonApiFindManyTargets.class, JsonApiLinks.class,
+        JsonApiMeta.class);
+
+    private static final ClassValue<AnnotatedRepositoryMethods> CACHE = new ClassValue<AnnotatedRepositoryMethods>() {
+        @Override
+        protected AnnotatedRepositoryMethods computeValue(Class<?> type) {
+            return new AnnotatedRepositoryMethods(type);
+        }
+    };
+
+    private final Map<Class<? extends Annotation>, Method> methods;
+
+    private AnnotatedRepositoryMethods(Class<?> repositoryClass) {
+        Map<Class<? extends Annotation>, Method> foundMethods = new HashMap<>();
+        for (Class<? extends Annotation> annotationType : METHOD_ANNOTATIONS) {
+            Method method = ClassUtils.findMethodWith(repositoryClass, annotationType);
+            if (method != null) {
+                foundMethods.put(annotationType, method);
+            }
+        }
+        this.methods = Collections.unmodifiableMap(foundMethods);
+    }
+
+    /**
+     * @param repositoryClass class of an annotated repository
+     * @return methods of the class
+     */
+    static AnnotatedRepositoryMethods forClass(Class<?> repositoryClass) {
+        return CACHE.get(repositoryClass);
+    }
+
+    /**
+     * @param annotationType annotation of a method
+     * @return annotated method or <i>null</i> if the repository doesn't have one
+     */
+    Method get(Class<? extends Annotation> annotationType) {
+        return methods.get(annotationType);
+    }
+}
@@ -7,7 +7,6 @@ import io.katharsis.repository.annotations.JsonApiFindAll;
 import io.katharsis.repository.annotations.JsonApiFindAllWithIds;
 import io.katharsis.repository.annotations.JsonApiFindOne;
 import io.katharsis.repository.annotations.JsonApiSave;
-import io.katharsis.utils.ClassUtils;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
@@ -19,53 +18,69 @@ import java.lang.reflect.Method;
 public class AnnotatedResourceRepositoryAdapter<T, ID extends Serializable>
     extends AnnotatedRepositoryAdapter<T> {
 
-    private Method findOneMethod;
-    private Method findAllMethod;
-    private Method findAllWithIds;
-    private Method saveMethod;
-    private Method deleteMethod;
+    private final Method findOneMethod;
+    private final Method findAllMethod;
+    private final Method findAllWithIds;
+    private final Method saveMethod;
+    private final Method deleteMethod;
+    private final boolean readsProvidedParameters;
 
     public AnnotatedResourceRepositoryAdapter(Object implementationObject, ParametersFactory parametersFactory) {
         super(implementationObject, parametersFactory);
+        this.findOneMethod = repositoryMethods.get(JsonApiFindOne.class);
+        this.findAllMethod = repositoryMethods.get(JsonApiFindAll.class);
+        this.findAllWithIds = repositoryMethods.get(JsonApiFindAllWithIds.class);
+        this.saveMethod = repositoryMethods.get(JsonApiSave.class);
+        this.deleteMethod = repositoryMethods.get(JsonApiDelete.class);
+        this.readsProvidedParameters = hasProvidedParameters(findOneMethod, 1)
+            || hasProvidedParameters(findAllMethod, 0) || hasProvidedParameters(findAllWithIds, 1);
+    }
+
+    /**
+     * Results of reads taking parameters of {@link io.katharsis.repository.RepositoryMethodParameterProvider}, e.g.
+     * the current user, depend on the request, so they can't be shared with other requests.
+     *
+     * @return <i>true</i> if a read method takes a parameter of the parameter provider
+     */
+    public boolean readsProvidedParameters() {
+        return readsProvidedParameters;
+    }
+
+    private static boolean hasProvidedParameters(Method method, int firstParameters) {
+        if (method == null) {
+            return false;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = firstParameters; i < parameterTypes.length; i++) {
+            if (!QueryParams.class.equals(parameterTypes[i])) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public Object findOne(ID id, QueryParams queryParams) {
         Class<JsonApiFindOne> annotationType = JsonApiFindOne.class;
-        if (findOneMethod == null) {
-            findOneMethod = ClassUtils.findMethodWith(implementationClass, annotationType);
-        }
         return invokeOperation(findOneMethod, annotationType, new Object[]{id}, queryParams);
     }
 
     public Object findAll(QueryParams queryParams) {
         Class<JsonApiFindAll> annotationType = JsonApiFindAll.class;
-        if (findAllMethod == null) {
-            findAllMethod = ClassUtils.findMethodWith(implementationClass, annotationType);
-        }
         return invokeOperation(findAllMethod, annotationType, new Object[]{}, queryParams);
     }
 
     public Object findAll(Iterable<ID> ids, QueryParams queryParams) {
         Class<JsonApiFindAllWithIds> annotationType = JsonApiFindAllWithIds.class;
-        if (findAllWithIds == null) {
-            findAllWithIds = ClassUtils.findMethodWith(implementationClass, annotationType);
-        }
         return invokeOperation(findAllWithIds, annotationType, new Object[]{ids}, queryParams);
     }
 
     public <S extends T> Object save(S entity) {
         Class<JsonApiSave> annotationType = JsonApiSave.class;
-        if (saveMethod == null) {
-            saveMethod = ClassUtils.findMethodWith(implementationClass, annotationType);
-        }
         return invokeOperation(saveMethod, annotationType, new Object[]{entity});
     }
 
     public void delete(ID id, QueryParams queryParams) {
         Class<JsonApiDelete> annotationType = JsonApiDelete.class;
-        if (deleteMethod == null) {
-            deleteMethod = ClassUtils.findMethodWith(implementationClass, annotationType);
-        }
         invokeOperation(deleteMethod, annotationType, new Object[]{id}, queryParams);
     }
 }
@@ -0,0 +1,21 @@
+package io.katharsis.repository.exception;
+
+import io.katharsis.errorhandling.ErrorData;
+import io.katharsis.errorhandling.exception.KatharsisMappableException;
+import io.katharsis.response.HttpStatus;
+
+/**
+ * Thrown by {@link io.katharsis.repository.ChangeFeedRepository} when changes since a sync token are no longer known,
+ * so a client has to synchronize the whole collection again.
+ */
+public class SyncTokenExpiredException extends KatharsisMappableException {
+    private static final String TITLE = "Sync token expired";
+
+    public SyncTokenExpiredException(String message) {
+        super(HttpStatus.GONE_410, ErrorData.builder()
+                .setTitle(TITLE)
+                .setDetail(message)
+                .setStatus(String.valueOf(HttpStatus.GONE_410))
+                .build());
+    }
+}
@@ -0,0 +1,237 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.filter.AndExpression;
+import io.katharsis.queryParams.filter.FilterExpression;
+import io.katharsis.queryParams.filter.FilterOperator;
+import io.katharsis.queryParams.filter.FilterVisitor;
+import io.katharsis.queryParams.filter.PropertyExpression;
+import io.katharsis.resource.annotations.JsonApiId;
+import io.katharsis.resource.annotations.JsonApiResource;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.PropertyUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates a {@link FilterExpression} against a single resource. A path traversing a to-many relationship matches
+ * if any of the related resources matches. A relationship at the end of a path is compared using identifiers of
+ * related resources.
+ */
+final class FilterMatcher implements FilterVisitor<Boolean> {
+
+    private final Object resource;
+
+    FilterMatcher(Object resource) {
+        this.resource = resource;
+    }
+
+    static boolean matches(FilterExpression expression, Object resource) {
+        return expression == null || expression.accept(new FilterMatcher(resource));
+    }
+
+    /**
+     * Checks that an expression can be evaluated, so an invalid request is rejected before any resource is matched.
+     *
+     * @throws ParametersDeserializationException if an operator is not supported or a range operator is applied to
+     *                                            values which are not comparable
+     */
+    static void validate(FilterExpression expression) {
+        if (expression != null) {
+            expression.accept(new Validator());
+        }
+    }
+
+    /**
+     * @param type declared type of a property
+     * @return <i>true</i> if values of the type can be sorted or compared using range operators
+     */
+    static boolean isComparable(Class<?> type) {
+        return type.isPrimitive() || Comparable.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Boolean visitAnd(AndExpression expression) {
+        for (FilterExpression childExpression : expression.getExpressions()) {
+            if (!childExpression.accept(this)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Boolean visitProperty(PropertyExpression expression) {
+        for (Object value : collectValues(resource, expression.getPath())) {
+            if (matchesValue(expression, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Object> collectValues(Object resource, List<ResourceField> path) {
+        List<Object> current = Collections.singletonList(resource);
+        for (ResourceField field : path) {
+            List<Object> next = new ArrayList<>();
+            for (Object element : current) {
+                if (element == null) {
+                    continue;
+                }
+                Object value = PropertyUtils.getProperty(element, field.getUnderlyingName());
+                if (value instanceof Iterable) {
+                    for (Object item : (Iterable<?>) value) {
+                        next.add(item);
+                    }
+                } else {
+                    next.add(value);
+                }
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static boolean matchesValue(PropertyExpression expression, Object value) {
+        Object comparedValue = toComparedValue(value);
+        switch (expression.getOperator()) {
+            case eq:
+            case in:
+                return expression.getValues().contains(comparedValue);
+            case ne:
+                return !Objects.equals(expression.getValue(), comparedValue);
+            case lt:
+                return comparedValue != null && compare(comparedValue, expression.getValue()) < 0;
+            case le:
+                return comparedValue != null && compare(comparedValue, expression.getValue()) <= 0;
+            case gt:
+                return comparedValue != null && compare(comparedValue, expression.getValue()) > 0;
+            case ge:
+                return comparedValue != null && compare(comparedValue, expression.getValue()) >= 0;
+            case like:
+                return comparedValue != null && toPattern(String.valueOf(expression.getValue()))
+                    .matcher(comparedValue.toString())
+                    .matches();
+            case startsWith:
+                return comparedValue != null && comparedValue.toString().startsWith(String.valueOf(expression.getValue()));
+            case endsWith:
+                return comparedValue != null && comparedValue.toString().endsWith(String.valueOf(expression.getValue()));
+            default:
+                throw new ParametersDeserializationException("Unsupported filter operator: " + expression.getOperator());
+        }
+    }
+
+    /**
+     * Related resources are compared using their identifiers.
+     */
+    private static Object toComparedValue(Object value) {
+        if (value == null || !ClassUtils.getAnnotation(value.getClass(), JsonApiResource.class).isPresent()) {
+            return value;
+        }
+        for (Field field : ClassUtils.getClassFields(value.getClass())) {
+            if (field.isAnnotationPresent(JsonApiId.class)) {
+                return PropertyUtils.getProperty(value, field.getName());
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compare(Object value, Object other) {
+        if (other == null) {
+            return 1;
+        }
+        if (!(value instanceof Comparable)) {
+            throw new ParametersDeserializationException("Value is not comparable: " + value);
+        }
+        return ((Comparable<Object>) value).compareTo(other);
+    }
+
+    /**
+     * Finds the type of the compared values of a property, that is the type of elements of a collection and the type of
+     * the identifier of a related resource.
+     *
+     * @return compared type or <i>null</i> if it can't be determined
+     */
+    private static Class<?> getComparedType(ResourceField field) {
+        Class<?> type = field.getType();
+        if (Iterable.class.isAssignableFrom(type)) {
+            Type genericType = field.getGenericType();
+            if (!(genericType instanceof ParameterizedType)) {
+                return null;
+            }
+            Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (!(elementType instanceof Class)) {
+                return null;
+            }
+            type = (Class<?>) elementType;
+        }
+        if (ClassUtils.getAnnotation(type, JsonApiResource.class).isPresent()) {
+            for (Field idField : ClassUtils.getClassFields(type)) {
+                if (idField.isAnnotationPresent(JsonApiId.class)) {
+                    return idField.getType();
+                }
+            }
+            return null;
+        }
+        return type == Object.class ? null : type;
+    }
+
+    private static Pattern toPattern(String likePattern) {
+        StringBuilder regex = new StringBuilder();
+        String[] parts = likePattern.split("%", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static final class Validator implements FilterVisitor<Void> {
+
+        @Override
+        public Void visitAnd(AndExpression expression) {
+            for (FilterExpression childExpression : expression.getExpressions()) {
+                childExpression.accept(this);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitProperty(PropertyExpression expression) {
+            FilterOperator operator = expression.getOperator();
+            switch (operator) {
+                case eq:
+                case in:
+                case ne:
+                case like:
+                case startsWith:
+                case endsWith:
+                    return null;
+                case lt:
+                case le:
+                case gt:
+                case ge:
+                    Class<?> comparedType = getComparedType(expression.getField());
+                    if (comparedType != null && !isComparable(comparedType)) {
+                        throw new ParametersDeserializationException(String.format(
+                            "Operator %s requires comparable values of %s", operator,
+                            expression.getField().getJsonName()));
+                    }
+                    return null;
+                default:
+                    throw new ParametersDeserializationException("Unsupported filter operator: " + operator);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.queryParams.group.Aggregate;
+import io.katharsis.queryParams.group.AggregateFunction;
+import io.katharsis.queryParams.group.AggregateGroup;
+import io.katharsis.queryParams.group.GroupingSpec;
+import io.katharsis.resource.field.ResourceField;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes grouped aggregates of resources in a single pass using a hash table of groups. It's used for repositories
+ * which don't implement {@link io.katharsis.repository.GroupingRepository}. Groups are returned in the order of their
+ * first resource.
+ */
+public class GroupAggregator {
+
+    private final GroupingSpec groupingSpec;
+    private final Map<Class<?>, PropertyAccessor[]> accessors = new HashMap<>();
+
+    public GroupAggregator(GroupingSpec groupingSpec) {
+        this.groupingSpec = groupingSpec;
+    }
+
+    /**
+     * @param resources resources to be grouped, <i>null</i> elements are skipped
+     * @return aggregates of each group
+     */
+    public List<AggregateGroup> aggregate(Iterable<?> resources) {
+        List<ResourceField> keyFields = groupingSpec.getKeyFields();
+        List<Aggregate> aggregates = groupingSpec.getAggregates();
+        Map<List<Object>, Accumulator> groups = new LinkedHashMap<>();
+        for (Object resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            PropertyAccessor[] resourceAccessors = getAccessors(resource.getClass());
+            Object[] key = new Object[keyFields.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = resourceAccessors[i].get(resource);
+            }
+            List<Object> groupKey = Arrays.asList(key);
+            Accumulator accumulator = groups.get(groupKey);
+            if (accumulator == null) {
+                accumulator = new Accumulator(aggregates.size());
+                groups.put(groupKey, accumulator);
+            }
+            accumulator.count++;
+            for (int i = 0; i < aggregates.size(); i++) {
+                Object value = resourceAccessors[key.length + i].get(resource);
+                accumulator.values[i] = accumulate(aggregates.get(i).getFunction(), accumulator.values[i], value);
+            }
+        }
+
+        List<AggregateGroup> result = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Object>, Accumulator> group : groups.entrySet()) {
+            Map<String, Object> key = new LinkedHashMap<>();
+            for (int i = 0; i < keyFields.size(); i++) {
+                key.put(keyFields.get(i).getJsonName(), group.getKey().get(i));
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < aggregates.size(); i++) {
+                values.put(aggregates.get(i).getName(), group.getValue().values[i]);
+            }
+            result.add(new AggregateGroup(key, group.getValue().count, values));
+        }
+        return result;
+    }
+
+    private PropertyAccessor[] getAccessors(Class<?> resourceClass) {
+        PropertyAccessor[] resourceAccessors = accessors.get(resourceClass);
+        if (resourceAccessors == null) {
+            List<ResourceField> keyFields = groupingSpec.getKeyFields();
+            List<Aggregate> aggregates = groupingSpec.getAggregates();
+            resourceAccessors = new PropertyAccessor[keyFields.size() + aggregates.size()];
+            for (int i = 0; i < keyFields.size(); i++) {
+                resourceAccessors[i] = PropertyAccessor.resolve(resourceClass, keyFields.get(i).getUnderlyingName());
+            }
+            for (int i = 0; i < aggregates.size(); i++) {
+                resourceAccessors[keyFields.size() + i] =
+                    PropertyAccessor.resolve(resourceClass, aggregates.get(i).getField().getUnderlyingName());
+            }
+            accessors.put(resourceClass, resourceAccessors);
+        }
+        return resourceAccessors;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object accumulate(AggregateFunction function, Object current, Object value) {
+        if (value == null) {
+            return current;
+        }
+        if (current == null) {
+            return function == AggregateFunction.SUM ? add(null, value) : value;
+        }
+        switch (function) {
+            case SUM:
+                return add((Number) current, value);
+            case MIN:
+                return ((Comparable<Object>) value).compareTo(current) < 0 ? value : current;
+            default:
+                return ((Comparable<Object>) value).compareTo(current) > 0 ? value : current;
+        }
+    }
+
+    private static Number add(Number current, Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Cannot sum a non-numeric value: " + value);
+        }
+        Number number = (Number) value;
+        if (current == null) {
+            return isIntegral(number) ? (Number) number.longValue() : number;
+        }
+        if (current instanceof Long && isIntegral(number)) {
+            return current.longValue() + number.longValue();
+        }
+        if (current instanceof BigDecimal || number instanceof BigDecimal || number instanceof BigInteger) {
+            return new BigDecimal(current.toString()).add(new BigDecimal(number.toString()));
+        }
+        return current.doubleValue() + number.doubleValue();
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short
+            || number instanceof Byte;
+    }
+
+    private static final class Accumulator {
+        private final Object[] values;
+        private long count;
+
+        private Accumulator(int size) {
+            this.values = new Object[size];
+        }
+    }
+}
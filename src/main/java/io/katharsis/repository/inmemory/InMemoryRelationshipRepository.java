@@ -0,0 +1,113 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.repository.RelationshipRepository;
+import io.katharsis.utils.PropertyUtils;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link RelationshipRepository} storing relationships in fields of resources kept by
+ * {@link InMemoryResourceRepository} instances. Every modification is applied to a copy of the source resource which
+ * is saved afterwards, so indexes of the source repository stay up to date and readers never observe a partially
+ * modified relationship.
+ *
+ * @param <T>    source class type
+ * @param <T_ID> source identification class type
+ * @param <D>    target class type
+ * @param <D_ID> target identification class type
+ */
+public class InMemoryRelationshipRepository<T, T_ID extends Serializable, D, D_ID extends Serializable>
+    implements RelationshipRepository<T, T_ID, D, D_ID> {
+
+    private final InMemoryResourceRepository<T, T_ID> sourceRepository;
+    private final InMemoryResourceRepository<D, D_ID> targetRepository;
+
+    public InMemoryRelationshipRepository(InMemoryResourceRepository<T, T_ID> sourceRepository,
+                                          InMemoryResourceRepository<D, D_ID> targetRepository) {
+        this.sourceRepository = sourceRepository;
+        this.targetRepository = targetRepository;
+    }
+
+    @Override
+    public void setRelation(T source, D_ID targetId, String fieldName) {
+        D target = targetId == null ? null : targetRepository.findOne(targetId, null);
+        T copy = sourceRepository.copy(source);
+        PropertyUtils.setProperty(copy, fieldName, target);
+        sourceRepository.save(copy);
+    }
+
+    @Override
+    public void setRelations(T source, Iterable<D_ID> targetIds, String fieldName) {
+        T copy = sourceRepository.copy(source);
+        PropertyUtils.setProperty(copy, fieldName, findTargets(targetIds));
+        sourceRepository.save(copy);
+    }
+
+    @Override
+    public void addRelations(T source, Iterable<D_ID> targetIds, String fieldName) {
+        List<D> targets = getTargets(source, fieldName);
+        for (D target : findTargets(targetIds)) {
+            if (!targets.contains(target)) {
+                targets.add(target);
+            }
+        }
+        T copy = sourceRepository.copy(source);
+        PropertyUtils.setProperty(copy, fieldName, targets);
+        sourceRepository.save(copy);
+    }
+
+    @Override
+    public void removeRelations(T source, Iterable<D_ID> targetIds, String fieldName) {
+        Set<Object> removedIds = new HashSet<>();
+        for (D_ID targetId : targetIds) {
+            removedIds.add(targetId);
+        }
+        List<D> targets = new ArrayList<>();
+        for (D target : getTargets(source, fieldName)) {
+            if (!removedIds.contains(targetRepository.getId(target))) {
+                targets.add(target);
+            }
+        }
+        T copy = sourceRepository.copy(source);
+        PropertyUtils.setProperty(copy, fieldName, targets);
+        sourceRepository.save(copy);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public D findOneTarget(T_ID sourceId, String fieldName, QueryParams queryParams) {
+        T source = sourceRepository.findOne(sourceId, queryParams);
+        return source == null ? null : (D) PropertyUtils.getProperty(source, fieldName);
+    }
+
+    @Override
+    public Iterable<D> findManyTargets(T_ID sourceId, String fieldName, QueryParams queryParams) {
+        T source = sourceRepository.findOne(sourceId, queryParams);
+        return source == null ? null : getTargets(source, fieldName);
+    }
+
+    private List<D> findTargets(Iterable<D_ID> targetIds) {
+        List<D> targets = new ArrayList<>();
+        for (D target : targetRepository.findAll(targetIds, null)) {
+            targets.add(target);
+        }
+        return targets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<D> getTargets(T source, String fieldName) {
+        Iterable<D> currentTargets = (Iterable<D>) PropertyUtils.getProperty(source, fieldName);
+        List<D> targets = new ArrayList<>();
+        if (currentTargets != null) {
+            for (D target : currentTargets) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+}
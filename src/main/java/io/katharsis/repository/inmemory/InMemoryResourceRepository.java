@@ -0,0 +1,370 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.filter.AndExpression;
+import io.katharsis.queryParams.filter.FilterExpression;
+import io.katharsis.queryParams.filter.PropertyExpression;
+import io.katharsis.repository.CopyOnUpdateRepository;
+import io.katharsis.repository.ResourceRepository;
+import io.katharsis.resource.annotations.JsonApiResource;
+import io.katharsis.resource.exception.ResourceException;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.PropertyUtils;
+import io.katharsis.utils.parser.TypeParser;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+/**
+ * A {@link ResourceRepository} keeping resources in memory, intended for small, read-heavy reference data, as a cache
+ * in front of a slow backend and as a reference implementation for benchmarks.
+ * <p>
+ * All reads work on an immutable snapshot published through a volatile field, so they never block. Writes are
+ * serialized and copy the snapshot, which makes each of them proportional to the number of stored resources, so the
+ * repository is not suited for write-heavy data. Many resources are loaded at once using {@link #saveAll(Iterable)}.
+ * <p>
+ * Attributes can be indexed using a hash index, answering <i>eq</i> and <i>in</i> filters, or a sorted index,
+ * additionally answering range filters and sorting. Filters which can't be answered by an index are evaluated by
+ * scanning the candidates. Resources are indexed when they are saved.
+ * <p>
+ * Reads return the stored instances, which are shared with other readers. A resource has to be modified on a copy
+ * created by {@link #copy(Object)} and saved afterwards, which is what the dispatcher and
+ * {@link InMemoryRelationshipRepository} do.
+ *
+ * @param <T>  type of a resource
+ * @param <ID> type of a resource identifier
+ */
+public class InMemoryResourceRepository<T, ID extends Serializable>
+    implements ResourceRepository<T, ID>, CopyOnUpdateRepository<T> {
+
+    private final ResourceInformation resourceInformation;
+    private final String resourceType;
+    private final QueryEngine<T> queryEngine;
+    private final Set<String> indexedProperties = new HashSet<>();
+    private final Object writeLock = new Object();
+
+    private volatile IndexedSnapshot<T> snapshot = new IndexedSnapshot<>();
+
+    public InMemoryResourceRepository(Class<T> resourceClass) {
+        this(new ResourceInformationBuilder(new ResourceFieldNameTransformer()).build(resourceClass),
+            new TypeParser());
+    }
+
+    public InMemoryResourceRepository(ResourceInformation resourceInformation, TypeParser typeParser) {
+        JsonApiResource jsonApiResource = resourceInformation.getResourceClass().getAnnotation(JsonApiResource.class);
+        if (jsonApiResource == null) {
+            throw new IllegalArgumentException(
+                "Not a JSON API resource: " + resourceInformation.getResourceClass().getCanonicalName());
+        }
+        this.resourceInformation = resourceInformation;
+        this.resourceType = jsonApiResource.type();
+        this.queryEngine = new QueryEngine<>(resourceInformation, typeParser);
+    }
+
+    /**
+     * Adds a hash index on an attribute. The index answers <i>eq</i> and <i>in</i> filters.
+     *
+     * @param attributeName JSON name of an attribute or of the identifier
+     * @return this repository
+     */
+    public InMemoryResourceRepository<T, ID> addHashIndex(String attributeName) {
+        String property = getIndexableField(attributeName).getUnderlyingName();
+        synchronized (writeLock) {
+            indexedProperties.add(property);
+            snapshot = snapshot.withHashIndex(property, readValues(property));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a sorted index on an attribute with comparable values. The index answers <i>eq</i>, <i>in</i> and range
+     * filters and is used for sorting by the attribute.
+     *
+     * @param attributeName JSON name of an attribute or of the identifier
+     * @return this repository
+     */
+    public InMemoryResourceRepository<T, ID> addSortedIndex(String attributeName) {
+        ResourceField field = getIndexableField(attributeName);
+        if (!field.getType().isPrimitive() && !Comparable.class.isAssignableFrom(field.getType())) {
+            throw new IllegalArgumentException("Sorted index requires comparable values: " + attributeName);
+        }
+        String property = field.getUnderlyingName();
+        synchronized (writeLock) {
+            indexedProperties.add(property);
+            snapshot = snapshot.withSortedIndex(property, readValues(property));
+        }
+        return this;
+    }
+
+    private ResourceField getIndexableField(String attributeName) {
+        if (resourceInformation.getIdField().getJsonName().equals(attributeName)) {
+            return resourceInformation.getIdField();
+        }
+        ResourceField field = resourceInformation.findAttributeFieldByName(attributeName);
+        if (field == null) {
+            throw new IllegalArgumentException(
+                String.format("Attribute %s of %s not found", attributeName, resourceType));
+        }
+        return field;
+    }
+
+    private Map<Object, Object> readValues(String property) {
+        Map<Object, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<Object, T> entry : snapshot.getResources().entrySet()) {
+            values.put(entry.getKey(), PropertyUtils.getProperty(entry.getValue(), property));
+        }
+        return values;
+    }
+
+    @Override
+    public T findOne(ID id, QueryParams queryParams) {
+        return snapshot.get(id);
+    }
+
+    @Override
+    public Iterable<T> findAll(QueryParams queryParams) {
+        IndexedSnapshot<T> currentSnapshot = snapshot;
+        FilterExpression filter = queryEngine.getFilter(queryParams);
+        Collection<Object> candidateIds = findCandidateIds(currentSnapshot, filter);
+        List<QueryEngine.SortedProperty> sorting = queryEngine.getSorting(queryParams);
+
+        // sorting by a single attribute with a sorted index walks the index
+        if (sorting.size() == 1) {
+            NavigableMap<Object, Set<Object>> index = currentSnapshot.getSortedIndex(sorting.get(0).getProperty());
+            if (index != null) {
+                List<T> result = new ArrayList<>();
+                for (Object id : sortByIndex(index, candidateIds, sorting.get(0).isAscending())) {
+                    T resource = currentSnapshot.get(id);
+                    if (FilterMatcher.matches(filter, resource)) {
+                        result.add(resource);
+                    }
+                }
+                return QueryEngine.paginate(result, queryParams);
+            }
+        }
+
+        List<T> candidates = new ArrayList<>(candidateIds.size());
+        for (Object id : candidateIds) {
+            candidates.add(currentSnapshot.get(id));
+        }
+        return queryEngine.apply(candidates, filter, sorting, queryParams);
+    }
+
+    @Override
+    public Iterable<T> findAll(Iterable<ID> ids, QueryParams queryParams) {
+        IndexedSnapshot<T> currentSnapshot = snapshot;
+        List<T> result = new ArrayList<>();
+        for (ID id : ids) {
+            T resource = currentSnapshot.get(id);
+            if (resource != null) {
+                result.add(resource);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        Object id = getAssignedId(entity);
+        synchronized (writeLock) {
+            snapshot = snapshot.put(id, entity, readIndexedValues(entity));
+        }
+        return entity;
+    }
+
+    /**
+     * Saves resources at once, e.g. when the repository is loaded. Unlike saving them one by one, the snapshot and
+     * its indexes are copied once for all of them.
+     *
+     * @param entities resources to be saved
+     * @param <S>      type of the resources
+     * @return saved resources
+     */
+    public <S extends T> Iterable<S> saveAll(Iterable<S> entities) {
+        Map<Object, T> resources = new LinkedHashMap<>();
+        for (S entity : entities) {
+            resources.put(getAssignedId(entity), entity);
+        }
+        synchronized (writeLock) {
+            Map<Object, Map<String, Object>> values = new HashMap<>(resources.size());
+            for (Map.Entry<Object, T> entry : resources.entrySet()) {
+                values.put(entry.getKey(), readIndexedValues(entry.getValue()));
+            }
+            snapshot = snapshot.putAll(resources, values);
+        }
+        return entities;
+    }
+
+    private Object getAssignedId(Object entity) {
+        Object id = getId(entity);
+        if (id == null) {
+            throw new IllegalArgumentException("Identifier of a saved resource must be assigned: " + entity);
+        }
+        return id;
+    }
+
+    private Map<String, Object> readIndexedValues(Object entity) {
+        Map<String, Object> values = new HashMap<>(indexedProperties.size());
+        for (String property : indexedProperties) {
+            values.put(property, PropertyUtils.getProperty(entity, property));
+        }
+        return values;
+    }
+
+    /**
+     * Creates a shallow copy of a resource. All instance fields of the copy, including the ones not exposed as
+     * attributes or relationships, refer to the values of the resource.
+     *
+     * @param resource resource to be copied, its class needs a default constructor
+     * @return copy of the resource
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T copy(T resource) {
+        T copy = (T) ClassUtils.newInstance(resource.getClass());
+        for (Class<?> currentClass = resource.getClass(); currentClass != Object.class;
+             currentClass = currentClass.getSuperclass()) {
+            for (Field field : currentClass.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    try {
+                        field.set(copy, field.get(resource));
+                    } catch (IllegalAccessException e) {
+                        throw new ResourceException(
+                            String.format("couldn't copy field %s of %s", field.getName(), currentClass));
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public void delete(ID id) {
+        synchronized (writeLock) {
+            snapshot = snapshot.remove(id);
+        }
+    }
+
+    Object getId(Object resource) {
+        return PropertyUtils.getProperty(resource, resourceInformation.getIdField().getUnderlyingName());
+    }
+
+    /**
+     * Narrows the resources to be scanned using the most selective index matching a top-level filter. Returns
+     * identifiers of all resources if no index can be used.
+     */
+    private Collection<Object> findCandidateIds(IndexedSnapshot<T> currentSnapshot, FilterExpression filter) {
+        Collection<Object> candidateIds = null;
+        for (PropertyExpression expression : getTopLevelExpressions(filter)) {
+            Collection<Object> ids = findIndexedIds(currentSnapshot, expression);
+            if (ids != null && (candidateIds == null || ids.size() < candidateIds.size())) {
+                candidateIds = ids;
+            }
+        }
+        return candidateIds == null ? currentSnapshot.getResources().keySet() : candidateIds;
+    }
+
+    private static List<PropertyExpression> getTopLevelExpressions(FilterExpression filter) {
+        List<PropertyExpression> expressions = new ArrayList<>();
+        if (filter instanceof PropertyExpression) {
+            expressions.add((PropertyExpression) filter);
+        } else if (filter instanceof AndExpression) {
+            for (FilterExpression expression : ((AndExpression) filter).getExpressions()) {
+                if (expression instanceof PropertyExpression) {
+                    expressions.add((PropertyExpression) expression);
+                }
+            }
+        }
+        return expressions;
+    }
+
+    private static Collection<Object> findIndexedIds(IndexedSnapshot<?> currentSnapshot, PropertyExpression expression) {
+        if (expression.getPath().size() != 1) {
+            return null;
+        }
+        String property = expression.getField().getUnderlyingName();
+        switch (expression.getOperator()) {
+            case eq:
+            case in:
+                Set<Object> ids = new LinkedHashSet<>();
+                for (Object value : expression.getValues()) {
+                    Set<Object> valueIds = currentSnapshot.findEqual(property, value);
+                    if (valueIds == null) {
+                        return null;
+                    }
+                    ids.addAll(valueIds);
+                }
+                return ids;
+            case lt:
+            case le:
+            case gt:
+            case ge:
+                NavigableMap<Object, Set<Object>> index = currentSnapshot.getSortedIndex(property);
+                if (index == null || expression.getValue() == null) {
+                    return null;
+                }
+                return flatten(range(index, expression));
+            default:
+                return null;
+        }
+    }
+
+    private static NavigableMap<Object, Set<Object>> range(NavigableMap<Object, Set<Object>> index,
+                                                           PropertyExpression expression) {
+        Object value = expression.getValue();
+        switch (expression.getOperator()) {
+            case lt:
+                return index.headMap(value, false);
+            case le:
+                return index.headMap(value, true);
+            case gt:
+                return index.tailMap(value, false);
+            default:
+                return index.tailMap(value, true);
+        }
+    }
+
+    private static List<Object> flatten(Map<Object, Set<Object>> index) {
+        List<Object> ids = new ArrayList<>();
+        for (Set<Object> bucket : index.values()) {
+            ids.addAll(bucket);
+        }
+        return ids;
+    }
+
+    private static Collection<Object> sortByIndex(NavigableMap<Object, Set<Object>> index,
+                                                  Collection<Object> candidateIds, boolean ascending) {
+        Set<Object> remainingIds = new LinkedHashSet<>(candidateIds);
+        List<Object> sortedIds = new ArrayList<>(candidateIds.size());
+        for (Set<Object> bucket : (ascending ? index : index.descendingMap()).values()) {
+            for (Object id : bucket) {
+                if (remainingIds.remove(id)) {
+                    sortedIds.add(id);
+                }
+            }
+        }
+        // candidates left are the ones with null values, which are not indexed
+        if (ascending) {
+            sortedIds.addAll(0, remainingIds);
+        } else {
+            sortedIds.addAll(remainingIds);
+        }
+        return sortedIds;
+    }
+}
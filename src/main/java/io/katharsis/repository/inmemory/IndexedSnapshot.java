@@ -0,0 +1,238 @@
+package io.katharsis.repository.inmemory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable state of {@link InMemoryResourceRepository}. Every modification returns a new snapshot which shares
+ * unchanged index buckets with the previous one, so readers never observe a partially applied change and don't need
+ * any locks.
+ * <p>
+ * This is a deliberate copy-on-write trade-off: {@link #put} and {@link #remove} copy the resource map and the
+ * top-level map of every index, so a single write takes <i>O(N)</i> time and memory for <i>N</i> stored resources,
+ * while reads take no locks and see a consistent state of all indexes at once. {@link #putAll} copies them once for
+ * a whole batch, so loading many resources doesn't take quadratic time. Concurrent maps would make writes
+ * cheaper, but a reader could then find a resource whose index entries haven't been updated yet. The snapshot is
+ * therefore meant for read-mostly data of moderate size.
+ *
+ * @param <T> type of stored resources
+ */
+final class IndexedSnapshot<T> {
+
+    private final Map<Object, T> resources;
+    private final Map<Object, Map<String, Object>> indexedValues;
+    private final Map<String, Map<Object, Set<Object>>> hashIndexes;
+    private final Map<String, NavigableMap<Object, Set<Object>>> sortedIndexes;
+
+    IndexedSnapshot() {
+        this(Collections.<Object, T>emptyMap(), Collections.<Object, Map<String, Object>>emptyMap(),
+            Collections.<String, Map<Object, Set<Object>>>emptyMap(),
+            Collections.<String, NavigableMap<Object, Set<Object>>>emptyMap());
+    }
+
+    /**
+     * @param indexedValues values of indexed properties as they were when a resource has been saved. They are used to
+     *                      remove a resource from index buckets even if the resource instance has been modified
+     *                      in place.
+     */
+    private IndexedSnapshot(Map<Object, T> resources, Map<Object, Map<String, Object>> indexedValues,
+                            Map<String, Map<Object, Set<Object>>> hashIndexes,
+                            Map<String, NavigableMap<Object, Set<Object>>> sortedIndexes) {
+        this.resources = resources;
+        this.indexedValues = indexedValues;
+        this.hashIndexes = hashIndexes;
+        this.sortedIndexes = sortedIndexes;
+    }
+
+    Map<Object, T> getResources() {
+        return resources;
+    }
+
+    T get(Object id) {
+        return resources.get(id);
+    }
+
+    /**
+     * Returns identifiers of resources with a property equal to the value or <i>null</i> if the property is not
+     * indexed.
+     */
+    Set<Object> findEqual(String property, Object value) {
+        Map<Object, Set<Object>> index = hashIndexes.get(property);
+        if (index == null) {
+            index = sortedIndexes.get(property);
+        }
+        if (index == null) {
+            return null;
+        }
+        Set<Object> ids = index.get(value);
+        return ids == null ? Collections.emptySet() : ids;
+    }
+
+    NavigableMap<Object, Set<Object>> getSortedIndex(String property) {
+        return sortedIndexes.get(property);
+    }
+
+    IndexedSnapshot<T> put(Object id, T resource, Map<String, Object> values) {
+        return putAll(Collections.singletonMap(id, resource), Collections.singletonMap(id, values));
+    }
+
+    /**
+     * @param newResources resources keyed by identifiers
+     * @param newValues    values of indexed properties of the resources keyed by identifiers
+     */
+    IndexedSnapshot<T> putAll(Map<Object, T> newResources, Map<Object, Map<String, Object>> newValues) {
+        Map<Object, T> allResources = new LinkedHashMap<>(resources);
+        allResources.putAll(newResources);
+        Map<Object, Map<String, Object>> newIndexedValues = new HashMap<>(indexedValues);
+        newIndexedValues.putAll(newValues);
+
+        Map<String, Map<Object, Set<Object>>> newHashIndexes = new HashMap<>(hashIndexes);
+        for (Map.Entry<String, Map<Object, Set<Object>>> entry : hashIndexes.entrySet()) {
+            Map<Object, Set<Object>> index = new HashMap<>(entry.getValue());
+            reindex(index, entry.getKey(), newValues);
+            newHashIndexes.put(entry.getKey(), index);
+        }
+        Map<String, NavigableMap<Object, Set<Object>>> newSortedIndexes = new HashMap<>(sortedIndexes);
+        for (Map.Entry<String, NavigableMap<Object, Set<Object>>> entry : sortedIndexes.entrySet()) {
+            NavigableMap<Object, Set<Object>> index = new TreeMap<>(entry.getValue());
+            reindex(index, entry.getKey(), newValues);
+            newSortedIndexes.put(entry.getKey(), index);
+        }
+        return new IndexedSnapshot<>(allResources, newIndexedValues, newHashIndexes, newSortedIndexes);
+    }
+
+    IndexedSnapshot<T> remove(Object id) {
+        if (!resources.containsKey(id)) {
+            return this;
+        }
+        Map<String, Object> previous = indexedValues.get(id);
+        Map<Object, T> newResources = new LinkedHashMap<>(resources);
+        newResources.remove(id);
+        Map<Object, Map<String, Object>> newIndexedValues = new HashMap<>(indexedValues);
+        newIndexedValues.remove(id);
+
+        Map<String, Map<Object, Set<Object>>> newHashIndexes = new HashMap<>(hashIndexes);
+        for (Map.Entry<String, Map<Object, Set<Object>>> entry : hashIndexes.entrySet()) {
+            Map<Object, Set<Object>> index = new HashMap<>(entry.getValue());
+            removeFromBucket(index, previous.get(entry.getKey()), id, newBuckets());
+            newHashIndexes.put(entry.getKey(), index);
+        }
+        Map<String, NavigableMap<Object, Set<Object>>> newSortedIndexes = new HashMap<>(sortedIndexes);
+        for (Map.Entry<String, NavigableMap<Object, Set<Object>>> entry : sortedIndexes.entrySet()) {
+            NavigableMap<Object, Set<Object>> index = new TreeMap<>(entry.getValue());
+            removeFromBucket(index, previous.get(entry.getKey()), id, newBuckets());
+            newSortedIndexes.put(entry.getKey(), index);
+        }
+        return new IndexedSnapshot<>(newResources, newIndexedValues, newHashIndexes, newSortedIndexes);
+    }
+
+    /**
+     * @param values values of the property keyed by resource identifiers
+     */
+    IndexedSnapshot<T> withHashIndex(String property, Map<Object, Object> values) {
+        Map<Object, Set<Object>> index = new HashMap<>();
+        fillIndex(index, values);
+        Map<String, Map<Object, Set<Object>>> newHashIndexes = new HashMap<>(hashIndexes);
+        newHashIndexes.put(property, index);
+        return new IndexedSnapshot<>(resources, withIndexedValues(property, values), newHashIndexes, sortedIndexes);
+    }
+
+    /**
+     * @param values values of the property keyed by resource identifiers, all non-null values must be comparable
+     */
+    IndexedSnapshot<T> withSortedIndex(String property, Map<Object, Object> values) {
+        NavigableMap<Object, Set<Object>> index = new TreeMap<>();
+        fillIndex(index, values);
+        Map<String, NavigableMap<Object, Set<Object>>> newSortedIndexes = new HashMap<>(sortedIndexes);
+        newSortedIndexes.put(property, index);
+        return new IndexedSnapshot<>(resources, withIndexedValues(property, values), hashIndexes, newSortedIndexes);
+    }
+
+    private Map<Object, Map<String, Object>> withIndexedValues(String property, Map<Object, Object> values) {
+        Map<Object, Map<String, Object>> newIndexedValues = new HashMap<>(indexedValues.size());
+        for (Map.Entry<Object, Object> entry : values.entrySet()) {
+            Map<String, Object> resourceValues = indexedValues.get(entry.getKey());
+            Map<String, Object> newResourceValues =
+                resourceValues == null ? new HashMap<String, Object>() : new HashMap<>(resourceValues);
+            newResourceValues.put(property, entry.getValue());
+            newIndexedValues.put(entry.getKey(), newResourceValues);
+        }
+        return newIndexedValues;
+    }
+
+    private void reindex(Map<Object, Set<Object>> index, String property,
+                         Map<Object, Map<String, Object>> newValues) {
+        Set<Set<Object>> copiedBuckets = newBuckets();
+        for (Map.Entry<Object, Map<String, Object>> entry : newValues.entrySet()) {
+            Map<String, Object> previous = indexedValues.get(entry.getKey());
+            if (previous != null) {
+                removeFromBucket(index, previous.get(property), entry.getKey(), copiedBuckets);
+            }
+            addToBucket(index, entry.getValue().get(property), entry.getKey(), copiedBuckets);
+        }
+    }
+
+    private static Set<Set<Object>> newBuckets() {
+        return Collections.newSetFromMap(new IdentityHashMap<Set<Object>, Boolean>());
+    }
+
+    private static void fillIndex(Map<Object, Set<Object>> index, Map<Object, Object> values) {
+        for (Map.Entry<Object, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value != null || !(index instanceof NavigableMap)) {
+                Set<Object> bucket = index.get(value);
+                if (bucket == null) {
+                    bucket = new LinkedHashSet<>();
+                    index.put(value, bucket);
+                }
+                bucket.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Buckets are shared between snapshots, so they are copied before being modified. A bucket is copied once per
+     * write, copies are collected in <i>copiedBuckets</i>. Null values are not stored in sorted indexes.
+     */
+    private static void addToBucket(Map<Object, Set<Object>> index, Object value, Object id,
+                                    Set<Set<Object>> copiedBuckets) {
+        if (value == null && index instanceof NavigableMap) {
+            return;
+        }
+        getCopiedBucket(index, value, copiedBuckets).add(id);
+    }
+
+    private static void removeFromBucket(Map<Object, Set<Object>> index, Object value, Object id,
+                                         Set<Set<Object>> copiedBuckets) {
+        if (value == null && index instanceof NavigableMap) {
+            return;
+        }
+        Set<Object> bucket = index.get(value);
+        if (bucket == null || !bucket.contains(id)) {
+            return;
+        }
+        if (bucket.size() == 1) {
+            index.remove(value);
+        } else {
+            getCopiedBucket(index, value, copiedBuckets).remove(id);
+        }
+    }
+
+    private static Set<Object> getCopiedBucket(Map<Object, Set<Object>> index, Object value,
+                                               Set<Set<Object>> copiedBuckets) {
+        Set<Object> bucket = index.get(value);
+        if (bucket == null || !copiedBuckets.contains(bucket)) {
+            bucket = bucket == null ? new LinkedHashSet<>() : new LinkedHashSet<>(bucket);
+            copiedBuckets.add(bucket);
+            index.put(value, bucket);
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,64 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.PropertyException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads a property of resources of a class. The getter or public field is resolved once, following the rules of
+ * {@link io.katharsis.utils.PropertyUtils#getProperty(Object, String)}, instead of being searched on every read.
+ */
+final class PropertyAccessor {
+
+    private final String property;
+    private final Method getter;
+    private final Field field;
+
+    private PropertyAccessor(String property, Method getter, Field field) {
+        this.property = property;
+        this.getter = getter;
+        this.field = field;
+    }
+
+    static PropertyAccessor resolve(Class<?> resourceClass, String property) {
+        for (Field field : ClassUtils.getClassFields(resourceClass)) {
+            if (field.getName().equals(property)) {
+                if (Modifier.isPublic(field.getModifiers())) {
+                    return new PropertyAccessor(property, null, field);
+                }
+                return new PropertyAccessor(property, findGetter(resourceClass, property), null);
+            }
+        }
+        return new PropertyAccessor(property, findGetter(resourceClass, property), null);
+    }
+
+    private static Method findGetter(Class<?> resourceClass, String property) {
+        String upperCaseName = property.substring(0, 1).toUpperCase() + property.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                return resourceClass.getMethod(prefix + upperCaseName);
+            } catch (NoSuchMethodException e) {
+                // try the next prefix
+            }
+        }
+        throw new PropertyException(String.format("Cannot find an getter for %s.%s",
+            resourceClass.getCanonicalName(), property), resourceClass, property);
+    }
+
+    Object get(Object resource) {
+        try {
+            return getter != null ? getter.invoke(resource) : field.get(resource);
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() instanceof RuntimeException) {
+                throw (RuntimeException) e.getTargetException();
+            }
+            throw new PropertyException(e, resource.getClass(), property);
+        } catch (IllegalAccessException e) {
+            throw new PropertyException(e, resource.getClass(), property);
+        }
+    }
+}
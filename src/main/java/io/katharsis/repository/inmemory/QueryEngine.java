@@ -0,0 +1,434 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.RestrictedPaginationKeys;
+import io.katharsis.queryParams.RestrictedSortingValues;
+import io.katharsis.queryParams.filter.FilterExpression;
+import io.katharsis.queryParams.filter.FilterExpressionBuilder;
+import io.katharsis.queryParams.params.FilterParams;
+import io.katharsis.queryParams.params.SortingParams;
+import io.katharsis.resource.annotations.JsonApiResource;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.utils.parser.TypeParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Applies filters, sorting and pagination of {@link QueryParams} to resources held in memory, e.g. fetched from a
+ * backend which can't query them. It can be used by any repository:
+ * <pre>
+ * return queryEngine.apply(backend.getAllTasks(), queryParams);
+ * </pre>
+ * Sorted properties are read once for each resource using accessors resolved when the engine is created. Numeric
+ * properties are compared as primitive keys extracted along with them. When a page is requested, only the resources
+ * up to the end of the page are selected using a bounded heap instead of sorting all of them. Filtering and reading
+ * of sorted properties of large inputs can be split among threads of a {@link ForkJoinPool}.
+ *
+ * @param <T> type of a resource
+ */
+public class QueryEngine<T> {
+
+    private final ResourceInformation resourceInformation;
+    private final String resourceType;
+    private final FilterExpressionBuilder filterExpressionBuilder;
+    private final ForkJoinPool forkJoinPool;
+    private final int parallelismThreshold;
+
+    public QueryEngine(Class<T> resourceClass) {
+        this(new ResourceInformationBuilder(new ResourceFieldNameTransformer()).build(resourceClass),
+            new TypeParser());
+    }
+
+    public QueryEngine(ResourceInformation resourceInformation, TypeParser typeParser) {
+        this(resourceInformation, typeParser, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param resourceInformation  information about the resource
+     * @param typeParser           parser of filter values
+     * @param forkJoinPool         pool used for large inputs or <i>null</i> to process all inputs on the calling
+     *                             thread
+     * @param parallelismThreshold number of resources above which an input is split into parts of this size
+     */
+    public QueryEngine(ResourceInformation resourceInformation, TypeParser typeParser, ForkJoinPool forkJoinPool,
+                       int parallelismThreshold) {
+        JsonApiResource jsonApiResource = resourceInformation.getResourceClass().getAnnotation(JsonApiResource.class);
+        if (jsonApiResource == null) {
+            throw new IllegalArgumentException(
+                "Not a JSON API resource: " + resourceInformation.getResourceClass().getCanonicalName());
+        }
+        if (parallelismThreshold < 1) {
+            throw new IllegalArgumentException("Parallelism threshold must be positive: " + parallelismThreshold);
+        }
+        this.resourceInformation = resourceInformation;
+        this.resourceType = jsonApiResource.type();
+        this.filterExpressionBuilder = new FilterExpressionBuilder(typeParser);
+        this.forkJoinPool = forkJoinPool;
+        this.parallelismThreshold = parallelismThreshold;
+    }
+
+    /**
+     * Filters, sorts and paginates resources.
+     *
+     * @param resources   all resources
+     * @param queryParams parameters of a request
+     * @return resources of the requested page
+     * @throws ParametersDeserializationException if a filter, a sorted attribute or pagination is invalid
+     */
+    public List<T> apply(Iterable<? extends T> resources, QueryParams queryParams) {
+        return apply(resources, getFilter(queryParams), getSorting(queryParams), queryParams);
+    }
+
+    List<T> apply(Iterable<? extends T> resources, FilterExpression filter, List<SortedProperty> sorting,
+                  QueryParams queryParams) {
+        List<T> input = toList(resources);
+        Page page = Page.of(queryParams);
+        List<Keyed<T>> matching;
+        if (forkJoinPool != null && input.size() > parallelismThreshold) {
+            matching = forkJoinPool.invoke(new KeyTask<>(input, 0, input.size(), filter, sorting,
+                parallelismThreshold));
+        } else {
+            // without sorting, matching resources after the end of the page are not needed
+            long limit = sorting.isEmpty() ? page.getEnd() : Long.MAX_VALUE;
+            matching = extractKeys(input, 0, input.size(), filter, sorting, limit);
+        }
+
+        if (!sorting.isEmpty()) {
+            Comparator<Keyed<T>> comparator = new KeyedComparator<>(sorting);
+            if (page.getEnd() < matching.size()) {
+                matching = selectFirst(matching, comparator, (int) page.getEnd());
+            } else {
+                Collections.sort(matching, comparator);
+            }
+        }
+        List<T> result = new ArrayList<>(matching.size());
+        for (Keyed<T> keyed : matching) {
+            result.add(keyed.resource);
+        }
+        return page.apply(result);
+    }
+
+    FilterExpression getFilter(QueryParams queryParams) {
+        if (queryParams == null) {
+            return null;
+        }
+        FilterExpression filter = null;
+        if (queryParams.getFilterExpressions() != null) {
+            filter = queryParams.getFilterExpressions().getParams().get(resourceType);
+        } else if (queryParams.getFilters() != null) {
+            FilterParams filterParams = queryParams.getFilters().getParams().get(resourceType);
+            if (filterParams != null) {
+                filter = filterExpressionBuilder.build(resourceInformation, resourceType, filterParams);
+            }
+        }
+        FilterMatcher.validate(filter);
+        return filter;
+    }
+
+    List<SortedProperty> getSorting(QueryParams queryParams) {
+        SortingParams sortingParams = queryParams == null || queryParams.getSorting() == null ? null
+            : queryParams.getSorting().getParams().get(resourceType);
+        if (sortingParams == null || sortingParams.getParams().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<SortedProperty> sorting = new ArrayList<>(sortingParams.getParams().size());
+        for (Map.Entry<String, RestrictedSortingValues> entry : sortingParams.getParams().entrySet()) {
+            ResourceField field = resourceInformation.findAttributeFieldByName(entry.getKey());
+            if (field == null && !resourceInformation.getIdField().getJsonName().equals(entry.getKey())) {
+                throw new ParametersDeserializationException(
+                    String.format("Sorted attribute %s of %s not found", entry.getKey(), resourceType));
+            }
+            if (field == null) {
+                field = resourceInformation.getIdField();
+            }
+            if (!FilterMatcher.isComparable(field.getType())) {
+                throw new ParametersDeserializationException(
+                    String.format("Sorted attribute %s of %s is not comparable", entry.getKey(), resourceType));
+            }
+            String property = field.getUnderlyingName();
+            sorting.add(new SortedProperty(property, entry.getValue() == RestrictedSortingValues.asc,
+                PropertyAccessor.resolve(resourceInformation.getResourceClass(), property),
+                KeyType.of(field.getType())));
+        }
+        return sorting;
+    }
+
+    /**
+     * @param resources   sorted and filtered resources
+     * @param queryParams parameters of a request
+     * @return resources of the requested page
+     */
+    static <R> List<R> paginate(List<R> resources, QueryParams queryParams) {
+        return Page.of(queryParams).apply(resources);
+    }
+
+    private static <R> List<R> toList(Iterable<? extends R> resources) {
+        if (resources instanceof Collection) {
+            return new ArrayList<>((Collection<? extends R>) resources);
+        }
+        List<R> list = new ArrayList<>();
+        for (R resource : resources) {
+            list.add(resource);
+        }
+        return list;
+    }
+
+    private static <R> List<Keyed<R>> extractKeys(List<R> resources, int from, int to, FilterExpression filter,
+                                                  List<SortedProperty> sorting, long limit) {
+        SortedProperty[] properties = sorting.toArray(new SortedProperty[sorting.size()]);
+        boolean numeric = false;
+        for (SortedProperty property : properties) {
+            numeric |= property.keyType != KeyType.OBJECT;
+        }
+        List<Keyed<R>> matching = new ArrayList<>();
+        for (int i = from; i < to && matching.size() < limit; i++) {
+            R resource = resources.get(i);
+            if (FilterMatcher.matches(filter, resource)) {
+                Object[] keys = new Object[properties.length];
+                long[] numericKeys = numeric ? new long[properties.length] : null;
+                for (int j = 0; j < keys.length; j++) {
+                    keys[j] = properties[j].accessor.get(resource);
+                    if (keys[j] != null && properties[j].keyType != KeyType.OBJECT) {
+                        numericKeys[j] = properties[j].keyType.toLong((Number) keys[j]);
+                    }
+                }
+                matching.add(new Keyed<>(resource, keys, numericKeys, i));
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Selects the first resources in the sort order using a heap holding the greatest of the selected resources on
+     * its top, so it takes <i>n log(count)</i> comparisons.
+     */
+    private static <R> List<Keyed<R>> selectFirst(List<Keyed<R>> resources, Comparator<Keyed<R>> comparator,
+                                                  int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Keyed<R>> heap = new PriorityQueue<>(count, Collections.reverseOrder(comparator));
+        for (Keyed<R> resource : resources) {
+            if (heap.size() < count) {
+                heap.add(resource);
+            } else if (comparator.compare(resource, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(resource);
+            }
+        }
+        List<Keyed<R>> selected = new ArrayList<>(heap);
+        Collections.sort(selected, comparator);
+        return selected;
+    }
+
+    /**
+     * A sorted property of a resource.
+     */
+    static final class SortedProperty {
+        private final String property;
+        private final boolean ascending;
+        private final PropertyAccessor accessor;
+        private final KeyType keyType;
+
+        private SortedProperty(String property, boolean ascending, PropertyAccessor accessor, KeyType keyType) {
+            this.property = property;
+            this.ascending = ascending;
+            this.accessor = accessor;
+            this.keyType = keyType;
+        }
+
+        String getProperty() {
+            return property;
+        }
+
+        boolean isAscending() {
+            return ascending;
+        }
+    }
+
+    /**
+     * Representation of values of a sorted property used in comparisons.
+     */
+    private enum KeyType {
+        OBJECT,
+        INTEGRAL,
+        FLOATING_POINT;
+
+        private static KeyType of(Class<?> type) {
+            if (type == long.class || type == int.class || type == short.class || type == byte.class
+                || type == Long.class || type == Integer.class || type == Short.class || type == Byte.class) {
+                return INTEGRAL;
+            }
+            if (type == double.class || type == float.class || type == Double.class || type == Float.class) {
+                return FLOATING_POINT;
+            }
+            return OBJECT;
+        }
+
+        /**
+         * Converts a value to a key whose signed order is the order of the values. Bits of a negative floating point
+         * value other than the sign are inverted, so its key is ordered as {@link Double#compare(double, double)}.
+         */
+        private long toLong(Number value) {
+            if (this == INTEGRAL) {
+                return value.longValue();
+            }
+            long bits = Double.doubleToLongBits(value.doubleValue());
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * A resource with values of its sorted properties and its position in the input, which makes sorting stable.
+     * Values of numeric properties are also kept as primitive keys, or <i>null</i> if no sorted property is numeric.
+     */
+    private static final class Keyed<R> {
+        private final R resource;
+        private final Object[] keys;
+        private final long[] numericKeys;
+        private final int position;
+
+        private Keyed(R resource, Object[] keys, long[] numericKeys, int position) {
+            this.resource = resource;
+            this.keys = keys;
+            this.numericKeys = numericKeys;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Null values are placed first in ascending order.
+     */
+    private static final class KeyedComparator<R> implements Comparator<Keyed<R>> {
+        private final boolean[] ascending;
+        private final boolean[] numeric;
+
+        private KeyedComparator(List<SortedProperty> sorting) {
+            ascending = new boolean[sorting.size()];
+            numeric = new boolean[sorting.size()];
+            for (int i = 0; i < ascending.length; i++) {
+                ascending[i] = sorting.get(i).ascending;
+                numeric[i] = sorting.get(i).keyType != KeyType.OBJECT;
+            }
+        }
+
+        @Override
+        public int compare(Keyed<R> keyed, Keyed<R> other) {
+            for (int i = 0; i < ascending.length; i++) {
+                int result;
+                if (numeric[i] && keyed.keys[i] != null && other.keys[i] != null) {
+                    result = Long.compare(keyed.numericKeys[i], other.numericKeys[i]);
+                } else {
+                    result = compareValues(keyed.keys[i], other.keys[i]);
+                }
+                if (result != 0) {
+                    return ascending[i] ? result : -result;
+                }
+            }
+            return keyed.position < other.position ? -1 : (keyed.position == other.position ? 0 : 1);
+        }
+
+        private static int compareValues(Object value, Object other) {
+            if (value == null) {
+                return other == null ? 0 : -1;
+            }
+            return FilterMatcher.compare(value, other);
+        }
+    }
+
+    private static final class KeyTask<R> extends RecursiveTask<List<Keyed<R>>> {
+        private final List<R> resources;
+        private final int from;
+        private final int to;
+        private final FilterExpression filter;
+        private final List<SortedProperty> sorting;
+        private final int threshold;
+
+        private KeyTask(List<R> resources, int from, int to, FilterExpression filter, List<SortedProperty> sorting,
+                        int threshold) {
+            this.resources = resources;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+            this.sorting = sorting;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<Keyed<R>> compute() {
+            if (to - from <= threshold) {
+                return extractKeys(resources, from, to, filter, sorting, Long.MAX_VALUE);
+            }
+            int middle = (from + to) >>> 1;
+            KeyTask<R> left = new KeyTask<>(resources, from, middle, filter, sorting, threshold);
+            KeyTask<R> right = new KeyTask<>(resources, middle, to, filter, sorting, threshold);
+            left.fork();
+            List<Keyed<R>> result = right.compute();
+            List<Keyed<R>> leftResult = left.join();
+            leftResult.addAll(result);
+            return leftResult;
+        }
+    }
+
+    private static final class Page {
+        private final int offset;
+        private final int limit;
+
+        private Page(int offset, int limit) {
+            this.offset = Math.max(offset, 0);
+            this.limit = Math.max(limit, 0);
+        }
+
+        private static Page of(QueryParams queryParams) {
+            if (queryParams == null || queryParams.getPagination() == null || queryParams.getPagination().isEmpty()) {
+                return new Page(0, Integer.MAX_VALUE);
+            }
+            Map<RestrictedPaginationKeys, String> pagination = queryParams.getPagination();
+            int offset = parseInt(pagination.get(RestrictedPaginationKeys.offset), 0);
+            int limit = parseInt(pagination.get(RestrictedPaginationKeys.limit), Integer.MAX_VALUE);
+            if (pagination.containsKey(RestrictedPaginationKeys.size)) {
+                limit = parseInt(pagination.get(RestrictedPaginationKeys.size), Integer.MAX_VALUE);
+                long pageOffset = ((long) parseInt(pagination.get(RestrictedPaginationKeys.number), 1) - 1) * limit;
+                offset = (int) Math.min(pageOffset, Integer.MAX_VALUE);
+            }
+            return new Page(offset, limit);
+        }
+
+        private long getEnd() {
+            return (long) offset + limit;
+        }
+
+        private <R> List<R> apply(List<R> resources) {
+            if (offset == 0 && limit == Integer.MAX_VALUE) {
+                return resources;
+            }
+            if (offset >= resources.size()) {
+                return Collections.emptyList();
+            }
+            return resources.subList(offset, (int) Math.min(getEnd(), resources.size()));
+        }
+
+        private static int parseInt(String value, int defaultValue) {
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new ParametersDeserializationException("Invalid pagination value: " + value);
+            }
+        }
+    }
+}
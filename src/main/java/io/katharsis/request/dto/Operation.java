@@ -0,0 +1,38 @@
+package io.katharsis.request.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A single operation of an atomic request, eg.
+ * <i>{"op": "add", "data": {"type": "projects", "lid": "p1", "attributes": {...}}}</i>. Supported codes are
+ * <i>add</i>, <i>update</i> and <i>remove</i>.
+ */
+public class Operation {
+    private String op;
+    private OperationRef ref;
+    private JsonNode data;
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public OperationRef getRef() {
+        return ref;
+    }
+
+    public void setRef(OperationRef ref) {
+        this.ref = ref;
+    }
+
+    public JsonNode getData() {
+        return data;
+    }
+
+    public void setData(JsonNode data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,24 @@
+package io.katharsis.request.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Body of an atomic request with an ordered list of operations.
+ */
+public class OperationsRequestBody {
+
+    public static final String OPERATIONS = "atomic:operations";
+
+    @JsonProperty(OPERATIONS)
+    private List<Operation> operations;
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+}
@@ -1,5 +1,9 @@
 package io.katharsis.request.path;
 
+import io.katharsis.metrics.KatharsisMetrics;
+import io.katharsis.metrics.MetricsListener;
+import io.katharsis.metrics.MetricsStage;
+import io.katharsis.metrics.NoOpMetricsListener;
 import io.katharsis.resource.exception.ResourceException;
 import io.katharsis.resource.exception.ResourceFieldNotFoundException;
 import io.katharsis.resource.exception.ResourceNotFoundException;
@@ -22,9 +26,19 @@ public class PathBuilder {
     public static final String RELATIONSHIP_MARK = "relationships";
 
     private final ResourceRegistry resourceRegistry;
+    private final MetricsListener metricsListener;
 
     public PathBuilder(ResourceRegistry resourceRegistry) {
+        this(resourceRegistry, null);
+    }
+
+    /**
+     * @param resourceRegistry registry of resources
+     * @param metricsListener  listener of parsing time or <i>null</i> if it's not measured
+     */
+    public PathBuilder(ResourceRegistry resourceRegistry, MetricsListener metricsListener) {
         this.resourceRegistry = resourceRegistry;
+        this.metricsListener = metricsListener == null ? NoOpMetricsListener.INSTANCE : metricsListener;
     }
 
     private static PathIds createPathIds(String idsString) {
@@ -85,6 +99,18 @@ public class PathBuilder {
      * @return doubly-linked list which represents path given at the input
      */
     public JsonPath buildPath(String path) {
+        long start = KatharsisMetrics.start(metricsListener);
+        JsonPath jsonPath = null;
+        try {
+            jsonPath = parsePath(path);
+            return jsonPath;
+        } finally {
+            KatharsisMetrics.stop(metricsListener, start, MetricsStage.PATH_PARSING,
+                jsonPath == null ? null : jsonPath.getResourceName(), null, null);
+        }
+    }
+
+    private JsonPath parsePath(String path) {
         String[] strings = splitPath(path);
         if (strings.length == 0 || (strings.length == 1 && "".equals(strings[0]))) {
             throw new ResourceException("Path is empty");
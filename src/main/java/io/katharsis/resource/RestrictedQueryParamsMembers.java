@@ -24,5 +24,9 @@ public enum RestrictedQueryParamsMembers {
     /**
      * Additional resources that should be attached to response
      */
-    include
+    include,
+    /**
+     * Token of the last synchronization of a collection
+     */
+    sync
 }
@@ -0,0 +1,29 @@
+package io.katharsis.resource.accessor;
+
+import io.katharsis.utils.PropertyUtils;
+
+/**
+ * Accessor used for resource classes compiled without {@link ResourceAccessorProcessor}.
+ */
+final class ReflectiveResourceAccessor implements ResourceAccessor {
+
+    static final ReflectiveResourceAccessor INSTANCE = new ReflectiveResourceAccessor();
+
+    private ReflectiveResourceAccessor() {
+    }
+
+    @Override
+    public Object getProperty(Object resource, String name) {
+        return PropertyUtils.getProperty(resource, name);
+    }
+
+    @Override
+    public void setProperty(Object resource, String name, Object value) {
+        PropertyUtils.setProperty(resource, name, value);
+    }
+
+    @Override
+    public boolean isPlain() {
+        return false;
+    }
+}
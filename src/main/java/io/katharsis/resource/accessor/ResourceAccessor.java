@@ -0,0 +1,32 @@
+package io.katharsis.resource.accessor;
+
+/**
+ * Reads and writes properties of resources of a single class. Implementations are generated at compile time by
+ * {@link ResourceAccessorProcessor} and use direct field and getter calls instead of reflection. Resource classes
+ * without a generated accessor use one based on {@link io.katharsis.utils.PropertyUtils}.
+ */
+public interface ResourceAccessor {
+
+    /**
+     * @param resource resource instance
+     * @param name     underlying name of a property
+     * @return value of the property
+     */
+    Object getProperty(Object resource, String name);
+
+    /**
+     * @param resource resource instance
+     * @param name     underlying name of a property
+     * @param value    new value of the property
+     */
+    void setProperty(Object resource, String name, Object value);
+
+    /**
+     * A plain resource class doesn't use Jackson annotations and all of its attributes are visible to Jackson, so
+     * writing its attributes using {@link #getProperty(Object, String)} gives the same result as Jackson bean
+     * serialization.
+     *
+     * @return <i>true</i> if the resource class is plain
+     */
+    boolean isPlain();
+}
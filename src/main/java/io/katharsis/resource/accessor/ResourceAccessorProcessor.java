@@ -0,0 +1,369 @@
+package io.katharsis.resource.accessor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@link ResourceAccessor} for each class annotated with
+ * {@link io.katharsis.resource.annotations.JsonApiResource}. Generated accessors read properties using public
+ * fields and getters and write them using public fields and setters, following the rules of
+ * {@link io.katharsis.utils.PropertyUtils}. Properties which can't be accessed directly, e.g. collections which
+ * have to be converted before they're set, are delegated to {@link io.katharsis.utils.PropertyUtils}.
+ * <p>
+ * The processor is opt-in. It's registered as a service only in the <i>processor</i> classifier of katharsis-core,
+ * which is added to the compiler configuration of a project using resource classes:
+ * <pre>
+ * &lt;annotationProcessorPaths&gt;
+ *     &lt;path&gt;
+ *         &lt;groupId&gt;io.katharsis&lt;/groupId&gt;
+ *         &lt;artifactId&gt;katharsis-core&lt;/artifactId&gt;
+ *         &lt;version&gt;${katharsis.version}&lt;/version&gt;
+ *         &lt;classifier&gt;processor&lt;/classifier&gt;
+ *     &lt;/path&gt;
+ * &lt;/annotationProcessorPaths&gt;
+ * </pre>
+ */
+@SupportedAnnotationTypes("io.katharsis.resource.annotations.JsonApiResource")
+public class ResourceAccessorProcessor extends AbstractProcessor {
+
+    private static final String JACKSON_PACKAGE = "com.fasterxml.jackson.";
+    private static final String JACKSON_ANNOTATIONS_INSIDE =
+        "com.fasterxml.jackson.annotation.JacksonAnnotationsInside";
+    private static final String PROPERTY_UTILS = "io.katharsis.utils.PropertyUtils";
+
+    private final Set<String> generatedAccessors = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement resourceType : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (resourceType.getKind() == ElementKind.CLASS && isAccessible(resourceType)) {
+                    generateAccessor(resourceType);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generateAccessor(TypeElement resourceType) {
+        String accessorName = ResourceAccessors.getAccessorName(
+            processingEnv.getElementUtils().getBinaryName(resourceType).toString());
+        if (!generatedAccessors.add(accessorName)) {
+            return;
+        }
+        ResourceClass resourceClass = new ResourceClass(resourceType);
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(accessorName, resourceType);
+            try (PrintWriter writer = new PrintWriter(sourceFile.openWriter())) {
+                writeAccessor(writer, accessorName, resourceClass);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Cannot generate resource accessor: " + e.getMessage(), resourceType);
+        }
+    }
+
+    private static void writeAccessor(PrintWriter writer, String accessorName, ResourceClass resourceClass) {
+        int packageEnd = accessorName.lastIndexOf('.');
+        String resourceName = resourceClass.type.getQualifiedName().toString();
+        if (packageEnd > 0) {
+            writer.println("package " + accessorName.substring(0, packageEnd) + ";");
+            writer.println();
+        }
+        writer.println("/**");
+        writer.println(" * Generated by {@link io.katharsis.resource.accessor.ResourceAccessorProcessor}.");
+        writer.println(" */");
+        writer.println("@java.lang.SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+        writer.println("public final class " + accessorName.substring(packageEnd + 1)
+            + " implements io.katharsis.resource.accessor.ResourceAccessor {");
+        writer.println();
+
+        writer.println("    @java.lang.Override");
+        writer.println("    public java.lang.Object getProperty(java.lang.Object resource, java.lang.String name) {");
+        if (!resourceClass.getters.isEmpty()) {
+            writer.println("        if (name != null && resource instanceof " + resourceName + ") {");
+            writer.println("            " + resourceName + " typedResource = (" + resourceName + ") resource;");
+            writer.println("            switch (name) {");
+            for (Map.Entry<String, String> getter : resourceClass.getters.entrySet()) {
+                writer.println("                case \"" + getter.getKey() + "\":");
+                writer.println("                    return typedResource." + getter.getValue() + ";");
+            }
+            writer.println("            }");
+            writer.println("        }");
+        }
+        writer.println("        return " + PROPERTY_UTILS + ".getProperty(resource, name);");
+        writer.println("    }");
+        writer.println();
+
+        writer.println("    @java.lang.Override");
+        writer.println("    public void setProperty(java.lang.Object resource, java.lang.String name, "
+            + "java.lang.Object value) {");
+        if (!resourceClass.setters.isEmpty()) {
+            writer.println("        if (name != null && resource instanceof " + resourceName + ") {");
+            writer.println("            " + resourceName + " typedResource = (" + resourceName + ") resource;");
+            writer.println("            switch (name) {");
+            for (Map.Entry<String, String> setter : resourceClass.setters.entrySet()) {
+                writer.println("                case \"" + setter.getKey() + "\":");
+                writer.println("                    typedResource." + setter.getValue() + ";");
+                writer.println("                    return;");
+            }
+            writer.println("            }");
+            writer.println("        }");
+        }
+        writer.println("        " + PROPERTY_UTILS + ".setProperty(resource, name, value);");
+        writer.println("    }");
+        writer.println();
+
+        writer.println("    @java.lang.Override");
+        writer.println("    public boolean isPlain() {");
+        writer.println("        return " + resourceClass.plain + ";");
+        writer.println("    }");
+        writer.println("}");
+    }
+
+    /**
+     * A type can be used by a generated accessor if it's public or declared in the same package, the same applies
+     * to all enclosing types.
+     */
+    private boolean isAccessible(TypeElement type, PackageElement fromPackage) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || (!modifiers.contains(Modifier.PUBLIC)
+                && !processingEnv.getElementUtils().getPackageOf(element).equals(fromPackage))) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private boolean isAccessible(TypeElement resourceType) {
+        NestingKind nestingKind = resourceType.getNestingKind();
+        return (nestingKind == NestingKind.TOP_LEVEL || nestingKind == NestingKind.MEMBER) &&
+            isAccessible(resourceType, processingEnv.getElementUtils().getPackageOf(resourceType));
+    }
+
+    private boolean isAccessible(TypeMirror type, PackageElement fromPackage) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType(), fromPackage);
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            return isAccessible((TypeElement) ((DeclaredType) type).asElement(), fromPackage);
+        }
+        return false;
+    }
+
+    private static boolean isJacksonAnnotated(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().toString().startsWith(JACKSON_PACKAGE)) {
+                return true;
+            }
+            for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+                if (JACKSON_ANNOTATIONS_INSIDE.equals(
+                    ((TypeElement) metaAnnotation.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String capitalize(String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+
+    /**
+     * Properties of a resource class resolved the same way as {@link io.katharsis.utils.PropertyUtils} and
+     * {@link io.katharsis.resource.information.ResourceInformationBuilder} resolve them at runtime.
+     */
+    private final class ResourceClass {
+        private final TypeElement type;
+        private final PackageElement resourcePackage;
+        private final List<TypeElement> hierarchy = new ArrayList<>();
+        private final Map<String, VariableElement> fields = new LinkedHashMap<>();
+        private final Map<String, ExecutableElement> getterMethods = new LinkedHashMap<>();
+        private final Map<String, String> getters = new LinkedHashMap<>();
+        private final Map<String, String> setters = new LinkedHashMap<>();
+        private boolean plain = true;
+
+        private ResourceClass(TypeElement type) {
+            this.type = type;
+            this.resourcePackage = processingEnv.getElementUtils().getPackageOf(type);
+            collectHierarchy();
+            collectMembers();
+            for (Map.Entry<String, VariableElement> field : fields.entrySet()) {
+                addFieldAccess(field.getKey(), field.getValue());
+            }
+            for (Map.Entry<String, ExecutableElement> getter : getterMethods.entrySet()) {
+                if (!fields.containsKey(getter.getKey())) {
+                    addGetterAccess(getter.getKey(), getter.getValue());
+                }
+            }
+        }
+
+        private void collectHierarchy() {
+            TypeElement current = type;
+            while (current != null && !Object.class.getName().equals(current.getQualifiedName().toString())) {
+                hierarchy.add(current);
+                TypeMirror superclass = current.getSuperclass();
+                current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+            }
+        }
+
+        private void collectMembers() {
+            for (TypeElement hierarchyType : hierarchy) {
+                plain &= !isJacksonAnnotated(hierarchyType);
+                for (Element member : hierarchyType.getEnclosedElements()) {
+                    plain &= !isJacksonAnnotated(member);
+                }
+                for (VariableElement field : ElementFilter.fieldsIn(hierarchyType.getEnclosedElements())) {
+                    String name = field.getSimpleName().toString();
+                    if (!fields.containsKey(name)) {
+                        fields.put(name, field);
+                    }
+                }
+                for (ExecutableElement method : ElementFilter.methodsIn(hierarchyType.getEnclosedElements())) {
+                    String propertyName = getGetterPropertyName(method);
+                    if (propertyName != null && !getterMethods.containsKey(propertyName)) {
+                        getterMethods.put(propertyName, method);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Jackson serializes public fields and public getters, but <i>is</i> getters only of primitive booleans and
+         * it lower cases all leading upper case characters of a getter name.
+         */
+        private void addFieldAccess(String name, VariableElement field) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC)) {
+                return;
+            }
+            plain &= !modifiers.contains(Modifier.TRANSIENT);
+            TypeMirror fieldType = processingEnv.getTypeUtils().erasure(field.asType());
+            if (modifiers.contains(Modifier.PUBLIC)) {
+                getters.put(name, name);
+                if (!modifiers.contains(Modifier.FINAL) && isDirectlySettable(fieldType)) {
+                    setters.put(name, name + " = (" + fieldType + ") value");
+                }
+                return;
+            }
+            plain &= !Character.isUpperCase(name.charAt(0));
+            ExecutableElement getter = findPublicMethod("get" + capitalize(name), 0);
+            if (getter == null) {
+                getter = findPublicMethod("is" + capitalize(name), 0);
+            }
+            plain &= getter != null && isSerializableGetter(getter);
+            if (getter != null) {
+                getters.put(name, getter.getSimpleName() + "()");
+            }
+            addSetter(name, fieldType);
+        }
+
+        private void addGetterAccess(String name, ExecutableElement getter) {
+            if (getter.getModifiers().contains(Modifier.STATIC)) {
+                return;
+            }
+            boolean isPublic = getter.getModifiers().contains(Modifier.PUBLIC);
+            plain &= isPublic && isSerializableGetter(getter);
+            if (isPublic) {
+                getters.put(name, getter.getSimpleName() + "()");
+                addSetter(name, processingEnv.getTypeUtils().erasure(getter.getReturnType()));
+            }
+        }
+
+        private void addSetter(String name, TypeMirror propertyType) {
+            ExecutableElement setter = findPublicMethod("set" + capitalize(name), 1);
+            if (setter != null && isDirectlySettable(propertyType) && processingEnv.getTypeUtils().isSameType(
+                propertyType, processingEnv.getTypeUtils().erasure(setter.getParameters().get(0).asType()))) {
+                setters.put(name, setter.getSimpleName() + "((" + propertyType + ") value)");
+            }
+        }
+
+        private boolean isSerializableGetter(ExecutableElement getter) {
+            String methodName = getter.getSimpleName().toString();
+            int nameStart = methodName.startsWith("is") ? 2 : 3;
+            if (nameStart == 2 && getter.getReturnType().getKind() != TypeKind.BOOLEAN) {
+                return false;
+            }
+            return methodName.length() == nameStart + 1 || !Character.isUpperCase(methodName.charAt(nameStart + 1));
+        }
+
+        /**
+         * Primitives can't be set from <i>null</i> and collections may need conversion, both are left for
+         * {@link io.katharsis.utils.PropertyUtils}.
+         */
+        private boolean isDirectlySettable(TypeMirror propertyType) {
+            if (propertyType.getKind().isPrimitive() || !isAccessible(propertyType, resourcePackage)) {
+                return false;
+            }
+            TypeMirror collectionType = processingEnv.getTypeUtils().erasure(
+                processingEnv.getElementUtils().getTypeElement("java.util.Collection").asType());
+            return !processingEnv.getTypeUtils().isAssignable(propertyType, collectionType);
+        }
+
+        private ExecutableElement findPublicMethod(String name, int parameterCount) {
+            for (TypeElement hierarchyType : hierarchy) {
+                for (ExecutableElement method : ElementFilter.methodsIn(hierarchyType.getEnclosedElements())) {
+                    Set<Modifier> modifiers = method.getModifiers();
+                    if (method.getSimpleName().contentEquals(name) && modifiers.contains(Modifier.PUBLIC)
+                        && !modifiers.contains(Modifier.STATIC) && method.getParameters().size() == parameterCount) {
+                        return method;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private String getGetterPropertyName(ExecutableElement method) {
+            String name = method.getSimpleName().toString();
+            if (!method.getParameters().isEmpty()) {
+                return null;
+            }
+            TypeMirror returnType = method.getReturnType();
+            if (name.startsWith("is") && name.length() >= 3 && (returnType.getKind() == TypeKind.BOOLEAN
+                || Boolean.class.getName().equals(processingEnv.getTypeUtils().erasure(returnType).toString()))) {
+                return name.substring(2, 3).toLowerCase() + name.substring(3);
+            } else if (name.startsWith("get") && name.length() >= 4 && returnType.getKind() != TypeKind.VOID) {
+                return name.substring(3, 4).toLowerCase() + name.substring(4);
+            }
+            return null;
+        }
+    }
+}
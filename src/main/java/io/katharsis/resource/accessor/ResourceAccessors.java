@@ -0,0 +1,59 @@
+package io.katharsis.resource.accessor;
+
+import io.katharsis.resource.exception.init.InvalidResourceException;
+
+/**
+ * Finds accessors generated by {@link ResourceAccessorProcessor}. An accessor of a resource class is a class in the
+ * same package named after the resource class with the <i>_JsonApiAccessor</i> suffix. Accessors are looked up once
+ * for each class and kept in a {@link ClassValue}, so they don't prevent resource classes from being unloaded.
+ */
+public final class ResourceAccessors {
+
+    static final String ACCESSOR_SUFFIX = "_JsonApiAccessor";
+
+    private static final ClassValue<ResourceAccessor> CACHE = new ClassValue<ResourceAccessor>() {
+        @Override
+        protected ResourceAccessor computeValue(Class<?> type) {
+            return findAccessor(type);
+        }
+    };
+
+    private ResourceAccessors() {
+    }
+
+    /**
+     * @param resourceClass resource class
+     * @return generated accessor of the class or a reflective one if the class doesn't have it
+     */
+    public static ResourceAccessor forClass(Class<?> resourceClass) {
+        return CACHE.get(resourceClass);
+    }
+
+    /**
+     * @param binaryName binary name of a resource class, e.g. <i>com.example.Outer$Resource</i>
+     * @return binary name of its accessor, e.g. <i>com.example.Outer_Resource_JsonApiAccessor</i>
+     */
+    static String getAccessorName(String binaryName) {
+        int packageEnd = binaryName.lastIndexOf('.');
+        return binaryName.substring(0, packageEnd + 1) + binaryName.substring(packageEnd + 1).replace('$', '_') +
+            ACCESSOR_SUFFIX;
+    }
+
+    private static ResourceAccessor findAccessor(Class<?> resourceClass) {
+        Class<?> accessorClass;
+        try {
+            accessorClass = Class.forName(getAccessorName(resourceClass.getName()), true,
+                resourceClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return ReflectiveResourceAccessor.INSTANCE;
+        }
+        if (!ResourceAccessor.class.isAssignableFrom(accessorClass)) {
+            return ReflectiveResourceAccessor.INSTANCE;
+        }
+        try {
+            return (ResourceAccessor) accessorClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new InvalidResourceException("Cannot create accessor " + accessorClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.katharsis.resource.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes concurrent <i>findOne</i> calls of a resource repository with the same query parameters be collected into a
+ * single {@link io.katharsis.repository.ResourceRepository#findAll(Iterable, io.katharsis.queryParams.QueryParams)}
+ * call. The first call waits for other calls for {@link #window()} or until {@link #maxBatchSize()} calls are
+ * collected, then it reads all of the resources and passes each of them to its caller. The first call doesn't wait
+ * if no other call of the repository is in progress. A caller whose resource is not returned gets <i>null</i>, as if
+ * <i>findOne</i> returned it.
+ * <p>
+ * It should be used only for resources whose reads don't depend on the caller, e.g. on the authenticated user
+ * passed to repository methods. It takes precedence over {@link JsonApiCoalescedReads} for <i>findOne</i> calls.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JsonApiBatchedReads {
+
+    /**
+     * @return time in microseconds the first call of a batch waits for other calls
+     */
+    long window() default 500;
+
+    /**
+     * @return maximum number of calls collected into a batch
+     */
+    int maxBatchSize() default 50;
+
+    /**
+     * Defines how long a caller waits for the read of its batch. When the time elapses, the caller calls the
+     * repository on its own, so a single slow read can't block all of the callers of a batch.
+     *
+     * @return maximum waiting time in milliseconds
+     */
+    long timeout() default 10000;
+}
@@ -0,0 +1,31 @@
+package io.katharsis.resource.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes identical concurrent reads of a resource share a single call of the resource repository. Calls of
+ * <i>findOne</i> and <i>findAll</i> with the same identifiers and query parameters, which are issued while the same
+ * call is in progress, wait for its result instead of calling the repository again. Each caller gets its own
+ * response, but the returned resource objects are shared, so reads of resources which are going to be modified, i.e.
+ * by updates or requests including related resources, are never coalesced.
+ * <p>
+ * It should be used only for resources whose reads don't depend on the caller, e.g. on the authenticated user
+ * passed to repository methods.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JsonApiCoalescedReads {
+
+    /**
+     * Defines how long a caller waits for a call in progress. When the time elapses, the caller calls the repository
+     * on its own, so a single slow call can't block all of the waiting requests.
+     *
+     * @return maximum waiting time in milliseconds
+     */
+    long timeout() default 10000;
+}
@@ -0,0 +1,19 @@
+package io.katharsis.resource.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates an attribute which is expensive to load, e.g. a large text or derived statistics. The attribute is read
+ * and serialized only if it's named in <i>fields</i> parameter of its resource type, e.g.
+ * <i>fields[tasks]=name,description</i>. Repositories can check it using
+ * {@link io.katharsis.queryParams.QueryParams#getProjection(io.katharsis.resource.information.ResourceInformation, String)}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface JsonApiLazyAttribute {
+}
@@ -20,4 +20,11 @@ public @interface JsonApiToMany {
      * @return <i>true</i> if lazy, <i>false</i> otherwise
      */
     boolean lazy() default true;
+
+    /**
+     * Defines the expected number of related resources. It's used to estimate the cost of requests which include the
+     * relationship, see {@link io.katharsis.queryParams.cost.QueryCostEstimator}.
+     * @return expected number of related resources, <i>0</i> if unknown
+     */
+    int cardinality() default 0;
 }
@@ -0,0 +1,22 @@
+package io.katharsis.resource.exception;
+
+import io.katharsis.errorhandling.ErrorData;
+import io.katharsis.errorhandling.exception.KatharsisMappableException;
+import io.katharsis.request.dto.OperationsRequestBody;
+import io.katharsis.response.HttpStatus;
+
+/**
+ * Thrown, when an operation of an atomic request cannot be executed
+ */
+public class InvalidOperationException extends KatharsisMappableException {
+    private static final String TITLE = "Invalid operation";
+
+    public InvalidOperationException(int index, String message) {
+        super(HttpStatus.BAD_REQUEST_400, ErrorData.builder()
+                .setTitle(TITLE)
+                .setDetail(message)
+                .setSourcePointer("/" + OperationsRequestBody.OPERATIONS + "/" + index)
+                .setStatus(String.valueOf(HttpStatus.BAD_REQUEST_400))
+                .build());
+    }
+}
@@ -4,16 +4,19 @@ import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.katharsis.resource.accessor.ResourceAccessor;
+import io.katharsis.resource.accessor.ResourceAccessors;
 import io.katharsis.resource.exception.ResourceException;
 import io.katharsis.resource.exception.init.InvalidResourceException;
 import io.katharsis.utils.ClassUtils;
-import io.katharsis.utils.PropertyUtils;
 import io.katharsis.utils.java.Optional;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -24,19 +27,17 @@ public class ResourceAttributesBridge<T> {
 
     private final Set<ResourceField> staticFields;
     private final Class<T> resourceClass;
-    private Method jsonAnyGetter;
-    private Method jsonAnySetter;
+    private final Method jsonAnyGetter;
+    private final Method jsonAnySetter;
+    private final ResourceAccessor accessor;
 
     public ResourceAttributesBridge(Set<ResourceField> staticFields, Class<T> resourceClass) {
-        this.staticFields = staticFields;
+        this.staticFields = staticFields == null ? null
+            : Collections.unmodifiableSet(new LinkedHashSet<>(staticFields));
         this.resourceClass = resourceClass;
-
-        initializeGetterAndSetter(resourceClass);
-    }
-
-    private void initializeGetterAndSetter(Class<T> resourceClass) {
         this.jsonAnyGetter = ClassUtils.findMethodWith(resourceClass, JsonAnyGetter.class);
         this.jsonAnySetter = ClassUtils.findMethodWith(resourceClass, JsonAnySetter.class);
+        this.accessor = ResourceAccessors.forClass(resourceClass);
 
         if (absentAnySetter()) {
             throw new InvalidResourceException(
@@ -45,6 +46,16 @@ public class ResourceAttributesBridge<T> {
         }
     }
 
+    /**
+     * Returns attributes defined as fields or getters of a resource class. Dynamic attributes handled by
+     * {@link JsonAnyGetter} are not included.
+     *
+     * @return set of resource attribute fields
+     */
+    public Set<ResourceField> getStaticFields() {
+        return staticFields;
+    }
+
     /**
      * The resource has to have both method annotated with {@link JsonAnySetter} and {@link JsonAnyGetter} to allow
      * proper handling.
@@ -92,8 +103,8 @@ public class ResourceAttributesBridge<T> {
         Optional<ResourceField> staticField = findStaticField(propertyName);
         if (staticField.isPresent()) {
             String underlyingName = staticField.get().getUnderlyingName();
-            Object property = PropertyUtils.getProperty(instanceWithNewFields, underlyingName);
-            PropertyUtils.setProperty(instance, underlyingName, property);
+            Object property = accessor.getProperty(instanceWithNewFields, underlyingName);
+            accessor.setProperty(instance, underlyingName, property);
         } else {
             // Needed for JsonIgnore and dynamic attributes
         }
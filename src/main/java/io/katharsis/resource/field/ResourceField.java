@@ -1,10 +1,12 @@
 package io.katharsis.resource.field;
 
 import io.katharsis.resource.annotations.JsonApiIncludeByDefault;
+import io.katharsis.resource.annotations.JsonApiLazyAttribute;
 import io.katharsis.resource.annotations.JsonApiToMany;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -14,7 +16,7 @@ public class ResourceField {
     private final String underlyingName;
     private final Class<?> type;
     private final Type genericType;
-    private List<Annotation> annotations;
+    private final List<Annotation> annotations;
 
     public ResourceField(@SuppressWarnings("SameParameterValue") String jsonName,
                          @SuppressWarnings("SameParameterValue") String underlyingName, Class<?> type, Type genericType) {
@@ -26,7 +28,8 @@ public class ResourceField {
         this.underlyingName = underlyingName;
         this.type = type;
         this.genericType = genericType;
-        this.annotations = annotations;
+        this.annotations = annotations == null ? Collections.<Annotation>emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(annotations));
     }
 
     public String getJsonName() {
@@ -62,12 +65,16 @@ public class ResourceField {
      * Returns a flag which indicate if a field should not be serialized automatically.
      *
      * @see JsonApiToMany#lazy()
+     * @see JsonApiLazyAttribute
      * @return true if a field is lazy
      */
     public boolean isLazy() {
         JsonApiIncludeByDefault includeByDefaultAnnotation = null;
         JsonApiToMany toManyAnnotation = null;
         for (Annotation annotation : annotations) {
+            if (annotation.annotationType().equals(JsonApiLazyAttribute.class)) {
+                return true;
+            }
             if (annotation.annotationType().equals(JsonApiIncludeByDefault.class)) {
                 includeByDefaultAnnotation = (JsonApiIncludeByDefault) annotation;
             }
@@ -1,19 +1,22 @@
 package io.katharsis.resource.include;
 
+import io.katharsis.metrics.KatharsisMetrics;
+import io.katharsis.metrics.MetricsStage;
 import io.katharsis.queryParams.QueryParams;
-import io.katharsis.queryParams.include.Inclusion;
-import io.katharsis.queryParams.params.IncludedRelationsParams;
-import io.katharsis.queryParams.params.TypedParams;
+import io.katharsis.queryParams.cost.QueryCostExceededException;
+import io.katharsis.queryParams.cost.QueryCostLimiter;
+import io.katharsis.queryParams.include.IncludePlan;
 import io.katharsis.repository.RepositoryMethodParameterProvider;
 import io.katharsis.repository.exception.RelationshipRepositoryNotFoundException;
 import io.katharsis.resource.annotations.JsonApiLookupIncludeAutomatically;
 import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
 import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.RelationshipDescriptor;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
 import io.katharsis.response.JsonApiResponse;
 import io.katharsis.utils.ClassUtils;
-import io.katharsis.utils.Generics;
 import io.katharsis.utils.PropertyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,27 +24,26 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
 
 public class IncludeLookupSetter {
     private static final transient Logger logger = LoggerFactory.getLogger(IncludeLookupSetter.class);
 
     private final ResourceRegistry resourceRegistry;
+    private final int maxIncludedResources;
 
     public IncludeLookupSetter(ResourceRegistry resourceRegistry) {
-        this.resourceRegistry = resourceRegistry;
+        this(resourceRegistry, QueryCostLimiter.UNLIMITED);
     }
 
-    private static IncludedRelationsParams findInclusions(TypedParams<IncludedRelationsParams> queryParams,
-                                                          String resourceName) {
-        IncludedRelationsParams includedRelationsParams = null;
-        for (Map.Entry<String, IncludedRelationsParams> entry : queryParams.getParams().entrySet()) {
-            if (resourceName.equals(entry.getKey())) {
-                includedRelationsParams = entry.getValue();
-            }
-        }
-        return includedRelationsParams;
+    /**
+     * @param resourceRegistry     registry of resources
+     * @param maxIncludedResources maximum number of related resources traversed while resolving inclusions of a
+     *                             single response or {@link QueryCostLimiter#UNLIMITED}
+     */
+    public IncludeLookupSetter(ResourceRegistry resourceRegistry, int maxIncludedResources) {
+        this.resourceRegistry = resourceRegistry;
+        this.maxIncludedResources = maxIncludedResources;
     }
 
     public void setIncludedElements(RegistryEntry registryEntry,
@@ -49,58 +51,72 @@ public class IncludeLookupSetter {
                                     Object repositoryResource,
                                     QueryParams queryParams,
                                     RepositoryMethodParameterProvider parameterProvider) {
+        long start = KatharsisMetrics.start();
+        LookupCounter lookupCounter = new LookupCounter(maxIncludedResources);
+        try {
+            setIncludedElements(registryEntry, resourceName, repositoryResource, queryParams, parameterProvider,
+                lookupCounter);
+        } finally {
+            if (KatharsisMetrics.isStarted(start)) {
+                KatharsisMetrics.stop(start, MetricsStage.INCLUDE_RESOLUTION, resourceName, null, null);
+                KatharsisMetrics.getListener().onIncludeFanOut(resourceName, lookupCounter.count);
+            }
+        }
+    }
+
+    private void setIncludedElements(RegistryEntry registryEntry,
+                                     String resourceName,
+                                     Object repositoryResource,
+                                     QueryParams queryParams,
+                                     RepositoryMethodParameterProvider parameterProvider,
+                                     LookupCounter lookupCounter) {
 
         Object resource = resolveResource(repositoryResource);
 
         if (resourceHasIncludedResources(queryParams, resource)) {
             if (isCollectionResource(resource)) {
                 for (Object target : (Iterable<?>) resource) {
-                    setIncludedElements(registryEntry, resourceName, target, queryParams, parameterProvider);
+                    setIncludedElements(registryEntry, resourceName, target, queryParams, parameterProvider,
+                        lookupCounter);
                 }
             } else {
-                IncludedRelationsParams includedRelationsParams = findInclusions(queryParams.getIncludedRelations(),
-                        resourceName);
-                if (includedRelationsParams != null) {
-                    // iterate over all included fields
-                    for (Inclusion inclusion : includedRelationsParams.getParams()) {
-                        List<String> pathList = inclusion.getPathList();
-                        if (!pathList.isEmpty()) {
-                            getElements(registryEntry, resource, pathList, queryParams, parameterProvider);
-                        }
-                    }
-                }
+                IncludePlan includePlan = queryParams.getIncludePlan(resourceRegistry, resourceName,
+                    registryEntry.getResourceInformation());
+                getElements(resource, includePlan, queryParams, parameterProvider, lookupCounter);
             }
         }
     }
 
-    void getElements(RegistryEntry registryEntry, Object resource, List<String> pathList, QueryParams queryParams,
-                     RepositoryMethodParameterProvider parameterProvider) {
-        if (!pathList.isEmpty()) {
+    void getElements(Object resource, IncludePlan includePlan, QueryParams queryParams,
+                     RepositoryMethodParameterProvider parameterProvider, LookupCounter lookupCounter) {
+        for (IncludePlan includedRelationship : includePlan.getChildren()) {
             // resolve field
-            String underlyingFieldName = underlyingFieldName(registryEntry, pathList);
+            String underlyingFieldName = includedRelationship.getField().getUnderlyingName();
 
             Field field = ClassUtils.findClassField(resource.getClass(), underlyingFieldName);
             if (field == null) {
                 logger.warn("Error loading relationship, couldn't find field " + underlyingFieldName);
-                return;
+                continue;
             }
             Object property = PropertyUtils.getProperty(resource, field.getName());
             //attempt to load relationship if it's null or JsonApiLookupIncludeAutomatically.overwrite() == true
             if (shouldWeLoadRelationship(field, property)) {
                 property = loadRelationship(resource, field, queryParams, parameterProvider);
+                lookupCounter.count++;
                 PropertyUtils.setProperty(resource, field.getName(), property);
             }
 
             if (property != null) {
-                List<String> subPathList = pathList.subList(1, pathList.size());
+                lookupCounter.addIncluded(property);
+            }
+
+            if (property != null && !includedRelationship.isEmpty()) {
                 if (isCollectionResource(property)) {
                     for (Object o : ((Iterable) property)) {
-                        //noinspection unchecked
-                        getElements(registryEntry, o, subPathList, queryParams, parameterProvider);
+                        getElements(o, includedRelationship, queryParams, parameterProvider, lookupCounter);
                     }
                 } else {
-                    //noinspection unchecked
-                    getElements(registryEntry, property, subPathList, queryParams, parameterProvider);
+                    getElements(property, includedRelationship, queryParams, parameterProvider, lookupCounter);
                 }
             }
         }
@@ -124,35 +140,6 @@ public class IncludeLookupSetter {
         return resource;
     }
 
-    private String underlyingFieldName(RegistryEntry registryEntry, List<String> pathList) {
-        String cleanedUpName = removeSurroundingBracketsAndQuotes(pathList.get(0));
-        ResourceField resourceField = registryEntry.getResourceInformation().findRelationshipFieldByName(cleanedUpName);
-        return resourceField.getUnderlyingName();
-    }
-
-    private String removeSurroundingBracketsAndQuotes(String fieldName) {
-        String result = removePrefix(fieldName, "[");
-        result = removeSuffix(result, "]");
-        return result;
-    }
-
-    private String removePrefix(String source, String prefix) {
-        if (source.startsWith(prefix)) {
-            return source.substring(prefix.length());
-        }
-        return source;
-    }
-
-    private String removeSuffix(String source, String suffix) {
-        if (source.length() <= suffix.length()) {
-            throw new IllegalStateException("Cannot remove " + suffix + " from " + source);
-        }
-        if (source.endsWith(suffix)) {
-            return source.substring(0, source.length() - suffix.length());
-        }
-        return source;
-    }
-
     private boolean shouldWeLoadRelationship(Field field, Object property) {
         return field.isAnnotationPresent(JsonApiLookupIncludeAutomatically.class)
                 && (property == null || field.getAnnotation(JsonApiLookupIncludeAutomatically.class).overwrite());
@@ -161,32 +148,31 @@ public class IncludeLookupSetter {
     @SuppressWarnings("unchecked")
     Object loadRelationship(Object root, Field relationshipField, QueryParams queryParams,
                             RepositoryMethodParameterProvider parameterProvider) {
-        Class<?> resourceClass = getClassFromField(relationshipField);
         RegistryEntry<?> rootEntry = resourceRegistry.getEntry(root.getClass());
-        RegistryEntry<?> registryEntry = resourceRegistry.getEntry(resourceClass);
-
-        if (rootEntry == null || registryEntry == null) {
+        if (rootEntry == null) {
+            return null;
+        }
+        ResourceInformation rootInformation = rootEntry.getResourceInformation();
+        ResourceField rootRelationshipField = getResourceField(rootInformation, relationshipField.getName());
+        RelationshipDescriptor descriptor = rootRelationshipField == null ? null
+            : resourceRegistry.getRelationshipDescriptor(rootInformation, rootRelationshipField);
+        if (descriptor == null) {
             return null;
         }
 
-        ResourceField rootIdField = rootEntry.getResourceInformation().getIdField();
+        ResourceField rootIdField = rootInformation.getIdField();
         Serializable castedResourceId = (Serializable) PropertyUtils.getProperty(root, rootIdField.getUnderlyingName());
 
-        Class<?> baseRelationshipFieldClass = relationshipField.getType();
-        Class<?> relationshipFieldClass = Generics.getResourceClass(root.getClass(), resourceClass);
-
         try {
-            RelationshipRepositoryAdapter relationshipRepositoryForClass = rootEntry
-                    .getRelationshipRepositoryForClass(relationshipFieldClass, parameterProvider);
-            if (relationshipRepositoryForClass != null) {
-                JsonApiResponse response;
-                if (Iterable.class.isAssignableFrom(baseRelationshipFieldClass)) {
-                    response = relationshipRepositoryForClass.findManyTargets(castedResourceId, relationshipField.getName(), queryParams);
-                } else {
-                    response = relationshipRepositoryForClass.findOneTarget(castedResourceId, relationshipField.getName(), queryParams);
-                }
-                return response.getEntity();
+            RelationshipRepositoryAdapter relationshipRepositoryForClass =
+                descriptor.getRelationshipRepository(parameterProvider);
+            JsonApiResponse response;
+            if (descriptor.isCollection()) {
+                response = relationshipRepositoryForClass.findManyTargets(castedResourceId, relationshipField.getName(), queryParams);
+            } else {
+                response = relationshipRepositoryForClass.findOneTarget(castedResourceId, relationshipField.getName(), queryParams);
             }
+            return response.getEntity();
         } catch (RelationshipRepositoryNotFoundException e) {
             logger.debug("Relationship is not defined", e);
         }
@@ -194,6 +180,15 @@ public class IncludeLookupSetter {
         return null;
     }
 
+    private static ResourceField getResourceField(ResourceInformation resourceInformation, String underlyingName) {
+        for (ResourceField resourceField : resourceInformation.getRelationshipFields()) {
+            if (resourceField.getUnderlyingName().equals(underlyingName)) {
+                return resourceField;
+            }
+        }
+        return null;
+    }
+
     Class<?> getClassFromField(Field relationshipField) {
         Class<?> resourceClass;
         if (Iterable.class.isAssignableFrom(relationshipField.getType())) {
@@ -204,4 +199,46 @@ public class IncludeLookupSetter {
         }
         return resourceClass;
     }
+
+    /**
+     * Counts relationship lookups and related resources traversed while resolving inclusions of a single response.
+     */
+    static final class LookupCounter {
+        private final int maxIncluded;
+        private int count;
+        private long included;
+
+        LookupCounter(int maxIncluded) {
+            this.maxIncluded = maxIncluded;
+        }
+
+        /**
+         * Elements of iterables which aren't collections are counted while iterating, so a lazily loaded
+         * relationship stops being read once the limit is exceeded.
+         */
+        void addIncluded(Object property) {
+            if (maxIncluded == QueryCostLimiter.UNLIMITED) {
+                return;
+            }
+            if (property instanceof Collection) {
+                included += ((Collection<?>) property).size();
+                checkLimit();
+            } else if (property instanceof Iterable) {
+                for (Object ignored : (Iterable<?>) property) {
+                    included++;
+                    checkLimit();
+                }
+            } else {
+                included++;
+                checkLimit();
+            }
+        }
+
+        private void checkLimit() {
+            if (included > maxIncluded) {
+                throw new QueryCostExceededException(String.format(
+                    "Number of included resources exceeds the limit of %d", maxIncluded));
+            }
+        }
+    }
 }
@@ -1,14 +1,19 @@
 package io.katharsis.resource.information;
 
+import io.katharsis.resource.accessor.ResourceAccessor;
+import io.katharsis.resource.accessor.ResourceAccessors;
 import io.katharsis.resource.field.ResourceAttributesBridge;
 import io.katharsis.resource.field.ResourceField;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
 /**
- * Holds information about the type of the resource.
+ * Holds information about the type of the resource. Fields are final and collections are unmodifiable copies, so an
+ * instance is immutable and can be shared by registries and threads.
  */
 public final class ResourceInformation {
     private final Class<?> resourceClass;
@@ -39,6 +44,16 @@ public final class ResourceInformation {
      */
     private final String linksFieldName;
 
+    /**
+     * JSON names of attributes serialized only if they're requested using <i>fields</i> parameter.
+     */
+    private final Set<String> lazyAttributeNames;
+
+    /**
+     * Accessor of resource properties, generated at compile time or reflective.
+     */
+    private final ResourceAccessor accessor;
+
     public ResourceInformation(Class<?> resourceClass, ResourceField idField, ResourceAttributesBridge attributeFields,
                                Set<ResourceField> relationshipFields) {
         this(resourceClass, idField, attributeFields, relationshipFields, null, null);
@@ -49,15 +64,35 @@ public final class ResourceInformation {
         this.resourceClass = resourceClass;
         this.idField = idField;
         this.attributeFields = attributeFields;
-        this.relationshipFields = relationshipFields;
+        this.relationshipFields = relationshipFields == null ? null
+            : Collections.unmodifiableSet(new LinkedHashSet<>(relationshipFields));
         this.metaFieldName = metaFieldName;
         this.linksFieldName = linksFieldName;
+        this.accessor = resourceClass == null ? null : ResourceAccessors.forClass(resourceClass);
+        this.lazyAttributeNames = findLazyAttributeNames(attributeFields);
+    }
+
+    private static Set<String> findLazyAttributeNames(ResourceAttributesBridge<?> attributeFields) {
+        if (attributeFields == null || attributeFields.getStaticFields() == null) {
+            return Collections.emptySet();
+        }
+        Set<String> lazyAttributeNames = new HashSet<>();
+        for (ResourceField attributeField : attributeFields.getStaticFields()) {
+            if (attributeField.isLazy()) {
+                lazyAttributeNames.add(attributeField.getJsonName());
+            }
+        }
+        return Collections.unmodifiableSet(lazyAttributeNames);
     }
 
     public Class<?> getResourceClass() {
         return resourceClass;
     }
 
+    public ResourceAccessor getAccessor() {
+        return accessor;
+    }
+
     public ResourceField getIdField() {
         return idField;
     }
@@ -74,6 +109,16 @@ public final class ResourceInformation {
         return getJsonField(name, relationshipFields);
     }
 
+    /**
+     * Searches for a resource attribute by its JSON name.
+     *
+     * @param name JSON name of an attribute
+     * @return found attribute or <i>null</i>
+     */
+    public ResourceField findAttributeFieldByName(String name) {
+        return getJsonField(name, attributeFields.getStaticFields());
+    }
+
     private static ResourceField getJsonField(String name, Set<ResourceField> fields) {
         ResourceField foundField = null;
         for (ResourceField field : fields) {
@@ -113,6 +158,15 @@ public final class ResourceInformation {
         return notAttributeFields;
     }
 
+    /**
+     * Returns JSON names of attributes marked with {@link io.katharsis.resource.annotations.JsonApiLazyAttribute}.
+     *
+     * @return lazy attribute names
+     */
+    public Set<String> getLazyAttributeNames() {
+        return lazyAttributeNames;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
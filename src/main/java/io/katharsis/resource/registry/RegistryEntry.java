@@ -2,6 +2,9 @@ package io.katharsis.resource.registry;
 
 import io.katharsis.repository.RepositoryMethodParameterProvider;
 import io.katharsis.repository.exception.RelationshipRepositoryNotFoundException;
+import io.katharsis.resource.annotations.JsonApiBatchedReads;
+import io.katharsis.resource.annotations.JsonApiCoalescedReads;
+import io.katharsis.resource.annotations.JsonApiResource;
 import io.katharsis.resource.information.ResourceInformation;
 import io.katharsis.resource.registry.repository.AnnotatedRelationshipEntryBuilder;
 import io.katharsis.resource.registry.repository.AnnotatedResourceEntryBuilder;
@@ -10,8 +13,14 @@ import io.katharsis.resource.registry.repository.DirectResponseResourceEntry;
 import io.katharsis.resource.registry.repository.ResourceEntry;
 import io.katharsis.resource.registry.repository.ResponseRelationshipEntry;
 import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
+import io.katharsis.resource.registry.responseRepository.RepositoryReadBatcher;
+import io.katharsis.resource.registry.responseRepository.RepositoryReadCoalescer;
 import io.katharsis.resource.registry.responseRepository.ResourceRepositoryAdapter;
+import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.java.Optional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -23,6 +32,8 @@ import java.util.Objects;
  * - ResourceEntry instance,
  * - List of all repositories for relationships defined in resource class.
  * - Parent RegistryEntry if a resource inherits from another resource
+ * <p>
+ * An entry is immutable, so it can be shared by threads without synchronization.
  *
  * @param <T> resource type
  */
@@ -30,7 +41,10 @@ public class RegistryEntry<T> {
     private final ResourceInformation resourceInformation;
     private final ResourceEntry<T, ?> resourceEntry;
     private final List<ResponseRelationshipEntry<T, ?>> relationshipEntries;
-    private RegistryEntry parentRegistryEntry = null;
+    private final RegistryEntry parentRegistryEntry;
+    private final String resourceType;
+    private final RepositoryReadCoalescer readCoalescer;
+    private final RepositoryReadBatcher readBatcher;
 
     public RegistryEntry(ResourceInformation resourceInformation,
                          @SuppressWarnings("SameParameterValue") ResourceEntry<T, ?> resourceEntry) {
@@ -40,9 +54,27 @@ public class RegistryEntry<T> {
     public RegistryEntry(ResourceInformation resourceInformation,
                          ResourceEntry<T, ?> resourceEntry,
                          List<ResponseRelationshipEntry<T, ?>> relationshipEntries) {
+        this(resourceInformation, resourceEntry, relationshipEntries, null);
+    }
+
+    /**
+     * @param resourceInformation information about a resource
+     * @param resourceEntry       resource repository
+     * @param relationshipEntries relationship repositories, copied
+     * @param parentRegistryEntry entry of the closest resource superclass or <i>null</i>
+     */
+    public RegistryEntry(ResourceInformation resourceInformation,
+                         ResourceEntry<T, ?> resourceEntry,
+                         List<ResponseRelationshipEntry<T, ?>> relationshipEntries,
+                         RegistryEntry parentRegistryEntry) {
         this.resourceInformation = resourceInformation;
         this.resourceEntry = resourceEntry;
-        this.relationshipEntries = relationshipEntries;
+        this.relationshipEntries = relationshipEntries == null ? null
+            : Collections.unmodifiableList(new ArrayList<>(relationshipEntries));
+        this.parentRegistryEntry = parentRegistryEntry;
+        this.resourceType = findResourceType(resourceInformation);
+        this.readCoalescer = createReadCoalescer(resourceInformation);
+        this.readBatcher = createReadBatcher(resourceInformation);
     }
 
     @SuppressWarnings("unchecked")
@@ -53,7 +85,12 @@ public class RegistryEntry<T> {
         } else if (resourceEntry instanceof AnnotatedResourceEntryBuilder) {
             repoInstance = ((AnnotatedResourceEntryBuilder<T, ?>) resourceEntry).build(parameterProvider);
         }
-        return new ResourceRepositoryAdapter(repoInstance);
+        return new ResourceRepositoryAdapter(repoInstance, getResourceType(), readCoalescer,
+            readBatcher);
+    }
+
+    ResourceEntry<T, ?> getResourceEntry() {
+        return resourceEntry;
     }
 
     public List<ResponseRelationshipEntry<T, ?>> getRelationshipEntries() {
@@ -63,41 +100,77 @@ public class RegistryEntry<T> {
     @SuppressWarnings("unchecked")
     public RelationshipRepositoryAdapter getRelationshipRepositoryForClass(Class clazz,
                                                                                      RepositoryMethodParameterProvider parameterProvider) {
-        ResponseRelationshipEntry<T, ?> foundRelationshipEntry = null;
+        ResponseRelationshipEntry<T, ?> foundRelationshipEntry = findRelationshipEntry(clazz);
+        if (foundRelationshipEntry == null) {
+            throw new RelationshipRepositoryNotFoundException(resourceInformation.getResourceClass(), clazz);
+        }
+        return buildRelationshipRepository(foundRelationshipEntry, parameterProvider);
+    }
+
+    ResponseRelationshipEntry<T, ?> findRelationshipEntry(Class clazz) {
+        if (relationshipEntries == null) {
+            return null;
+        }
         for (ResponseRelationshipEntry<T, ?> relationshipEntry : relationshipEntries) {
             if (clazz == relationshipEntry.getTargetAffiliation()) {
-                foundRelationshipEntry = relationshipEntry;
-                break;
+                return relationshipEntry;
             }
         }
-        if (foundRelationshipEntry == null) {
-            throw new RelationshipRepositoryNotFoundException(resourceInformation.getResourceClass(), clazz);
-        }
+        return null;
+    }
 
+    @SuppressWarnings("unchecked")
+    RelationshipRepositoryAdapter buildRelationshipRepository(ResponseRelationshipEntry<T, ?> relationshipEntry,
+                                                              RepositoryMethodParameterProvider parameterProvider) {
         Object repoInstance;
-         if (foundRelationshipEntry instanceof AnnotatedRelationshipEntryBuilder) {
-            repoInstance = ((AnnotatedRelationshipEntryBuilder<T, ?>) foundRelationshipEntry).build(parameterProvider);
+        if (relationshipEntry instanceof AnnotatedRelationshipEntryBuilder) {
+            repoInstance = ((AnnotatedRelationshipEntryBuilder<T, ?>) relationshipEntry).build(parameterProvider);
         } else {
-             repoInstance = ((DirectResponseRelationshipEntry<T, ?>) foundRelationshipEntry).getRepositoryInstanceBuilder();
-         }
-        return new RelationshipRepositoryAdapter(repoInstance);
+            repoInstance = ((DirectResponseRelationshipEntry<T, ?>) relationshipEntry).getRepositoryInstanceBuilder();
+        }
+        return new RelationshipRepositoryAdapter(repoInstance, getResourceType());
     }
 
     public ResourceInformation getResourceInformation() {
         return resourceInformation;
     }
 
-    public RegistryEntry getParentRegistryEntry() {
-        return parentRegistryEntry;
+    private static String findResourceType(ResourceInformation resourceInformation) {
+        if (resourceInformation == null || resourceInformation.getResourceClass() == null) {
+            return null;
+        }
+        Optional<JsonApiResource> annotation =
+            ClassUtils.getAnnotation(resourceInformation.getResourceClass(), JsonApiResource.class);
+        return annotation.isPresent() ? annotation.get().type() : null;
     }
 
-    /**
-     * To be used only by ResourceRegistryBuilder
-     *
-     * @param parentRegistryEntry parent resource
-     */
-    void setParentRegistryEntry(RegistryEntry parentRegistryEntry) {
-        this.parentRegistryEntry = parentRegistryEntry;
+    private static RepositoryReadCoalescer createReadCoalescer(ResourceInformation resourceInformation) {
+        if (resourceInformation == null || resourceInformation.getResourceClass() == null) {
+            return null;
+        }
+        Optional<JsonApiCoalescedReads> annotation =
+            ClassUtils.getAnnotation(resourceInformation.getResourceClass(), JsonApiCoalescedReads.class);
+        return annotation.isPresent() ? new RepositoryReadCoalescer(annotation.get().timeout()) : null;
+    }
+
+    private static RepositoryReadBatcher createReadBatcher(ResourceInformation resourceInformation) {
+        if (resourceInformation == null || resourceInformation.getResourceClass() == null
+            || resourceInformation.getIdField() == null) {
+            return null;
+        }
+        Optional<JsonApiBatchedReads> annotation =
+            ClassUtils.getAnnotation(resourceInformation.getResourceClass(), JsonApiBatchedReads.class);
+        return annotation.isPresent() ? new RepositoryReadBatcher(annotation.get().window(),
+            annotation.get().maxBatchSize(), annotation.get().timeout(),
+            resourceInformation.getIdField().getUnderlyingName()) : null;
+    }
+
+    private String getResourceType() {
+        return resourceType;
+    }
+
+    public RegistryEntry getParentRegistryEntry() {
+        return parentRegistryEntry;
     }
 
     /**
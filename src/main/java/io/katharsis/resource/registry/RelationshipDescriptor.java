@@ -0,0 +1,148 @@
+package io.katharsis.resource.registry;
+
+import io.katharsis.repository.RepositoryMethodParameterProvider;
+import io.katharsis.repository.exception.RelationshipRepositoryNotFoundException;
+import io.katharsis.request.path.PathBuilder;
+import io.katharsis.resource.annotations.JsonApiToMany;
+import io.katharsis.resource.exception.init.ResourceNotFoundInitializationException;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.registry.repository.ResponseRelationshipEntry;
+import io.katharsis.resource.registry.responseRepository.RelationshipRepositoryAdapter;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Information about a relationship field resolved once when a resource is added to {@link ResourceRegistry}, so
+ * handling a relationship doesn't need to inspect generic types or search the registry. Available using
+ * {@link ResourceRegistry#getRelationshipDescriptor}.
+ */
+public final class RelationshipDescriptor {
+
+    private final RegistryEntry<?> sourceEntry;
+    private final ResourceField field;
+    private final Class<?> targetClass;
+    private final boolean collection;
+    private final boolean lazy;
+    private final int cardinality;
+    private final RegistryEntry<?> targetEntry;
+    private final ResponseRelationshipEntry relationshipEntry;
+    private final String selfLinkSuffix;
+    private final String relatedLinkSuffix;
+    private final String sourceUrl;
+
+    RelationshipDescriptor(RegistryEntry<?> sourceEntry, ResourceField field, Class<?> targetClass,
+                           RegistryEntry<?> targetEntry, ResponseRelationshipEntry relationshipEntry,
+                           String sourceUrl) {
+        this.sourceEntry = sourceEntry;
+        this.field = field;
+        this.targetClass = targetClass;
+        this.collection = Iterable.class.isAssignableFrom(field.getType());
+        this.lazy = field.isLazy();
+        this.cardinality = collection ? getCardinalityHint(field) : 1;
+        this.targetEntry = targetEntry;
+        this.relationshipEntry = relationshipEntry;
+        this.sourceUrl = sourceUrl;
+        this.selfLinkSuffix = "/" + PathBuilder.RELATIONSHIP_MARK + "/" + field.getJsonName();
+        this.relatedLinkSuffix = "/" + field.getJsonName();
+    }
+
+    public ResourceField getField() {
+        return field;
+    }
+
+    /**
+     * @return class of related resources, for collections it's the type of an element
+     */
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return true for to-many relationships
+     */
+    public boolean isCollection() {
+        return collection;
+    }
+
+    /**
+     * @return value of {@link ResourceField#isLazy()}
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return <i>1</i> for to-one relationships, {@link JsonApiToMany#cardinality()} for to-many ones, <i>0</i> if the
+     * number of related resources is unknown
+     */
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return registry entry of related resources
+     * @throws ResourceNotFoundInitializationException if related resources are not registered
+     */
+    public RegistryEntry<?> getTargetEntry() {
+        if (targetEntry == null) {
+            throw new ResourceNotFoundInitializationException(targetClass.getCanonicalName());
+        }
+        return targetEntry;
+    }
+
+    public boolean hasTargetEntry() {
+        return targetEntry != null;
+    }
+
+    public boolean hasRelationshipRepository() {
+        return relationshipEntry != null;
+    }
+
+    /**
+     * @param parameterProvider provider of parameters of annotated repositories
+     * @return relationship repository between the source and the target resource
+     * @throws RelationshipRepositoryNotFoundException if there's no such repository
+     */
+    @SuppressWarnings("unchecked")
+    public RelationshipRepositoryAdapter getRelationshipRepository(RepositoryMethodParameterProvider parameterProvider) {
+        if (relationshipEntry == null) {
+            throw new RelationshipRepositoryNotFoundException(
+                sourceEntry.getResourceInformation().getResourceClass(), targetClass);
+        }
+        return ((RegistryEntry) sourceEntry).buildRelationshipRepository(relationshipEntry, parameterProvider);
+    }
+
+    /**
+     * @param sourceId identifier of the source resource
+     * @return URL of the relationship
+     */
+    public String getSelfLink(Object sourceId) {
+        return sourceUrl + "/" + sourceId + selfLinkSuffix;
+    }
+
+    /**
+     * @param sourceId identifier of the source resource
+     * @return URL of related resources
+     */
+    public String getRelatedLink(Object sourceId) {
+        return sourceUrl + "/" + sourceId + relatedLinkSuffix;
+    }
+
+    @Override
+    public String toString() {
+        return "RelationshipDescriptor{" +
+            "field=" + field.getJsonName() +
+            ", targetClass=" + targetClass +
+            ", collection=" + collection +
+            '}';
+    }
+
+    private static int getCardinalityHint(ResourceField field) {
+        for (Annotation annotation : field.getAnnotations()) {
+            if (annotation instanceof JsonApiToMany) {
+                return Math.max(0, ((JsonApiToMany) annotation).cardinality());
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,16 @@
+package io.katharsis.resource.registry;
+
+import java.io.Serializable;
+
+/**
+ * Gets notified by controllers after a resource has been modified or removed, including modifications of its
+ * relationships. Listeners are registered in {@link ResourceRegistry}.
+ */
+public interface ResourceChangeListener {
+
+    /**
+     * @param resourceType JSON API type of the changed resource
+     * @param id           identifier of the changed resource
+     */
+    void onResourceChanged(String resourceType, Serializable id);
+}
@@ -2,17 +2,33 @@ package io.katharsis.resource.registry;
 
 import io.katharsis.resource.annotations.JsonApiResource;
 import io.katharsis.resource.exception.init.ResourceNotFoundInitializationException;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
 import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.Generics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Registered resources and their repositories. Entries are kept in immutable maps published through a volatile field
+ * when a resource is added, so lookups don't lock and a registry can be shared by request threads once it's built.
+ * Relationship descriptors are kept by the registry, so resource information shared by several registries doesn't
+ * depend on any of them. They're compiled on the first lookup after resources have been added.
+ */
 public class ResourceRegistry {
-    private final Map<Class, RegistryEntry> resources = new HashMap<>();
+    private final Object writeLock = new Object();
+    private volatile Map<Class, RegistryEntry> resources = Collections.emptyMap();
+    private volatile Map<String, RegistryEntry> resourcesByType = Collections.emptyMap();
+    private volatile Map<Class, Map<String, RelationshipDescriptor>> relationshipDescriptors;
+    private final List<ResourceChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     private final String serviceUrl;
     private final Logger logger = LoggerFactory.getLogger(ResourceRegistry.class);
 
@@ -27,7 +43,15 @@ public class ResourceRegistry {
      * @param <T> type of a resource
      */
     public <T> void addEntry(Class<T> resource, RegistryEntry<? extends T> registryEntry) {
-        resources.put(resource, registryEntry);
+        synchronized (writeLock) {
+            Map<Class, RegistryEntry> newResources = new HashMap<>(resources);
+            newResources.put(resource, registryEntry);
+            Map<String, RegistryEntry> newResourcesByType = new HashMap<>(resourcesByType);
+            newResourcesByType.put(getResourceType(resource), registryEntry);
+            relationshipDescriptors = null;
+            resourcesByType = Collections.unmodifiableMap(newResourcesByType);
+            resources = Collections.unmodifiableMap(newResources);
+        }
         logger.debug("Added resource {} to ResourceRegistry", resource.getName());
     }
 
@@ -39,13 +63,7 @@ public class ResourceRegistry {
      * @return registry entry or <i>null</i>
      */
     public RegistryEntry getEntry(String searchType) {
-        for (Map.Entry<Class, RegistryEntry> entry : resources.entrySet()) {
-            String type = getResourceType(entry.getKey());
-            if (type.equals(searchType)) {
-                return entry.getValue();
-            }
-        }
-        return null;
+        return resourcesByType.get(searchType);
     }
 
     /**
@@ -104,6 +122,98 @@ public class ResourceRegistry {
      * @return resources
      */
     public Map<Class, RegistryEntry> getResources() {
-        return Collections.unmodifiableMap(resources);
+        return resources;
+    }
+
+    /**
+     * Adds a listener notified about modifications of resources made by controllers.
+     *
+     * @param changeListener listener to be added
+     */
+    public void addResourceChangeListener(ResourceChangeListener changeListener) {
+        changeListeners.add(changeListener);
+    }
+
+    /**
+     * Notifies registered listeners about a modified or removed resource.
+     *
+     * @param resourceType JSON API type of the changed resource
+     * @param id           identifier of the changed resource
+     */
+    public void notifyResourceChanged(String resourceType, Serializable id) {
+        for (ResourceChangeListener changeListener : changeListeners) {
+            changeListener.onResourceChanged(resourceType, id);
+        }
+    }
+
+    /**
+     * Returns a descriptor of a relationship of a registered resource.
+     *
+     * @param resourceInformation information about a registered resource
+     * @param relationshipField   relationship field of the resource
+     * @return descriptor or <i>null</i> if the resource is not registered
+     */
+    public RelationshipDescriptor getRelationshipDescriptor(ResourceInformation resourceInformation,
+                                                            ResourceField relationshipField) {
+        Map<String, RelationshipDescriptor> descriptors =
+            getRelationshipDescriptors().get(resourceInformation.getResourceClass());
+        return descriptors == null ? null : descriptors.get(relationshipField.getUnderlyingName());
+    }
+
+    /**
+     * Searches for a relationship descriptor by JSON name of a relationship.
+     *
+     * @param resourceInformation information about a registered resource
+     * @param name                JSON name of a relationship
+     * @return found descriptor or <i>null</i>
+     */
+    public RelationshipDescriptor findRelationshipDescriptorByName(ResourceInformation resourceInformation,
+                                                                   String name) {
+        ResourceField relationshipField = resourceInformation.findRelationshipFieldByName(name);
+        return relationshipField == null ? null : getRelationshipDescriptor(resourceInformation, relationshipField);
+    }
+
+    /**
+     * A target of a relationship can be added after its source, so descriptors of all resources are compiled once
+     * resources are looked up and compiled again only if another resource is added afterwards. Adding a resource
+     * resets descriptors before publishing the new entries, so a thread which finds an entry doesn't see descriptors
+     * compiled without it.
+     */
+    private Map<Class, Map<String, RelationshipDescriptor>> getRelationshipDescriptors() {
+        Map<Class, Map<String, RelationshipDescriptor>> descriptors = relationshipDescriptors;
+        if (descriptors == null) {
+            synchronized (writeLock) {
+                descriptors = relationshipDescriptors;
+                if (descriptors == null) {
+                    descriptors = compileRelationshipDescriptors(resources);
+                    relationshipDescriptors = descriptors;
+                }
+            }
+        }
+        return descriptors;
+    }
+
+    private Map<Class, Map<String, RelationshipDescriptor>> compileRelationshipDescriptors(
+        Map<Class, RegistryEntry> resources) {
+        Map<Class, Map<String, RelationshipDescriptor>> compiledDescriptors = new HashMap<>();
+        for (RegistryEntry<?> registryEntry : resources.values()) {
+            ResourceInformation resourceInformation = registryEntry.getResourceInformation();
+            if (resourceInformation == null || resourceInformation.getRelationshipFields() == null) {
+                continue;
+            }
+            String sourceUrl = getResourceUrl(resourceInformation.getResourceClass());
+            Map<String, RelationshipDescriptor> descriptors = new HashMap<>();
+            for (ResourceField relationshipField : resourceInformation.getRelationshipFields()) {
+                Class<?> targetClass = Generics.getResourceClass(relationshipField.getGenericType(),
+                    relationshipField.getType());
+                Class<?> targetResourceClass = ClassUtils.getJsonApiResourceClass(targetClass);
+                RegistryEntry<?> targetEntry = targetResourceClass == null ? null : resources.get(targetResourceClass);
+                descriptors.put(relationshipField.getUnderlyingName(), new RelationshipDescriptor(registryEntry,
+                    relationshipField, targetClass, targetEntry, registryEntry.findRelationshipEntry(targetClass),
+                    sourceUrl));
+            }
+            compiledDescriptors.put(resourceInformation.getResourceClass(), Collections.unmodifiableMap(descriptors));
+        }
+        return Collections.unmodifiableMap(compiledDescriptors);
     }
 }
@@ -9,8 +9,10 @@ import io.katharsis.resource.registry.repository.ResponseRelationshipEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -68,17 +70,39 @@ public class ResourceRegistryBuilder {
 
         }
 
+        Map<RegistryEntry, RegistryEntry> linkedEntries = new HashMap<>(registryEntries.size());
         ResourceRegistry resourceRegistry = new ResourceRegistry(serviceUrl);
         for (RegistryEntry registryEntry : registryEntries) {
             Class<?> resourceClass = registryEntry.getResourceInformation().getResourceClass();
-            RegistryEntry registryEntryParent = findParent(resourceClass, registryEntries);
-            registryEntry.setParentRegistryEntry(registryEntryParent);
-            resourceRegistry.addEntry(resourceClass, registryEntry);
+            resourceRegistry.addEntry(resourceClass, linkParent(registryEntry, registryEntries, linkedEntries));
         }
 
         return resourceRegistry;
     }
 
+    /**
+     * Entries are immutable, so an entry referencing its parent is created after the parent's one.
+     */
+    @SuppressWarnings("unchecked")
+    private RegistryEntry linkParent(RegistryEntry registryEntry, Set<RegistryEntry> registryEntries,
+                                     Map<RegistryEntry, RegistryEntry> linkedEntries) {
+        RegistryEntry linkedEntry = linkedEntries.get(registryEntry);
+        if (linkedEntry != null) {
+            return linkedEntry;
+        }
+        RegistryEntry registryEntryParent =
+            findParent(registryEntry.getResourceInformation().getResourceClass(), registryEntries);
+        if (registryEntryParent == null) {
+            linkedEntry = registryEntry;
+        } else {
+            RegistryEntry linkedParent = linkParent(registryEntryParent, registryEntries, linkedEntries);
+            linkedEntry = new RegistryEntry(registryEntry.getResourceInformation(), registryEntry.getResourceEntry(),
+                registryEntry.getRelationshipEntries(), linkedParent);
+        }
+        linkedEntries.put(registryEntry, linkedEntry);
+        return linkedEntry;
+    }
+
     /**
      * Finds the closest resource, that is resource annotated with {@link JsonApiResource} annotation, in the class
      * inheritance hierarchy. If no resource parent is found, <i>null</i> is returned.
@@ -10,7 +10,7 @@ import io.katharsis.utils.java.Optional;
 
 public class AnnotatedRelationshipEntryBuilder<T, D> implements ResponseRelationshipEntry<T, D> {
 
-    private RepositoryInstanceBuilder repositoryInstanceBuilder;
+    private final RepositoryInstanceBuilder repositoryInstanceBuilder;
 
     public AnnotatedRelationshipEntryBuilder(RepositoryInstanceBuilder repositoryInstanceBuilder) {
         this.repositoryInstanceBuilder = repositoryInstanceBuilder;
@@ -6,7 +6,7 @@ import net.jodah.typetools.TypeResolver;
 
 public class DirectResponseRelationshipEntry<T, D> implements ResponseRelationshipEntry<T, D> {
 
-    private RepositoryInstanceBuilder<RelationshipRepository> repositoryInstanceBuilder;
+    private final RepositoryInstanceBuilder<RelationshipRepository> repositoryInstanceBuilder;
 
     public DirectResponseRelationshipEntry(RepositoryInstanceBuilder<RelationshipRepository> repositoryInstanceBuilder) {
         this.repositoryInstanceBuilder = repositoryInstanceBuilder;
@@ -0,0 +1,83 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.metrics.KatharsisMetrics;
+import io.katharsis.metrics.MetricsListener;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.repository.ConcurrentMetaRepository;
+import io.katharsis.response.MetaInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Meta information computed by a {@link ConcurrentMetaRepository} on its executor. The result is joined on the first
+ * access and it's <i>null</i> if the computation failed or exceeded the repository timeout.
+ */
+final class ConcurrentMetaInformation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentMetaInformation.class);
+
+    private final FutureTask<MetaInformation> task;
+    private final long deadline;
+
+    private ConcurrentMetaInformation(FutureTask<MetaInformation> task, long deadline) {
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param repository   repository computing the information
+     * @param queryParams  parameters sent along with the request
+     * @param resourceType JSON API type of the served resource, used to tag metrics
+     * @return submitted computation or <i>null</i> if the executor rejected it
+     */
+    static ConcurrentMetaInformation submit(final ConcurrentMetaRepository<?> repository,
+                                            final QueryParams queryParams, final String resourceType) {
+        // the computation runs on another thread, so it reports to the listener of the submitting request
+        final MetricsListener metricsListener = KatharsisMetrics.getListener();
+        FutureTask<MetaInformation> task = new FutureTask<>(new Callable<MetaInformation>() {
+            @Override
+            public MetaInformation call() {
+                long start = KatharsisMetrics.start(metricsListener);
+                try {
+                    return repository.getMetaInformation(queryParams);
+                } finally {
+                    KatharsisMetrics.stopRepositoryCall(metricsListener, start, resourceType, "getMetaInformation");
+                }
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(repository.getMetaTimeout());
+        try {
+            repository.getMetaExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Meta information computation of {} rejected", resourceType, e);
+            return null;
+        }
+        return new ConcurrentMetaInformation(task, deadline);
+    }
+
+    MetaInformation get() {
+        try {
+            return task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            LOGGER.debug("Meta information omitted after timeout");
+        } catch (ExecutionException e) {
+            LOGGER.warn("Meta information omitted after failure", e.getCause());
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    void cancel() {
+        task.cancel(true);
+    }
+}
@@ -1,5 +1,6 @@
 package io.katharsis.resource.registry.responseRepository;
 
+import io.katharsis.metrics.KatharsisMetrics;
 import io.katharsis.queryParams.QueryParams;
 import io.katharsis.repository.RelationshipRepository;
 import io.katharsis.repository.annotated.AnnotatedRelationshipRepositoryAdapter;
@@ -15,73 +16,121 @@ public class RelationshipRepositoryAdapter<T, T_ID extends Serializable, D, D_ID
     extends ResponseRepository {
 
     private final Object relationshipRepository;
+    private final String resourceType;
     private final boolean isAnnotated;
 
     public RelationshipRepositoryAdapter(Object relationshipRepository) {
+        this(relationshipRepository, null);
+    }
+
+    /**
+     * @param relationshipRepository adapted repository
+     * @param resourceType           JSON API type of the source resource, used to tag metrics
+     */
+    public RelationshipRepositoryAdapter(Object relationshipRepository, String resourceType) {
         this.relationshipRepository = relationshipRepository;
+        this.resourceType = resourceType;
         this.isAnnotated = relationshipRepository instanceof AnnotatedRelationshipRepositoryAdapter;
     }
 
     public JsonApiResponse setRelation(T source, D_ID targetId, String fieldName, QueryParams queryParams) {
-        if (isAnnotated) {
-            ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
-                .setRelation(source, targetId, fieldName, queryParams);
-        } else {
-            ((RelationshipRepository) relationshipRepository).setRelation(source, targetId, fieldName);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
+                    .setRelation(source, targetId, fieldName, queryParams);
+            } else {
+                ((RelationshipRepository) relationshipRepository).setRelation(source, targetId, fieldName);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "setRelation");
         }
         return new JsonApiResponse();
     }
 
     public JsonApiResponse setRelations(T source, Iterable<D_ID> targetIds, String fieldName, QueryParams queryParams) {
-        if (isAnnotated) {
-            ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
-                .setRelations(source, targetIds, fieldName, queryParams);
-        } else {
-            ((RelationshipRepository) relationshipRepository).setRelations(source, targetIds, fieldName);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
+                    .setRelations(source, targetIds, fieldName, queryParams);
+            } else {
+                ((RelationshipRepository) relationshipRepository).setRelations(source, targetIds, fieldName);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "setRelations");
         }
         return new JsonApiResponse();
     }
 
     public JsonApiResponse addRelations(T source, Iterable<D_ID> targetIds, String fieldName, QueryParams queryParams) {
-        if (isAnnotated) {
-            ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
-                .addRelations(source, targetIds, fieldName, queryParams);
-        } else {
-            ((RelationshipRepository) relationshipRepository).addRelations(source, targetIds, fieldName);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
+                    .addRelations(source, targetIds, fieldName, queryParams);
+            } else {
+                ((RelationshipRepository) relationshipRepository).addRelations(source, targetIds, fieldName);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "addRelations");
         }
         return new JsonApiResponse();
     }
 
     public JsonApiResponse removeRelations(T source, Iterable<D_ID> targetIds, String fieldName, QueryParams queryParams) {
-        if (isAnnotated) {
-            ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
-                .removeRelations(source, targetIds, fieldName, queryParams);
-        } else {
-            ((RelationshipRepository) relationshipRepository).removeRelations(source, targetIds, fieldName);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
+                    .removeRelations(source, targetIds, fieldName, queryParams);
+            } else {
+                ((RelationshipRepository) relationshipRepository).removeRelations(source, targetIds, fieldName);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "removeRelations");
         }
         return new JsonApiResponse();
     }
 
     public JsonApiResponse findOneTarget(T_ID sourceId, String fieldName, QueryParams queryParams) {
         Object resource;
-        if (isAnnotated) {
-            resource = ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
-                .findOneTarget(sourceId, fieldName, queryParams);
-        } else {
-            resource = ((RelationshipRepository) relationshipRepository)
-                .findOneTarget(sourceId, fieldName, queryParams);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                resource = ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
+                    .findOneTarget(sourceId, fieldName, queryParams);
+            } else {
+                resource = ((RelationshipRepository) relationshipRepository)
+                    .findOneTarget(sourceId, fieldName, queryParams);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "findOneTarget");
+        }
+        ResourceIdentityMap identityMap = ResourceIdentityMap.current();
+        if (identityMap != null) {
+            resource = identityMap.register(resource, queryParams);
         }
         return getResponse(relationshipRepository, resource, queryParams);
     }
 
     public JsonApiResponse findManyTargets(T_ID sourceId, String fieldName, QueryParams queryParams) {
         Object resources;
-        if (isAnnotated) {
-            resources = ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
-                .findManyTargets(sourceId, fieldName, queryParams);
-        } else {
-            resources = ((RelationshipRepository) relationshipRepository)
-                .findManyTargets(sourceId, fieldName, queryParams);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                resources = ((AnnotatedRelationshipRepositoryAdapter) relationshipRepository)
+                    .findManyTargets(sourceId, fieldName, queryParams);
+            } else {
+                resources = ((RelationshipRepository) relationshipRepository)
+                    .findManyTargets(sourceId, fieldName, queryParams);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "findManyTargets");
+        }
+        ResourceIdentityMap identityMap = ResourceIdentityMap.current();
+        if (identityMap != null) {
+            identityMap.register(resources, queryParams);
         }
         return getResponse(relationshipRepository, resources, queryParams);
     }
@@ -0,0 +1,200 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.errorhandling.exception.InternalException;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.utils.PropertyUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects concurrent reads of single resources with the same query parameters into batches. There is no scheduler
+ * thread, the caller opening a batch waits for the batch window, reads the resources of the whole batch and hands
+ * them over to the other callers. The window is skipped if no other read of the resource is in progress, so a
+ * sequential caller doesn't pay for it. A batcher is created for each resource annotated with
+ * {@link io.katharsis.resource.annotations.JsonApiBatchedReads} and it's thread-safe.
+ */
+public class RepositoryReadBatcher {
+
+    /**
+     * Reads resources of a batch.
+     */
+    public interface BatchRead {
+
+        /**
+         * @param ids identifiers of resources
+         * @return found resources
+         */
+        Object findAll(List<Object> ids);
+    }
+
+    private final ConcurrentMap<String, Batch> openBatches = new ConcurrentHashMap<>();
+    private final AtomicInteger activeReads = new AtomicInteger();
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final String idFieldName;
+
+    /**
+     * @param windowMicros  time the first call of a batch waits for other calls
+     * @param maxBatchSize  maximum number of identifiers in a batch
+     * @param timeoutMillis maximum time a call waits for the read of its batch before reading on its own
+     * @param idFieldName   name of the identifier field of the resource
+     */
+    public RepositoryReadBatcher(long windowMicros, int maxBatchSize, long timeoutMillis, String idFieldName) {
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.idFieldName = idFieldName;
+    }
+
+    /**
+     * Reads a resource as a part of a batch.
+     *
+     * @param id          identifier of the resource
+     * @param queryParams parameters of the read, only reads with the same parameters are batched
+     * @param read        read of the batch used if this call opens a new batch
+     * @return found resource or <i>null</i>
+     */
+    public Object read(Object id, QueryParams queryParams, BatchRead read) {
+        String key = queryParams == null ? "" : queryParams.getCanonicalForm();
+        activeReads.incrementAndGet();
+        try {
+            while (true) {
+                Batch batch = openBatches.get(key);
+                if (batch == null) {
+                    Batch newBatch = new Batch(id);
+                    if (openBatches.putIfAbsent(key, newBatch) == null) {
+                        return execute(key, newBatch, id, read);
+                    }
+                } else if (batch.join(id, maxBatchSize)) {
+                    if (batch.isFull(maxBatchSize)) {
+                        openBatches.remove(key, batch);
+                    }
+                    if (batch.await(timeoutMillis)) {
+                        return batch.get(id);
+                    }
+                    return getResourcesById(read.findAll(Collections.singletonList(id))).get(id);
+                }
+            }
+        } finally {
+            activeReads.decrementAndGet();
+        }
+    }
+
+    private Object execute(String key, Batch batch, Object id, BatchRead read) {
+        if (activeReads.get() > 1) {
+            batch.awaitCalls(windowNanos, maxBatchSize);
+        }
+        openBatches.remove(key, batch);
+        List<Object> ids = batch.close();
+        try {
+            batch.complete(getResourcesById(read.findAll(ids)), null);
+        } catch (RuntimeException e) {
+            batch.complete(Collections.emptyMap(), e);
+        } catch (Error e) {
+            batch.complete(Collections.emptyMap(), new InternalException("Batched repository read has failed: " + e));
+            throw e;
+        }
+        return batch.get(id);
+    }
+
+    private Map<Object, Object> getResourcesById(Object resources) {
+        Map<Object, Object> resourcesById = new HashMap<>();
+        if (resources instanceof Iterable) {
+            for (Object resource : (Iterable<?>) resources) {
+                if (resource != null) {
+                    resourcesById.put(PropertyUtils.getProperty(resource, idFieldName), resource);
+                }
+            }
+        }
+        return resourcesById;
+    }
+
+    /**
+     * @return number of batches collecting calls
+     */
+    int getOpenBatches() {
+        return openBatches.size();
+    }
+
+    private static final class Batch {
+        private final Set<Object> ids = new LinkedHashSet<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private boolean closed;
+        private Map<Object, Object> resourcesById;
+        private RuntimeException failure;
+
+        private Batch(Object id) {
+            ids.add(id);
+        }
+
+        private synchronized boolean join(Object id, int maxBatchSize) {
+            if (closed || ids.size() >= maxBatchSize) {
+                return false;
+            }
+            ids.add(id);
+            if (ids.size() >= maxBatchSize) {
+                notifyAll();
+            }
+            return true;
+        }
+
+        private synchronized boolean isFull(int maxBatchSize) {
+            return ids.size() >= maxBatchSize;
+        }
+
+        private synchronized void awaitCalls(long windowNanos, int maxBatchSize) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            try {
+                while (ids.size() < maxBatchSize && remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private synchronized List<Object> close() {
+            closed = true;
+            return new ArrayList<>(ids);
+        }
+
+        private void complete(Map<Object, Object> resourcesById, RuntimeException failure) {
+            this.resourcesById = resourcesById;
+            this.failure = failure;
+            completed.countDown();
+        }
+
+        /**
+         * @return <i>false</i> if the batch hasn't been read in time
+         */
+        private boolean await(long timeoutMillis) {
+            try {
+                return completed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InternalException("Interrupted while waiting for a batched repository read", e);
+            }
+        }
+
+        private Object get(Object id) {
+            if (failure != null) {
+                throw failure;
+            }
+            return resourcesById.get(id);
+        }
+    }
+}
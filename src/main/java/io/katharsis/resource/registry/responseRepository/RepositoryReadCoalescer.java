@@ -0,0 +1,88 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.errorhandling.exception.InternalException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shares a single in-flight repository read between concurrent callers of the same read. A read is removed once it
+ * completes, so results are never reused by later callers. A coalescer is created for each resource annotated with
+ * {@link io.katharsis.resource.annotations.JsonApiCoalescedReads} and it's thread-safe.
+ */
+public class RepositoryReadCoalescer {
+
+    private final ConcurrentMap<Object, Future<Object>> reads = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    /**
+     * @param timeoutMillis maximum time a caller waits for a read in progress before reading on its own
+     */
+    public RepositoryReadCoalescer(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Executes a read or waits for a result of the same read executed by another caller.
+     *
+     * @param key  key identifying a read, must implement equals and hashCode
+     * @param read repository call
+     * @return result of the read
+     */
+    public Object read(Object key, Callable<Object> read) {
+        FutureTask<Object> task = new FutureTask<>(read);
+        Future<Object> inFlight = reads.putIfAbsent(key, task);
+        if (inFlight == null) {
+            try {
+                task.run();
+            } finally {
+                reads.remove(key, task);
+            }
+            return getResult(task, read);
+        }
+        return getResult(inFlight, read);
+    }
+
+    private Object getResult(Future<Object> future, Callable<Object> read) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return call(read);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalException("Interrupted while waiting for a repository read", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static Object call(Callable<Object> read) {
+        try {
+            return read.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new InternalException("Repository read failed", (Exception) cause);
+    }
+
+    /**
+     * @return number of reads in progress
+     */
+    int getReadsInProgress() {
+        return reads.size();
+    }
+}
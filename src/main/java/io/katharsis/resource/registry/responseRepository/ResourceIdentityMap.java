@@ -0,0 +1,217 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.utils.ClassUtils;
+import io.katharsis.utils.PropertyUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request-scoped map of resources returned by repositories, keyed by resource class and identifier. Repository
+ * adapters consult it before reading a single resource and fill it from every read, so a resource is fetched at most
+ * once per request and the same resource is represented by the same object in the whole response. A known resource
+ * is returned only if it has been read with all of the fields needed by the parameters of the next read, because
+ * repositories can load only the projection of a sparse fieldset.
+ * <p>
+ * A map is bound to the thread dispatching a request by {@link io.katharsis.dispatcher.RequestDispatcher}, so
+ * repository calls made on other threads don't use it.
+ */
+public final class ResourceIdentityMap {
+
+    private static final ThreadLocal<ResourceIdentityMap> CURRENT = new ThreadLocal<>();
+
+    private final ResourceRegistry resourceRegistry;
+    private final Map<Class<?>, Map<Object, KnownResource>> resources = new HashMap<>();
+
+    private ResourceIdentityMap(ResourceRegistry resourceRegistry) {
+        this.resourceRegistry = resourceRegistry;
+    }
+
+    /**
+     * Binds a new map to the current thread unless a map is already bound, e.g. when requests are nested.
+     *
+     * @param resourceRegistry registry of resources
+     * @return <i>true</i> if a map has been bound and should be released using {@link #close()}
+     */
+    public static boolean open(ResourceRegistry resourceRegistry) {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(new ResourceIdentityMap(resourceRegistry));
+        return true;
+    }
+
+    /**
+     * Releases the map bound to the current thread.
+     */
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return map bound to the current thread or <i>null</i> if it's used outside of a request
+     */
+    public static ResourceIdentityMap current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param resourceType JSON API type of a resource
+     * @param id           identifier of the resource
+     * @param queryParams  parameters of the read
+     * @return resource read earlier in the request with all of the fields needed by the parameters or <i>null</i>
+     */
+    public Object get(String resourceType, Object id, QueryParams queryParams) {
+        RegistryEntry<?> registryEntry = resourceType == null ? null : resourceRegistry.getEntry(resourceType);
+        if (registryEntry == null || id == null) {
+            return null;
+        }
+        Map<Object, KnownResource> resourcesById = resources.get(getRootResourceClass(registryEntry));
+        KnownResource known = resourcesById == null ? null : resourcesById.get(id);
+        if (known == null || !known.loadedFields.containsAll(getFieldNames(known.registryEntry, queryParams))) {
+            return null;
+        }
+        return known.resource;
+    }
+
+    /**
+     * Adds a resource or each resource of a collection unless a resource with the same identifier and all of the
+     * fields needed by the parameters is already known.
+     *
+     * @param resource    resource or collection of resources read from a repository
+     * @param queryParams parameters of the read
+     * @return for a single resource the instance known by the map, otherwise the argument
+     */
+    public Object register(Object resource, QueryParams queryParams) {
+        if (resource instanceof Iterable) {
+            FieldNamesCache fieldNames = new FieldNamesCache(queryParams);
+            for (Object element : (Iterable<?>) resource) {
+                add(element, fieldNames, false);
+            }
+            return resource;
+        }
+        return add(resource, new FieldNamesCache(queryParams), false);
+    }
+
+    /**
+     * Adds a resource replacing a resource with the same identifier, e.g. after the resource has been saved.
+     *
+     * @param resource    saved resource
+     * @param queryParams parameters of the save
+     */
+    public void replace(Object resource, QueryParams queryParams) {
+        add(resource, new FieldNamesCache(queryParams), true);
+    }
+
+    /**
+     * @param resourceType JSON API type of a resource
+     * @param id           identifier of a removed resource
+     */
+    public void remove(String resourceType, Object id) {
+        RegistryEntry<?> registryEntry = resourceType == null ? null : resourceRegistry.getEntry(resourceType);
+        if (registryEntry != null) {
+            Map<Object, KnownResource> resourcesById = resources.get(getRootResourceClass(registryEntry));
+            if (resourcesById != null) {
+                resourcesById.remove(id);
+            }
+        }
+    }
+
+    private Object add(Object resource, FieldNamesCache fieldNames, boolean replace) {
+        if (resource == null) {
+            return null;
+        }
+        Class<?> resourceClass = ClassUtils.getJsonApiResourceClass(resource.getClass());
+        RegistryEntry<?> registryEntry = resourceClass == null ? null :
+            resourceRegistry.getResources().get(resourceClass);
+        if (registryEntry == null) {
+            return resource;
+        }
+        ResourceInformation resourceInformation = registryEntry.getResourceInformation();
+        Object id = PropertyUtils.getProperty(resource, resourceInformation.getIdField().getUnderlyingName());
+        if (id == null) {
+            return resource;
+        }
+        Class<?> rootResourceClass = getRootResourceClass(registryEntry);
+        Map<Object, KnownResource> resourcesById = resources.get(rootResourceClass);
+        if (resourcesById == null) {
+            resourcesById = new HashMap<>();
+            resources.put(rootResourceClass, resourcesById);
+        }
+        Set<String> loadedFields = fieldNames.get(registryEntry);
+        KnownResource known = resourcesById.get(id);
+        if (known == null || replace || !known.loadedFields.containsAll(loadedFields)) {
+            resourcesById.put(id, new KnownResource(resource, registryEntry, loadedFields));
+            return resource;
+        }
+        return known.resource;
+    }
+
+    /**
+     * Resources of a type and its subtypes share identifiers, so they are kept under the topmost registered type.
+     */
+    private static Class<?> getRootResourceClass(RegistryEntry<?> registryEntry) {
+        RegistryEntry<?> rootEntry = registryEntry;
+        while (rootEntry.getParentRegistryEntry() != null) {
+            rootEntry = rootEntry.getParentRegistryEntry();
+        }
+        return rootEntry.getResourceInformation().getResourceClass();
+    }
+
+    private Set<String> getFieldNames(RegistryEntry<?> registryEntry, QueryParams queryParams) {
+        ResourceInformation resourceInformation = registryEntry.getResourceInformation();
+        QueryParams params = queryParams == null ? new QueryParams() : queryParams;
+        Set<String> fieldNames = new HashSet<>();
+        for (ResourceField field : params.getProjection(resourceInformation,
+            resourceRegistry.getResourceType(resourceInformation.getResourceClass()))) {
+            fieldNames.add(field.getUnderlyingName());
+        }
+        return fieldNames;
+    }
+
+    /**
+     * Resource with the fields it has been read with, a repository can leave out lazy fields and fields outside of
+     * a sparse fieldset.
+     */
+    private static final class KnownResource {
+
+        private final Object resource;
+        private final RegistryEntry<?> registryEntry;
+        private final Set<String> loadedFields;
+
+        private KnownResource(Object resource, RegistryEntry<?> registryEntry, Set<String> loadedFields) {
+            this.resource = resource;
+            this.registryEntry = registryEntry;
+            this.loadedFields = loadedFields;
+        }
+    }
+
+    /**
+     * Resolves the loaded fields once for each type of resources returned by a read.
+     */
+    private final class FieldNamesCache {
+
+        private final QueryParams queryParams;
+        private RegistryEntry<?> registryEntry;
+        private Set<String> fieldNames;
+
+        private FieldNamesCache(QueryParams queryParams) {
+            this.queryParams = queryParams;
+        }
+
+        private Set<String> get(RegistryEntry<?> entry) {
+            if (entry != registryEntry) {
+                registryEntry = entry;
+                fieldNames = getFieldNames(entry, queryParams);
+            }
+            return fieldNames;
+        }
+    }
+}
@@ -1,11 +1,29 @@
 package io.katharsis.resource.registry.responseRepository;
 
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.metrics.KatharsisMetrics;
 import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.group.AggregateGroup;
+import io.katharsis.queryParams.group.GroupingMetaInformation;
+import io.katharsis.queryParams.group.GroupingSpec;
+import io.katharsis.repository.ChangeFeedRepository;
+import io.katharsis.repository.ChangeSet;
+import io.katharsis.repository.ConcurrentMetaRepository;
+import io.katharsis.repository.CopyOnUpdateRepository;
+import io.katharsis.repository.GroupingRepository;
 import io.katharsis.repository.ResourceRepository;
+import io.katharsis.repository.TransactionalRepository;
 import io.katharsis.repository.annotated.AnnotatedResourceRepositoryAdapter;
+import io.katharsis.repository.inmemory.GroupAggregator;
+import io.katharsis.response.ChangeFeedResponse;
 import io.katharsis.response.JsonApiResponse;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * A repository adapter for resource repository.
@@ -14,58 +32,376 @@ import java.io.Serializable;
 public class ResourceRepositoryAdapter<T, ID extends Serializable> extends ResponseRepository {
 
     private final Object resourceRepository;
+    private final String resourceType;
     private final boolean isAnnotated;
+    private final RepositoryReadCoalescer readCoalescer;
+    private final RepositoryReadBatcher readBatcher;
 
     public ResourceRepositoryAdapter(Object resourceRepository) {
+        this(resourceRepository, null);
+    }
+
+    /**
+     * @param resourceRepository adapted repository
+     * @param resourceType       JSON API type of the served resource, used to tag metrics
+     */
+    public ResourceRepositoryAdapter(Object resourceRepository, String resourceType) {
+        this(resourceRepository, resourceType, null);
+    }
+
+    /**
+     * @param resourceRepository adapted repository
+     * @param resourceType       JSON API type of the served resource, used to tag metrics
+     * @param readCoalescer      coalescer of concurrent reads or <i>null</i> if reads are not coalesced
+     */
+    public ResourceRepositoryAdapter(Object resourceRepository, String resourceType,
+                                     RepositoryReadCoalescer readCoalescer) {
+        this(resourceRepository, resourceType, readCoalescer, null);
+    }
+
+    /**
+     * Reads of annotated repositories taking parameters of the parameter provider are neither coalesced nor batched,
+     * because their results depend on the request, see
+     * {@link AnnotatedResourceRepositoryAdapter#readsProvidedParameters()}.
+     *
+     * @param resourceRepository adapted repository
+     * @param resourceType       JSON API type of the served resource, used to tag metrics
+     * @param readCoalescer      coalescer of concurrent reads or <i>null</i> if reads are not coalesced
+     * @param readBatcher        batcher of concurrent single resource reads or <i>null</i> if reads are not batched
+     */
+    public ResourceRepositoryAdapter(Object resourceRepository, String resourceType,
+                                     RepositoryReadCoalescer readCoalescer, RepositoryReadBatcher readBatcher) {
         this.resourceRepository = resourceRepository;
+        this.resourceType = resourceType;
         this.isAnnotated = resourceRepository instanceof AnnotatedResourceRepositoryAdapter;
+        boolean shareableReads = !isAnnotated
+            || !((AnnotatedResourceRepositoryAdapter) resourceRepository).readsProvidedParameters();
+        this.readCoalescer = shareableReads ? readCoalescer : null;
+        this.readBatcher = shareableReads ? readBatcher : null;
     }
 
-    public JsonApiResponse findOne(ID id, QueryParams queryParams) {
-        Object resource;
-        if (isAnnotated) {
-            resource = ((AnnotatedResourceRepositoryAdapter) resourceRepository).findOne(id, queryParams);
+    /**
+     * Reads a resource. Concurrent reads of other requests are coalesced or batched only if the result is not going
+     * to be modified, i.e. related resources are not included, see {@link #isShareable(QueryParams)}.
+     *
+     * @param id          identifier of the resource
+     * @param queryParams parameters sent along with the request
+     * @return response with the resource
+     */
+    public JsonApiResponse findOne(final ID id, final QueryParams queryParams) {
+        return findOne(id, queryParams, isShareable(queryParams));
+    }
+
+    /**
+     * Reads a resource which is going to be modified by the caller. The read is never coalesced or batched with reads
+     * of other requests, so no other request gets the same instance. Resources of a {@link CopyOnUpdateRepository}
+     * are copied, so readers of the repository don't observe the modification before it's saved.
+     *
+     * @param id          identifier of the resource
+     * @param queryParams parameters sent along with the request
+     * @return response with the resource
+     */
+    @SuppressWarnings("unchecked")
+    public JsonApiResponse findOneForUpdate(ID id, QueryParams queryParams) {
+        JsonApiResponse response = findOne(id, queryParams, false);
+        Object repository = getRepositoryImplementation();
+        if (repository instanceof CopyOnUpdateRepository && response.getEntity() != null) {
+            response.setEntity(((CopyOnUpdateRepository<Object>) repository).copy(response.getEntity()));
+        }
+        return response;
+    }
+
+    private JsonApiResponse findOne(final ID id, final QueryParams queryParams, boolean shareable) {
+        ResourceIdentityMap identityMap = getIdentityMap();
+        Object resource = identityMap == null ? null : identityMap.get(resourceType, id, queryParams);
+        if (resource != null) {
+            return getResponse(resourceRepository, resource, queryParams);
+        }
+        if (!shareable) {
+            resource = doFindOne(id, queryParams);
+        } else if (readBatcher != null) {
+            resource = readBatcher.read(id, queryParams, new RepositoryReadBatcher.BatchRead() {
+                @Override
+                public Object findAll(List<Object> ids) {
+                    return doFindAll(ids, queryParams);
+                }
+            });
+        } else if (readCoalescer == null) {
+            resource = doFindOne(id, queryParams);
         } else {
-            resource = ((ResourceRepository) resourceRepository).findOne(id, queryParams);
+            resource = coalesce("findOne", id, queryParams, new Callable<Object>() {
+                @Override
+                public Object call() {
+                    return doFindOne(id, queryParams);
+                }
+            });
+        }
+        if (identityMap != null) {
+            resource = identityMap.register(resource, queryParams);
         }
         return getResponse(resourceRepository, resource, queryParams);
     }
 
-    public JsonApiResponse findAll(QueryParams queryParams) {
+    private Object doFindOne(ID id, QueryParams queryParams) {
+        Object resource;
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                resource = ((AnnotatedResourceRepositoryAdapter) resourceRepository).findOne(id, queryParams);
+            } else {
+                resource = ((ResourceRepository) resourceRepository).findOne(id, queryParams);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "findOne");
+        }
+        return resource;
+    }
+
+    public JsonApiResponse findAll(final QueryParams queryParams) {
+        ConcurrentMetaInformation concurrentMetaInformation = submitConcurrentMetaInformation(queryParams);
+        boolean responded = false;
+        try {
+            Object resources;
+            if (readCoalescer == null || !isShareable(queryParams)) {
+                resources = doFindAll(queryParams);
+            } else {
+                resources = coalesce("findAll", null, queryParams, new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return doFindAll(queryParams);
+                    }
+                });
+            }
+            register(resources, queryParams);
+            JsonApiResponse response = getResponse(resourceRepository, resources, queryParams,
+                concurrentMetaInformation);
+            responded = true;
+            return response;
+        } finally {
+            // the computation is owned by the response from now on, see JsonApiResponse#release()
+            if (!responded && concurrentMetaInformation != null) {
+                concurrentMetaInformation.cancel();
+            }
+        }
+    }
+
+    private ConcurrentMetaInformation submitConcurrentMetaInformation(QueryParams queryParams) {
+        Object repository = getRepositoryImplementation();
+        if (repository instanceof ConcurrentMetaRepository) {
+            return ConcurrentMetaInformation.submit((ConcurrentMetaRepository<?>) repository, queryParams,
+                resourceType);
+        }
+        return null;
+    }
+
+    private Object doFindAll(QueryParams queryParams) {
         Object resources;
-        if (isAnnotated) {
-            resources = ((AnnotatedResourceRepositoryAdapter) resourceRepository).findAll(queryParams);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                resources = ((AnnotatedResourceRepositoryAdapter) resourceRepository).findAll(queryParams);
+            } else {
+                resources = ((ResourceRepository) resourceRepository).findAll(queryParams);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "findAll");
+        }
+        return resources;
+    }
+
+    public JsonApiResponse findAll(final Iterable ids, final QueryParams queryParams) {
+        Object resources = findAllKnown(ids, queryParams);
+        if (resources != null) {
+            return getResponse(resourceRepository, resources, queryParams);
+        }
+        if (readCoalescer == null || !isShareable(queryParams)) {
+            resources = doFindAll(ids, queryParams);
         } else {
-            resources = ((ResourceRepository) resourceRepository).findAll(queryParams);
+            resources = coalesce("findAllWithIds", ids, queryParams, new Callable<Object>() {
+                @Override
+                public Object call() {
+                    return doFindAll(ids, queryParams);
+                }
+            });
         }
+        register(resources, queryParams);
         return getResponse(resourceRepository, resources, queryParams);
     }
 
-    public JsonApiResponse findAll(Iterable ids, QueryParams queryParams) {
+    private Object doFindAll(Iterable ids, QueryParams queryParams) {
         Object resources;
-        if (isAnnotated) {
-            resources = ((AnnotatedResourceRepositoryAdapter) resourceRepository).findAll(ids, queryParams);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                resources = ((AnnotatedResourceRepositoryAdapter) resourceRepository).findAll(ids, queryParams);
+            } else {
+                resources = ((ResourceRepository) resourceRepository).findAll(ids, queryParams);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "findAllWithIds");
+        }
+        return resources;
+    }
+
+    /**
+     * @return <i>true</i> if the repository implements {@link GroupingRepository}
+     */
+    public boolean isGroupingRepository() {
+        return resourceRepository instanceof GroupingRepository;
+    }
+
+    /**
+     * Computes grouped aggregates of resources. Aggregates are computed by the repository if it implements
+     * {@link GroupingRepository}, otherwise all resources returned by <i>findAll</i> are grouped in memory, ignoring
+     * pagination. The response has no resources and the aggregates are returned as its meta information.
+     *
+     * @param groupingSpec grouping requested by <i>group</i> parameters
+     * @param queryParams  parameters sent along with the request
+     * @return response with {@link GroupingMetaInformation}
+     */
+    public JsonApiResponse findGroups(GroupingSpec groupingSpec, QueryParams queryParams) {
+        List<AggregateGroup> groups;
+        if (resourceRepository instanceof GroupingRepository) {
+            long start = KatharsisMetrics.start();
+            try {
+                groups = ((GroupingRepository) resourceRepository).findGroups(groupingSpec, queryParams);
+            } finally {
+                KatharsisMetrics.stopRepositoryCall(start, resourceType, "findGroups");
+            }
         } else {
-            resources = ((ResourceRepository) resourceRepository).findAll(ids, queryParams);
+            Object resources = doFindAll(queryParams.withoutPagination());
+            groups = new GroupAggregator(groupingSpec)
+                .aggregate(resources == null ? Collections.emptyList() : (Iterable<?>) resources);
         }
-        return getResponse(resourceRepository, resources, queryParams);
+        return new JsonApiResponse()
+            .setEntity(Collections.emptyList())
+            .setMetaInformation(new GroupingMetaInformation(groups));
+    }
+
+    /**
+     * Returns changes of the collection since {@link QueryParams#getSyncToken()}.
+     *
+     * @param queryParams parameters sent along with the request
+     * @return response with changed resources
+     * @throws ParametersDeserializationException if the repository doesn't implement {@link ChangeFeedRepository}
+     */
+    public JsonApiResponse findChanges(QueryParams queryParams) {
+        Object repository = getRepositoryImplementation();
+        if (!(repository instanceof ChangeFeedRepository)) {
+            throw new ParametersDeserializationException("Synchronization is not supported by resource: "
+                + resourceType);
+        }
+        ChangeSet changeSet;
+        long start = KatharsisMetrics.start();
+        try {
+            changeSet = ((ChangeFeedRepository) repository).findChanges(queryParams.getSyncToken(), queryParams);
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "findChanges");
+        }
+        register(changeSet.getChangedResources(), queryParams);
+        return new ChangeFeedResponse(changeSet.getDeletedIds(), changeSet.getNextSyncToken())
+            .setEntity(changeSet.getChangedResources());
+    }
+
+    /**
+     * @return transaction hooks of the adapted repository or <i>null</i> if it doesn't implement
+     * {@link TransactionalRepository}
+     */
+    public TransactionalRepository getTransactionalRepository() {
+        Object repository = getRepositoryImplementation();
+        return repository instanceof TransactionalRepository ? (TransactionalRepository) repository : null;
+    }
+
+    private Object getRepositoryImplementation() {
+        return isAnnotated ? ((AnnotatedResourceRepositoryAdapter) resourceRepository).getImplementationObject()
+            : resourceRepository;
+    }
+
+    /**
+     * Related resources are set on included resources by {@link io.katharsis.resource.include.IncludeLookupSetter},
+     * so results of reads with inclusions are not shared with other requests.
+     */
+    private static boolean isShareable(QueryParams queryParams) {
+        return queryParams == null || queryParams.getIncludedRelations() == null
+            || queryParams.getIncludedRelations().getParams().isEmpty();
+    }
+
+    private ResourceIdentityMap getIdentityMap() {
+        return resourceType == null ? null : ResourceIdentityMap.current();
+    }
+
+    private void register(Object resources, QueryParams queryParams) {
+        ResourceIdentityMap identityMap = getIdentityMap();
+        if (identityMap != null) {
+            identityMap.register(resources, queryParams);
+        }
+    }
+
+    /**
+     * @return resources of all of the identifiers if they are known by the identity map, otherwise <i>null</i>
+     */
+    private List<Object> findAllKnown(Iterable ids, QueryParams queryParams) {
+        ResourceIdentityMap identityMap = getIdentityMap();
+        if (identityMap == null) {
+            return null;
+        }
+        List<Object> resources = new ArrayList<>();
+        for (Object id : ids) {
+            Object resource = identityMap.get(resourceType, id, queryParams);
+            if (resource == null) {
+                return null;
+            }
+            resources.add(resource);
+        }
+        return resources;
+    }
+
+    private Object coalesce(String method, Object ids, QueryParams queryParams, Callable<Object> read) {
+        List<Object> idList = new ArrayList<>();
+        if (ids instanceof Iterable) {
+            for (Object id : (Iterable<?>) ids) {
+                idList.add(id);
+            }
+        } else {
+            idList.add(ids);
+        }
+        String canonicalParams = queryParams == null ? null : queryParams.getCanonicalForm();
+        return readCoalescer.read(Arrays.asList(method, idList, canonicalParams), read);
     }
 
     public <S extends T> JsonApiResponse save(S entity, QueryParams queryParams) {
         Object resource;
-        if (isAnnotated) {
-            resource = ((AnnotatedResourceRepositoryAdapter) resourceRepository).save(entity);
-        } else {
-            resource = ((ResourceRepository) resourceRepository).save(entity);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                resource = ((AnnotatedResourceRepositoryAdapter) resourceRepository).save(entity);
+            } else {
+                resource = ((ResourceRepository) resourceRepository).save(entity);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "save");
+        }
+        ResourceIdentityMap identityMap = getIdentityMap();
+        if (identityMap != null) {
+            identityMap.replace(resource, queryParams);
         }
         return getResponse(resourceRepository, resource, queryParams);
     }
 
     public JsonApiResponse delete(ID id, QueryParams queryParams) {
-        if (isAnnotated) {
-            ((AnnotatedResourceRepositoryAdapter) resourceRepository).delete(id, queryParams);
-        } else {
-            ((ResourceRepository) resourceRepository).delete(id);
+        long start = KatharsisMetrics.start();
+        try {
+            if (isAnnotated) {
+                ((AnnotatedResourceRepositoryAdapter) resourceRepository).delete(id, queryParams);
+            } else {
+                ((ResourceRepository) resourceRepository).delete(id);
+            }
+        } finally {
+            KatharsisMetrics.stopRepositoryCall(start, resourceType, "delete");
+        }
+        ResourceIdentityMap identityMap = getIdentityMap();
+        if (identityMap != null) {
+            identityMap.remove(resourceType, id);
         }
         return new JsonApiResponse();
     }
@@ -17,11 +17,23 @@ import java.util.Collections;
  *
  * The methods need to know if a repository is interface- or annotation-based since repository methods have different
  * signatures.
+ *
+ * Meta and links information is computed lazily, when a serializer writes a top-level document. Responses used
+ * internally, e.g. for inclusions or by resource upserts, never call meta and links repository methods. Meta
+ * information computed concurrently with a repository call is joined at the same point.
  */
 public abstract class ResponseRepository {
 
     protected JsonApiResponse getResponse(Object repository, Object resource, QueryParams queryParams) {
+        return getResponse(repository, resource, queryParams, null);
+    }
+
+    JsonApiResponse getResponse(Object repository, Object resource, QueryParams queryParams,
+                                ConcurrentMetaInformation concurrentMetaInformation) {
         if (resource instanceof JsonApiResponse) {
+            if (concurrentMetaInformation != null) {
+                concurrentMetaInformation.cancel();
+            }
             return (JsonApiResponse) resource;
         }
 
@@ -31,17 +43,13 @@ public abstract class ResponseRepository {
         } else {
             resources = Collections.singletonList(resource);
         }
-        MetaInformation metaInformation = getMetaInformation(repository, resources, queryParams);
-        LinksInformation linksInformation = getLinksInformation(repository, resources, queryParams);
 
-        return new JsonApiResponse()
-            .setEntity(resource)
-            .setLinksInformation(linksInformation)
-            .setMetaInformation(metaInformation);
+        return new LazyJsonApiResponse(repository, resources, queryParams, concurrentMetaInformation)
+            .setEntity(resource);
     }
 
     @SuppressWarnings("unchecked")
-    private MetaInformation getMetaInformation(Object repository, Iterable<?> resources, QueryParams queryParams) {
+    private static MetaInformation getMetaInformation(Object repository, Iterable<?> resources, QueryParams queryParams) {
         if (repository instanceof AnnotatedRepositoryAdapter) {
             if (((AnnotatedRepositoryAdapter) repository).metaRepositoryAvailable()) {
                 return ((MetaRepository) repository).getMetaInformation(resources, queryParams);
@@ -53,7 +61,7 @@ public abstract class ResponseRepository {
     }
 
     @SuppressWarnings("unchecked")
-    private LinksInformation getLinksInformation(Object repository, Iterable<?> resources, QueryParams queryParams) {
+    private static LinksInformation getLinksInformation(Object repository, Iterable<?> resources, QueryParams queryParams) {
         if (repository instanceof AnnotatedRepositoryAdapter) {
             if (((AnnotatedRepositoryAdapter) repository).linksRepositoryAvailable()) {
                 return ((LinksRepository) repository).getLinksInformation(resources, queryParams);
@@ -63,4 +71,63 @@ public abstract class ResponseRepository {
         }
         return null;
     }
+
+    /**
+     * Calls meta and links repository methods on the first access of the information or joins concurrently
+     * computed meta information. A value set explicitly replaces the lazily computed one.
+     */
+    private static final class LazyJsonApiResponse extends JsonApiResponse {
+
+        private final Object repository;
+        private final Iterable<?> resources;
+        private final QueryParams queryParams;
+        private final ConcurrentMetaInformation concurrentMetaInformation;
+        private boolean metaInformationLoaded;
+        private boolean linksInformationLoaded;
+
+        private LazyJsonApiResponse(Object repository, Iterable<?> resources, QueryParams queryParams,
+                                    ConcurrentMetaInformation concurrentMetaInformation) {
+            this.repository = repository;
+            this.resources = resources;
+            this.queryParams = queryParams;
+            this.concurrentMetaInformation = concurrentMetaInformation;
+        }
+
+        @Override
+        public MetaInformation getMetaInformation() {
+            if (!metaInformationLoaded) {
+                setMetaInformation(concurrentMetaInformation != null ? concurrentMetaInformation.get()
+                    : ResponseRepository.getMetaInformation(repository, resources, queryParams));
+            }
+            return super.getMetaInformation();
+        }
+
+        @Override
+        public JsonApiResponse setMetaInformation(MetaInformation metaInformation) {
+            release();
+            metaInformationLoaded = true;
+            return super.setMetaInformation(metaInformation);
+        }
+
+        @Override
+        public void release() {
+            if (!metaInformationLoaded && concurrentMetaInformation != null) {
+                concurrentMetaInformation.cancel();
+            }
+        }
+
+        @Override
+        public LinksInformation getLinksInformation() {
+            if (!linksInformationLoaded) {
+                setLinksInformation(ResponseRepository.getLinksInformation(repository, resources, queryParams));
+            }
+            return super.getLinksInformation();
+        }
+
+        @Override
+        public JsonApiResponse setLinksInformation(LinksInformation linksInformation) {
+            linksInformationLoaded = true;
+            return super.setLinksInformation(linksInformation);
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package io.katharsis.response;
+
+/**
+ * A response to a synchronization request. Changed resources are its entity, the next sync token and identifiers
+ * of deleted resources are written into the top-level meta.
+ */
+public class ChangeFeedResponse extends JsonApiResponse {
+
+    private final Iterable<?> deletedIds;
+    private final String nextSyncToken;
+
+    public ChangeFeedResponse(Iterable<?> deletedIds, String nextSyncToken) {
+        this.deletedIds = deletedIds;
+        this.nextSyncToken = nextSyncToken;
+    }
+
+    public Iterable<?> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public String getNextSyncToken() {
+        return nextSyncToken;
+    }
+}
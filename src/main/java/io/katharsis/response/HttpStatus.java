@@ -9,6 +9,7 @@ public interface HttpStatus {
     int BAD_REQUEST_400 = 400;
     int FORBIDDEN_403 = 403;
     int CONFLICT_409 = 409;
+    int GONE_410 = 410;
     int INTERNAL_SERVER_ERROR_500 = 500;
     int NOT_IMPLEMENTED_501 = 501;
     int BAD_GATEWAY_502 = 502;
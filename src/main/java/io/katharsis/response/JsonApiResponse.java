@@ -41,4 +41,11 @@ public class JsonApiResponse {
         this.linksInformation = linksInformation;
         return this;
     }
+
+    /**
+     * Stops computations of lazily loaded information which hasn't been accessed yet, e.g. meta information computed
+     * concurrently with a repository call. It's called when a response is discarded or after it has been written.
+     */
+    public void release() {
+    }
 }
@@ -0,0 +1,53 @@
+package io.katharsis.response;
+
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.request.path.JsonApiPath;
+import io.katharsis.request.path.JsonPath;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of all of the operations of an atomic request, in the order of the operations. Operations without
+ * a result, eg. removals, have a <i>null</i> result.
+ */
+public final class OperationsResponse implements BaseResponseContext {
+
+    public static final String RESULTS = "atomic:results";
+
+    private final List<BaseResponseContext> results;
+
+    public OperationsResponse(List<BaseResponseContext> results) {
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    public List<BaseResponseContext> getResults() {
+        return results;
+    }
+
+    @Override
+    public int getHttpStatus() {
+        return HttpStatus.OK_200;
+    }
+
+    @Override
+    public JsonApiResponse getResponse() {
+        return new JsonApiResponse()
+                .setEntity(results);
+    }
+
+    @Override
+    public JsonPath getJsonPath() {
+        return null;
+    }
+
+    @Override
+    public JsonApiPath getPath() {
+        return null;
+    }
+
+    @Override
+    public QueryParams getQueryParams() {
+        return null;
+    }
+}
@@ -0,0 +1,276 @@
+package io.katharsis.dispatcher;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.katharsis.dispatcher.controller.BaseControllerTest;
+import io.katharsis.errorhandling.ErrorData;
+import io.katharsis.errorhandling.ErrorResponse;
+import io.katharsis.errorhandling.mapper.ExceptionMapperLookup;
+import io.katharsis.errorhandling.mapper.ExceptionMapperRegistryBuilder;
+import io.katharsis.errorhandling.mapper.JsonApiExceptionMapper;
+import io.katharsis.locator.JsonServiceLocator;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.repository.MetaRepository;
+import io.katharsis.repository.RepositoryInstanceBuilder;
+import io.katharsis.repository.TransactionalRepository;
+import io.katharsis.request.dto.OperationsRequestBody;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.resource.mock.models.User;
+import io.katharsis.resource.mock.repository.ProjectRepository;
+import io.katharsis.resource.mock.repository.UserRepository;
+import io.katharsis.resource.registry.RegistryEntry;
+import io.katharsis.resource.registry.repository.DirectResponseResourceEntry;
+import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.HttpStatus;
+import io.katharsis.response.MetaInformation;
+import io.katharsis.response.OperationsResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class OperationsProcessorTest extends BaseControllerTest {
+
+    private RequestDispatcher sut;
+
+    @Before
+    public void prepareDispatcher() {
+        sut = new RequestDispatcher(new ExceptionMapperRegistryBuilder().build(new ExceptionMapperLookup() {
+            @Override
+            public Set<JsonApiExceptionMapper> getExceptionMappers() {
+                return Collections.emptySet();
+            }
+        }), parameterProvider, resourceRegistry, typeParser, objectMapper, queryParamsBuilder);
+    }
+
+    @Test
+    public void onOperationsWithLocalIdsShouldResolveThemAndReturnAllResults() throws Exception {
+        // GIVEN
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'add', 'data': {'type': 'projects', 'lid': 'p1', 'attributes': {'name': 'project'}}}," +
+            "{'op': 'add', 'data': {'type': 'tasks', 'lid': 't1', 'attributes': {'name': 'task'}}}," +
+            "{'op': 'update', 'ref': {'type': 'tasks', 'lid': 't1', 'relationship': 'project'}," +
+            " 'data': {'type': 'projects', 'lid': 'p1'}}," +
+            "{'op': 'update', 'data': {'type': 'tasks', 'lid': 't1', 'attributes': {'name': 'renamed'}}}]}");
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchOperations(requestBody);
+
+        // THEN
+        assertThat(result).isExactlyInstanceOf(OperationsResponse.class);
+        OperationsResponse operationsResponse = (OperationsResponse) result;
+        assertThat(operationsResponse.getResults()).hasSize(4);
+        Project project = (Project) operationsResponse.getResults().get(0).getResponse().getEntity();
+        Task task = (Task) operationsResponse.getResults().get(3).getResponse().getEntity();
+        assertThat(project.getId()).isNotNull();
+        assertThat(task.getName()).isEqualTo("renamed");
+        assertThat(operationsResponse.getResults().get(2).getHttpStatus()).isEqualTo(HttpStatus.NO_CONTENT_204);
+    }
+
+    @Test
+    public void onOperationsResponseShouldSerializeResults() throws Exception {
+        // GIVEN
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'add', 'data': {'type': 'projects', 'attributes': {'name': 'project'}}}]}");
+
+        // WHEN
+        JsonNode result = objectMapper.readTree(objectMapper.writeValueAsString(sut.dispatchOperations(requestBody)));
+
+        // THEN
+        assertThat(result.get(OperationsResponse.RESULTS).size()).isEqualTo(1);
+        assertThat(result.get(OperationsResponse.RESULTS).get(0).get("data").get("type").asText())
+            .isEqualTo("projects");
+    }
+
+    @Test
+    public void onUnknownLocalIdShouldReturnErrorOfOperation() throws Exception {
+        // GIVEN
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'remove', 'ref': {'type': 'tasks', 'lid': 'unknown'}}]}");
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchOperations(requestBody);
+
+        // THEN
+        assertThat(result).isExactlyInstanceOf(ErrorResponse.class);
+        assertThat(result.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void onTransactionalRepositoryShouldComputeMetaInformationBeforeCommit() throws Exception {
+        // GIVEN
+        List<String> events = new ArrayList<>();
+        register(Project.class, new TransactionalProjectRepository(events));
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'add', 'data': {'type': 'projects', 'attributes': {'name': 'project'}}}]}");
+
+        // WHEN
+        objectMapper.writeValueAsString(sut.dispatchOperations(requestBody));
+
+        // THEN
+        assertThat(events).containsExactly("projects.begin", "projects.meta", "projects.commit");
+    }
+
+    @Test
+    public void onFailedOperationShouldRollBackTransactionsAndPointToOperation() throws Exception {
+        // GIVEN
+        List<String> events = new ArrayList<>();
+        register(Project.class, new TransactionalProjectRepository(events));
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'add', 'data': {'type': 'projects', 'attributes': {'name': 'project'}}}," +
+            "{'op': 'add', 'ref': {'type': 'projects'}}]}");
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchOperations(requestBody);
+
+        // THEN
+        assertThat(result).isExactlyInstanceOf(ErrorResponse.class);
+        assertThat(result.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+        ErrorData error = (ErrorData) ((Iterable<?>) result.getResponse().getEntity()).iterator().next();
+        assertThat(error.getSourcePointer()).isEqualTo("/atomic:operations/1");
+        assertThat(events).containsExactly("projects.begin", "projects.rollback");
+    }
+
+    @Test
+    public void onFailedCommitShouldRollBackRemainingTransactions() throws Exception {
+        // GIVEN
+        List<String> events = new ArrayList<>();
+        register(Project.class, new TransactionalProjectRepository(events));
+        TransactionalUserRepository userRepository = new TransactionalUserRepository(events);
+        userRepository.failCommit = true;
+        register(User.class, userRepository);
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'add', 'data': {'type': 'projects', 'attributes': {'name': 'project'}}}," +
+            "{'op': 'add', 'data': {'type': 'users', 'attributes': {'name': 'user'}}}]}");
+
+        // WHEN
+        try {
+            sut.dispatchOperations(requestBody);
+            fail("Expected a failed commit");
+        } catch (IllegalStateException e) {
+            // THEN
+            assertThat(e.getMessage()).isEqualTo("users.commit");
+        }
+        assertThat(events).containsExactly("projects.begin", "users.begin", "projects.meta", "projects.commit",
+            "users.commit", "users.rollback");
+    }
+
+    @Test
+    public void onFailedRollbackShouldRollBackOtherTransactionsAndReturnOriginalError() throws Exception {
+        // GIVEN
+        List<String> events = new ArrayList<>();
+        register(Project.class, new TransactionalProjectRepository(events));
+        TransactionalUserRepository userRepository = new TransactionalUserRepository(events);
+        userRepository.failRollback = true;
+        register(User.class, userRepository);
+        OperationsRequestBody requestBody = readOperations("{'atomic:operations': [" +
+            "{'op': 'add', 'data': {'type': 'projects', 'attributes': {'name': 'project'}}}," +
+            "{'op': 'add', 'data': {'type': 'users', 'attributes': {'name': 'user'}}}," +
+            "{'op': 'remove', 'ref': {'type': 'tasks', 'lid': 'unknown'}}]}");
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchOperations(requestBody);
+
+        // THEN
+        assertThat(result.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+        ErrorData error = (ErrorData) ((Iterable<?>) result.getResponse().getEntity()).iterator().next();
+        assertThat(error.getSourcePointer()).isEqualTo("/atomic:operations/2");
+        assertThat(events).containsExactly("projects.begin", "users.begin", "users.rollback", "projects.rollback");
+    }
+
+    @Test
+    public void onOperationsResponseShouldNotHavePath() {
+        // WHEN
+        OperationsResponse sut = new OperationsResponse(Collections.<BaseResponseContext>emptyList());
+
+        // THEN
+        assertThat(sut.getPath()).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void register(Class<?> resourceClass, final Object repository) {
+        RegistryEntry registryEntry = resourceRegistry.getEntry(resourceClass);
+        JsonServiceLocator serviceLocator = new JsonServiceLocator() {
+            @Override
+            public <T> T getInstance(Class<T> clazz) {
+                return (T) repository;
+            }
+        };
+        resourceRegistry.addEntry(resourceClass, new RegistryEntry(registryEntry.getResourceInformation(),
+            new DirectResponseResourceEntry(new RepositoryInstanceBuilder(serviceLocator, repository.getClass())),
+            registryEntry.getRelationshipEntries()));
+    }
+
+    private OperationsRequestBody readOperations(String json) throws Exception {
+        return objectMapper.readValue(json.replace('\'', '"'), OperationsRequestBody.class);
+    }
+
+    private static class TransactionalProjectRepository extends ProjectRepository
+        implements TransactionalRepository, MetaRepository<Project> {
+
+        private final List<String> events;
+
+        private TransactionalProjectRepository(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void begin() {
+            events.add("projects.begin");
+        }
+
+        @Override
+        public void commit() {
+            events.add("projects.commit");
+        }
+
+        @Override
+        public void rollback() {
+            events.add("projects.rollback");
+        }
+
+        @Override
+        public MetaInformation getMetaInformation(Iterable<Project> resources, QueryParams queryParams) {
+            events.add("projects.meta");
+            return null;
+        }
+    }
+
+    private static class TransactionalUserRepository extends UserRepository implements TransactionalRepository {
+
+        private final List<String> events;
+        private boolean failCommit;
+        private boolean failRollback;
+
+        private TransactionalUserRepository(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void begin() {
+            events.add("users.begin");
+        }
+
+        @Override
+        public void commit() {
+            events.add("users.commit");
+            if (failCommit) {
+                throw new IllegalStateException("users.commit");
+            }
+        }
+
+        @Override
+        public void rollback() {
+            events.add("users.rollback");
+            if (failRollback) {
+                throw new IllegalStateException("users.rollback");
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.katharsis.dispatcher;
+
+import io.katharsis.dispatcher.controller.BaseControllerTest;
+import io.katharsis.errorhandling.ErrorResponse;
+import io.katharsis.errorhandling.mapper.ExceptionMapperLookup;
+import io.katharsis.errorhandling.mapper.ExceptionMapperRegistryBuilder;
+import io.katharsis.errorhandling.mapper.JsonApiExceptionMapper;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.request.Request;
+import io.katharsis.request.path.JsonPath;
+import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.HttpStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestDispatcherTest extends BaseControllerTest {
+
+    private RequestDispatcher sut;
+
+    @Before
+    public void prepareDispatcher() {
+        sut = new RequestDispatcher(new ExceptionMapperRegistryBuilder().build(new ExceptionMapperLookup() {
+            @Override
+            public Set<JsonApiExceptionMapper> getExceptionMappers() {
+                return Collections.emptySet();
+            }
+        }), parameterProvider, resourceRegistry, typeParser, objectMapper, queryParamsBuilder);
+    }
+
+    @Test
+    public void onUnknownIncludedRelationshipShouldReturnBadRequestBeforeHandlingRequest() {
+        // GIVEN
+        JsonPath jsonPath = pathBuilder.buildPath("/tasks/");
+        QueryParams queryParams = queryParamsBuilder.buildQueryParams(
+            Collections.singletonMap("include[tasks]", Collections.singleton("project.unknown")));
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchRequest(jsonPath, "GET", queryParams, null);
+
+        // THEN
+        assertThat(result).isExactlyInstanceOf(ErrorResponse.class);
+        assertThat(result.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void onUnknownIncludedRelationshipOfFieldShouldReturnBadRequest() {
+        // GIVEN
+        JsonPath jsonPath = pathBuilder.buildPath("/tasks/1/project");
+        QueryParams queryParams = queryParamsBuilder.buildQueryParams(
+            Collections.singletonMap("include[project]", Collections.singleton("project.unknown")));
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchRequest(jsonPath, "GET", queryParams, null);
+
+        // THEN
+        assertThat(result.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void onUnknownIncludedRelationshipOfRequestShouldReturnBadRequest() throws Exception {
+        // GIVEN
+        Request request = new Request(new URL("http://localhost/tasks/?include[tasks]=project.unknown"), "get", null);
+
+        // WHEN
+        BaseResponseContext result = sut.dispatchRequest(request);
+
+        // THEN
+        assertThat(result).isExactlyInstanceOf(ErrorResponse.class);
+        assertThat(result.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+}
@@ -0,0 +1,115 @@
+package io.katharsis.dispatcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.katharsis.jackson.JsonApiModuleBuilder;
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.request.path.ResourcePath;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilderTest;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import io.katharsis.response.CollectionResponseContext;
+import io.katharsis.response.JsonApiResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseWriterTest {
+
+    private ObjectMapper objectMapper;
+    private CollectionResponseContext response;
+    private ResponseWriter sut;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        ResourceRegistry resourceRegistry = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL);
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonApiModuleBuilder().build(resourceRegistry));
+
+        List<Task> tasks = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            Task task = new Task().setId(i);
+            task.setName("task " + i);
+            tasks.add(task);
+        }
+        response = new CollectionResponseContext(new JsonApiResponse().setEntity(tasks), new ResourcePath("tasks"),
+            new QueryParams());
+        sut = new ResponseWriter(objectMapper);
+    }
+
+    @Test
+    public void onNoCompressionShouldWriteDocument() throws Exception {
+        // GIVEN
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        sut.write(response, outputStream, ResponseCompression.NONE);
+
+        // THEN
+        assertThat(outputStream.toString("UTF-8")).isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    public void onGzipCompressionShouldWriteCompressedDocumentRepeatedly() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            // GIVEN
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            // WHEN
+            sut.write(response, outputStream, ResponseCompression.GZIP);
+
+            // THEN
+            String result = read(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+            assertThat(result).isEqualTo(objectMapper.writeValueAsString(response));
+        }
+    }
+
+    @Test
+    public void onDeflateCompressionToChannelShouldWriteCompressedDocument() throws Exception {
+        // GIVEN
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        sut.write(response, Channels.newChannel(outputStream), ResponseCompression.DEFLATE);
+
+        // THEN
+        String result = read(new InflaterInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+        assertThat(result).isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    public void onAcceptEncodingShouldPreferGzip() {
+        assertThat(ResponseCompression.negotiate("deflate, gzip;q=0.5")).isEqualTo(ResponseCompression.GZIP);
+        assertThat(ResponseCompression.negotiate("deflate, gzip;q=0")).isEqualTo(ResponseCompression.DEFLATE);
+        assertThat(ResponseCompression.negotiate("identity")).isEqualTo(ResponseCompression.NONE);
+        assertThat(ResponseCompression.negotiate(null)).isEqualTo(ResponseCompression.NONE);
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toString("UTF-8");
+    }
+}
@@ -4,9 +4,11 @@ import io.katharsis.dispatcher.controller.BaseControllerTest;
 import io.katharsis.dispatcher.controller.resource.RelationshipsResourcePost;
 import io.katharsis.dispatcher.controller.resource.ResourceGet;
 import io.katharsis.dispatcher.controller.resource.ResourcePost;
+import io.katharsis.jackson.exception.ParametersDeserializationException;
 import io.katharsis.queryParams.DefaultQueryParamsParser;
 import io.katharsis.queryParams.QueryParams;
 import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.queryParams.group.GroupingMetaInformation;
 import io.katharsis.request.dto.DataBody;
 import io.katharsis.request.dto.RequestBody;
 import io.katharsis.request.dto.ResourceRelationships;
@@ -86,6 +88,51 @@ public class CollectionGetTest extends BaseControllerTest {
         Assert.assertNotNull(response);
     }
 
+    @Test
+    public void onGroupedRequestShouldReturnGroupsInMeta() {
+        // GIVEN
+        JsonPath jsonPath = pathBuilder.buildPath("/tasks/");
+        CollectionGet sut = new CollectionGet(resourceRegistry, parameterProvider, typeParser, includeFieldSetter, queryParamsBuilder);
+        Map<String, Set<String>> queryParams = new HashMap<>();
+        queryParams.put(RestrictedQueryParamsMembers.group.name() + "[tasks]", Collections.singleton("name,$max(id)"));
+        QueryParams groupedQueryParams = new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(queryParams);
+
+        // WHEN
+        BaseResponseContext response = sut.handle(jsonPath, groupedQueryParams, null);
+
+        // THEN
+        assertThat(response.getResponse().getEntity()).isEqualTo(Collections.emptyList());
+        assertThat(response.getResponse().getMetaInformation()).isExactlyInstanceOf(GroupingMetaInformation.class);
+    }
+
+    @Test
+    public void onGroupedRequestWithoutAggregatesShouldPassItToRepository() {
+        // GIVEN
+        JsonPath jsonPath = pathBuilder.buildPath("/tasks/");
+        CollectionGet sut = new CollectionGet(resourceRegistry, parameterProvider, typeParser, includeFieldSetter, queryParamsBuilder);
+        Map<String, Set<String>> queryParams = new HashMap<>();
+        queryParams.put(RestrictedQueryParamsMembers.group.name() + "[tasks]", Collections.singleton("project.name"));
+        QueryParams groupedQueryParams = new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(queryParams);
+
+        // WHEN
+        BaseResponseContext response = sut.handle(jsonPath, groupedQueryParams, null);
+
+        // THEN
+        assertThat(response.getResponse().getMetaInformation()).isNull();
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onSyncRequestWithIdsShouldThrowException() {
+        // GIVEN
+        JsonPath jsonPath = pathBuilder.buildPath("/tasks/1,2");
+        CollectionGet sut = new CollectionGet(resourceRegistry, parameterProvider, typeParser, includeFieldSetter, queryParamsBuilder);
+        QueryParams syncQueryParams = new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap("sync", Collections.singleton("token-1")));
+
+        // WHEN
+        sut.handle(jsonPath, syncQueryParams, null);
+    }
+
     @Test
     public void onGivenRequestResourceWithIdShouldSetIt() throws Exception {
         // GIVEN
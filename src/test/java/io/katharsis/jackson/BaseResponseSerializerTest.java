@@ -1,7 +1,12 @@
 package io.katharsis.jackson;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import io.katharsis.queryParams.DefaultQueryParamsParser;
 import io.katharsis.queryParams.QueryParams;
 import io.katharsis.queryParams.QueryParamsBuilder;
@@ -14,12 +19,15 @@ import io.katharsis.resource.mock.models.Task;
 import io.katharsis.resource.mock.models.User;
 import io.katharsis.resource.registry.RegistryEntry;
 import io.katharsis.response.BaseResponseContext;
+import io.katharsis.response.ChangeFeedResponse;
 import io.katharsis.response.CollectionResponseContext;
 import io.katharsis.response.Container;
+import io.katharsis.response.DataLinksContainer;
 import io.katharsis.response.JsonApiResponse;
 import io.katharsis.response.LinkageContainer;
 import io.katharsis.response.LinksInformation;
 import io.katharsis.response.MetaInformation;
+import io.katharsis.response.RelationshipContainer;
 import io.katharsis.response.ResourceResponseContext;
 import org.junit.Rule;
 import org.junit.Test;
@@ -195,6 +203,24 @@ public class BaseResponseSerializerTest extends BaseSerializerTest {
         assertThatJson(result).node("meta.author").isEqualTo("Humpty Dumpty");
     }
 
+    @Test
+    public void onChangeFeedResponseShouldReturnSyncTokenAndDeletedIdsInMeta() throws Exception {
+        // GIVEN
+        Project project = new Project();
+        project.setId(1L);
+        JsonApiResponse response = new ChangeFeedResponse(Collections.singletonList(2L), "token-2")
+            .setEntity(Collections.singletonList(project));
+
+        // WHEN
+        String result = sut.writeValueAsString(
+            new CollectionResponseContext(response, new ResourcePath("projects"), REQUEST_PARAMS));
+
+        // THEN
+        assertThatJson(result).node("data[0].id").isEqualTo("\"1\"");
+        assertThatJson(result).node("meta.syncToken").isEqualTo("token-2");
+        assertThatJson(result).node("meta.deleted").isEqualTo("[\"2\"]");
+    }
+
     @Test
     public void onLinksInformationShouldReturnLinksObject() throws Exception {
         // GIVEN
@@ -290,6 +316,44 @@ public class BaseResponseSerializerTest extends BaseSerializerTest {
         assertThatJson(result).node("included[0].id").isEqualTo("\"2\"");
     }
 
+    @Test
+    public void onCollectionResponseShouldNotUseWrapperSerializers() throws Exception {
+        // GIVEN
+        Project project = new Project();
+        project.setId(2L);
+        Task task = new Task().setId(1L);
+        task.setProject(project);
+        task.setProjects(Collections.singletonList(project));
+        JsonApiResponse response = buildResponse(Collections.singletonList(task));
+        CollectionResponseContext responseContext = new CollectionResponseContext(response,
+            new ResourcePath("tasks"), REQUEST_PARAMS);
+        String expected = sut.writeValueAsString(responseContext);
+
+        SimpleModule failingModule = new SimpleModule("failingWrappers");
+        failingModule.addSerializer(Container.class, new FailingSerializer<Container>())
+            .addSerializer(DataLinksContainer.class, new FailingSerializer<DataLinksContainer>())
+            .addSerializer(RelationshipContainer.class, new FailingSerializer<RelationshipContainer>())
+            .addSerializer(LinkageContainer.class, new FailingSerializer<LinkageContainer>());
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonApiModuleBuilder().build(resourceRegistry));
+        objectMapper.registerModule(failingModule);
+
+        // WHEN
+        String result = objectMapper.writeValueAsString(responseContext);
+
+        // THEN
+        assertThatJson(result).isEqualTo(expected);
+        assertThatJson(result).node("data[0].relationships.project.data.id").isEqualTo("\"2\"");
+        assertThatJson(result).node("data[0].relationships.projects.data[0].type").isEqualTo("projects");
+    }
+
+    private static class FailingSerializer<T> extends JsonSerializer<T> {
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider serializers) {
+            throw new UnsupportedOperationException("Wrapper serializer used for " + value);
+        }
+    }
+
     public static class MetaData implements MetaInformation {
         private String author;
 
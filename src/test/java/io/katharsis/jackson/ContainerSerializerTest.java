@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Set;
 
 import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class ContainerSerializerTest extends BaseSerializerTest {
 
@@ -50,6 +51,19 @@ public class ContainerSerializerTest extends BaseSerializerTest {
         assertThatJson(result).node("id").isEqualTo("\"1\"");
     }
 
+    @Test
+    public void onObjectWithoutIdShouldWriteNullId() throws Exception {
+        // GIVEN
+        Project project = new Project();
+
+        // WHEN
+        String result = sut.writeValueAsString(new Container(project, testResponse));
+
+        // THEN
+        assertThatJson(result).node("id").isEqualTo(null);
+        assertThat(result).doesNotContain("\"id\":\"null\"");
+    }
+
     @Test
     public void onSimpleObjectShouldIncludeAttributes() throws Exception {
         // GIVEN
@@ -119,6 +133,28 @@ public class ContainerSerializerTest extends BaseSerializerTest {
         assertThatJson(result).node("attributes.description").isAbsent();
     }
 
+    @Test
+    public void onLazyAttributeShouldBeWrittenOnlyIfRequested() throws Exception {
+        // GIVEN
+        Task task = new Task();
+        task.setName("some name");
+        task.setDescription("some description");
+
+        QueryParamsBuilder queryParamsBuilder = new QueryParamsBuilder(new DefaultQueryParamsParser());
+        QueryParams queryParams = queryParamsBuilder.buildQueryParams(
+            Collections.singletonMap("fields[tasks]", Collections.singleton("description")));
+        JsonPath jsonPath = new PathBuilder(resourceRegistry).buildPath("/tasks");
+
+        // WHEN
+        String defaultResult = sut.writeValueAsString(new Container(task, testResponse));
+        String requestedResult = sut.writeValueAsString(new Container(task, new ResourceResponseContext(new JsonApiResponse(), jsonPath, queryParams)));
+
+        // THEN
+        assertThatJson(defaultResult).node("attributes.name").isEqualTo("some name");
+        assertThatJson(defaultResult).node("attributes.description").isAbsent();
+        assertThatJson(requestedResult).node("attributes.description").isEqualTo("some description");
+    }
+
     @Test
     public void onIncludedRelationshipInParamsShouldContainIncludedList() throws Exception {
         // GIVEN
@@ -0,0 +1,103 @@
+package io.katharsis.jackson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.request.dto.DataBody;
+import io.katharsis.request.dto.RequestBody;
+import io.katharsis.request.path.ResourcePath;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.response.CollectionResponseContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonApiFormatTest extends BaseSerializerTest {
+
+    @Test
+    public void onBinaryFormatsShouldSerializeSameDocument() throws Exception {
+        // GIVEN
+        CollectionResponseContext response = new CollectionResponseContext(buildResponse(buildTasks(20)),
+            new ResourcePath("tasks"), new QueryParams());
+        JsonNode expected = sut.readTree(sut.writeValueAsString(response));
+
+        for (JsonApiFormat format : new JsonApiFormat[]{JsonApiFormat.SMILE, JsonApiFormat.CBOR}) {
+            ObjectMapper objectMapper = new JsonApiModuleBuilder().buildObjectMapper(resourceRegistry, format);
+
+            // WHEN
+            byte[] result = objectMapper.writeValueAsBytes(response);
+
+            // THEN
+            assertThat(objectMapper.readTree(result)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void onSmileFormatShouldWriteSmallerDocument() throws Exception {
+        // GIVEN
+        CollectionResponseContext response = new CollectionResponseContext(buildResponse(buildTasks(20)),
+            new ResourcePath("tasks"), new QueryParams());
+        ObjectMapper objectMapper = new JsonApiModuleBuilder().buildObjectMapper(resourceRegistry, JsonApiFormat.SMILE);
+
+        // WHEN
+        byte[] result = objectMapper.writeValueAsBytes(response);
+
+        // THEN
+        assertThat(result.length).isLessThan(sut.writeValueAsBytes(response).length);
+    }
+
+    @Test
+    public void onBinaryRequestBodyShouldDeserializeSameBody() throws Exception {
+        // GIVEN
+        String json = "{\"data\": {\"type\": \"tasks\", \"id\": \"1\", \"attributes\": {\"name\": \"sample task\"}}}";
+        ObjectMapper objectMapper = new JsonApiModuleBuilder().buildObjectMapper(resourceRegistry, JsonApiFormat.SMILE);
+        byte[] body = objectMapper.writeValueAsBytes(sut.readTree(json));
+
+        // WHEN
+        RequestBody result = objectMapper.readValue(body, RequestBody.class);
+
+        // THEN
+        DataBody expected = (DataBody) sut.readValue(json, RequestBody.class).getData();
+        DataBody data = (DataBody) result.getData();
+        assertThat(data.getType()).isEqualTo(expected.getType());
+        assertThat(data.getId()).isEqualTo(expected.getId());
+        assertThat(data.getAttributes()).isEqualTo(expected.getAttributes());
+    }
+
+    @Test
+    public void onAcceptHeaderShouldNegotiateFormatWithHighestQuality() {
+        // WHEN
+        JsonApiFormat result = JsonApiFormat
+            .negotiate("application/vnd.api+json;q=0.5, application/x-jackson-smile, application/cbor;q=0.8");
+
+        // THEN
+        assertThat(result).isEqualTo(JsonApiFormat.SMILE);
+    }
+
+    @Test
+    public void onUnknownAcceptHeaderShouldNegotiateJson() {
+        // WHEN
+        JsonApiFormat result = JsonApiFormat.negotiate("text/html, */*;q=0.1");
+
+        // THEN
+        assertThat(result).isEqualTo(JsonApiFormat.JSON);
+    }
+
+    private static List<Task> buildTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            Project project = new Project();
+            project.setId(i);
+            project.setName("project " + i);
+            Task task = new Task().setId(i);
+            task.setName("task " + i);
+            task.setProject(project);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,160 @@
+package io.katharsis.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.katharsis.jackson.serializer.ResourceFragmentCache;
+import io.katharsis.jackson.serializer.ResourceVersionProvider;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.request.path.ResourcePath;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.response.ResourceResponseContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceFragmentCacheTest extends BaseSerializerTest {
+
+    private Object version;
+    private ResourceFragmentCache cache;
+    private ObjectMapper objectMapper;
+    private Task task;
+
+    @Before
+    public void prepare() {
+        version = 1;
+        cache = new ResourceFragmentCache(new ResourceVersionProvider() {
+            @Override
+            public Object getVersion(Object resource) {
+                return version;
+            }
+        }, 10000);
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonApiModuleBuilder().build(resourceRegistry, cache));
+        task = new Task().setId(1L);
+        task.setName("original");
+    }
+
+    @Test
+    public void onSameVersionShouldWriteCachedFragment() throws Exception {
+        // GIVEN
+        write(new QueryParams());
+        task.setName("changed");
+
+        // WHEN
+        String result = write(new QueryParams());
+
+        // THEN
+        assertThatJson(result).node("data.attributes.name").isEqualTo("original");
+        assertThat(cache.getFragmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onNewVersionShouldSerializeResourceAgain() throws Exception {
+        // GIVEN
+        write(new QueryParams());
+        task.setName("changed");
+        version = 2;
+
+        // WHEN
+        String result = write(new QueryParams());
+
+        // THEN
+        assertThatJson(result).node("data.attributes.name").isEqualTo("changed");
+    }
+
+    @Test
+    public void onResourceChangeNotificationShouldInvalidateFragments() throws Exception {
+        // GIVEN
+        write(new QueryParams());
+        task.setName("changed");
+
+        // WHEN
+        resourceRegistry.notifyResourceChanged("tasks", 1L);
+        String result = write(new QueryParams());
+
+        // THEN
+        assertThatJson(result).node("data.attributes.name").isEqualTo("changed");
+    }
+
+    @Test
+    public void onDifferentFieldSetShouldCacheSeparateFragment() throws Exception {
+        // GIVEN
+        write(new QueryParams());
+        QueryParams queryParams = new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap("fields[tasks]", Collections.singleton("project")));
+
+        // WHEN
+        String result = write(queryParams);
+
+        // THEN
+        assertThatJson(result).node("data.attributes.name").isAbsent();
+        assertThat(cache.getFragmentCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void onNullVersionShouldNotCacheResource() throws Exception {
+        // GIVEN
+        version = null;
+
+        // WHEN
+        write(new QueryParams());
+
+        // THEN
+        assertThat(cache.getFragmentCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void onExceededSizeShouldEvictLeastRecentlyUsedFragments() throws Exception {
+        // GIVEN
+        write(new QueryParams());
+        long fragmentSize = cache.getSize();
+        cache = new ResourceFragmentCache(new ResourceVersionProvider() {
+            @Override
+            public Object getVersion(Object resource) {
+                return version;
+            }
+        }, fragmentSize * 3);
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonApiModuleBuilder().build(resourceRegistry, cache));
+
+        // WHEN
+        for (long id = 0; id < 10; id++) {
+            task.setId(id);
+            write(new QueryParams());
+        }
+
+        // THEN
+        assertThat(cache.getFragmentCount()).isEqualTo(2);
+        assertThat(cache.getSize()).isEqualTo(fragmentSize * 2);
+        task.setName("changed");
+        assertThatJson(write(new QueryParams())).node("data.attributes.name").isEqualTo("original");
+        task.setId(0L);
+        assertThatJson(write(new QueryParams())).node("data.attributes.name").isEqualTo("changed");
+    }
+
+    @Test
+    public void onResourceChangeNotificationShouldKeepFragmentsOfOtherResources() throws Exception {
+        // GIVEN
+        write(new QueryParams());
+        task.setId(2L);
+        write(new QueryParams());
+
+        // WHEN
+        resourceRegistry.notifyResourceChanged("tasks", 1L);
+
+        // THEN
+        assertThat(cache.getFragmentCount()).isEqualTo(1);
+        task.setName("changed");
+        assertThatJson(write(new QueryParams())).node("data.attributes.name").isEqualTo("original");
+    }
+
+    private String write(QueryParams queryParams) throws Exception {
+        return objectMapper.writeValueAsString(new ResourceResponseContext(buildResponse(task),
+            new ResourcePath("tasks"), queryParams));
+    }
+}
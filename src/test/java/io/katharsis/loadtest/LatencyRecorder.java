@@ -0,0 +1,54 @@
+package io.katharsis.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records latencies of operations executed by a single thread. Every sample is kept, so percentiles are exact.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    public void record(long latencyNanos, boolean successful) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+        if (!successful) {
+            errors++;
+        }
+    }
+
+    public void add(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(count + other.count, samples.length * 2));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100, e.g. 99.9
+     * @return latency in nanoseconds using the nearest-rank method, 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.min(count, Math.max(1, rank)) - 1];
+    }
+}
@@ -0,0 +1,139 @@
+package io.katharsis.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a concurrent load test against {@link LoadTestServer} started in the same JVM and prints latency percentiles,
+ * throughput and allocation per request. Configured using system properties:
+ * <ul>
+ * <li><i>loadtest.threads</i> - number of client threads, default 16</li>
+ * <li><i>loadtest.serverThreads</i> - number of server threads, default 16</li>
+ * <li><i>loadtest.warmup</i> - warmup in seconds, excluded from results, default 10</li>
+ * <li><i>loadtest.duration</i> - measured run in seconds, default 30</li>
+ * <li><i>loadtest.mix</i> - operation mix, default <i>get=80,patch=15,post=5</i></li>
+ * <li><i>loadtest.pageSize</i> - size of requested pages of tasks, default 20</li>
+ * <li><i>loadtest.postBatch</i> - tasks created by a bulk post, default 10</li>
+ * <li><i>loadtest.projects</i>, <i>loadtest.tasks</i>, <i>loadtest.users</i> - seeded resources</li>
+ * <li><i>loadtest.baseline</i> - baseline file, default <i>target/load-test-baseline.properties</i></li>
+ * <li><i>loadtest.saveBaseline</i> - store results of this run as the baseline, default false</li>
+ * </ul>
+ * It can be run using <i>mvn -Pload-test test-compile exec:java</i>.
+ */
+public class LoadTest {
+
+    private final LoadTestClient client;
+    private final LoadTestMix mix;
+    private final int threads;
+
+    public LoadTest(LoadTestClient client, LoadTestMix mix, int threads) {
+        this.client = client;
+        this.mix = mix;
+        this.threads = threads;
+    }
+
+    /**
+     * Executes operations from all threads for a given time.
+     *
+     * @param durationNanos duration of a run
+     * @return latencies of each executed operation
+     * @throws Exception if a client thread fails
+     */
+    public Map<LoadTestOperation, LatencyRecorder> run(final long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long end = System.nanoTime() + durationNanos;
+            List<Future<Map<LoadTestOperation, LatencyRecorder>>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final LoadTestClient threadClient = client.copy();
+                final Random random = new Random(i);
+                futures.add(executor.submit(new Callable<Map<LoadTestOperation, LatencyRecorder>>() {
+                    @Override
+                    public Map<LoadTestOperation, LatencyRecorder> call() throws IOException {
+                        return runClient(threadClient, random, end);
+                    }
+                }));
+            }
+
+            Map<LoadTestOperation, LatencyRecorder> result = new EnumMap<>(LoadTestOperation.class);
+            for (Future<Map<LoadTestOperation, LatencyRecorder>> future : futures) {
+                for (Map.Entry<LoadTestOperation, LatencyRecorder> entry : future.get().entrySet()) {
+                    getRecorder(result, entry.getKey()).add(entry.getValue());
+                }
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<LoadTestOperation, LatencyRecorder> runClient(LoadTestClient threadClient, Random random, long end)
+        throws IOException {
+        Map<LoadTestOperation, LatencyRecorder> recorders = new EnumMap<>(LoadTestOperation.class);
+        long start = System.nanoTime();
+        while (start < end) {
+            LoadTestOperation operation = mix.next(random);
+            int status = operation.execute(threadClient, random);
+            long finish = System.nanoTime();
+            getRecorder(recorders, operation).record(finish - start, status < 400);
+            start = finish;
+        }
+        return recorders;
+    }
+
+    private static LatencyRecorder getRecorder(Map<LoadTestOperation, LatencyRecorder> recorders,
+                                               LoadTestOperation operation) {
+        LatencyRecorder recorder = recorders.get(operation);
+        if (recorder == null) {
+            recorder = new LatencyRecorder();
+            recorders.put(operation, recorder);
+        }
+        return recorder;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestDomain domain = new LoadTestDomain(Integer.getInteger("loadtest.projects", 100),
+            Integer.getInteger("loadtest.tasks", 2000), Integer.getInteger("loadtest.users", 200));
+        LoadTestServer server = new LoadTestServer(domain, 0, Integer.getInteger("loadtest.serverThreads", 16));
+        server.start();
+        try {
+            LoadTestMix mix = new LoadTestMix(System.getProperty("loadtest.mix", "get=80,patch=15,post=5"));
+            LoadTestClient client = new LoadTestClient(server.getBaseUrl(), domain,
+                Integer.getInteger("loadtest.pageSize", 20), Integer.getInteger("loadtest.postBatch", 10));
+            int threads = Integer.getInteger("loadtest.threads", 16);
+            LoadTest loadTest = new LoadTest(client, mix, threads);
+
+            System.out.println(String.format("Mix %s, %d client threads, server at %s", mix, threads,
+                server.getBaseUrl()));
+            loadTest.run(TimeUnit.SECONDS.toNanos(Integer.getInteger("loadtest.warmup", 10)));
+            server.resetCounters();
+            long durationNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("loadtest.duration", 30));
+            Map<LoadTestOperation, LatencyRecorder> latencies = loadTest.run(durationNanos);
+            LoadTestReport report = new LoadTestReport(latencies, durationNanos, server.getHandledRequests(),
+                server.isAllocationMeasured() ? server.getAllocatedBytes() : -1);
+
+            File baselineFile = new File(System.getProperty("loadtest.baseline", "target/load-test-baseline.properties"));
+            if (baselineFile.isFile()) {
+                report.printComparison(LoadTestReport.load(baselineFile), System.out);
+            } else {
+                report.print(System.out);
+            }
+            if (Boolean.getBoolean("loadtest.saveBaseline")) {
+                report.save(baselineFile);
+                System.out.println("Baseline saved to " + baselineFile);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+}
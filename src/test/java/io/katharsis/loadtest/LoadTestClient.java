@@ -0,0 +1,146 @@
+package io.katharsis.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends requests of {@link LoadTestOperation} to {@link LoadTestServer}. Connections are kept alive by
+ * {@link HttpURLConnection}, response bodies are read fully so a connection can be reused.
+ * <p>
+ * Posted tasks use identifiers from a window following the seeded tasks, so a long run overwrites them instead of
+ * growing the repository without limits.
+ */
+public class LoadTestClient {
+
+    private static final String CONTENT_TYPE = "application/vnd.api+json";
+    private static final int POST_WINDOW = 1000;
+
+    private final String baseUrl;
+    private final int projectCount;
+    private final int taskCount;
+    private final int pageSize;
+    private final int postBatchSize;
+    private final AtomicLong postedTasks;
+    private final AtomicLong patchedTasks;
+    private final byte[] readBuffer = new byte[8192];
+
+    /**
+     * @param baseUrl       base URL of the API
+     * @param domain        served domain, used to generate existing identifiers
+     * @param pageSize      size of a page requested by collection requests
+     * @param postBatchSize number of tasks created by a bulk post
+     */
+    public LoadTestClient(String baseUrl, LoadTestDomain domain, int pageSize, int postBatchSize) {
+        this.baseUrl = baseUrl;
+        this.projectCount = domain.getProjectCount();
+        this.taskCount = domain.getTaskCount();
+        this.pageSize = pageSize;
+        this.postBatchSize = postBatchSize;
+        this.postedTasks = new AtomicLong();
+        this.patchedTasks = new AtomicLong();
+    }
+
+    /**
+     * Client used by another thread, sharing identifier counters with this client.
+     *
+     * @return new client
+     */
+    public LoadTestClient copy() {
+        return new LoadTestClient(this);
+    }
+
+    private LoadTestClient(LoadTestClient other) {
+        this.baseUrl = other.baseUrl;
+        this.projectCount = other.projectCount;
+        this.taskCount = other.taskCount;
+        this.pageSize = other.pageSize;
+        this.postBatchSize = other.postBatchSize;
+        this.postedTasks = other.postedTasks;
+        this.patchedTasks = other.patchedTasks;
+    }
+
+    /**
+     * Requests a page of tasks including their projects, with sparse fieldsets.
+     *
+     * @param random source of a page offset
+     * @return HTTP status
+     * @throws IOException on connection failure
+     */
+    public int getTasks(Random random) throws IOException {
+        int offset = random.nextInt(Math.max(1, taskCount - pageSize));
+        String query = "include%5Btasks%5D=project&fields%5Btasks%5D=name,project"
+            + "&page%5Boffset%5D=" + offset + "&page%5Blimit%5D=" + pageSize;
+        return send("GET", "/tasks?" + query, null);
+    }
+
+    /**
+     * Renames an existing task.
+     *
+     * @param random source of a task identifier
+     * @return HTTP status
+     * @throws IOException on connection failure
+     */
+    public int patchTask(Random random) throws IOException {
+        int id = random.nextInt(taskCount);
+        String body = "{\"data\":{\"type\":\"tasks\",\"id\":\"" + id + "\",\"attributes\":{\"name\":\"task " + id
+            + " rev " + patchedTasks.incrementAndGet() + "\"}}}";
+        return send("PATCH", "/tasks/" + id, body);
+    }
+
+    /**
+     * Creates a batch of tasks assigned to projects. The batch is sent as consecutive requests and the status of the
+     * first failed one is returned.
+     *
+     * @param random source of project identifiers
+     * @return HTTP status
+     * @throws IOException on connection failure
+     */
+    public int postTasks(Random random) throws IOException {
+        int status = 201;
+        for (int i = 0; i < postBatchSize; i++) {
+            long id = taskCount + postedTasks.getAndIncrement() % POST_WINDOW;
+            String body = "{\"data\":{\"type\":\"tasks\",\"id\":\"" + id + "\",\"attributes\":{\"name\":\"posted "
+                + id + "\"},\"relationships\":{\"project\":{\"data\":{\"type\":\"projects\",\"id\":\""
+                + random.nextInt(projectCount) + "\"}}}}}";
+            int result = send("POST", "/tasks", body);
+            if (result >= 400 && status < 400) {
+                status = result;
+            }
+        }
+        return status;
+    }
+
+    private int send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestProperty("Accept", CONTENT_TYPE);
+        if (body != null) {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty(LoadTestServer.METHOD_OVERRIDE_HEADER, method);
+            connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        } else {
+            connection.setRequestMethod(method);
+        }
+        int status = connection.getResponseCode();
+        InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (inputStream != null) {
+            try {
+                while (inputStream.read(readBuffer) != -1) {
+                    // drain the body so the connection can be reused
+                }
+            } finally {
+                inputStream.close();
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,130 @@
+package io.katharsis.loadtest;
+
+import io.katharsis.locator.JsonServiceLocator;
+import io.katharsis.repository.inmemory.InMemoryRelationshipRepository;
+import io.katharsis.repository.inmemory.InMemoryResourceRepository;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.resource.mock.models.User;
+import io.katharsis.resource.registry.ResourceLookup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory projects, tasks and users served by {@link LoadTestServer}. Acts both as a resource lookup and as a
+ * service locator, so a registry uses the repositories created here instead of instantiating new ones.
+ */
+public class LoadTestDomain implements ResourceLookup, JsonServiceLocator {
+
+    private final ProjectRepository projectRepository = new ProjectRepository();
+    private final TaskRepository taskRepository = new TaskRepository();
+    private final UserRepository userRepository = new UserRepository();
+    private final Map<Class<?>, Object> repositories = new HashMap<>();
+    private final int projectCount;
+    private final int taskCount;
+
+    public LoadTestDomain(int projectCount, int taskCount, int userCount) {
+        this.projectCount = projectCount;
+        this.taskCount = taskCount;
+        repositories.put(ProjectRepository.class, projectRepository);
+        repositories.put(TaskRepository.class, taskRepository);
+        repositories.put(UserRepository.class, userRepository);
+        repositories.put(TaskToProjectRepository.class, new TaskToProjectRepository(taskRepository, projectRepository));
+        repositories.put(UserToProjectRepository.class, new UserToProjectRepository(userRepository, projectRepository));
+        taskRepository.addSortedIndex("id");
+        seed(userCount);
+    }
+
+    private void seed(int userCount) {
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (long id = 0; id < projectCount; id++) {
+            Project project = new Project().setId(id);
+            project.setName("project " + id);
+            project.setDescription("description of project " + id);
+            projects.add(projectRepository.save(project));
+        }
+        for (long id = 0; id < taskCount; id++) {
+            Task task = new Task().setId(id);
+            task.setName("task " + id);
+            task.setProject(projects.get((int) (id % projectCount)));
+            task.setProjects(Arrays.asList(projects.get((int) ((id + 1) % projectCount)),
+                projects.get((int) ((id + 2) % projectCount))));
+            taskRepository.save(task);
+        }
+        for (long id = 0; id < userCount; id++) {
+            User user = new User();
+            user.setId(id);
+            user.setName("user " + id);
+            user.setAssignedProjects(Arrays.asList(projects.get((int) (id % projectCount))));
+            userRepository.save(user);
+        }
+    }
+
+    public int getProjectCount() {
+        return projectCount;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    @Override
+    public Set<Class<?>> getResourceClasses() {
+        return new HashSet<Class<?>>(Arrays.asList(Project.class, Task.class, User.class));
+    }
+
+    @Override
+    public Set<Class<?>> getResourceRepositoryClasses() {
+        return new HashSet<>(repositories.keySet());
+    }
+
+    @Override
+    public <T> T getInstance(Class<T> clazz) {
+        Object repository = repositories.get(clazz);
+        if (repository == null) {
+            throw new IllegalArgumentException("Unknown repository: " + clazz.getCanonicalName());
+        }
+        return clazz.cast(repository);
+    }
+
+    public static class ProjectRepository extends InMemoryResourceRepository<Project, Long> {
+
+        public ProjectRepository() {
+            super(Project.class);
+        }
+    }
+
+    public static class TaskRepository extends InMemoryResourceRepository<Task, Long> {
+
+        public TaskRepository() {
+            super(Task.class);
+        }
+    }
+
+    public static class UserRepository extends InMemoryResourceRepository<User, Long> {
+
+        public UserRepository() {
+            super(User.class);
+        }
+    }
+
+    public static class TaskToProjectRepository extends InMemoryRelationshipRepository<Task, Long, Project, Long> {
+
+        public TaskToProjectRepository(TaskRepository taskRepository, ProjectRepository projectRepository) {
+            super(taskRepository, projectRepository);
+        }
+    }
+
+    public static class UserToProjectRepository extends InMemoryRelationshipRepository<User, Long, Project, Long> {
+
+        public UserToProjectRepository(UserRepository userRepository, ProjectRepository projectRepository) {
+            super(userRepository, projectRepository);
+        }
+    }
+}
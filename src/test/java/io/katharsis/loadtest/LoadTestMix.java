@@ -0,0 +1,69 @@
+package io.katharsis.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of operations, defined as comma separated <i>operation=weight</i> pairs, e.g.
+ * <i>get=80,patch=15,post=5</i>.
+ */
+public class LoadTestMix {
+
+    private final Map<LoadTestOperation, Integer> weights;
+    private final LoadTestOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    public LoadTestMix(String definition) {
+        weights = new EnumMap<>(LoadTestOperation.class);
+        for (String pair : definition.split(",")) {
+            String[] keyValue = pair.split("=");
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + pair);
+            }
+            int weight = Integer.parseInt(keyValue[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + pair);
+            }
+            if (weight > 0) {
+                weights.put(LoadTestOperation.fromKey(keyValue[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty mix: " + definition);
+        }
+
+        operations = new LoadTestOperation[weights.size()];
+        cumulativeWeights = new int[weights.size()];
+        int index = 0;
+        int total = 0;
+        for (Map.Entry<LoadTestOperation, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            operations[index] = entry.getKey();
+            cumulativeWeights[index] = total;
+            index++;
+        }
+    }
+
+    public LoadTestOperation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<LoadTestOperation, Integer> entry : weights.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(entry.getKey().getKey()).append('=').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package io.katharsis.loadtest;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Operations mixed by {@link LoadTest}, named by the keys used in a mix definition.
+ */
+public enum LoadTestOperation {
+
+    GET("get") {
+        @Override
+        public int execute(LoadTestClient client, Random random) throws IOException {
+            return client.getTasks(random);
+        }
+    },
+    PATCH("patch") {
+        @Override
+        public int execute(LoadTestClient client, Random random) throws IOException {
+            return client.patchTask(random);
+        }
+    },
+    POST("post") {
+        @Override
+        public int execute(LoadTestClient client, Random random) throws IOException {
+            return client.postTasks(random);
+        }
+    };
+
+    private final String key;
+
+    LoadTestOperation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param client client used by the current thread
+     * @param random random generator used by the current thread
+     * @return HTTP status of the operation
+     * @throws IOException on connection failure
+     */
+    public abstract int execute(LoadTestClient client, Random random) throws IOException;
+
+    public static LoadTestOperation fromKey(String key) {
+        for (LoadTestOperation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
@@ -0,0 +1,113 @@
+package io.katharsis.loadtest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Results of a load test run: latency percentiles and throughput of each operation and bytes allocated by the server
+ * per request. A report can be stored as a baseline and compared with results of later runs.
+ */
+public class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    private final Map<String, Double> metrics = new TreeMap<>();
+
+    public LoadTestReport() {
+    }
+
+    /**
+     * @param latencies      latencies of each operation
+     * @param durationNanos  duration of a measured run
+     * @param requests       number of requests handled by the server
+     * @param allocatedBytes bytes allocated by the server, negative if not measured
+     */
+    public LoadTestReport(Map<LoadTestOperation, LatencyRecorder> latencies, long durationNanos, long requests,
+                          long allocatedBytes) {
+        double seconds = durationNanos / 1e9;
+        int total = 0;
+        for (Map.Entry<LoadTestOperation, LatencyRecorder> entry : latencies.entrySet()) {
+            String prefix = entry.getKey().getKey() + ".";
+            LatencyRecorder recorder = entry.getValue();
+            total += recorder.getCount();
+            metrics.put(prefix + "count", (double) recorder.getCount());
+            metrics.put(prefix + "errors", (double) recorder.getErrors());
+            metrics.put(prefix + "throughput", recorder.getCount() / seconds);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                metrics.put(prefix + PERCENTILE_NAMES[i] + ".ms", recorder.getPercentile(PERCENTILES[i]) / 1e6);
+            }
+        }
+        metrics.put("total.throughput", total / seconds);
+        metrics.put("server.requests", (double) requests);
+        if (allocatedBytes >= 0 && requests > 0) {
+            metrics.put("server.allocatedPerRequest.bytes", (double) allocatedBytes / requests);
+        }
+    }
+
+    public Double getMetric(String name) {
+        return metrics.get(name);
+    }
+
+    public void print(PrintStream out) {
+        for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+            out.println(String.format("%-36s %14.3f", entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Prints metrics of this report next to a baseline with relative change.
+     *
+     * @param baseline report of an earlier run
+     * @param out      target stream
+     */
+    public void printComparison(LoadTestReport baseline, PrintStream out) {
+        out.println(String.format("%-36s %14s %14s %9s", "metric", "baseline", "current", "change"));
+        for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+            Double baselineValue = baseline.metrics.get(entry.getKey());
+            if (baselineValue == null) {
+                out.println(String.format("%-36s %14s %14.3f", entry.getKey(), "-", entry.getValue()));
+            } else if (baselineValue == 0) {
+                out.println(String.format("%-36s %14.3f %14.3f", entry.getKey(), baselineValue, entry.getValue()));
+            } else {
+                double change = (entry.getValue() - baselineValue) / baselineValue * 100;
+                out.println(String.format("%-36s %14.3f %14.3f %+8.1f%%", entry.getKey(), baselineValue,
+                    entry.getValue(), change));
+            }
+        }
+    }
+
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+            properties.setProperty(entry.getKey(), Double.toString(entry.getValue()));
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            properties.store(outputStream, "Katharsis load test baseline");
+        }
+    }
+
+    public static LoadTestReport load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(file)) {
+            properties.load(inputStream);
+        }
+        LoadTestReport report = new LoadTestReport();
+        for (String name : properties.stringPropertyNames()) {
+            report.metrics.put(name, Double.parseDouble(properties.getProperty(name)));
+        }
+        return report;
+    }
+}
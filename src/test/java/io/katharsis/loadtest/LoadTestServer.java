@@ -0,0 +1,209 @@
+package io.katharsis.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.katharsis.dispatcher.RequestDispatcher;
+import io.katharsis.dispatcher.ResponseCompression;
+import io.katharsis.dispatcher.ResponseWriter;
+import io.katharsis.errorhandling.mapper.ExceptionMapperRegistryBuilder;
+import io.katharsis.jackson.JsonApiModuleBuilder;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.repository.mock.NewInstanceRepositoryMethodParameterProvider;
+import io.katharsis.request.dto.RequestBody;
+import io.katharsis.request.path.JsonPath;
+import io.katharsis.request.path.PathBuilder;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.response.BaseResponseContext;
+import io.katharsis.utils.parser.TypeParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves {@link LoadTestDomain} through {@link RequestDispatcher} using the HTTP server shipped with the JDK. Requests
+ * are handled the same way a servlet or JAX-RS integration does it: the path and query are parsed, the body is
+ * deserialized, the request is dispatched and the response is streamed with {@link ResponseWriter}.
+ * <p>
+ * <i>PATCH</i> can't be sent by {@link java.net.HttpURLConnection}, so the method can be overridden with
+ * <i>X-HTTP-Method-Override</i> header. Bytes allocated by handler threads are accumulated if the JVM supports thread
+ * allocation accounting.
+ */
+public class LoadTestServer {
+
+    public static final String CONTEXT_PATH = "/api";
+    public static final String METHOD_OVERRIDE_HEADER = "X-HTTP-Method-Override";
+    private static final String CONTENT_TYPE = "application/vnd.api+json";
+
+    private final ObjectMapper objectMapper;
+    private final ResponseWriter responseWriter;
+    private final PathBuilder pathBuilder;
+    private final QueryParamsBuilder queryParamsBuilder;
+    private final RequestDispatcher requestDispatcher;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong handledRequests = new AtomicLong();
+
+    public LoadTestServer(LoadTestDomain domain, int port, int threads) throws IOException {
+        ResourceRegistry resourceRegistry = new ResourceRegistryBuilder(domain,
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()))
+            .build(domain, "http://localhost" + CONTEXT_PATH);
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonApiModuleBuilder().build(resourceRegistry));
+        responseWriter = new ResponseWriter(objectMapper);
+        pathBuilder = new PathBuilder(resourceRegistry);
+        queryParamsBuilder = new QueryParamsBuilder(new DefaultQueryParamsParser());
+        requestDispatcher = new RequestDispatcher(
+            new ExceptionMapperRegistryBuilder().build(LoadTestServer.class.getPackage().getName()),
+            new NewInstanceRepositoryMethodParameterProvider(), resourceRegistry, new TypeParser(), objectMapper,
+            queryParamsBuilder);
+        threadMXBean = findThreadMXBean();
+
+        executor = Executors.newFixedThreadPool(threads);
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        httpServer.createContext(CONTEXT_PATH, new DispatchingHandler());
+        httpServer.setExecutor(executor);
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+            return allocationBean;
+        }
+        return null;
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return base URL of the API, e.g. <i>http://localhost:8080/api</i>
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + httpServer.getAddress().getPort() + CONTEXT_PATH;
+    }
+
+    /**
+     * @return whether {@link #getAllocatedBytes()} is measured
+     */
+    public boolean isAllocationMeasured() {
+        return threadMXBean != null;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    public long getHandledRequests() {
+        return handledRequests.get();
+    }
+
+    /**
+     * Resets counters, used to exclude a warmup from measurements.
+     */
+    public void resetCounters() {
+        allocatedBytes.set(0);
+        handledRequests.set(0);
+    }
+
+    private class DispatchingHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threadMXBean != null ? threadMXBean.getThreadAllocatedBytes(threadId) : 0;
+            try {
+                dispatch(exchange);
+            } catch (RuntimeException e) {
+                if (exchange.getResponseCode() == -1) {
+                    exchange.sendResponseHeaders(500, -1);
+                }
+            } finally {
+                exchange.close();
+                if (threadMXBean != null) {
+                    allocatedBytes.addAndGet(threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+                }
+                handledRequests.incrementAndGet();
+            }
+        }
+
+        private void dispatch(HttpExchange exchange) throws IOException {
+            String method = exchange.getRequestHeaders().getFirst(METHOD_OVERRIDE_HEADER);
+            if (method == null) {
+                method = exchange.getRequestMethod();
+            }
+            String path = exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length());
+            JsonPath jsonPath = pathBuilder.buildPath(path);
+            QueryParams queryParams =
+                queryParamsBuilder.buildQueryParams(parseQuery(exchange.getRequestURI().getRawQuery()));
+            RequestBody requestBody = readBody(exchange.getRequestBody());
+
+            BaseResponseContext response = requestDispatcher.dispatchRequest(jsonPath, method, queryParams, requestBody);
+            if (response == null) {
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            ResponseCompression compression =
+                ResponseCompression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (compression.getContentEncoding() != null) {
+                exchange.getResponseHeaders().set("Content-Encoding", compression.getContentEncoding());
+            }
+            exchange.sendResponseHeaders(response.getHttpStatus(), 0);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                responseWriter.write(response, outputStream, compression);
+            }
+        }
+
+        private Map<String, Set<String>> parseQuery(String rawQuery) throws IOException {
+            if (rawQuery == null || rawQuery.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            return QueryParamsBuilder.splitQuery(new URL("http://localhost/?" + rawQuery));
+        }
+
+        private RequestBody readBody(InputStream inputStream) throws IOException {
+            PushbackInputStream pushbackStream = new PushbackInputStream(inputStream);
+            int first = pushbackStream.read();
+            if (first == -1) {
+                return null;
+            }
+            pushbackStream.unread(first);
+            return objectMapper.readValue(pushbackStream, RequestBody.class);
+        }
+    }
+}
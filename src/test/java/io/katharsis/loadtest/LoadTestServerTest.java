@@ -0,0 +1,71 @@
+package io.katharsis.loadtest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadTestServerTest {
+
+    private LoadTestDomain domain;
+    private LoadTestServer server;
+    private LoadTestClient client;
+
+    @Before
+    public void prepare() throws Exception {
+        domain = new LoadTestDomain(5, 50, 5);
+        server = new LoadTestServer(domain, 0, 2);
+        server.start();
+        client = new LoadTestClient(server.getBaseUrl(), domain, 10, 2);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void onEachOperationShouldReturnSuccessfulStatus() throws Exception {
+        // GIVEN
+        Random random = new Random(0);
+
+        // WHEN
+        int getStatus = client.getTasks(random);
+        int patchStatus = client.patchTask(random);
+        int postStatus = client.postTasks(random);
+
+        // THEN
+        assertThat(getStatus).isEqualTo(200);
+        assertThat(patchStatus).isEqualTo(200);
+        assertThat(postStatus).isEqualTo(201);
+        assertThat(server.getHandledRequests()).isEqualTo(4);
+    }
+
+    @Test
+    public void onShortRunShouldReportOperationsAndCompareWithBaseline() throws Exception {
+        // GIVEN
+        LoadTest sut = new LoadTest(client, new LoadTestMix("get=2,patch=1,post=1"), 2);
+        File baselineFile = File.createTempFile("load-test-baseline", ".properties");
+        baselineFile.deleteOnExit();
+
+        // WHEN
+        Map<LoadTestOperation, LatencyRecorder> latencies = sut.run(TimeUnit.MILLISECONDS.toNanos(300));
+        LoadTestReport report = new LoadTestReport(latencies, TimeUnit.MILLISECONDS.toNanos(300),
+            server.getHandledRequests(), server.getAllocatedBytes());
+        report.save(baselineFile);
+
+        // THEN
+        assertThat(report.getMetric("get.count")).isGreaterThan(0);
+        assertThat(report.getMetric("get.errors")).isEqualTo(0);
+        assertThat(report.getMetric("patch.errors")).isEqualTo(0);
+        assertThat(report.getMetric("get.p999.ms")).isGreaterThanOrEqualTo(report.getMetric("get.p50.ms"));
+        assertThat(LoadTestReport.load(baselineFile).getMetric("total.throughput"))
+            .isEqualTo(report.getMetric("total.throughput"));
+    }
+}
@@ -0,0 +1,101 @@
+package io.katharsis.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.katharsis.dispatcher.RequestDispatcher;
+import io.katharsis.dispatcher.controller.BaseControllerTest;
+import io.katharsis.dispatcher.controller.collection.CollectionGet;
+import io.katharsis.errorhandling.mapper.ExceptionMapperLookup;
+import io.katharsis.errorhandling.mapper.ExceptionMapperRegistryBuilder;
+import io.katharsis.errorhandling.mapper.JsonApiExceptionMapper;
+import io.katharsis.jackson.JsonApiModuleBuilder;
+import io.katharsis.request.path.JsonPath;
+import io.katharsis.request.path.PathBuilder;
+import io.katharsis.response.BaseResponseContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AggregateMetricsListenerTest extends BaseControllerTest {
+
+    private AggregateMetricsListener sut;
+
+    @Before
+    public void before() {
+        sut = new AggregateMetricsListener();
+    }
+
+    @After
+    public void after() {
+        KatharsisMetrics.close();
+    }
+
+    @Test
+    public void onStageShouldAggregateDurations() {
+        // WHEN
+        sut.onStage(MetricsStage.DISPATCH, "tasks", "CollectionGet", "GET", 10);
+        sut.onStage(MetricsStage.DISPATCH, "tasks", "CollectionGet", "GET", 30);
+
+        // THEN
+        TimerStatistics timer = sut.getTimers().get("DISPATCH{resourceType=tasks,controller=CollectionGet,httpMethod=GET}");
+        assertThat(timer.getCount()).isEqualTo(2);
+        assertThat(timer.getTotalNanos()).isEqualTo(40);
+        assertThat(timer.getMaxNanos()).isEqualTo(30);
+        assertThat(timer.getMeanNanos()).isEqualTo(20);
+    }
+
+    @Test
+    public void onCollectionRequestShouldRecordPipelineStages() throws Exception {
+        // GIVEN
+        JsonPath jsonPath = new PathBuilder(resourceRegistry, sut).buildPath("/tasks");
+        CollectionGet collectionGet = new CollectionGet(resourceRegistry, parameterProvider, typeParser,
+            includeFieldSetter, queryParamsBuilder);
+        ObjectMapper measuredObjectMapper = new ObjectMapper();
+        measuredObjectMapper.registerModule(new JsonApiModuleBuilder().build(resourceRegistry, null, sut));
+
+        // WHEN
+        KatharsisMetrics.open(sut);
+        BaseResponseContext response = collectionGet.handle(jsonPath, REQUEST_PARAMS, null);
+        measuredObjectMapper.writeValueAsString(response);
+
+        // THEN
+        assertThat(sut.getTimers()).containsKeys("PATH_PARSING{resourceType=tasks}",
+            "REPOSITORY{resourceType=tasks}", "INCLUDE_RESOLUTION{resourceType=tasks}", "SERIALIZATION{resourceType=tasks}");
+        assertThat(sut.getCounters()).containsEntry("repository.calls{resourceType=tasks,method=findAll}", 1L);
+        assertThat(sut.getCounters()).containsKey("response.resources{resourceType=tasks}");
+    }
+
+    @Test
+    public void onThreadOutsideOfRequestShouldNotStartMeasurements() {
+        // WHEN
+        long start = KatharsisMetrics.start();
+
+        // THEN
+        assertThat(KatharsisMetrics.isStarted(start)).isFalse();
+        assertThat(KatharsisMetrics.getListener()).isSameAs(NoOpMetricsListener.INSTANCE);
+    }
+
+    @Test
+    public void onDispatchedRequestShouldReportToListenerOfDispatcher() {
+        // GIVEN
+        RequestDispatcher requestDispatcher = new RequestDispatcher(
+            new ExceptionMapperRegistryBuilder().build(new ExceptionMapperLookup() {
+                @Override
+                public Set<JsonApiExceptionMapper> getExceptionMappers() {
+                    return Collections.emptySet();
+                }
+            }), parameterProvider, resourceRegistry, typeParser, objectMapper, queryParamsBuilder, null, sut);
+
+        // WHEN
+        requestDispatcher.dispatchRequest(pathBuilder.buildPath("/tasks"), "GET", REQUEST_PARAMS, null);
+
+        // THEN
+        assertThat(sut.getCounters()).containsEntry("requests{resourceType=tasks,httpMethod=GET,successful=true}", 1L);
+        assertThat(sut.getCounters()).containsEntry("repository.calls{resourceType=tasks,method=findAll}", 1L);
+        assertThat(KatharsisMetrics.getListener()).isSameAs(NoOpMetricsListener.INSTANCE);
+    }
+}
@@ -0,0 +1,114 @@
+package io.katharsis.metrics;
+
+import io.katharsis.dispatcher.RequestDispatcher;
+import io.katharsis.dispatcher.controller.BaseControllerTest;
+import io.katharsis.errorhandling.mapper.ExceptionMapperLookup;
+import io.katharsis.errorhandling.mapper.ExceptionMapperRegistryBuilder;
+import io.katharsis.errorhandling.mapper.JsonApiExceptionMapper;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.resource.mock.repository.TaskRepository;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryCallBudgetListenerTest extends BaseControllerTest {
+
+    @Test
+    public void onRepeatedSingleResourceCallsShouldReportNPlusOneCandidate() {
+        // GIVEN
+        RepositoryCallBudgetListener sut = new RepositoryCallBudgetListener(10, 3, false);
+        sut.onRequestStarted("tasks", "GET");
+
+        // WHEN
+        sut.onRepositoryCall("tasks", "findAll", 1);
+        for (int i = 0; i < 3; i++) {
+            sut.onRepositoryCall("tasks", "findOneTarget", 1);
+        }
+
+        // THEN
+        assertThat(sut.getCurrentAccounting().getCallCount()).isEqualTo(4);
+        assertThat(sut.getCurrentAccounting().getNPlusOneCandidates(3)).containsOnlyKeys("tasks.findOneTarget");
+        sut.onRequestCompleted("tasks", "GET", true);
+        assertThat(sut.getCurrentAccounting()).isNull();
+    }
+
+    @Test(expected = RepositoryCallBudgetExceededException.class)
+    public void onStrictModeShouldFailRequestExceedingBudget() {
+        // GIVEN
+        RepositoryCallBudgetListener sut = new RepositoryCallBudgetListener(1, 2, true);
+        sut.onRequestStarted("tasks", "GET");
+        sut.onRepositoryCall("tasks", "findAll", 1);
+        sut.onRepositoryCall("tasks", "findAll", 1);
+
+        // WHEN
+        sut.onRequestHandled("tasks", "GET");
+    }
+
+    @Test
+    public void onStrictModeShouldNotThrowWhenRequestCompletes() {
+        // GIVEN
+        RepositoryCallBudgetListener sut = new RepositoryCallBudgetListener(1, 2, true);
+        sut.onRequestStarted("tasks", "GET");
+        sut.onRepositoryCall("tasks", "findAll", 1);
+        sut.onRepositoryCall("tasks", "findAll", 1);
+
+        // WHEN
+        sut.onRequestCompleted("tasks", "GET", true);
+
+        // THEN
+        assertThat(sut.getCurrentAccounting()).isNull();
+    }
+
+    @Test
+    public void onNestedRequestShouldAccountCallsOfOuterRequest() {
+        // GIVEN
+        RepositoryCallBudgetListener sut = new RepositoryCallBudgetListener(10, 3, true);
+        sut.onRequestStarted("tasks", "POST");
+        sut.onRepositoryCall("tasks", "save", 1);
+
+        // WHEN
+        sut.onRequestStarted("projects", "GET");
+        sut.onRepositoryCall("projects", "findOne", 1);
+        sut.onRequestHandled("projects", "GET");
+        sut.onRequestCompleted("projects", "GET", true);
+
+        // THEN
+        assertThat(sut.getCurrentAccounting().getCalls()).containsOnlyKeys("tasks.save", "projects.findOne");
+        sut.onRequestCompleted("tasks", "POST", true);
+        assertThat(sut.getCurrentAccounting()).isNull();
+    }
+
+    @Test
+    public void onFailedRequestShouldNotThrowBudgetException() {
+        // GIVEN
+        RepositoryCallBudgetListener sut = new RepositoryCallBudgetListener(0, 2, true);
+        sut.onRequestStarted("tasks", "GET");
+        sut.onRepositoryCall("tasks", "findAll", 1);
+
+        // WHEN
+        sut.onRequestCompleted("tasks", "GET", false);
+
+        // THEN
+        assertThat(sut.getCurrentAccounting()).isNull();
+    }
+
+    @Test(expected = RepositoryCallBudgetExceededException.class)
+    public void onDispatchedRequestShouldAccountRepositoryCalls() {
+        // GIVEN
+        new TaskRepository().save(new Task().setId(1L));
+        RequestDispatcher requestDispatcher = new RequestDispatcher(
+            new ExceptionMapperRegistryBuilder().build(new ExceptionMapperLookup() {
+                @Override
+                public Set<JsonApiExceptionMapper> getExceptionMappers() {
+                    return Collections.emptySet();
+                }
+            }), parameterProvider, resourceRegistry, typeParser, objectMapper, queryParamsBuilder, null,
+            new RepositoryCallBudgetListener(0, 2, true));
+
+        // WHEN
+        requestDispatcher.dispatchRequest(pathBuilder.buildPath("/tasks/1"), "GET", REQUEST_PARAMS, null);
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -21,7 +22,7 @@ public class QueryParamsBuilderTest {
 
     @Before
     public void prepare() {
-        queryParams = new HashMap<>();
+        queryParams = new LinkedHashMap<>();
         sut = new QueryParamsBuilder(new DefaultQueryParamsParser());
     }
 
@@ -208,4 +209,63 @@ public class QueryParamsBuilderTest {
             .get("special-users")
             .getParams()).containsExactly(new Inclusion("friends"), new Inclusion("foes"));
     }
+
+    @Test
+    public void onSyncParameterShouldReturnSyncToken() {
+        // GIVEN
+        queryParams.put("sync", Collections.singleton("token-1"));
+
+        // WHEN
+        QueryParams result = sut.buildQueryParams(queryParams);
+
+        // THEN
+        assertThat(result.getSyncToken()).isEqualTo("token-1");
+        assertThat(new QueryParams().getSyncToken()).isNull();
+    }
+
+    @Test
+    public void onEmptySyncParameterShouldReturnEmptySyncToken() {
+        // GIVEN
+        queryParams.put("sync", Collections.<String>singleton(null));
+
+        // WHEN
+        QueryParams result = sut.buildQueryParams(queryParams);
+
+        // THEN
+        assertThat(result.getSyncToken()).isEmpty();
+    }
+
+    @Test
+    public void onSameParametersInDifferentOrderShouldReturnEqualCanonicalForms() {
+        // GIVEN
+        queryParams.put("include[tasks]", new LinkedHashSet<>(Arrays.asList("project", "projects")));
+        queryParams.put("filter[tasks][name]", Collections.singleton("John"));
+        Map<String, Set<String>> reorderedParams = new HashMap<>();
+        reorderedParams.put("filter[tasks][name]", Collections.singleton("John"));
+        reorderedParams.put("include[tasks]", new LinkedHashSet<>(Arrays.asList("projects", "project")));
+
+        // WHEN
+        String result = sut.buildQueryParams(queryParams).getCanonicalForm();
+
+        // THEN
+        assertThat(result).isEqualTo(sut.buildQueryParams(reorderedParams).getCanonicalForm());
+        assertThat(result).isNotEqualTo(new QueryParams().getCanonicalForm());
+    }
+
+    @Test
+    public void onSortingInDifferentOrderShouldKeepOrderInCanonicalForm() {
+        // GIVEN
+        queryParams.put("sort[tasks][name]", Collections.singleton("asc"));
+        queryParams.put("sort[tasks][id]", Collections.singleton("desc"));
+        Map<String, Set<String>> reorderedParams = new LinkedHashMap<>();
+        reorderedParams.put("sort[tasks][id]", Collections.singleton("desc"));
+        reorderedParams.put("sort[tasks][name]", Collections.singleton("asc"));
+
+        // WHEN
+        QueryParams result = sut.buildQueryParams(queryParams);
+
+        // THEN
+        assertThat(result.getSorting().getParams().get("tasks").getParams().keySet()).containsExactly("name", "id");
+        assertThat(result.getCanonicalForm()).isNotEqualTo(sut.buildQueryParams(reorderedParams).getCanonicalForm());
+    }
 }
@@ -0,0 +1,100 @@
+package io.katharsis.queryParams;
+
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryParamsProjectionTest {
+
+    private Map<String, Set<String>> queryParams;
+    private ResourceInformation resourceInformation;
+    private QueryParamsBuilder sut;
+
+    @Before
+    public void prepare() {
+        queryParams = new HashMap<>();
+        resourceInformation = new ResourceInformationBuilder(new ResourceFieldNameTransformer()).build(Task.class);
+        sut = new QueryParamsBuilder(new DefaultQueryParamsParser());
+    }
+
+    @Test
+    public void onNoFieldsShouldProjectAllFields() {
+        // WHEN
+        Set<String> result = projection(sut.buildQueryParams(queryParams));
+
+        // THEN
+        assertThat(result).contains("id", "name", "project", "projects", "otherTasks");
+        assertThat(result).doesNotContain("description");
+    }
+
+    @Test
+    public void onFieldsWithLazyAttributeShouldProjectIt() {
+        // GIVEN
+        queryParams.put("fields[tasks]", new HashSet<>(Arrays.asList("name", "description")));
+
+        // WHEN
+        Set<String> result = projection(sut.buildQueryParams(queryParams));
+
+        // THEN
+        assertThat(result).containsOnly("id", "name", "description");
+    }
+
+    @Test
+    public void onFieldsShouldProjectIdAndRequestedFields() {
+        // GIVEN
+        queryParams.put("fields[tasks]", new HashSet<>(Arrays.asList("name", "project")));
+
+        // WHEN
+        Set<String> result = projection(sut.buildQueryParams(queryParams));
+
+        // THEN
+        assertThat(result).containsOnly("id", "name", "project");
+    }
+
+    @Test
+    public void onFieldsWithInclusionShouldProjectIncludedRelationship() {
+        // GIVEN
+        queryParams.put("fields[tasks]", Collections.singleton("name"));
+        queryParams.put("include[tasks]", Collections.singleton("projects.tasks"));
+
+        // WHEN
+        Set<String> result = projection(sut.buildQueryParams(queryParams));
+
+        // THEN
+        assertThat(result).containsOnly("id", "name", "projects");
+    }
+
+    @Test
+    public void onFieldsForOtherTypeShouldProjectIdOnly() {
+        // GIVEN
+        queryParams.put("fields[projects]", Collections.singleton("name"));
+
+        // WHEN
+        QueryParams result = sut.buildQueryParams(queryParams);
+
+        // THEN
+        assertThat(result.getIncludedFieldNames("tasks").get()).isEmpty();
+        assertThat(projection(result)).containsOnly("id");
+    }
+
+    private Set<String> projection(QueryParams queryParams) {
+        Set<String> names = new HashSet<>();
+        for (ResourceField field : queryParams.getProjection(resourceInformation, "tasks")) {
+            names.add(field.getJsonName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,104 @@
+package io.katharsis.queryParams.cost;
+
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.request.path.PathBuilder;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilderTest;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryCostEstimatorTest {
+
+    private PathBuilder pathBuilder;
+    private QueryCostEstimator sut;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        ResourceRegistry resourceRegistry = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL);
+        pathBuilder = new PathBuilder(resourceRegistry);
+        sut = new QueryCostEstimator(resourceRegistry, 50, 10);
+    }
+
+    @Test
+    public void onPagedCollectionShouldCountIncludedByDefaultRelationship() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("page[limit]", "10");
+
+        // WHEN
+        long result = sut.estimate(pathBuilder.buildPath("/tasks"), queryParams);
+
+        // THEN
+        assertThat(result).isEqualTo(10 + 10);
+    }
+
+    @Test
+    public void onIncludedToManyRelationshipShouldUseCardinalityHint() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("include[tasks]", "projects");
+
+        // WHEN
+        long result = sut.estimate(pathBuilder.buildPath("/tasks"), queryParams);
+
+        // THEN
+        assertThat(result).isEqualTo(50 + 50 * 3 + 50);
+    }
+
+    @Test
+    public void onRelationshipWithoutHintShouldUseDefaultCardinality() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("include[tasks]", "includedProjects");
+
+        // WHEN
+        long result = sut.estimate(pathBuilder.buildPath("/tasks/1,2"), queryParams);
+
+        // THEN
+        assertThat(result).isEqualTo(2 + 2 * 10 + 2);
+    }
+
+    @Test
+    public void onFieldPathShouldMultiplySourceIdsByCardinality() {
+        // GIVEN
+        QueryParams queryParams = new QueryParams();
+
+        // WHEN
+        long result = sut.estimate(pathBuilder.buildPath("/tasks/1,2/projects"), queryParams);
+
+        // THEN
+        assertThat(result).isEqualTo(2 * 3);
+    }
+
+    @Test
+    public void onPagedFieldPathShouldLimitRelatedResources() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("page[limit]", "4");
+
+        // WHEN
+        long result = sut.estimate(pathBuilder.buildPath("/tasks/1,2/projects"), queryParams);
+
+        // THEN
+        assertThat(result).isEqualTo(4);
+    }
+
+    private static QueryParams buildQueryParams(String key, String value) {
+        Map<String, Set<String>> params = new HashMap<>();
+        params.put(key, Collections.singleton(value));
+        return new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params);
+    }
+}
@@ -0,0 +1,96 @@
+package io.katharsis.queryParams.cost;
+
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.request.path.PathBuilder;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.include.IncludeLookupSetter;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilderTest;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class QueryCostLimiterTest {
+
+    private ResourceRegistry resourceRegistry;
+    private PathBuilder pathBuilder;
+    private QueryCostEstimator estimator;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        resourceRegistry = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL);
+        pathBuilder = new PathBuilder(resourceRegistry);
+        estimator = new QueryCostEstimator(resourceRegistry, 50, 10);
+    }
+
+    @Test
+    public void onRequestWithinBudgetShouldAdmitRequest() {
+        // GIVEN
+        QueryCostLimiter sut = new QueryCostLimiter(estimator, 2, QueryCostLimiter.UNLIMITED);
+
+        // WHEN
+        sut.admit(pathBuilder.buildPath("/tasks/1"), new QueryParams());
+    }
+
+    @Test(expected = QueryCostExceededException.class)
+    public void onRequestOverBudgetShouldThrowException() {
+        // GIVEN
+        QueryCostLimiter sut = new QueryCostLimiter(estimator, 100, QueryCostLimiter.UNLIMITED);
+        QueryParams queryParams = buildQueryParams("include[tasks]", "projects");
+
+        // WHEN
+        sut.admit(pathBuilder.buildPath("/tasks"), queryParams);
+    }
+
+    @Test(expected = QueryCostExceededException.class)
+    public void onTooManyIncludedResourcesShouldThrowException() {
+        // GIVEN
+        IncludeLookupSetter sut = new IncludeLookupSetter(resourceRegistry, 2);
+        Task task = new Task().setId(1L);
+        task.setProjects(Arrays.asList(new Project(), new Project(), new Project()));
+        QueryParams queryParams = buildQueryParams("include[tasks]", "projects");
+
+        // WHEN
+        sut.setIncludedElements(resourceRegistry.getEntry(Task.class), "tasks", task, queryParams, null);
+    }
+
+    @Test
+    public void onOperationsWithinBudgetShouldAdmitRequest() {
+        // GIVEN
+        QueryCostLimiter sut = new QueryCostLimiter(estimator, 2, QueryCostLimiter.UNLIMITED);
+
+        // WHEN
+        sut.admitOperations(2);
+    }
+
+    @Test(expected = QueryCostExceededException.class)
+    public void onTooManyOperationsShouldThrowException() {
+        // GIVEN
+        QueryCostLimiter sut = new QueryCostLimiter(estimator, 2, QueryCostLimiter.UNLIMITED);
+
+        // WHEN
+        sut.admitOperations(3);
+    }
+
+    private static QueryParams buildQueryParams(String key, String value) {
+        Map<String, Set<String>> params = new HashMap<>();
+        params.put(key, Collections.singleton(value));
+        return new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params);
+    }
+}
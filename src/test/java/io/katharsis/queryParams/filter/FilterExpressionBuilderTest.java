@@ -0,0 +1,162 @@
+package io.katharsis.queryParams.filter;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.params.FilterParams;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilderTest;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import io.katharsis.utils.parser.TypeParser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FilterExpressionBuilderTest {
+
+    private FilterExpressionBuilder sut;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        ResourceRegistry resourceRegistry = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL);
+        sut = new FilterExpressionBuilder(resourceRegistry, new TypeParser());
+    }
+
+    @Test
+    public void onSingleValueShouldBuildEqualsExpression() {
+        // WHEN
+        PropertyExpression result = buildSingle("name", Collections.singleton("John"));
+
+        // THEN
+        assertThat(result.getOperator()).isEqualTo(FilterOperator.eq);
+        assertThat(result.getField().getUnderlyingName()).isEqualTo("name");
+        assertThat(result.getValue()).isEqualTo("John");
+    }
+
+    @Test
+    public void onMultipleValuesShouldBuildInExpression() {
+        // WHEN
+        PropertyExpression result = buildSingle("id", new LinkedHashSet<>(Arrays.asList("1", "2")));
+
+        // THEN
+        assertThat(result.getOperator()).isEqualTo(FilterOperator.in);
+        assertThat(result.getValues()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void onTextOperatorShouldKeepRawValue() {
+        // WHEN
+        PropertyExpression result = buildSingle("name.$startsWith", Collections.singleton("Jo"));
+
+        // THEN
+        assertThat(result.getOperator()).isEqualTo(FilterOperator.startsWith);
+        assertThat(result.getValue()).isEqualTo("Jo");
+    }
+
+    @Test
+    public void onRelationshipPathShouldResolveRelatedAttribute() {
+        // WHEN
+        PropertyExpression result = buildSingle("project.name", Collections.singleton("Katharsis"));
+
+        // THEN
+        assertThat(result.getPath()).hasSize(2);
+        assertThat(result.getUnderlyingPath()).isEqualTo("project.name");
+    }
+
+    @Test
+    public void onBracketedPathShouldResolveRelatedAttribute() {
+        // WHEN
+        PropertyExpression result = buildSingle("[project][name]", Collections.singleton("Katharsis"));
+
+        // THEN
+        assertThat(result.getUnderlyingPath()).isEqualTo("project.name");
+    }
+
+    @Test
+    public void onEmptyPathElementShouldSkipIt() {
+        // WHEN
+        PropertyExpression result = buildSingle("name..$startsWith", Collections.singleton("Jo"));
+
+        // THEN
+        assertThat(result.getUnderlyingPath()).isEqualTo("name");
+        assertThat(result.getOperator()).isEqualTo(FilterOperator.startsWith);
+    }
+
+    @Test
+    public void onRelationshipShouldParseValueAsRelatedId() {
+        // WHEN
+        PropertyExpression result = buildSingle("project", Collections.singleton("5"));
+
+        // THEN
+        assertThat(result.getValue()).isEqualTo(5L);
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onUnknownPropertyShouldThrowException() {
+        buildSingle("unknown", Collections.singleton("John"));
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onUnknownOperatorShouldThrowException() {
+        buildSingle("name.$unknown", Collections.singleton("John"));
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onInvalidValueShouldThrowException() {
+        buildSingle("id", Collections.singleton("notANumber"));
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onUnknownResourceTypeShouldThrowException() {
+        sut.build("unknown", new FilterParams(Collections.<String, Set<String>>emptyMap()));
+    }
+
+    @Test
+    public void onVisitorShouldDispatchToExpressionType() {
+        // GIVEN
+        Map<String, Set<String>> params = new HashMap<>();
+        params.put("name", Collections.singleton("John"));
+        params.put("id", Collections.singleton("1"));
+        FilterExpression expression = sut.build("tasks", new FilterParams(params));
+
+        // WHEN
+        Integer result = expression.accept(new FilterVisitor<Integer>() {
+            @Override
+            public Integer visitAnd(AndExpression expression) {
+                int count = 0;
+                for (FilterExpression child : expression.getExpressions()) {
+                    count += child.accept(this);
+                }
+                return count;
+            }
+
+            @Override
+            public Integer visitProperty(PropertyExpression expression) {
+                return 1;
+            }
+        });
+
+        // THEN
+        assertThat(result).isEqualTo(2);
+    }
+
+    private PropertyExpression buildSingle(String path, Set<String> values) {
+        FilterExpression result = sut.build("tasks",
+            new FilterParams(Collections.singletonMap(path, values)));
+        assertThat(result).isInstanceOf(AndExpression.class);
+        return (PropertyExpression) ((AndExpression) result).getExpressions().get(0);
+    }
+}
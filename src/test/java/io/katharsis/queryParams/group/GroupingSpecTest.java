@@ -0,0 +1,121 @@
+package io.katharsis.queryParams.group;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilderTest;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GroupingSpecTest {
+
+    private ResourceInformation resourceInformation;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        resourceInformation = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL)
+            .getEntry("tasks")
+            .getResourceInformation();
+    }
+
+    @Test
+    public void onGroupParamsShouldCompileKeysAndAggregates() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[tasks]", "name,$sum(id),$max(id)");
+
+        // WHEN
+        GroupingSpec sut = GroupingSpec.build(resourceInformation, "tasks", queryParams);
+
+        // THEN
+        assertThat(sut.getKeyFields()).hasSize(1);
+        assertThat(sut.getKeyFields().get(0).getJsonName()).isEqualTo("name");
+        assertThat(sut.getAggregates()).hasSize(2);
+        assertThat(sut.getAggregates().get(0).getFunction()).isEqualTo(AggregateFunction.SUM);
+        assertThat(sut.getAggregates().get(0).getName()).isEqualTo("sum(id)");
+        assertThat(sut.getAggregates().get(1).getName()).isEqualTo("max(id)");
+    }
+
+    @Test
+    public void onGroupParamsOfOtherTypeShouldReturnNull() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[projects]", "name");
+
+        // WHEN
+        GroupingSpec sut = GroupingSpec.build(resourceInformation, "tasks", queryParams);
+
+        // THEN
+        assertThat(sut).isNull();
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onUnknownAttributeShouldThrowException() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[tasks]", "unknown");
+
+        // WHEN
+        GroupingSpec.build(resourceInformation, "tasks", queryParams);
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onUnknownFunctionShouldThrowException() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[tasks]", "$avg(id)");
+
+        // WHEN
+        GroupingSpec.build(resourceInformation, "tasks", queryParams);
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onSumOfNonNumericAttributeShouldThrowException() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[tasks]", "$sum(name)");
+
+        // WHEN
+        GroupingSpec.build(resourceInformation, "tasks", queryParams);
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onMaxOfNonComparableAttributeShouldThrowException() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[tasks]", "$max(otherTasks)");
+
+        // WHEN
+        GroupingSpec.build(resourceInformation, "tasks", queryParams);
+    }
+
+    @Test
+    public void onGroupParamsWithoutFunctionsShouldNotHaveAggregates() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("group[tasks]", "name");
+
+        // WHEN
+        boolean result = GroupingSpec.hasAggregates("tasks", queryParams);
+
+        // THEN
+        assertThat(result).isFalse();
+        assertThat(GroupingSpec.hasAggregates("tasks", buildQueryParams("group[tasks]", "name,$max(id)"))).isTrue();
+    }
+
+    private static QueryParams buildQueryParams(String key, String value) {
+        Map<String, Set<String>> params = new HashMap<>();
+        params.put(key, Collections.singleton(value));
+        return new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params);
+    }
+}
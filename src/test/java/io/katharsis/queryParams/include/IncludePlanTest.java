@@ -0,0 +1,95 @@
+package io.katharsis.queryParams.include;
+
+import io.katharsis.jackson.mock.models.ClassA;
+import io.katharsis.jackson.mock.models.ClassB;
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.resource.exception.ResourceFieldNotFoundException;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IncludePlanTest {
+
+    private ResourceRegistry resourceRegistry;
+    private ResourceInformation classAInformation;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        resourceRegistry = registryBuilder.build("io.katharsis.jackson.mock", ResourceRegistryTest.TEST_MODELS_URL);
+        classAInformation = resourceRegistry.getEntry(ClassA.class).getResourceInformation();
+    }
+
+    @Test
+    public void onSharedPrefixShouldMergeNodes() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("classBs", "classBs.classCs");
+
+        // WHEN
+        IncludePlan result = queryParams.getIncludePlan(resourceRegistry, "classAs", classAInformation);
+
+        // THEN
+        assertThat(result.getChildren()).hasSize(1);
+        IncludePlan classBs = result.getChildren().iterator().next();
+        assertThat(classBs.getField().getJsonName()).isEqualTo("classBs");
+        assertThat(classBs.getDescriptor().getTargetClass()).isEqualTo(ClassB.class);
+        assertThat(classBs.getChildren()).hasSize(1);
+        assertThat(classBs.getChildByUnderlyingName("classCs").isEmpty()).isTrue();
+        assertThat(result.includes(classBs.getField())).isTrue();
+    }
+
+    @Test
+    public void onSameRequestShouldCompilePlanOnce() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("classBs");
+
+        // WHEN
+        IncludePlan result = queryParams.getIncludePlan(resourceRegistry, "classAs", classAInformation);
+
+        // THEN
+        assertThat(queryParams.getIncludePlan(resourceRegistry, "classAs", classAInformation)).isSameAs(result);
+    }
+
+    @Test
+    public void onOtherResourceTypeShouldReturnEmptyPlan() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("classBs");
+
+        // WHEN
+        IncludePlan result = queryParams.getIncludePlan(resourceRegistry, "classBs", classAInformation);
+
+        // THEN
+        assertThat(result).isSameAs(IncludePlan.EMPTY);
+    }
+
+    @Test(expected = ResourceFieldNotFoundException.class)
+    public void onUnknownNestedRelationshipShouldThrowException() {
+        // GIVEN
+        QueryParams queryParams = buildQueryParams("classBs.unknown");
+
+        // WHEN
+        queryParams.getIncludePlan(resourceRegistry, "classAs", classAInformation);
+    }
+
+    private static QueryParams buildQueryParams(String... inclusions) {
+        Set<String> paths = new LinkedHashSet<>(Arrays.asList(inclusions));
+        return new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap("include[classAs]", paths));
+    }
+}
@@ -200,10 +200,48 @@ public class AnnotatedResourceRepositoryAdapterTest {
         verify(repo).delete(eq(1L), eq(""));
     }
 
+    @Test
+    public void onFindOneWithProvidedParameterShouldReadProvidedParameters() throws Exception {
+        // GIVEN
+        ResourceRepositoryWithFindOne repo = new ResourceRepositoryWithFindOne();
+
+        // WHEN
+        AnnotatedResourceRepositoryAdapter<Project, Long> sut = new AnnotatedResourceRepositoryAdapter<>(repo, parameterProvider);
+
+        // THEN
+        assertThat(sut.readsProvidedParameters()).isTrue();
+    }
+
+    @Test
+    public void onReadsWithQueryParamsOnlyShouldNotReadProvidedParameters() throws Exception {
+        // GIVEN
+        ResourceRepositoryWithQueryParamsReads repo = new ResourceRepositoryWithQueryParamsReads();
+
+        // WHEN
+        AnnotatedResourceRepositoryAdapter<Project, Long> sut = new AnnotatedResourceRepositoryAdapter<>(repo, parameterProvider);
+
+        // THEN
+        assertThat(sut.readsProvidedParameters()).isFalse();
+    }
+
     @JsonApiResourceRepository(Project.class)
     public static class ResourceRepositoryWithoutAnyMethods {
     }
 
+    @JsonApiResourceRepository(Project.class)
+    public static class ResourceRepositoryWithQueryParamsReads {
+
+        @JsonApiFindOne
+        public Project findOne(Long id, QueryParams queryParams) {
+            return new Project().setId(id);
+        }
+
+        @JsonApiFindAll
+        public Iterable<Project> findAll(QueryParams queryParams) {
+            return Collections.singletonList(new Project().setId(1L));
+        }
+    }
+
     @JsonApiResourceRepository(Project.class)
     public static class ResourceRepositoryWithEmptyFindOne {
 
@@ -0,0 +1,80 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.queryParams.group.Aggregate;
+import io.katharsis.queryParams.group.AggregateFunction;
+import io.katharsis.queryParams.group.AggregateGroup;
+import io.katharsis.queryParams.group.GroupingSpec;
+import io.katharsis.resource.field.ResourceField;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GroupAggregatorTest {
+
+    private static final ResourceField STATUS = new ResourceField("status", "status", String.class, String.class);
+    private static final ResourceField ESTIMATE =
+        new ResourceField("estimate", "estimate", Integer.class, Integer.class);
+
+    @Test
+    public void onResourcesShouldAggregateEachGroup() {
+        // GIVEN
+        GroupingSpec groupingSpec = new GroupingSpec(Collections.singletonList(STATUS), Arrays.asList(
+            new Aggregate(AggregateFunction.SUM, ESTIMATE),
+            new Aggregate(AggregateFunction.MIN, ESTIMATE),
+            new Aggregate(AggregateFunction.MAX, ESTIMATE)));
+        GroupAggregator sut = new GroupAggregator(groupingSpec);
+
+        // WHEN
+        List<AggregateGroup> result = sut.aggregate(Arrays.asList(
+            new Item("open", 3), new Item("done", 5), new Item("open", 1), new Item("open", null)));
+
+        // THEN
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getKey()).containsEntry("status", "open");
+        assertThat(result.get(0).getCount()).isEqualTo(3);
+        assertThat(result.get(0).getAggregates()).containsEntry("sum(estimate)", 4L)
+            .containsEntry("min(estimate)", 1)
+            .containsEntry("max(estimate)", 3);
+        assertThat(result.get(1).getKey()).containsEntry("status", "done");
+        assertThat(result.get(1).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onNoKeysShouldReturnSingleGroup() {
+        // GIVEN
+        GroupingSpec groupingSpec = new GroupingSpec(Collections.<ResourceField>emptyList(),
+            Collections.singletonList(new Aggregate(AggregateFunction.SUM, ESTIMATE)));
+        GroupAggregator sut = new GroupAggregator(groupingSpec);
+
+        // WHEN
+        List<AggregateGroup> result = sut.aggregate(Arrays.asList(new Item("open", 3), new Item("done", 5)));
+
+        // THEN
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getKey()).isEmpty();
+        assertThat(result.get(0).getCount()).isEqualTo(2);
+        assertThat(result.get(0).getAggregates()).containsEntry("sum(estimate)", 8L);
+    }
+
+    public static class Item {
+        private final String status;
+        private final Integer estimate;
+
+        Item(String status, Integer estimate) {
+            this.status = status;
+            this.estimate = estimate;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Integer getEstimate() {
+            return estimate;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryRelationshipRepositoryTest {
+
+    private InMemoryResourceRepository<Task, Long> taskRepository;
+    private InMemoryRelationshipRepository<Task, Long, Project, Long> sut;
+
+    @Before
+    public void prepare() {
+        taskRepository = new InMemoryResourceRepository<>(Task.class);
+        InMemoryResourceRepository<Project, Long> projectRepository = new InMemoryResourceRepository<>(Project.class);
+        projectRepository.save(new Project().setId(10L));
+        projectRepository.save(new Project().setId(20L));
+        taskRepository.save(new Task().setId(1L));
+        sut = new InMemoryRelationshipRepository<>(taskRepository, projectRepository);
+    }
+
+    @Test
+    public void onSetRelationShouldFindOneTarget() {
+        // WHEN
+        sut.setRelation(taskRepository.findOne(1L, null), 10L, "project");
+
+        // THEN
+        assertThat(sut.findOneTarget(1L, "project", null).getId()).isEqualTo(10L);
+    }
+
+    @Test
+    public void onAddAndRemoveRelationsShouldFindManyTargets() {
+        // GIVEN
+        sut.addRelations(taskRepository.findOne(1L, null), Arrays.asList(10L, 20L), "projects");
+
+        // WHEN
+        sut.removeRelations(taskRepository.findOne(1L, null), Collections.singletonList(10L), "projects");
+
+        // THEN
+        assertThat(sut.findManyTargets(1L, "projects", null)).extracting("id").containsExactly(20L);
+    }
+
+    @Test
+    public void onSetRelationShouldNotModifyReadInstance() {
+        // GIVEN
+        Task task = taskRepository.findOne(1L, null);
+
+        // WHEN
+        sut.setRelation(task, 10L, "project");
+
+        // THEN
+        assertThat(task.getProject()).isNull();
+        assertThat(taskRepository.findOne(1L, null)).isNotSameAs(task);
+    }
+}
@@ -0,0 +1,183 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.resource.mock.models.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryResourceRepositoryTest {
+
+    private InMemoryResourceRepository<Task, Long> sut;
+
+    @Before
+    public void prepare() {
+        sut = new InMemoryResourceRepository<>(Task.class);
+        sut.save(createTask(1L, "Capture"));
+        sut.save(createTask(2L, "Analyze"));
+        sut.save(createTask(3L, "Build"));
+        sut.save(createTask(4L, null));
+    }
+
+    @Test
+    public void onSavedResourceShouldFindOne() {
+        // WHEN
+        Task result = sut.findOne(2L, null);
+
+        // THEN
+        assertThat(result.getName()).isEqualTo("Analyze");
+    }
+
+    @Test
+    public void onDeletedResourceShouldNotFindOne() {
+        // WHEN
+        sut.delete(2L);
+
+        // THEN
+        assertThat(sut.findOne(2L, null)).isNull();
+        assertThat(sut.findAll(Arrays.asList(1L, 2L), null)).extracting("id").containsExactly(1L);
+    }
+
+    @Test
+    public void onHashIndexShouldFilterByEquality() {
+        // GIVEN
+        sut.addHashIndex("name");
+
+        // WHEN
+        Iterable<Task> result = sut.findAll(queryParams("filter[tasks][name]", "Build"));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(3L);
+    }
+
+    @Test
+    public void onSortedIndexShouldFilterByRangeAndSort() {
+        // GIVEN
+        sut.addSortedIndex("id");
+        Map<String, Set<String>> params = new HashMap<>();
+        params.put("filter[tasks][id][$ge]", Collections.singleton("2"));
+        params.put("sort[tasks][id]", Collections.singleton("desc"));
+
+        // WHEN
+        Iterable<Task> result = sut.findAll(new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(4L, 3L, 2L);
+    }
+
+    @Test
+    public void onModifiedResourceShouldReindexOnSave() {
+        // GIVEN
+        sut.addHashIndex("name");
+        Task task = sut.findOne(1L, null);
+        task.setName("Release");
+
+        // WHEN
+        sut.save(task);
+
+        // THEN
+        assertThat(sut.findAll(queryParams("filter[tasks][name]", "Capture"))).isEmpty();
+        assertThat(sut.findAll(queryParams("filter[tasks][name]", "Release"))).extracting("id").containsExactly(1L);
+    }
+
+    @Test
+    public void onNotIndexedFilterShouldScanResources() {
+        // WHEN
+        Iterable<Task> result = sut.findAll(queryParams("filter[tasks][name][$startsWith]", "B"));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(3L);
+    }
+
+    @Test
+    public void onSortingWithoutIndexShouldPlaceNullsFirst() {
+        // WHEN
+        Iterable<Task> result = sut.findAll(queryParams("sort[tasks][name]", "asc"));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(4L, 2L, 3L, 1L);
+    }
+
+    @Test
+    public void onSortedIndexShouldPlaceNullsFirst() {
+        // GIVEN
+        sut.addSortedIndex("name");
+
+        // WHEN
+        Iterable<Task> result = sut.findAll(queryParams("sort[tasks][name]", "asc"));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(4L, 2L, 3L, 1L);
+    }
+
+    @Test
+    public void onPaginationShouldReturnPage() {
+        // GIVEN
+        Map<String, Set<String>> params = new HashMap<>();
+        params.put("page[offset]", Collections.singleton("1"));
+        params.put("page[limit]", Collections.singleton("2"));
+
+        // WHEN
+        Iterable<Task> result = sut.findAll(new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void onSnapshotShouldNotSeeLaterWrites() {
+        // GIVEN
+        Iterable<Task> result = sut.findAll(null);
+
+        // WHEN
+        sut.save(createTask(5L, "Deploy"));
+
+        // THEN
+        assertThat(result).hasSize(4);
+        assertThat(sut.findAll(null)).hasSize(5);
+    }
+
+    @Test
+    public void onSaveAllShouldIndexAllResources() {
+        // GIVEN
+        sut.addHashIndex("name");
+        sut.addSortedIndex("id");
+
+        // WHEN
+        sut.saveAll(Arrays.asList(createTask(2L, "Build"), createTask(5L, "Build"), createTask(6L, "Deploy")));
+
+        // THEN
+        assertThat(sut.findAll(queryParams("filter[tasks][name]", "Build"))).extracting("id")
+            .containsOnly(2L, 3L, 5L);
+        assertThat(sut.findAll(queryParams("filter[tasks][name]", "Analyze"))).isEmpty();
+        assertThat(sut.findAll(queryParams("sort[tasks][id]", "desc"))).extracting("id")
+            .containsExactly(6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onUnknownAttributeIndexShouldThrowException() {
+        sut.addHashIndex("unknown");
+    }
+
+    private static QueryParams queryParams(String name, String value) {
+        Map<String, Set<String>> params = Collections.singletonMap(name, Collections.singleton(value));
+        return new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params);
+    }
+
+    private static Task createTask(Long id, String name) {
+        Task task = new Task().setId(id);
+        task.setName(name);
+        return task;
+    }
+}
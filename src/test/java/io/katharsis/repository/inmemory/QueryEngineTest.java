@@ -0,0 +1,184 @@
+package io.katharsis.repository.inmemory;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.queryParams.filter.FilterExpression;
+import io.katharsis.queryParams.filter.FilterOperator;
+import io.katharsis.queryParams.filter.PropertyExpression;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.ProjectData;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.utils.parser.TypeParser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryEngineTest {
+
+    private List<Task> tasks;
+    private QueryEngine<Task> sut;
+
+    @Before
+    public void prepare() {
+        tasks = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            tasks.add(createTask(id, id % 4 == 0 ? null : "task" + id % 3));
+        }
+        sut = new QueryEngine<>(Task.class);
+    }
+
+    @Test
+    public void onFilterShouldReturnMatchingResourcesInInputOrder() {
+        // GIVEN
+        QueryParams queryParams = queryParams(params("filter[tasks][name]", "task1"));
+
+        // WHEN
+        List<Task> result = sut.apply(tasks, queryParams);
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(1L, 7L, 10L, 13L, 19L);
+    }
+
+    @Test
+    public void onMultipleSortKeysShouldSortStablyWithNullsFirst() {
+        // GIVEN
+        Map<String, Set<String>> params = params("sort[tasks][name]", "asc");
+        params.put("sort[tasks][id]", Collections.singleton("desc"));
+
+        // WHEN
+        List<Task> result = sut.apply(tasks, queryParams(params));
+
+        // THEN
+        assertThat(result).hasSize(20);
+        assertThat(result).extracting("id").startsWith(20L, 16L, 12L, 8L, 4L, 18L, 15L);
+    }
+
+    @Test
+    public void onSortKeysShouldSortInOrderOfParameters() {
+        // GIVEN
+        Map<String, Set<String>> params = params("sort[tasks][id]", "desc");
+        params.put("sort[tasks][name]", Collections.singleton("asc"));
+
+        // WHEN
+        List<Task> result = sut.apply(tasks, queryParams(params));
+
+        // THEN
+        assertThat(result).extracting("id").startsWith(20L, 19L, 18L);
+    }
+
+    @Test
+    public void onPageOfSortedResourcesShouldSelectSameResourcesAsFullSort() {
+        // GIVEN
+        Map<String, Set<String>> params = params("sort[tasks][name]", "desc");
+        List<Task> sorted = sut.apply(tasks, queryParams(params));
+        params.put("page[offset]", Collections.singleton("3"));
+        params.put("page[limit]", Collections.singleton("5"));
+
+        // WHEN
+        List<Task> result = sut.apply(tasks, queryParams(params));
+
+        // THEN
+        assertThat(result).containsExactlyElementsOf(sorted.subList(3, 8));
+    }
+
+    @Test
+    public void onPageWithoutSortingShouldReturnPage() {
+        // GIVEN
+        Map<String, Set<String>> params = params("page[number]", "2");
+        params.put("page[size]", Collections.singleton("3"));
+
+        // WHEN
+        List<Task> result = sut.apply(tasks, queryParams(params));
+
+        // THEN
+        assertThat(result).extracting("id").containsExactly(4L, 5L, 6L);
+    }
+
+    @Test
+    public void onPageNumberBeyondIntegerRangeShouldReturnEmptyPage() {
+        // GIVEN
+        Map<String, Set<String>> params = params("page[number]", String.valueOf(Integer.MAX_VALUE));
+        params.put("page[size]", Collections.singleton("2"));
+
+        // WHEN
+        List<Task> result = sut.apply(tasks, queryParams(params));
+
+        // THEN
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void onLargeInputShouldProduceSameResultInParallel() {
+        // GIVEN
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        QueryEngine<Task> parallelSut = new QueryEngine<>(new ResourceInformationBuilder(
+            new ResourceFieldNameTransformer()).build(Task.class), new TypeParser(), forkJoinPool, 3);
+        Map<String, Set<String>> params = params("filter[tasks][id][$gt]", "2");
+        params.put("sort[tasks][name]", Collections.singleton("asc"));
+        params.put("page[limit]", Collections.singleton("10"));
+
+        // WHEN
+        List<Task> result = parallelSut.apply(tasks, queryParams(params));
+
+        // THEN
+        forkJoinPool.shutdown();
+        assertThat(result).containsExactlyElementsOf(sut.apply(tasks, queryParams(params)));
+        assertThat(result).hasSize(10);
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onUnknownSortedAttributeShouldThrowException() {
+        // WHEN
+        sut.apply(tasks, queryParams(params("sort[tasks][unknown]", "asc")));
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onNotComparableSortedAttributeShouldThrowException() {
+        // WHEN
+        sut.apply(tasks, queryParams(params("sort[tasks][otherTasks]", "asc")));
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onRangeFilterOnNotComparableAttributeShouldThrowException() {
+        // GIVEN
+        ResourceInformation resourceInformation = new ResourceInformationBuilder(new ResourceFieldNameTransformer())
+            .build(Project.class);
+        ResourceField field = resourceInformation.findAttributeFieldByName("data");
+        FilterExpression filter = new PropertyExpression(Collections.singletonList(field), FilterOperator.gt,
+            Collections.<Object>singletonList(new ProjectData()));
+
+        // WHEN
+        FilterMatcher.validate(filter);
+    }
+
+    private static Map<String, Set<String>> params(String key, String value) {
+        Map<String, Set<String>> params = new LinkedHashMap<>();
+        params.put(key, Collections.singleton(value));
+        return params;
+    }
+
+    private static QueryParams queryParams(Map<String, Set<String>> params) {
+        return new QueryParamsBuilder(new DefaultQueryParamsParser()).buildQueryParams(params);
+    }
+
+    private static Task createTask(long id, String name) {
+        Task task = new Task().setId(id);
+        task.setName(name);
+        return task;
+    }
+}
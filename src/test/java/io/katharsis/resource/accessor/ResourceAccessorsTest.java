@@ -0,0 +1,69 @@
+package io.katharsis.resource.accessor;
+
+import io.katharsis.resource.mock.models.Pojo;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.ProjectData;
+import io.katharsis.resource.mock.models.Task;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceAccessorsTest {
+
+    @Test
+    public void onResourceClassShouldUseGeneratedAccessor() {
+        // GIVEN
+        Task task = new Task();
+        task.setName("some task");
+
+        // WHEN
+        ResourceAccessor sut = ResourceAccessors.forClass(Task.class);
+        sut.setProperty(task, "id", 1L);
+
+        // THEN
+        assertThat(sut.getClass().getName()).isEqualTo("io.katharsis.resource.mock.models.Task_JsonApiAccessor");
+        assertThat(sut.isPlain()).isTrue();
+        assertThat(task.getId()).isEqualTo(1L);
+        assertThat(sut.getProperty(task, "name")).isEqualTo("some task");
+    }
+
+    @Test
+    public void onCollectionPropertyShouldConvertValueUsingPropertyUtils() {
+        // GIVEN
+        Task task = new Task();
+        ResourceAccessor sut = ResourceAccessors.forClass(Task.class);
+
+        // WHEN
+        sut.setProperty(task, "projects", Collections.singleton(new Project()));
+
+        // THEN
+        assertThat(sut.getProperty(task, "projects")).isInstanceOf(List.class);
+        assertThat(task.getProjects()).hasSize(1);
+    }
+
+    @Test
+    public void onClassWithJacksonAnnotationsShouldNotBePlain() {
+        // WHEN
+        ResourceAccessor sut = ResourceAccessors.forClass(Pojo.class);
+
+        // THEN
+        assertThat(sut.isPlain()).isFalse();
+    }
+
+    @Test
+    public void onClassWithoutGeneratedAccessorShouldUseReflection() {
+        // GIVEN
+        ProjectData projectData = new ProjectData();
+
+        // WHEN
+        ResourceAccessor sut = ResourceAccessors.forClass(ProjectData.class);
+        sut.setProperty(projectData, "data", "some data");
+
+        // THEN
+        assertThat(sut).isSameAs(ReflectiveResourceAccessor.INSTANCE);
+        assertThat(sut.getProperty(projectData, "data")).isEqualTo("some data");
+    }
+}
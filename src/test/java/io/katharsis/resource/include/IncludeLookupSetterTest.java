@@ -1,5 +1,6 @@
 package io.katharsis.resource.include;
 
+import io.katharsis.queryParams.cost.QueryCostExceededException;
 import io.katharsis.resource.registry.ResourceRegistry;
 import io.katharsis.utils.ClassUtils;
 import org.junit.Before;
@@ -9,10 +10,13 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.lang.reflect.Field;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 @RunWith(MockitoJUnitRunner.class)
 public class IncludeLookupSetterTest {
@@ -58,6 +62,44 @@ public class IncludeLookupSetterTest {
     }
 
 
+    @Test
+    public void onLazyIterableOverLimitShouldStopReadingIt() throws Exception {
+        // GIVEN
+        IncludeLookupSetter.LookupCounter sut = new IncludeLookupSetter.LookupCounter(2);
+        final AtomicInteger readElements = new AtomicInteger();
+        Iterable<Object> lazyRelationship = new Iterable<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new Iterator<Object>() {
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public Object next() {
+                        readElements.incrementAndGet();
+                        return new Object();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        // WHEN
+        try {
+            sut.addIncluded(lazyRelationship);
+            fail("Expected QueryCostExceededException");
+        } catch (QueryCostExceededException e) {
+            // THEN
+            assertThat(readElements.get()).isEqualTo(3);
+        }
+    }
+
     static class TestClass {
         private String simpleString;
         private List<Locale> localeCollection;
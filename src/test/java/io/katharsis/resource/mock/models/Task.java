@@ -14,11 +14,14 @@ public class Task {
 
     private String name;
 
+    @JsonApiLazyAttribute
+    private String description;
+
     @JsonApiToOne
     @JsonApiIncludeByDefault
     private Project project;
 
-    @JsonApiToMany(lazy = false)
+    @JsonApiToMany(lazy = false, cardinality = 3)
     private List<Project> projects;
 
     @JsonApiToOne
@@ -63,6 +66,14 @@ public class Task {
         this.name = name;
     }
 
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
     public Project getProject() {
         return project;
     }
@@ -65,10 +65,10 @@ public class RegistryEntryTest {
     public void onValidParentShouldReturnTrue() throws Exception {
         // GIVEN
         RegistryEntry<Thing> thing = new RegistryEntry<>(new ResourceInformation(Thing.class, null, null, null), null);
-        RegistryEntry<Document> document = new RegistryEntry<>(new ResourceInformation(Document.class, null, null, null), null);
-        document.setParentRegistryEntry(thing);
-        RegistryEntry<Memorandum> memorandum = new RegistryEntry<>(new ResourceInformation(Memorandum.class, null, null, null), null);
-        memorandum.setParentRegistryEntry(document);
+        RegistryEntry<Document> document = new RegistryEntry<>(new ResourceInformation(Document.class, null, null, null),
+            null, null, thing);
+        RegistryEntry<Memorandum> memorandum = new RegistryEntry<>(new ResourceInformation(Memorandum.class, null, null, null),
+            null, null, document);
 
         // WHEN
         boolean result = memorandum.isParent(thing);
@@ -0,0 +1,107 @@
+package io.katharsis.resource.registry;
+
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.repository.exception.RelationshipRepositoryNotFoundException;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.Pojo;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RelationshipDescriptorTest {
+
+    private ResourceRegistry resourceRegistry;
+    private ResourceInformation taskInformation;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        resourceRegistry = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL);
+        taskInformation = resourceRegistry.getEntry(Task.class).getResourceInformation();
+    }
+
+    @Test
+    public void onToOneRelationshipShouldCompileDescriptor() {
+        // WHEN
+        RelationshipDescriptor sut = resourceRegistry.findRelationshipDescriptorByName(taskInformation, "project");
+
+        // THEN
+        assertThat(sut.getTargetClass()).isEqualTo(Project.class);
+        assertThat(sut.isCollection()).isFalse();
+        assertThat(sut.getTargetEntry()).isSameAs(resourceRegistry.getEntry(Project.class));
+        assertThat(sut.hasRelationshipRepository()).isTrue();
+        assertThat(sut.getRelationshipRepository(null)).isNotNull();
+    }
+
+    @Test
+    public void onToManyRelationshipShouldCompileDescriptor() {
+        // WHEN
+        RelationshipDescriptor sut = resourceRegistry.findRelationshipDescriptorByName(taskInformation, "projects");
+
+        // THEN
+        assertThat(sut.getTargetClass()).isEqualTo(Project.class);
+        assertThat(sut.isCollection()).isTrue();
+        assertThat(sut.getTargetEntry()).isSameAs(resourceRegistry.getEntry(Project.class));
+    }
+
+    @Test
+    public void onRelationshipShouldBuildLinks() {
+        // WHEN
+        RelationshipDescriptor sut = resourceRegistry.findRelationshipDescriptorByName(taskInformation, "project");
+
+        // THEN
+        assertThat(sut.getSelfLink(1L)).isEqualTo("https://service.local/tasks/1/relationships/project");
+        assertThat(sut.getRelatedLink(1L)).isEqualTo("https://service.local/tasks/1/project");
+    }
+
+    @Test(expected = RelationshipRepositoryNotFoundException.class)
+    public void onRelationshipWithoutRepositoryShouldThrowException() {
+        // GIVEN
+        RelationshipDescriptor sut = resourceRegistry.findRelationshipDescriptorByName(
+            resourceRegistry.getEntry(Pojo.class).getResourceInformation(), "some-project");
+
+        // WHEN
+        sut.getRelationshipRepository(null);
+    }
+
+    @Test
+    public void onResourceInformationSharedByRegistriesShouldKeepDescriptorsOfEachRegistry() {
+        // GIVEN
+        ResourceRegistry otherRegistry = new ResourceRegistry("https://other.local");
+        for (Map.Entry<Class, RegistryEntry> entry : resourceRegistry.getResources().entrySet()) {
+            otherRegistry.addEntry(entry.getKey(), entry.getValue());
+        }
+
+        // WHEN
+        RelationshipDescriptor sut = otherRegistry.findRelationshipDescriptorByName(taskInformation, "project");
+
+        // THEN
+        assertThat(sut.getSelfLink(1L)).isEqualTo("https://other.local/tasks/1/relationships/project");
+        assertThat(resourceRegistry.findRelationshipDescriptorByName(taskInformation, "project").getSelfLink(1L))
+            .isEqualTo("https://service.local/tasks/1/relationships/project");
+    }
+
+    @Test
+    public void onResourceAddedAfterLookupShouldResolveRelationshipsToIt() {
+        // GIVEN
+        ResourceRegistry sut = new ResourceRegistry(ResourceRegistryTest.TEST_MODELS_URL);
+        sut.addEntry(Task.class, resourceRegistry.getEntry(Task.class));
+        assertThat(sut.findRelationshipDescriptorByName(taskInformation, "project").hasTargetEntry()).isFalse();
+
+        // WHEN
+        sut.addEntry(Project.class, resourceRegistry.getEntry(Project.class));
+
+        // THEN
+        assertThat(sut.findRelationshipDescriptorByName(taskInformation, "project").getTargetEntry())
+            .isSameAs(resourceRegistry.getEntry(Project.class));
+    }
+}
@@ -0,0 +1,181 @@
+package io.katharsis.resource.registry;
+
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.repository.annotated.AnnotatedRelationshipRepositoryAdapter;
+import io.katharsis.repository.annotated.AnnotatedRepositoryAdapter;
+import io.katharsis.repository.annotated.AnnotatedResourceRepositoryAdapter;
+import io.katharsis.resource.field.ResourceAttributesBridge;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformation;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress tests in the style of jcstress: in each round one actor publishes a registry through a plain field and the
+ * other one reads it, the forbidden outcome is observing a registry in a partially built state.
+ */
+public class ResourceRegistryConcurrencyTest {
+
+    private static final int ROUNDS = 2000;
+
+    private Map<Class, RegistryEntry> entries;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        entries = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL)
+            .getResources();
+    }
+
+    @Test
+    public void onRacyPublicationShouldNeverObservePartialRegistry() throws Exception {
+        // GIVEN
+        final RacyHolder holder = new RacyHolder();
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final AtomicInteger forbiddenOutcomes = new AtomicInteger();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        barrier.await();
+                        ResourceRegistry registry = holder.registry;
+                        for (int spin = 0; registry == null && spin < 10000; spin++) {
+                            Thread.yield();
+                            registry = holder.registry;
+                        }
+                        if (registry != null && !isComplete(registry)) {
+                            forbiddenOutcomes.incrementAndGet();
+                        }
+                        barrier.await();
+                    }
+                } catch (Exception e) {
+                    forbiddenOutcomes.incrementAndGet();
+                }
+            }
+        };
+        reader.start();
+
+        // WHEN
+        for (int round = 0; round < ROUNDS; round++) {
+            holder.registry = null;
+            barrier.await();
+            ResourceRegistry registry = new ResourceRegistry(ResourceRegistryTest.TEST_MODELS_URL);
+            for (Map.Entry<Class, RegistryEntry> entry : entries.entrySet()) {
+                registry.addEntry(entry.getKey(), entry.getValue());
+            }
+            holder.registry = registry;
+            barrier.await();
+        }
+        reader.join();
+
+        // THEN
+        assertThat(forbiddenOutcomes.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void onConcurrentLookupsShouldReturnSameEntries() throws Exception {
+        // GIVEN
+        final ResourceRegistry registry = new ResourceRegistry(ResourceRegistryTest.TEST_MODELS_URL);
+        for (Map.Entry<Class, RegistryEntry> entry : entries.entrySet()) {
+            registry.addEntry(entry.getKey(), entry.getValue());
+        }
+        final RegistryEntry expected = registry.getEntry(Task.class);
+        final AtomicInteger forbiddenOutcomes = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        if (registry.getEntry("tasks") != expected || !isComplete(registry)) {
+                            forbiddenOutcomes.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+
+        // WHEN
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // THEN
+        assertThat(forbiddenOutcomes.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void onSharedMetadataShouldHaveOnlyFinalOrVolatileFields() {
+        // GIVEN
+        Class<?>[] metadataClasses = {ResourceRegistry.class, RegistryEntry.class, RelationshipDescriptor.class,
+            ResourceInformation.class, ResourceField.class, ResourceAttributesBridge.class,
+            AnnotatedRepositoryAdapter.class, AnnotatedResourceRepositoryAdapter.class,
+            AnnotatedRelationshipRepositoryAdapter.class};
+        List<String> mutableFields = new ArrayList<>();
+
+        // WHEN
+        for (Class<?> metadataClass : metadataClasses) {
+            for (Field field : metadataClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!field.isSynthetic() && !Modifier.isFinal(modifiers) && !Modifier.isVolatile(modifiers)) {
+                    mutableFields.add(metadataClass.getSimpleName() + "." + field.getName());
+                }
+            }
+        }
+
+        // THEN
+        assertThat(mutableFields).isEmpty();
+    }
+
+    @Test
+    public void onImmutableMetadataShouldHaveOnlyFinalFields() {
+        // GIVEN
+        Class<?>[] immutableClasses = {RegistryEntry.class, RelationshipDescriptor.class, ResourceInformation.class};
+        List<String> mutableFields = new ArrayList<>();
+
+        // WHEN
+        for (Class<?> immutableClass : immutableClasses) {
+            for (Field field : immutableClass.getDeclaredFields()) {
+                if (!field.isSynthetic() && !Modifier.isFinal(field.getModifiers())) {
+                    mutableFields.add(immutableClass.getSimpleName() + "." + field.getName());
+                }
+            }
+        }
+
+        // THEN
+        assertThat(mutableFields).isEmpty();
+    }
+
+    private boolean isComplete(ResourceRegistry registry) {
+        RegistryEntry taskEntry = registry.getEntry("tasks");
+        if (taskEntry == null || registry.getResources().size() != entries.size()) {
+            return false;
+        }
+        ResourceInformation resourceInformation = taskEntry.getResourceInformation();
+        RelationshipDescriptor descriptor = registry.findRelationshipDescriptorByName(resourceInformation, "project");
+        return descriptor != null && descriptor.hasTargetEntry() && registry.getEntry(Task.class) == taskEntry;
+    }
+
+    private static final class RacyHolder {
+        private ResourceRegistry registry;
+    }
+}
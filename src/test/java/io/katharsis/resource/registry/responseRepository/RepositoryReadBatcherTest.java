@@ -0,0 +1,223 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.errorhandling.exception.InternalException;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.resource.mock.models.Project;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryReadBatcherTest {
+
+    @Test
+    public void onConcurrentReadsShouldReadBatchOnce() throws Exception {
+        // GIVEN
+        final RepositoryReadBatcher sut = new RepositoryReadBatcher(10000000, 3, 10000, "id");
+        final RecordingBatchRead read = new RecordingBatchRead();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busyRead = startBusyRead(sut, release);
+        final Map<Long, Object> results = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            final long projectId = id;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    Object result = sut.read(projectId, new QueryParams(), read);
+                    results.put(projectId, result == null ? "none" : result);
+                }
+            });
+        }
+
+        // WHEN
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        release.countDown();
+        busyRead.join();
+
+        // THEN
+        assertThat(read.batches).hasSize(1);
+        assertThat(read.batches.get(0)).containsOnly(1L, 2L, 3L);
+        assertThat(((Project) results.get(1L)).getId()).isEqualTo(1L);
+        assertThat(((Project) results.get(2L)).getId()).isEqualTo(2L);
+        assertThat(results.get(3L)).isEqualTo("none");
+        assertThat(sut.getOpenBatches()).isEqualTo(0);
+    }
+
+    @Test(timeout = 5000)
+    public void onSingleReadShouldNotWaitForWindow() {
+        // GIVEN
+        RepositoryReadBatcher sut = new RepositoryReadBatcher(10000000, 10, 10000, "id");
+        RecordingBatchRead read = new RecordingBatchRead();
+
+        // WHEN
+        Object result = sut.read(1L, new QueryParams(), read);
+
+        // THEN
+        assertThat(((Project) result).getId()).isEqualTo(1L);
+        assertThat(read.batches).containsExactly(Collections.<Object>singletonList(1L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void onFailedReadShouldRethrowException() {
+        // GIVEN
+        RepositoryReadBatcher sut = new RepositoryReadBatcher(1000, 10, 10000, "id");
+
+        // WHEN
+        sut.read(1L, new QueryParams(), new RepositoryReadBatcher.BatchRead() {
+            @Override
+            public Object findAll(List<Object> ids) {
+                throw new IllegalStateException();
+            }
+        });
+    }
+
+    @Test(timeout = 5000)
+    public void onErrorInBatchReadShouldReleaseOtherCallers() throws Exception {
+        // GIVEN
+        final RepositoryReadBatcher sut = new RepositoryReadBatcher(10000000, 2, 10000, "id");
+        final List<Class<?>> failures = Collections.synchronizedList(new ArrayList<Class<?>>());
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busyRead = startBusyRead(sut, release);
+        List<Thread> threads = new ArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            final long projectId = id;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        sut.read(projectId, new QueryParams(), new RepositoryReadBatcher.BatchRead() {
+                            @Override
+                            public Object findAll(List<Object> ids) {
+                                throw new Error();
+                            }
+                        });
+                    } catch (Throwable e) {
+                        failures.add(e.getClass());
+                    }
+                }
+            });
+        }
+
+        // WHEN
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        release.countDown();
+        busyRead.join();
+
+        // THEN
+        assertThat(failures).containsOnly(Error.class, InternalException.class);
+        assertThat(failures).hasSize(2);
+    }
+
+    @Test(timeout = 5000)
+    public void onSlowBatchReadShouldReadOnOwnAfterTimeout() throws Exception {
+        // GIVEN
+        final RepositoryReadBatcher sut = new RepositoryReadBatcher(10000000, 2, 10, "id");
+        final CountDownLatch slowBatch = new CountDownLatch(1);
+        final RecordingBatchRead read = new RecordingBatchRead() {
+            @Override
+            public Object findAll(List<Object> ids) {
+                if (ids.size() > 1) {
+                    try {
+                        slowBatch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.findAll(ids);
+            }
+        };
+        final Map<Long, Object> results = new ConcurrentHashMap<>();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busyRead = startBusyRead(sut, release);
+        List<Thread> threads = new ArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            final long projectId = id;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    results.put(projectId, sut.read(projectId, new QueryParams(), read));
+                }
+            });
+        }
+
+        // WHEN
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        while (results.isEmpty()) {
+            Thread.sleep(1);
+        }
+        slowBatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        release.countDown();
+        busyRead.join();
+
+        // THEN
+        assertThat(read.batches).hasSize(2);
+        assertThat(((Project) results.get(1L)).getId()).isEqualTo(1L);
+        assertThat(((Project) results.get(2L)).getId()).isEqualTo(2L);
+    }
+
+    /**
+     * Keeps a read of other parameters in progress, so the batches of a test wait for their window.
+     */
+    private static Thread startBusyRead(final RepositoryReadBatcher sut, final CountDownLatch release)
+        throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                sut.read(0L, null, new RepositoryReadBatcher.BatchRead() {
+                    @Override
+                    public Object findAll(List<Object> ids) {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Collections.emptyList();
+                    }
+                });
+            }
+        };
+        thread.start();
+        started.await();
+        return thread;
+    }
+
+    private static class RecordingBatchRead implements RepositoryReadBatcher.BatchRead {
+        private final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<List<Object>>());
+
+        @Override
+        public Object findAll(List<Object> ids) {
+            batches.add(ids);
+            List<Project> projects = new ArrayList<>();
+            for (Object id : ids) {
+                if (!Long.valueOf(3L).equals(id)) {
+                    projects.add(new Project().setId((Long) id));
+                }
+            }
+            return projects;
+        }
+    }
+}
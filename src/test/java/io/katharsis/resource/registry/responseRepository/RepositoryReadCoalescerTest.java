@@ -0,0 +1,128 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryReadCoalescerTest {
+
+    @Test
+    public void onConcurrentIdenticalReadsShouldCallRepositoryOnce() throws Exception {
+        // GIVEN
+        final RepositoryReadCoalescer sut = new RepositoryReadCoalescer(10000);
+        final BlockingRead read = new BlockingRead();
+        final List<Object> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    Object result = sut.read("key", read);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+        }
+
+        // WHEN
+        threads.get(0).start();
+        read.started.await();
+        for (Thread thread : threads.subList(1, threads.size())) {
+            thread.start();
+            awaitWaiting(thread);
+        }
+        read.release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // THEN
+        assertThat(read.calls.get()).isEqualTo(1);
+        assertThat(results).containsExactly(1, 1, 1, 1);
+        assertThat(sut.getReadsInProgress()).isEqualTo(0);
+    }
+
+    @Test
+    public void onSlowReadShouldReadOnItsOwnAfterTimeout() throws Exception {
+        // GIVEN
+        final RepositoryReadCoalescer sut = new RepositoryReadCoalescer(50);
+        final BlockingRead read = new BlockingRead();
+        Thread slowCaller = new Thread() {
+            @Override
+            public void run() {
+                sut.read("key", read);
+            }
+        };
+        slowCaller.start();
+        read.started.await();
+
+        // WHEN
+        Object result = sut.read("key", new Callable<Object>() {
+            @Override
+            public Object call() {
+                return "own";
+            }
+        });
+
+        // THEN
+        read.release.countDown();
+        slowCaller.join();
+        assertThat(result).isEqualTo("own");
+    }
+
+    @Test
+    public void onSequentialReadsShouldNotReuseResults() {
+        // GIVEN
+        RepositoryReadCoalescer sut = new RepositoryReadCoalescer(10000);
+        BlockingRead read = new BlockingRead();
+        read.release.countDown();
+
+        // WHEN
+        sut.read("key", read);
+        Object result = sut.read("key", read);
+
+        // THEN
+        assertThat(result).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void onFailedReadShouldRethrowException() {
+        // GIVEN
+        RepositoryReadCoalescer sut = new RepositoryReadCoalescer(10000);
+
+        // WHEN
+        sut.read("key", new Callable<Object>() {
+            @Override
+            public Object call() {
+                throw new IllegalStateException();
+            }
+        });
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static class BlockingRead implements Callable<Object> {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Object call() throws Exception {
+            int call = calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return call;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.locator.SampleJsonServiceLocator;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.repository.RelationshipRepository;
+import io.katharsis.repository.ResourceRepository;
+import io.katharsis.resource.field.ResourceFieldNameTransformer;
+import io.katharsis.resource.information.ResourceInformationBuilder;
+import io.katharsis.resource.mock.models.FancyProject;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.resource.mock.models.Task;
+import io.katharsis.resource.registry.ResourceRegistry;
+import io.katharsis.resource.registry.ResourceRegistryBuilder;
+import io.katharsis.resource.registry.ResourceRegistryBuilderTest;
+import io.katharsis.resource.registry.ResourceRegistryTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceIdentityMapTest {
+
+    private CountingProjectRepository repository;
+    private ResourceRepositoryAdapter<Project, Long> sut;
+
+    @Before
+    public void prepare() {
+        ResourceRegistryBuilder registryBuilder = new ResourceRegistryBuilder(new SampleJsonServiceLocator(),
+            new ResourceInformationBuilder(new ResourceFieldNameTransformer()));
+        ResourceRegistry resourceRegistry = registryBuilder
+            .build(ResourceRegistryBuilderTest.TEST_MODELS_PACKAGE, ResourceRegistryTest.TEST_MODELS_URL);
+        ResourceIdentityMap.open(resourceRegistry);
+        repository = new CountingProjectRepository();
+        sut = new ResourceRepositoryAdapter<>(repository, "projects");
+    }
+
+    @After
+    public void tearDown() {
+        ResourceIdentityMap.close();
+    }
+
+    @Test
+    public void onRepeatedFindOneShouldCallRepositoryOnce() {
+        // GIVEN
+        Object first = sut.findOne(1L, new QueryParams()).getEntity();
+
+        // WHEN
+        Object result = sut.findOne(1L, new QueryParams()).getEntity();
+
+        // THEN
+        assertThat(result).isSameAs(first);
+        assertThat(repository.calls).isEqualTo(1);
+    }
+
+    @Test
+    public void onFindAllWithKnownIdsShouldNotCallRepository() {
+        // GIVEN
+        sut.findAll(new QueryParams());
+
+        // WHEN
+        Iterable<?> result = (Iterable<?>) sut.findAll(Arrays.asList(1L, 2L), new QueryParams()).getEntity();
+
+        // THEN
+        assertThat(result).hasSize(2);
+        assertThat(repository.calls).isEqualTo(1);
+    }
+
+    @Test
+    public void onRelationshipTargetShouldReturnKnownInstance() {
+        // GIVEN
+        Object primary = sut.findOne(1L, new QueryParams()).getEntity();
+        RelationshipRepositoryAdapter<Task, Long, Project, Long> relationshipAdapter =
+            new RelationshipRepositoryAdapter<>(new TaskToProjectRepository(), "tasks");
+
+        // WHEN
+        Object result = relationshipAdapter.findOneTarget(1L, "project", new QueryParams()).getEntity();
+
+        // THEN
+        assertThat(result).isSameAs(primary);
+    }
+
+    @Test
+    public void onResourceReadWithSparseFieldsetShouldCallRepositoryForAllFields() {
+        // GIVEN
+        Object sparse = sut.findOne(1L, queryParams("fields[projects]", "name")).getEntity();
+
+        // WHEN
+        Object result = sut.findOne(1L, new QueryParams()).getEntity();
+
+        // THEN
+        assertThat(result).isNotSameAs(sparse);
+        assertThat(repository.calls).isEqualTo(2);
+    }
+
+    @Test
+    public void onResourceReadWithAllFieldsShouldReturnItForSparseFieldset() {
+        // GIVEN
+        Object first = sut.findOne(1L, new QueryParams()).getEntity();
+
+        // WHEN
+        Object result = sut.findOne(1L, queryParams("fields[projects]", "name")).getEntity();
+
+        // THEN
+        assertThat(result).isSameAs(first);
+        assertThat(repository.calls).isEqualTo(1);
+    }
+
+    @Test
+    public void onSubclassResourceShouldReturnItForParentType() {
+        // GIVEN
+        repository.subclass = true;
+        Object first = sut.findOne(1L, new QueryParams()).getEntity();
+
+        // WHEN
+        Object result = sut.findOne(1L, new QueryParams()).getEntity();
+
+        // THEN
+        assertThat(first).isInstanceOf(FancyProject.class);
+        assertThat(result).isSameAs(first);
+        assertThat(repository.calls).isEqualTo(1);
+    }
+
+    @Test
+    public void onDeletedResourceShouldCallRepositoryAgain() {
+        // GIVEN
+        sut.findOne(1L, new QueryParams());
+        sut.delete(1L, new QueryParams());
+
+        // WHEN
+        sut.findOne(1L, new QueryParams());
+
+        // THEN
+        assertThat(repository.calls).isEqualTo(2);
+    }
+
+    @Test
+    public void onClosedMapShouldCallRepositoryEachTime() {
+        // GIVEN
+        ResourceIdentityMap.close();
+
+        // WHEN
+        sut.findOne(1L, new QueryParams());
+        sut.findOne(1L, new QueryParams());
+
+        // THEN
+        assertThat(repository.calls).isEqualTo(2);
+    }
+
+    private static QueryParams queryParams(String name, String value) {
+        return new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap(name, Collections.singleton(value)));
+    }
+
+    private static class CountingProjectRepository implements ResourceRepository<Project, Long> {
+
+        private int calls;
+        private boolean subclass;
+
+        @Override
+        public Project findOne(Long id, QueryParams queryParams) {
+            calls++;
+            return subclass ? new FancyProject().setId(id) : new Project().setId(id);
+        }
+
+        @Override
+        public Iterable<Project> findAll(QueryParams queryParams) {
+            calls++;
+            return Arrays.asList(new Project().setId(1L), new Project().setId(2L));
+        }
+
+        @Override
+        public Iterable<Project> findAll(Iterable<Long> ids, QueryParams queryParams) {
+            return findAll(queryParams);
+        }
+
+        @Override
+        public <S extends Project> S save(S entity) {
+            return entity;
+        }
+
+        @Override
+        public void delete(Long id) {
+        }
+    }
+
+    private static class TaskToProjectRepository implements RelationshipRepository<Task, Long, Project, Long> {
+
+        @Override
+        public void setRelation(Task source, Long targetId, String fieldName) {
+        }
+
+        @Override
+        public void setRelations(Task source, Iterable<Long> targetIds, String fieldName) {
+        }
+
+        @Override
+        public void addRelations(Task source, Iterable<Long> targetIds, String fieldName) {
+        }
+
+        @Override
+        public void removeRelations(Task source, Iterable<Long> targetIds, String fieldName) {
+        }
+
+        @Override
+        public Project findOneTarget(Long sourceId, String fieldName, QueryParams queryParams) {
+            return new Project().setId(1L);
+        }
+
+        @Override
+        public Iterable<Project> findManyTargets(Long sourceId, String fieldName, QueryParams queryParams) {
+            return Collections.singletonList(new Project().setId(1L));
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package io.katharsis.resource.registry.responseRepository;
+
+import io.katharsis.jackson.exception.ParametersDeserializationException;
+import io.katharsis.queryParams.DefaultQueryParamsParser;
+import io.katharsis.queryParams.QueryParams;
+import io.katharsis.queryParams.QueryParamsBuilder;
+import io.katharsis.queryParams.group.Aggregate;
+import io.katharsis.queryParams.group.GroupingMetaInformation;
+import io.katharsis.queryParams.group.GroupingSpec;
+import io.katharsis.repository.ChangeFeedRepository;
+import io.katharsis.repository.ChangeSet;
+import io.katharsis.repository.ConcurrentMetaRepository;
+import io.katharsis.repository.MetaRepository;
+import io.katharsis.repository.ParametersFactory;
+import io.katharsis.repository.ResourceRepository;
+import io.katharsis.repository.annotated.AnnotatedResourceRepositoryAdapter;
+import io.katharsis.repository.annotations.JsonApiResourceRepository;
+import io.katharsis.repository.inmemory.InMemoryResourceRepository;
+import io.katharsis.repository.mock.NewInstanceRepositoryMethodParameterProvider;
+import io.katharsis.resource.field.ResourceField;
+import io.katharsis.resource.mock.models.Project;
+import io.katharsis.response.JsonApiResponse;
+import io.katharsis.response.MetaInformation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceRepositoryAdapterTest {
+
+    private CountingMetaRepository repository;
+    private ResourceRepositoryAdapter<Project, Long> sut;
+    private ExecutorService executor;
+
+    @Before
+    public void prepare() {
+        repository = new CountingMetaRepository();
+        sut = new ResourceRepositoryAdapter<>(repository);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void onFindOneShouldNotComputeMetaInformation() {
+        // WHEN
+        JsonApiResponse result = sut.findOne(1L, new QueryParams());
+
+        // THEN
+        assertThat(result.getEntity()).isNotNull();
+        assertThat(repository.metaCalls).isEqualTo(0);
+    }
+
+    @Test
+    public void onMetaInformationAccessShouldComputeItOnce() {
+        // GIVEN
+        JsonApiResponse response = sut.findAll(new QueryParams());
+
+        // WHEN
+        response.getMetaInformation();
+        MetaInformation result = response.getMetaInformation();
+
+        // THEN
+        assertThat(result).isNotNull();
+        assertThat(repository.metaCalls).isEqualTo(1);
+    }
+
+    @Test
+    public void onExplicitMetaInformationShouldNotComputeIt() {
+        // GIVEN
+        JsonApiResponse response = sut.findAll(new QueryParams());
+
+        // WHEN
+        response.setMetaInformation(null);
+
+        // THEN
+        assertThat(response.getMetaInformation()).isNull();
+        assertThat(repository.metaCalls).isEqualTo(0);
+    }
+
+    @Test
+    public void onConcurrentMetaRepositoryShouldComputeMetaDuringFindAll() {
+        // GIVEN
+        ConcurrentCountRepository concurrentRepository = new ConcurrentCountRepository(executor, 5000);
+        ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(concurrentRepository);
+
+        // WHEN
+        JsonApiResponse response = sut.findAll(new QueryParams());
+
+        // THEN
+        assertThat(concurrentRepository.metaStartedDuringFindAll).isTrue();
+        assertThat(response.getMetaInformation()).isNotNull();
+        assertThat(((CountingMetaRepository) concurrentRepository).metaCalls).isEqualTo(0);
+    }
+
+    @Test
+    public void onConcurrentMetaTimeoutShouldOmitMeta() {
+        // GIVEN
+        ConcurrentCountRepository concurrentRepository = new ConcurrentCountRepository(executor, 50);
+        concurrentRepository.release.countDown();
+        concurrentRepository.blockMeta = true;
+        ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(concurrentRepository);
+
+        // WHEN
+        JsonApiResponse response = sut.findAll(new QueryParams());
+
+        // THEN
+        assertThat(response.getMetaInformation()).isNull();
+    }
+
+    @Test
+    public void onReleasedResponseShouldCancelConcurrentMeta() throws Exception {
+        // GIVEN
+        ConcurrentCountRepository concurrentRepository = new ConcurrentCountRepository(executor, 5000);
+        concurrentRepository.blockMeta = true;
+        ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(concurrentRepository);
+        JsonApiResponse response = sut.findAll(new QueryParams());
+
+        // WHEN
+        response.release();
+
+        // THEN
+        assertThat(concurrentRepository.metaInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void onErrorInFindAllShouldCancelConcurrentMeta() throws Exception {
+        // GIVEN
+        ConcurrentCountRepository concurrentRepository = new ConcurrentCountRepository(executor, 5000);
+        concurrentRepository.blockMeta = true;
+        concurrentRepository.findAllError = new AssertionError("findAll failed");
+        ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(concurrentRepository);
+
+        // WHEN
+        Error result = null;
+        try {
+            sut.findAll(new QueryParams());
+        } catch (AssertionError e) {
+            result = e;
+        }
+
+        // THEN
+        assertThat(result).isSameAs(concurrentRepository.findAllError);
+        assertThat(concurrentRepository.metaInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void onGroupsOfRepositoryWithoutGroupingShouldAggregateAllPages() {
+        // GIVEN
+        QueryParams queryParams = new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap("page[limit]", Collections.singleton("1")));
+        GroupingSpec groupingSpec = new GroupingSpec(Collections.<ResourceField>emptyList(),
+            Collections.<Aggregate>emptyList());
+
+        // WHEN
+        JsonApiResponse result = sut.findGroups(groupingSpec, queryParams);
+
+        // THEN
+        assertThat(repository.findAllQueryParams.getPagination()).isEmpty();
+        assertThat(result.getMetaInformation()).isExactlyInstanceOf(GroupingMetaInformation.class);
+    }
+
+    @Test(expected = ParametersDeserializationException.class)
+    public void onSyncWithoutChangeFeedRepositoryShouldThrowException() {
+        // WHEN
+        sut.findChanges(new QueryParams());
+    }
+
+    @Test
+    public void onCopyOnUpdateRepositoryShouldFindCopyForUpdate() {
+        // GIVEN
+        InMemoryResourceRepository<Project, Long> inMemoryRepository = new InMemoryResourceRepository<>(Project.class);
+        Project project = new Project().setId(1L);
+        project.setName("sample project");
+        inMemoryRepository.save(project);
+        ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(inMemoryRepository);
+
+        // WHEN
+        Project result = (Project) sut.findOneForUpdate(1L, new QueryParams()).getEntity();
+
+        // THEN
+        assertThat(result).isNotSameAs(inMemoryRepository.findOne(1L, null));
+        assertThat(result.getName()).isEqualTo("sample project");
+    }
+
+    @Test
+    public void onAnnotatedChangeFeedRepositoryShouldFindChanges() {
+        // GIVEN
+        ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(
+            new AnnotatedResourceRepositoryAdapter<>(new AnnotatedChangeFeedRepository(),
+                new ParametersFactory(new NewInstanceRepositoryMethodParameterProvider())));
+        QueryParams queryParams = new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap("sync", Collections.singleton("")));
+
+        // WHEN
+        JsonApiResponse result = sut.findChanges(queryParams);
+
+        // THEN
+        assertThat((Iterable<?>) result.getEntity()).extracting("id").containsExactly(1L);
+    }
+
+    @Test
+    public void onFindOneForUpdateShouldNotShareInFlightRead() throws Exception {
+        // GIVEN
+        final BlockingFindOneRepository blockingRepository = new BlockingFindOneRepository();
+        final ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(blockingRepository,
+            "projects", new RepositoryReadCoalescer(10000));
+        final Object[] sharedResult = new Object[1];
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                sharedResult[0] = sut.findOne(1L, new QueryParams()).getEntity();
+            }
+        };
+        reader.start();
+        blockingRepository.started.await();
+
+        // WHEN
+        Object result = sut.findOneForUpdate(1L, new QueryParams()).getEntity();
+
+        // THEN
+        blockingRepository.release.countDown();
+        reader.join();
+        assertThat(blockingRepository.findOneCalls.get()).isEqualTo(2);
+        assertThat(result).isNotSameAs(sharedResult[0]);
+    }
+
+    @Test
+    public void onFindOneWithInclusionsShouldNotShareInFlightRead() throws Exception {
+        // GIVEN
+        final BlockingFindOneRepository blockingRepository = new BlockingFindOneRepository();
+        final ResourceRepositoryAdapter<Project, Long> sut = new ResourceRepositoryAdapter<>(blockingRepository,
+            "projects", new RepositoryReadCoalescer(10000));
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                sut.findOne(1L, new QueryParams());
+            }
+        };
+        reader.start();
+        blockingRepository.started.await();
+        QueryParams queryParams = new QueryParamsBuilder(new DefaultQueryParamsParser())
+            .buildQueryParams(Collections.singletonMap("include[projects]", Collections.singleton("tasks")));
+
+        // WHEN
+        sut.findOne(1L, queryParams);
+
+        // THEN
+        blockingRepository.release.countDown();
+        reader.join();
+        assertThat(blockingRepository.findOneCalls.get()).isEqualTo(2);
+    }
+
+    private static class BlockingFindOneRepository extends CountingMetaRepository {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger findOneCalls = new AtomicInteger();
+
+        @Override
+        public Project findOne(Long id, QueryParams queryParams) {
+            if (findOneCalls.incrementAndGet() == 1) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.findOne(id, queryParams);
+        }
+    }
+
+    @JsonApiResourceRepository(Project.class)
+    public static class AnnotatedChangeFeedRepository implements ChangeFeedRepository<Project, Long> {
+
+        @Override
+        public ChangeSet<Project, Long> findChanges(String syncToken, QueryParams queryParams) {
+            return new ChangeSet<>(Collections.singletonList(new Project().setId(1L)), Collections.<Long>emptyList(),
+                "token-1");
+        }
+    }
+
+    private static class CountingMetaRepository implements ResourceRepository<Project, Long>, MetaRepository<Project> {
+
+        private int metaCalls;
+        private QueryParams findAllQueryParams;
+
+        @Override
+        public Project findOne(Long id, QueryParams queryParams) {
+            return new Project().setId(id);
+        }
+
+        @Override
+        public Iterable<Project> findAll(QueryParams queryParams) {
+            findAllQueryParams = queryParams;
+            return Collections.singletonList(new Project().setId(1L));
+        }
+
+        @Override
+        public Iterable<Project> findAll(Iterable<Long> ids, QueryParams queryParams) {
+            return findAll(queryParams);
+        }
+
+        @Override
+        public <S extends Project> S save(S entity) {
+            return entity;
+        }
+
+        @Override
+        public void delete(Long id) {
+        }
+
+        @Override
+        public MetaInformation getMetaInformation(Iterable<Project> resources, QueryParams queryParams) {
+            metaCalls++;
+            return new MetaInformation() {
+            };
+        }
+    }
+
+    private static class ConcurrentCountRepository extends CountingMetaRepository
+        implements ConcurrentMetaRepository<Project> {
+
+        private final CountDownLatch metaStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch metaInterrupted = new CountDownLatch(1);
+        private final Executor executor;
+        private final long timeout;
+        private volatile boolean blockMeta;
+        private Error findAllError;
+        private boolean metaStartedDuringFindAll;
+
+        private ConcurrentCountRepository(Executor executor, long timeout) {
+            this.executor = executor;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public Iterable<Project> findAll(QueryParams queryParams) {
+            try {
+                metaStartedDuringFindAll = metaStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+            if (findAllError != null) {
+                throw findAllError;
+            }
+            return super.findAll(queryParams);
+        }
+
+        @Override
+        public MetaInformation getMetaInformation(QueryParams queryParams) {
+            metaStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                if (blockMeta) {
+                    Thread.sleep(5000);
+                }
+            } catch (InterruptedException e) {
+                metaInterrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return new MetaInformation() {
+            };
+        }
+
+        @Override
+        public Executor getMetaExecutor() {
+            return executor;
+        }
+
+        @Override
+        public long getMetaTimeout() {
+            return timeout;
+        }
+    }
+}